@@ -26,9 +26,11 @@ import org.wso2.carbon.device.mgt.input.adapter.extension.InputAdapterExtensionS
 import org.wso2.carbon.device.mgt.input.adapter.extension.InputAdapterExtensionServiceImpl;
 import org.wso2.carbon.device.mgt.input.adapter.extension.transformer.DefaultContentTransformer;
 import org.wso2.carbon.device.mgt.input.adapter.extension.transformer.MQTTContentTransformer;
+import org.wso2.carbon.device.mgt.input.adapter.extension.transformer.MQTTSinglePassContentTransformer;
 import org.wso2.carbon.device.mgt.input.adapter.extension.validator.DefaultContentValidator;
 import org.wso2.carbon.device.mgt.input.adapter.extension.validator.HTTPContentValidator;
 import org.wso2.carbon.device.mgt.input.adapter.extension.validator.MQTTContentValidator;
+import org.wso2.carbon.device.mgt.input.adapter.extension.validator.MQTTSinglePassContentValidator;
 
 /**
  * @scr.component name="input.adapter.extension.adapterService.component" immediate="true"
@@ -58,9 +60,11 @@ public class InputAdapterServiceComponent {
 
             InputAdapterServiceDataHolder.getInstance().addContentTransformer(new DefaultContentTransformer());
             InputAdapterServiceDataHolder.getInstance().addContentTransformer(new MQTTContentTransformer());
+            InputAdapterServiceDataHolder.getInstance().addContentTransformer(new MQTTSinglePassContentTransformer());
             InputAdapterServiceDataHolder.getInstance().addContentValidator(new DefaultContentValidator());
             InputAdapterServiceDataHolder.getInstance().addContentValidator(new HTTPContentValidator());
             InputAdapterServiceDataHolder.getInstance().addContentValidator(new MQTTContentValidator());
+            InputAdapterServiceDataHolder.getInstance().addContentValidator(new MQTTSinglePassContentValidator());
 
             context.getBundleContext().registerService(InputAdapterExtensionService.class,
                                                        new InputAdapterExtensionServiceImpl(), null);
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.oauth;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the results of successful token validations, so that a client sending many requests with the same token is
+ * only validated once within the token expiry time, capped by the cache timeout. Tokens are kept as SHA-256 hashes.
+ * <p/>
+ * Concurrent validations of the same token are collapsed into a single call to the token validation service, the
+ * other callers wait for and share its result.
+ *
+ * @param <T> type of the validation result.
+ */
+public class TokenValidationCache<T> {
+
+    private static final Log log = LogFactory.getLog(TokenValidationCache.class);
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final long cacheTimeoutMillis;
+    private final Map<String, CacheEntry<T>> cache;
+    private final ConcurrentHashMap<String, FutureTask<ValidationResult<T>>> validationsInProgress =
+            new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * Validates a token against the token validation service.
+     *
+     * @param <T> type of the validation result.
+     */
+    public interface TokenValidator<T> {
+
+        /**
+         * @param token token to be validated.
+         * @return result of the validation, or null if the token could not be validated.
+         */
+        ValidationResult<T> validate(String token);
+    }
+
+    /**
+     * Result of a token validation, along with how long it can be reused.
+     *
+     * @param <T> type of the validation result.
+     */
+    public static class ValidationResult<T> {
+
+        private final T result;
+        private final long validityPeriodMillis;
+
+        /**
+         * @param result               validation result.
+         * @param validityPeriodMillis time the token remains valid, zero or less if the result should not be cached.
+         */
+        public ValidationResult(T result, long validityPeriodMillis) {
+            this.result = result;
+            this.validityPeriodMillis = validityPeriodMillis;
+        }
+
+        public T getResult() {
+            return result;
+        }
+
+        public long getValidityPeriodMillis() {
+            return validityPeriodMillis;
+        }
+    }
+
+    public TokenValidationCache(final int maxSize, long cacheTimeoutMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Token validation cache size should be positive : " + maxSize);
+        }
+        this.cacheTimeoutMillis = cacheTimeoutMillis;
+        this.cache = new LinkedHashMap<String, CacheEntry<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<T>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached validation result of the token, validating it with the given validator on a miss.
+     *
+     * @param token     token to be validated.
+     * @param validator validator used when the token is not cached.
+     * @return the validation result, or null if the token could not be validated.
+     */
+    public T get(final String token, final TokenValidator<T> validator) {
+        String tokenKey = hash(token);
+        T cachedResult = getCachedResult(tokenKey);
+        if (cachedResult != null) {
+            hitCount.incrementAndGet();
+            return cachedResult;
+        }
+        missCount.incrementAndGet();
+        FutureTask<ValidationResult<T>> validation = new FutureTask<>(new Callable<ValidationResult<T>>() {
+            @Override
+            public ValidationResult<T> call() {
+                return validator.validate(token);
+            }
+        });
+        FutureTask<ValidationResult<T>> validationInProgress = validationsInProgress.putIfAbsent(tokenKey, validation);
+        if (validationInProgress == null) {
+            try {
+                validation.run();
+                putCachedResult(tokenKey, getResult(validation));
+            } finally {
+                validationsInProgress.remove(tokenKey, validation);
+            }
+        } else {
+            coalescedCount.incrementAndGet();
+            validation = validationInProgress;
+        }
+        ValidationResult<T> validationResult = getResult(validation);
+        return validationResult == null ? null : validationResult.getResult();
+    }
+
+    private ValidationResult<T> getResult(FutureTask<ValidationResult<T>> validation) {
+        try {
+            return validation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Error occurred while validating the token.", e.getCause());
+        }
+        return null;
+    }
+
+    private T getCachedResult(String tokenKey) {
+        synchronized (cache) {
+            CacheEntry<T> cacheEntry = cache.get(tokenKey);
+            if (cacheEntry == null) {
+                return null;
+            }
+            if (cacheEntry.expiryTime < System.currentTimeMillis()) {
+                cache.remove(tokenKey);
+                return null;
+            }
+            return cacheEntry.result;
+        }
+    }
+
+    private void putCachedResult(String tokenKey, ValidationResult<T> validationResult) {
+        if (validationResult == null || validationResult.getResult() == null) {
+            return;
+        }
+        long timeout = Math.min(validationResult.getValidityPeriodMillis(), cacheTimeoutMillis);
+        if (timeout <= 0) {
+            return;
+        }
+        CacheEntry<T> cacheEntry = new CacheEntry<>(validationResult.getResult(), System.currentTimeMillis() + timeout);
+        synchronized (cache) {
+            cache.put(tokenKey, cacheEntry);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(token.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+                hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xf];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not supported by the platform", e);
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of misses which waited for a validation of the same token already in progress.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private static class CacheEntry<T> {
+
+        private final T result;
+        private final long expiryTime;
+
+        CacheEntry(T result, long expiryTime) {
+            this.result = result;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
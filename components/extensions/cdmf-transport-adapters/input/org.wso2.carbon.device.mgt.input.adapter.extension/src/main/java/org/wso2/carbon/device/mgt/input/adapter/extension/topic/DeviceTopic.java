@@ -0,0 +1,166 @@
+/*
+*  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.topic;
+
+/**
+ * Immutable, pre-parsed view of a device topic in the form
+ * <code>{tenantDomain}/{deviceType}/{deviceId}/{suffix}</code>. Instances are interned through
+ * {@link DeviceTopicCache}, so parsing a topic that has been seen before does not allocate.
+ */
+public final class DeviceTopic {
+
+    private static final char TOPIC_SEPARATOR = '/';
+    private static final int TENANT_DOMAIN_INDEX = 0;
+    private static final int DEVICE_TYPE_INDEX = 1;
+    private static final int DEVICE_ID_INDEX = 2;
+    private static final DeviceTopicCache deviceTopicCache = new DeviceTopicCache();
+
+    private final String topic;
+    private final String tenantDomain;
+    private final String deviceType;
+    private final String deviceId;
+    private final String suffix;
+    private final int segmentCount;
+
+    private DeviceTopic(String topic, String tenantDomain, String deviceType, String deviceId, String suffix,
+                        int segmentCount) {
+        this.topic = topic;
+        this.tenantDomain = tenantDomain;
+        this.deviceType = deviceType;
+        this.deviceId = deviceId;
+        this.suffix = suffix;
+        this.segmentCount = segmentCount;
+    }
+
+    /**
+     * Returns the parsed form of the given topic, from the shared cache when it has been parsed before.
+     * @param topic topic to be parsed.
+     * @return parsed topic.
+     */
+    public static DeviceTopic valueOf(String topic) {
+        return deviceTopicCache.get(topic);
+    }
+
+    /**
+     * @return the cache that holds the parsed topics.
+     */
+    public static DeviceTopicCache getCache() {
+        return deviceTopicCache;
+    }
+
+    /**
+     * Parses the topic without consulting the cache. Segments are resolved the same way as
+     * <code>topic.split("/")</code>, trailing empty segments are ignored. Like <code>split</code>, an empty topic
+     * has a single empty segment, while a topic made up of separators only has none.
+     */
+    static DeviceTopic parse(String topic) {
+        if (topic.isEmpty()) {
+            return new DeviceTopic(topic, topic, null, null, null, 1);
+        }
+        String[] segments = new String[DEVICE_ID_INDEX + 1];
+        int segmentCount = 0;
+        int start = 0;
+        String suffix = null;
+        while (segmentCount <= DEVICE_ID_INDEX) {
+            int end = topic.indexOf(TOPIC_SEPARATOR, start);
+            if (end < 0) {
+                segments[segmentCount++] = topic.substring(start);
+                break;
+            }
+            segments[segmentCount++] = topic.substring(start, end);
+            start = end + 1;
+            if (segmentCount > DEVICE_ID_INDEX) {
+                suffix = trimTrailingSeparators(topic.substring(start));
+            }
+        }
+        int totalSegmentCount = segmentCount;
+        if (suffix != null && !suffix.isEmpty()) {
+            totalSegmentCount += countSegments(suffix);
+        } else {
+            suffix = null;
+            while (totalSegmentCount > 0 && segments[totalSegmentCount - 1].isEmpty()) {
+                segments[--totalSegmentCount] = null;
+            }
+        }
+        return new DeviceTopic(topic, segments[TENANT_DOMAIN_INDEX], segments[DEVICE_TYPE_INDEX],
+                               segments[DEVICE_ID_INDEX], suffix, totalSegmentCount);
+    }
+
+    private static String trimTrailingSeparators(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == TOPIC_SEPARATOR) {
+            end--;
+        }
+        return value.substring(0, end);
+    }
+
+    private static int countSegments(String value) {
+        int count = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == TOPIC_SEPARATOR) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * @return tenant domain segment of the topic, null if the topic has no segments, e.g. <code>"/"</code>.
+     */
+    public String getTenantDomain() {
+        return tenantDomain;
+    }
+
+    /**
+     * @return device type segment of the topic, null if the topic does not have one.
+     */
+    public String getDeviceType() {
+        return deviceType;
+    }
+
+    /**
+     * @return device id segment of the topic, null if the topic does not have one.
+     */
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * @return rest of the topic after the device id, null if there is none.
+     */
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * @return number of segments in the topic, same as the length of <code>topic.split("/")</code>.
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    @Override
+    public String toString() {
+        return topic;
+    }
+}
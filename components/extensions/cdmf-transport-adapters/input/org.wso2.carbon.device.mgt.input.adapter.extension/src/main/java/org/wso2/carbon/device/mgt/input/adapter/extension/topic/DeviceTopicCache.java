@@ -0,0 +1,184 @@
+/*
+*  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.topic;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache that maps a topic to its parsed {@link DeviceTopic}. The capacity can be changed with the
+ * <code>device.topic.cache.size</code> system property, an invalid value is logged and the default is used instead.
+ * <p/>
+ * Lookups do not lock, so the message threads of the adapters do not contend on the cache. Eviction approximates LRU
+ * with the second chance (clock) algorithm: a hit marks the topic as referenced, and a miss that grows the cache past
+ * its capacity sweeps the topics, sparing the referenced ones once while clearing their mark, until it is back within
+ * the capacity. Only misses that grow the cache past its capacity serialize on the sweep.
+ */
+public class DeviceTopicCache {
+
+    private static final Log log = LogFactory.getLog(DeviceTopicCache.class);
+
+    private static final String CACHE_SIZE_PROPERTY = "device.topic.cache.size";
+    private static final int DEFAULT_CACHE_SIZE = 10000;
+
+    private final int maxSize;
+    private final ConcurrentHashMap<String, CacheEntry> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Object evictionLock = new Object();
+    private Iterator<Map.Entry<String, CacheEntry>> evictionCursor;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public DeviceTopicCache() {
+        this(getConfiguredCacheSize());
+    }
+
+    public DeviceTopicCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Device topic cache size should be positive : " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    private static int getConfiguredCacheSize() {
+        String value = System.getProperty(CACHE_SIZE_PROPERTY);
+        if (value == null) {
+            return DEFAULT_CACHE_SIZE;
+        }
+        try {
+            int cacheSize = Integer.parseInt(value.trim());
+            if (cacheSize > 0) {
+                return cacheSize;
+            }
+        } catch (NumberFormatException e) {
+            // Logged below, together with the non positive values.
+        }
+        log.warn("Invalid value '" + value + "' for " + CACHE_SIZE_PROPERTY + ", using the default device topic " +
+                         "cache size " + DEFAULT_CACHE_SIZE);
+        return DEFAULT_CACHE_SIZE;
+    }
+
+    /**
+     * Returns the parsed topic, parsing and caching it on a miss.
+     * @param topic topic to be looked up.
+     * @return parsed topic.
+     */
+    public DeviceTopic get(String topic) {
+        CacheEntry cacheEntry = topics.get(topic);
+        if (cacheEntry != null) {
+            hitCount.incrementAndGet();
+            cacheEntry.markReferenced();
+            return cacheEntry.deviceTopic;
+        }
+        missCount.incrementAndGet();
+        cacheEntry = new CacheEntry(DeviceTopic.parse(topic));
+        CacheEntry existingEntry = topics.putIfAbsent(topic, cacheEntry);
+        if (existingEntry != null) {
+            // parsed concurrently by another thread, whose instance is shared.
+            return existingEntry.deviceTopic;
+        }
+        if (size.incrementAndGet() > maxSize) {
+            evict(cacheEntry);
+        }
+        return cacheEntry.deviceTopic;
+    }
+
+    /**
+     * Removes topics until the cache is within its capacity, continuing the sweep where the previous one stopped.
+     * The entry which has just been added is spared, since it has not had the chance to be referenced yet.
+     */
+    private void evict(CacheEntry addedEntry) {
+        synchronized (evictionLock) {
+            while (size.get() > maxSize) {
+                if (evictionCursor == null || !evictionCursor.hasNext()) {
+                    evictionCursor = topics.entrySet().iterator();
+                    if (!evictionCursor.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, CacheEntry> entry = evictionCursor.next();
+                CacheEntry cacheEntry = entry.getValue();
+                if (cacheEntry == addedEntry) {
+                    continue;
+                }
+                if (cacheEntry.referenced) {
+                    cacheEntry.referenced = false;
+                } else if (topics.remove(entry.getKey(), cacheEntry)) {
+                    size.decrementAndGet();
+                    evictionCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        for (String topic : topics.keySet()) {
+            if (topics.remove(topic) != null) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    public int size() {
+        return topics.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private static final class CacheEntry {
+
+        private final DeviceTopic deviceTopic;
+        private volatile boolean referenced;
+
+        CacheEntry(DeviceTopic deviceTopic) {
+            this.deviceTopic = deviceTopic;
+        }
+
+        /**
+         * Marks the entry as referenced, writing only if it is not marked already, so that hits on a hot topic do not
+         * keep invalidating the cache line shared by the message threads.
+         */
+        void markReferenced() {
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.wso2.carbon.device.mgt.input.adapter.extension.ContentTransformer;
+import org.wso2.carbon.device.mgt.input.adapter.extension.topic.DeviceTopic;
 
 import java.util.Map;
 
@@ -47,9 +48,9 @@ public class MQTTContentTransformer implements ContentTransformer {
     @Override
     public Object transform(Object messagePayload, Map<String, Object> dynamicProperties) {
         String topic = (String) dynamicProperties.get(TOPIC);
-        String topics[] = topic.split("/");
-        String deviceId = topics[2];
-        String deviceType = topics[1];
+        DeviceTopic deviceTopic = DeviceTopic.valueOf(topic);
+        String deviceId = deviceTopic.getDeviceId();
+        String deviceType = deviceTopic.getDeviceType();
         String message = (String) messagePayload;
         try {
             if (message.startsWith(JSON_ARRAY_START_CHAR)) {
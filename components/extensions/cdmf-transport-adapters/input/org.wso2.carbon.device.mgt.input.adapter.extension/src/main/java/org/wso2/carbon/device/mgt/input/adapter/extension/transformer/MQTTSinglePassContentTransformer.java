@@ -0,0 +1,90 @@
+/*
+*  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.transformer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.wso2.carbon.device.mgt.input.adapter.extension.ContentTransformer;
+import org.wso2.carbon.device.mgt.input.adapter.extension.topic.DeviceTopic;
+
+import java.util.Map;
+
+/**
+ * Wraps the device payload with the device meta data taken from the topic, the same way as
+ * {@link MQTTContentTransformer}, but without serializing the result. The payload is parsed once and the wrapped
+ * tree is handed over to the validator through the dynamic properties under {@link #PARSED_CONTENT}, so that it can
+ * be validated and written out in a single pass.
+ * <p>
+ * A payload that is not valid JSON is dropped: like {@link MQTTContentTransformer} the transformer returns
+ * <code>false</code> and leaves {@link #PARSED_CONTENT} unset, which the validator reports as invalid content.
+ */
+public class MQTTSinglePassContentTransformer implements ContentTransformer {
+    public static final String PARSED_CONTENT = "parsedContent";
+    private static final String MQTT_SINGLE_PASS_CONTENT_TRANSFORMER = "device-meta-single-pass-transformer";
+    private static final String TOPIC = "topic";
+
+    private static final Log log = LogFactory.getLog(MQTTSinglePassContentTransformer.class);
+
+    @Override
+    public String getType() {
+        return MQTT_SINGLE_PASS_CONTENT_TRANSFORMER;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object transform(Object messagePayload, Map<String, Object> dynamicProperties) {
+        String topic = (String) dynamicProperties.get(TOPIC);
+        String deviceId = DeviceTopic.valueOf(topic).getDeviceId();
+        String message = (String) messagePayload;
+        try {
+            Object payload = new JSONParser().parse(message);
+            Object event;
+            if (payload instanceof JSONArray) {
+                JSONArray eventsArray = new JSONArray();
+                for (Object payloadData : (JSONArray) payload) {
+                    eventsArray.add(wrapEvent(payloadData, deviceId));
+                }
+                event = eventsArray;
+            } else {
+                event = wrapEvent(payload, deviceId);
+            }
+            dynamicProperties.put(PARSED_CONTENT, event);
+            return event;
+        } catch (ParseException e) {
+            log.error("Invalid input " + message, e);
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONObject wrapEvent(Object payloadData, String deviceIdFromTopic) {
+        JSONObject metaData = new JSONObject();
+        metaData.put("deviceId", deviceIdFromTopic);
+        JSONObject eventObject = new JSONObject();
+        eventObject.put("payloadData", payloadData);
+        eventObject.put("metaData", metaData);
+        JSONObject event = new JSONObject();
+        event.put("event", eventObject);
+        return event;
+    }
+}
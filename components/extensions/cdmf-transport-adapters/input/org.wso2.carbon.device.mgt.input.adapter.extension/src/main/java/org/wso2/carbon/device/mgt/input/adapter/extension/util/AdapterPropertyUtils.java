@@ -0,0 +1,60 @@
+/*
+*  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Map;
+
+/**
+ * Reads the global properties shared by the input and output adapters of the device management transports.
+ */
+public class AdapterPropertyUtils {
+
+    private static final Log log = LogFactory.getLog(AdapterPropertyUtils.class);
+
+    private AdapterPropertyUtils() {
+    }
+
+    /**
+     * Reads a positive integer from the given properties.
+     *
+     * @param properties   properties to be read.
+     * @param name         name of the property.
+     * @param defaultValue value used when the property is not set or is invalid.
+     * @return the property value, or the default value.
+     */
+    public static int getPositiveIntProperty(Map<String, String> properties, String name, int defaultValue) {
+        String value = properties.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue > 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to log and use the default value.
+        }
+        log.error("Invalid value " + value + " for " + name + ", using the default value " + defaultValue);
+        return defaultValue;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An output event serialized once, which can be handed to several output adapters. The websocket adapter sends its
+ * text form and the MQTT adapter publishes its UTF-8 bytes. Each form is derived at most once, from whichever form the
+ * event was created with.
+ */
+public final class EncodedEvent {
+
+    private volatile byte[] bytes;
+    private volatile String text;
+
+    private EncodedEvent(byte[] bytes, String text) {
+        this.bytes = bytes;
+        this.text = text;
+    }
+
+    /**
+     * @return the message itself if it is already encoded, otherwise the message wrapped as is if it is a byte array,
+     * or its string form.
+     */
+    public static EncodedEvent valueOf(Object message) {
+        if (message instanceof EncodedEvent) {
+            return (EncodedEvent) message;
+        }
+        if (message instanceof byte[]) {
+            return fromBytes((byte[]) message);
+        }
+        return fromText(message.toString());
+    }
+
+    public static EncodedEvent fromText(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Encoded event text cannot be null");
+        }
+        return new EncodedEvent(null, text);
+    }
+
+    public static EncodedEvent fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Encoded event bytes cannot be null");
+        }
+        return new EncodedEvent(bytes, null);
+    }
+
+    /**
+     * @return UTF-8 encoded event. The returned array is shared and must not be modified.
+     */
+    public byte[] getBytes() {
+        byte[] encoded = bytes;
+        if (encoded == null) {
+            encoded = text.getBytes(StandardCharsets.UTF_8);
+            bytes = encoded;
+        }
+        return encoded;
+    }
+
+    public String getText() {
+        String decoded = text;
+        if (decoded == null) {
+            decoded = new String(bytes, StandardCharsets.UTF_8);
+            text = decoded;
+        }
+        return decoded;
+    }
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+}
@@ -26,6 +26,7 @@ import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.wso2.carbon.device.mgt.input.adapter.extension.ContentInfo;
 import org.wso2.carbon.device.mgt.input.adapter.extension.ContentValidator;
+import org.wso2.carbon.device.mgt.input.adapter.extension.topic.DeviceTopic;
 
 import java.util.Map;
 
@@ -36,7 +37,6 @@ public class MQTTContentValidator implements ContentValidator {
     private static final String DEVICE_ID_JSON_PATH = "event.metaData.deviceId";
     private static final String DEVICE_TYPE_JSON_PATH = "event.metaData.deviceId";
     private static final String TOPIC = "topic";
-    private static final int DEVICE_ID_TOPIC_HIERARCHY_INDEX = 2;
 
     @Override
     public String getType() {
@@ -46,9 +46,7 @@ public class MQTTContentValidator implements ContentValidator {
     @Override
     public ContentInfo validate(Object msgPayload, Map<String, Object> dynamicParams) {
         String topic = (String) dynamicParams.get(TOPIC);
-        String topics[] = topic.split("/");
-        int deviceIdInTopicHierarchyLevelIndex = DEVICE_ID_TOPIC_HIERARCHY_INDEX;
-        String deviceIdFromTopic = topics[deviceIdInTopicHierarchyLevelIndex];
+        String deviceIdFromTopic = DeviceTopic.valueOf(topic).getDeviceId();
         boolean status;
         String message = (String) msgPayload;
         if (message.startsWith(JSON_ARRAY_START_CHAR)) {
@@ -0,0 +1,110 @@
+/*
+*  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.validator;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.wso2.carbon.device.mgt.input.adapter.extension.ContentInfo;
+import org.wso2.carbon.device.mgt.input.adapter.extension.ContentValidator;
+import org.wso2.carbon.device.mgt.input.adapter.extension.topic.DeviceTopic;
+import org.wso2.carbon.device.mgt.input.adapter.extension.transformer.MQTTSinglePassContentTransformer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates the deviceId of the content against the topic using the tree parsed by
+ * {@link MQTTSinglePassContentTransformer}, and writes out the validated tree as the event message. When the
+ * message was not produced by that transformer the content is parsed here, still only once. Any other payload,
+ * including the <code>false</code> returned by the transformer for a payload that is not valid JSON, is invalid.
+ */
+public class MQTTSinglePassContentValidator implements ContentValidator {
+    private static final Log log = LogFactory.getLog(MQTTSinglePassContentValidator.class);
+    private static final String MQTT_SINGLE_PASS_CONTENT_VALIDATOR = "deviceid-topic-single-pass-validator";
+    private static final String EVENT = "event";
+    private static final String META_DATA = "metaData";
+    private static final String DEVICE_ID = "deviceId";
+    private static final String TOPIC = "topic";
+
+    @Override
+    public String getType() {
+        return MQTT_SINGLE_PASS_CONTENT_VALIDATOR;
+    }
+
+    @Override
+    public ContentInfo validate(Object msgPayload, Map<String, Object> dynamicParams) {
+        String topic = (String) dynamicParams.get(TOPIC);
+        String deviceIdFromTopic = DeviceTopic.valueOf(topic).getDeviceId();
+        Object content = dynamicParams.get(MQTTSinglePassContentTransformer.PARSED_CONTENT);
+        if (content == null) {
+            if (!(msgPayload instanceof String)) {
+                return new ContentInfo(false, msgPayload);
+            }
+            try {
+                content = new JSONParser().parse((String) msgPayload);
+            } catch (ParseException e) {
+                log.error("Invalid input " + msgPayload, e);
+                return new ContentInfo(false, msgPayload);
+            }
+        }
+        boolean status;
+        if (content instanceof List) {
+            List events = (List) content;
+            status = !events.isEmpty();
+            for (Object event : events) {
+                if (!isValidEvent(event, deviceIdFromTopic)) {
+                    status = false;
+                    break;
+                }
+            }
+        } else {
+            status = isValidEvent(content, deviceIdFromTopic);
+        }
+        if (!status) {
+            return new ContentInfo(false, msgPayload);
+        }
+        StringWriter writer = new StringWriter();
+        try {
+            JSONValue.writeJSONString(content, writer);
+        } catch (IOException e) {
+            log.error("Failed to write the validated content of topic " + topic, e);
+            return new ContentInfo(false, msgPayload);
+        }
+        return new ContentInfo(true, writer.toString());
+    }
+
+    private boolean isValidEvent(Object event, String deviceIdFromTopic) {
+        Object eventObject = getChild(event, EVENT);
+        Object metaData = getChild(eventObject, META_DATA);
+        Object deviceIdFromContent = getChild(metaData, DEVICE_ID);
+        return deviceIdFromContent != null && deviceIdFromContent.toString().equals(deviceIdFromTopic);
+    }
+
+    private Object getChild(Object node, String key) {
+        if (node instanceof Map) {
+            return ((Map) node).get(key);
+        }
+        return null;
+    }
+}
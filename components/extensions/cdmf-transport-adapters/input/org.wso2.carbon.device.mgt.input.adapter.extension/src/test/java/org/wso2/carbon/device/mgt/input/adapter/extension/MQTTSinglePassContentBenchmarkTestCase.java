@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.extension;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.device.mgt.input.adapter.extension.transformer.MQTTContentTransformer;
+import org.wso2.carbon.device.mgt.input.adapter.extension.transformer.MQTTSinglePassContentTransformer;
+import org.wso2.carbon.device.mgt.input.adapter.extension.validator.MQTTContentValidator;
+import org.wso2.carbon.device.mgt.input.adapter.extension.validator.MQTTSinglePassContentValidator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the single-pass MQTT transformer and validator against the two-pass pipeline they replace, for single
+ * events and for batched payloads. The rates are logged for comparison, and are not asserted since they depend on
+ * the build machine.
+ */
+public class MQTTSinglePassContentBenchmarkTestCase {
+
+    private static final Log log = LogFactory.getLog(MQTTSinglePassContentBenchmarkTestCase.class);
+
+    private static final String TOPIC = "carbon.super/android_sense/device1/data";
+    private static final int PAYLOAD_COUNT = 100;
+    private static final int WARM_UP_ITERATIONS = 2000;
+    private static final int ITERATIONS = 5000;
+    private static final int THREAD_COUNT = 4;
+
+    @Test
+    public void testTransformThroughput() throws Exception {
+        Pipeline singlePass = new Pipeline(new MQTTSinglePassContentTransformer(),
+                                           new MQTTSinglePassContentValidator());
+        Pipeline twoPass = new Pipeline(new MQTTContentTransformer(), new MQTTContentValidator());
+        for (int batchSize : new int[]{1, 10, 100}) {
+            String[] payloads = payloads(batchSize);
+            run(singlePass, payloads, WARM_UP_ITERATIONS, 1);
+            run(twoPass, payloads, WARM_UP_ITERATIONS, 1);
+            for (int threadCount : new int[]{1, THREAD_COUNT}) {
+                double singlePassRate = run(singlePass, payloads, ITERATIONS / batchSize, threadCount) * batchSize;
+                double twoPassRate = run(twoPass, payloads, ITERATIONS / batchSize, threadCount) * batchSize;
+                log.info(String.format("MQTT events per second in batches of %d with %d threads, single-pass : "
+                                               + "%.0f, two-pass : %.0f", batchSize, threadCount, singlePassRate,
+                                       twoPassRate));
+            }
+        }
+    }
+
+    /**
+     * @return payloads of the given number of events, a single event is sent as an object rather than an array.
+     */
+    private static String[] payloads(int batchSize) {
+        String[] payloads = new String[PAYLOAD_COUNT];
+        for (int i = 0; i < PAYLOAD_COUNT; i++) {
+            StringBuilder payload = new StringBuilder(batchSize == 1 ? "" : "[");
+            for (int event = 0; event < batchSize; event++) {
+                if (event > 0) {
+                    payload.append(',');
+                }
+                payload.append("{\"temperature\":").append(20 + (i + event) % 15).append('.').append(event % 10)
+                        .append(",\"humidity\":").append(40 + i % 30).append(",\"owner\":\"admin\"}");
+            }
+            payloads[i] = payload.append(batchSize == 1 ? "" : "]").toString();
+        }
+        return payloads;
+    }
+
+    /**
+     * @return the number of payloads processed per second.
+     */
+    private static double run(final Pipeline pipeline, final String[] payloads, final int iterations,
+                              int threadCount) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < threadCount; thread++) {
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < iterations; i++) {
+                            Assert.assertTrue(pipeline.process(payloads[i % payloads.length]).isValidContent());
+                        }
+                        return null;
+                    }
+                });
+            }
+            long start = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            return (double) iterations * threadCount * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class Pipeline {
+
+        private final ContentTransformer transformer;
+        private final ContentValidator validator;
+
+        Pipeline(ContentTransformer transformer, ContentValidator validator) {
+            this.transformer = transformer;
+            this.validator = validator;
+        }
+
+        ContentInfo process(String payload) {
+            Map<String, Object> dynamicProperties = new HashMap<>();
+            dynamicProperties.put("topic", TOPIC);
+            return validator.validate(transformer.transform(payload, dynamicProperties), dynamicProperties);
+        }
+    }
+}
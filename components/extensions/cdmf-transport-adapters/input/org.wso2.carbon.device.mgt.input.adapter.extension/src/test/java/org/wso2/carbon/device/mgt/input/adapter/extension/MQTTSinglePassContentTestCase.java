@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.extension;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.device.mgt.input.adapter.extension.transformer.MQTTContentTransformer;
+import org.wso2.carbon.device.mgt.input.adapter.extension.transformer.MQTTSinglePassContentTransformer;
+import org.wso2.carbon.device.mgt.input.adapter.extension.validator.MQTTContentValidator;
+import org.wso2.carbon.device.mgt.input.adapter.extension.validator.MQTTSinglePassContentValidator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MQTTSinglePassContentTestCase {
+    private static final String TOPIC = "carbon.super/android_sense/device1/data";
+    private static final String OTHER_DEVICE_TOPIC = "carbon.super/android_sense/device2/data";
+    private static final String PAYLOAD = "{\"temperature\":31.5,\"humidity\":60,\"owner\":\"admin\"}";
+
+    private ContentTransformer transformer;
+    private ContentValidator validator;
+
+    @Before
+    public void init() {
+        transformer = new MQTTSinglePassContentTransformer();
+        validator = new MQTTSinglePassContentValidator();
+    }
+
+    @Test
+    public void testSingleEvent() throws Exception {
+        ContentInfo contentInfo = process(PAYLOAD, TOPIC);
+        Assert.assertTrue(contentInfo.isValidContent());
+        JSONObject event = (JSONObject) ((JSONObject) parse(contentInfo.getMessage())).get("event");
+        Assert.assertEquals("device1", ((JSONObject) event.get("metaData")).get("deviceId"));
+        Assert.assertEquals(parse(PAYLOAD), event.get("payloadData"));
+    }
+
+    @Test
+    public void testSameEventAsTwoPassPipeline() throws Exception {
+        Map<String, Object> dynamicProperties = newDynamicProperties(TOPIC);
+        Object transformed = new MQTTContentTransformer().transform(PAYLOAD, dynamicProperties);
+        ContentInfo expected = new MQTTContentValidator().validate(transformed, dynamicProperties);
+        ContentInfo actual = process(PAYLOAD, TOPIC);
+        Assert.assertTrue(expected.isValidContent());
+        Assert.assertTrue(actual.isValidContent());
+        Assert.assertEquals(parse(expected.getMessage()), parse(actual.getMessage()));
+    }
+
+    @Test
+    public void testEventArray() throws Exception {
+        ContentInfo contentInfo = process("[" + PAYLOAD + "," + PAYLOAD + "]", TOPIC);
+        Assert.assertTrue(contentInfo.isValidContent());
+        JSONArray events = (JSONArray) parse(contentInfo.getMessage());
+        Assert.assertEquals(2, events.size());
+        for (Object event : events) {
+            JSONObject eventObject = (JSONObject) ((JSONObject) event).get("event");
+            Assert.assertEquals("device1", ((JSONObject) eventObject.get("metaData")).get("deviceId"));
+        }
+    }
+
+    @Test
+    public void testEmptyEventArrayIsInvalid() {
+        Assert.assertFalse(process("[]", TOPIC).isValidContent());
+    }
+
+    @Test
+    public void testInvalidJsonIsDropped() {
+        Map<String, Object> dynamicProperties = newDynamicProperties(TOPIC);
+        Object transformed = transformer.transform("{\"temperature\":", dynamicProperties);
+        Assert.assertEquals(false, transformed);
+        Assert.assertNull(dynamicProperties.get(MQTTSinglePassContentTransformer.PARSED_CONTENT));
+        Assert.assertFalse(validator.validate(transformed, dynamicProperties).isValidContent());
+    }
+
+    @Test
+    public void testValidatorParsesContentOfOtherTransformers() throws Exception {
+        Map<String, Object> dynamicProperties = newDynamicProperties(TOPIC);
+        Object transformed = new MQTTContentTransformer().transform(PAYLOAD, dynamicProperties);
+        ContentInfo contentInfo = validator.validate(transformed, dynamicProperties);
+        Assert.assertTrue(contentInfo.isValidContent());
+        Assert.assertEquals(parse(transformed), parse(contentInfo.getMessage()));
+    }
+
+    @Test
+    public void testDeviceIdMismatch() {
+        Map<String, Object> dynamicProperties = newDynamicProperties(TOPIC);
+        Object transformed = transformer.transform(PAYLOAD, dynamicProperties);
+        dynamicProperties.put("topic", OTHER_DEVICE_TOPIC);
+        Assert.assertFalse(validator.validate(transformed, dynamicProperties).isValidContent());
+    }
+
+    private ContentInfo process(String payload, String topic) {
+        Map<String, Object> dynamicProperties = newDynamicProperties(topic);
+        return validator.validate(transformer.transform(payload, dynamicProperties), dynamicProperties);
+    }
+
+    private static Map<String, Object> newDynamicProperties(String topic) {
+        Map<String, Object> dynamicProperties = new HashMap<>();
+        dynamicProperties.put("topic", topic);
+        return dynamicProperties;
+    }
+
+    private static Object parse(Object json) throws Exception {
+        return new JSONParser().parse((String) json);
+    }
+}
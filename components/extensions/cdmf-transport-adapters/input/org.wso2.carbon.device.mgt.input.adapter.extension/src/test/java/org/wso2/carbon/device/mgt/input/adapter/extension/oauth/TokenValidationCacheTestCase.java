@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.oauth;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TokenValidationCacheTestCase {
+
+    @Test
+    public void testValidResultIsCached() {
+        CountingValidator validator = new CountingValidator("admin", 60000);
+        TokenValidationCache<String> cache = new TokenValidationCache<>(10, 60000);
+        Assert.assertEquals("admin", cache.get("token", validator));
+        Assert.assertEquals("admin", cache.get("token", validator));
+        Assert.assertEquals(1, validator.count.get());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testUncacheableResultsAreRevalidated() {
+        CountingValidator validator = new CountingValidator(null, 60000);
+        TokenValidationCache<String> cache = new TokenValidationCache<>(10, 60000);
+        Assert.assertNull(cache.get("token", validator));
+        Assert.assertNull(cache.get("token", validator));
+        Assert.assertEquals(2, validator.count.get());
+
+        validator = new CountingValidator("admin", 0);
+        cache.get("token", validator);
+        cache.get("token", validator);
+        Assert.assertEquals(2, validator.count.get());
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        CountingValidator validator = new CountingValidator("admin", 60000);
+        TokenValidationCache<String> cache = new TokenValidationCache<>(2, 60000);
+        cache.get("token1", validator);
+        cache.get("token2", validator);
+        cache.get("token3", validator);
+        Assert.assertEquals(2, cache.size());
+        cache.get("token1", validator);
+        Assert.assertEquals(4, validator.count.get());
+    }
+
+    @Test
+    public void testConcurrentValidationsAreCoalesced() throws Exception {
+        final CountDownLatch validationStarted = new CountDownLatch(1);
+        final CountDownLatch releaseValidation = new CountDownLatch(1);
+        final AtomicInteger validations = new AtomicInteger();
+        final TokenValidationCache.TokenValidator<String> validator =
+                new TokenValidationCache.TokenValidator<String>() {
+                    @Override
+                    public TokenValidationCache.ValidationResult<String> validate(String token) {
+                        validations.incrementAndGet();
+                        validationStarted.countDown();
+                        try {
+                            releaseValidation.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return new TokenValidationCache.ValidationResult<>("admin", 60000);
+                    }
+                };
+        final TokenValidationCache<String> cache = new TokenValidationCache<>(10, 60000);
+        final String[] results = new String[2];
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                results[0] = cache.get("token", validator);
+            }
+        });
+        first.start();
+        validationStarted.await();
+        Thread second = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                results[1] = cache.get("token", validator);
+            }
+        });
+        second.start();
+        while (cache.getCoalescedCount() == 0 && second.isAlive()) {
+            Thread.sleep(1);
+        }
+        releaseValidation.countDown();
+        first.join();
+        second.join();
+        Assert.assertEquals("admin", results[0]);
+        Assert.assertEquals("admin", results[1]);
+        Assert.assertEquals(1, validations.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveCacheSize() {
+        new TokenValidationCache<String>(0, 60000);
+    }
+
+    private static class CountingValidator implements TokenValidationCache.TokenValidator<String> {
+        private final AtomicInteger count = new AtomicInteger();
+        private final String result;
+        private final long validityPeriodMillis;
+
+        CountingValidator(String result, long validityPeriodMillis) {
+            this.result = result;
+            this.validityPeriodMillis = validityPeriodMillis;
+        }
+
+        @Override
+        public TokenValidationCache.ValidationResult<String> validate(String token) {
+            count.incrementAndGet();
+            return new TokenValidationCache.ValidationResult<>(result, validityPeriodMillis);
+        }
+    }
+}
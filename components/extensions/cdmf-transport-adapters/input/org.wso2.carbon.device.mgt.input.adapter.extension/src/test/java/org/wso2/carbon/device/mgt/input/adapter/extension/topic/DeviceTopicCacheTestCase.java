@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.topic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DeviceTopicCacheTestCase {
+
+    @Test
+    public void testHitsReturnTheCachedTopic() {
+        DeviceTopicCache cache = new DeviceTopicCache(10);
+        DeviceTopic deviceTopic = cache.get("carbon.super/android/device1/events");
+        Assert.assertEquals("device1", deviceTopic.getDeviceId());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertSame(deviceTopic, cache.get("carbon.super/android/device1/events"));
+        }
+        Assert.assertEquals(5, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testUnreferencedTopicsAreEvictedFirst() {
+        DeviceTopicCache cache = new DeviceTopicCache(3);
+        DeviceTopic hot = cache.get("t/android/hot");
+        cache.get("t/android/cold1");
+        cache.get("t/android/cold2");
+        cache.get("t/android/hot");
+        cache.get("t/android/new1");
+        cache.get("t/android/hot");
+        cache.get("t/android/new2");
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(2, cache.getEvictionCount());
+        Assert.assertSame(hot, cache.get("t/android/hot"));
+        Assert.assertEquals(3, cache.getHitCount());
+        Assert.assertEquals(5, cache.getMissCount());
+    }
+
+    @Test
+    public void testReferencedTopicsAreEvictedOnceTheirMarkIsCleared() {
+        DeviceTopicCache cache = new DeviceTopicCache(2);
+        cache.get("t/android/1");
+        cache.get("t/android/2");
+        cache.get("t/android/1");
+        cache.get("t/android/2");
+        // every cached topic was hit, hence the sweep clears the marks and evicts on its second pass.
+        DeviceTopic third = cache.get("t/android/3");
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertSame(third, cache.get("t/android/3"));
+    }
+
+    @Test
+    public void testClear() {
+        DeviceTopicCache cache = new DeviceTopicCache(2);
+        cache.get("t/android/1");
+        cache.get("t/android/2");
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        cache.get("t/android/3");
+        cache.get("t/android/4");
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        final DeviceTopicCache cache = new DeviceTopicCache(64);
+        final int threadCount = 8;
+        final int lookups = 50000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int seed = t;
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < lookups; i++) {
+                            // a few hot topics shared by all the threads, and a long tail that forces evictions.
+                            String deviceId = i % 2 == 0 ? "hot" + (i / 2 % 8) : "device" + ((i * 31 + seed) % 1000);
+                            DeviceTopic deviceTopic = cache.get("carbon.super/android/" + deviceId + "/events");
+                            Assert.assertEquals(deviceId, deviceTopic.getDeviceId());
+                            Assert.assertEquals("events", deviceTopic.getSuffix());
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertNull(String.valueOf(failure.get()), failure.get());
+        Assert.assertTrue("size " + cache.size(), cache.size() <= cache.getMaxSize());
+        Assert.assertEquals((long) threadCount * lookups, cache.getHitCount() + cache.getMissCount());
+        Assert.assertTrue(cache.getEvictionCount() > 0);
+        for (int i = 0; i < 8; i++) {
+            String topic = "carbon.super/android/hot" + i + "/events";
+            Assert.assertSame(cache.get(topic), cache.get(topic));
+        }
+    }
+}
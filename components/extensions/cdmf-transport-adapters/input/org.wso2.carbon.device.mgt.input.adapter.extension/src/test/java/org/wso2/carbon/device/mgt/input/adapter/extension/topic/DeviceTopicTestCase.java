@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.topic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DeviceTopicTestCase {
+    private static final String[] TOPICS = {"", "/", "//", "carbon.super", "carbon.super/", "carbon.super/android",
+            "carbon.super/android/device1", "carbon.super/android/device1/", "carbon.super/android/device1/events",
+            "carbon.super/android/device1/events/location/", "carbon.super//device1", "/android/device1",
+            "+/android/+/operation"};
+
+    @Test
+    public void testSegmentsMatchSplit() {
+        for (String topic : TOPICS) {
+            String[] segments = topic.split("/");
+            DeviceTopic deviceTopic = DeviceTopic.parse(topic);
+            Assert.assertEquals(topic, segments.length, deviceTopic.getSegmentCount());
+            Assert.assertEquals(topic, segment(segments, 0), deviceTopic.getTenantDomain());
+            Assert.assertEquals(topic, segment(segments, 1), deviceTopic.getDeviceType());
+            Assert.assertEquals(topic, segment(segments, 2), deviceTopic.getDeviceId());
+        }
+    }
+
+    @Test
+    public void testEmptyTopic() {
+        DeviceTopic deviceTopic = DeviceTopic.parse("");
+        Assert.assertEquals("", deviceTopic.getTenantDomain());
+        Assert.assertNull(deviceTopic.getDeviceType());
+        Assert.assertNull(deviceTopic.getSuffix());
+        Assert.assertNull(DeviceTopic.parse("/").getTenantDomain());
+    }
+
+    @Test
+    public void testSuffix() {
+        Assert.assertEquals("events/location", DeviceTopic.parse("a/b/c/events/location//").getSuffix());
+        Assert.assertNull(DeviceTopic.parse("a/b/c/").getSuffix());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        DeviceTopicCache cache = new DeviceTopicCache(2);
+        DeviceTopic first = cache.get("a/b/c");
+        Assert.assertSame(first, cache.get("a/b/c"));
+        cache.get("a/b/d");
+        cache.get("a/b/e");
+        Assert.assertEquals(2, cache.size());
+        // the topic which was hit gets a second chance, the one which was not is evicted.
+        Assert.assertSame(first, cache.get("a/b/c"));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveCacheSize() {
+        new DeviceTopicCache(0);
+    }
+
+    private static String segment(String[] segments, int index) {
+        return index < segments.length ? segments[index] : null;
+    }
+}
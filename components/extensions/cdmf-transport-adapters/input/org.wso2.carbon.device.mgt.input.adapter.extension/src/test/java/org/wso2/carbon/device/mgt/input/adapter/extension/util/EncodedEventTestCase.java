@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.extension.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class EncodedEventTestCase {
+
+    private static final String TEXT = "{\"temperature\":23.5,\"unit\":\"\u00b0C\"}";
+
+    @Test
+    public void testBytesAreEncodedOnceFromText() {
+        EncodedEvent encodedEvent = EncodedEvent.fromText(TEXT);
+        byte[] bytes = encodedEvent.getBytes();
+        Assert.assertArrayEquals(TEXT.getBytes(StandardCharsets.UTF_8), bytes);
+        Assert.assertSame(bytes, encodedEvent.getBytes());
+        Assert.assertSame(TEXT, encodedEvent.getText());
+    }
+
+    @Test
+    public void testTextIsDecodedOnceFromBytes() {
+        byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+        EncodedEvent encodedEvent = EncodedEvent.fromBytes(bytes);
+        String text = encodedEvent.getText();
+        Assert.assertEquals(TEXT, text);
+        Assert.assertSame(text, encodedEvent.getText());
+        Assert.assertSame(bytes, encodedEvent.getBytes());
+        Assert.assertEquals(TEXT, encodedEvent.toString());
+    }
+
+    @Test
+    public void testValueOf() {
+        EncodedEvent encodedEvent = EncodedEvent.fromText(TEXT);
+        Assert.assertSame(encodedEvent, EncodedEvent.valueOf(encodedEvent));
+        byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+        Assert.assertSame(bytes, EncodedEvent.valueOf(bytes).getBytes());
+        Assert.assertEquals("42", EncodedEvent.valueOf(42).getText());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullText() {
+        EncodedEvent.fromText(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullBytes() {
+        EncodedEvent.fromBytes(null);
+    }
+}
@@ -96,17 +96,9 @@ public final class HTTPEventAdapter implements InputEventAdapter {
                 jobQueueSize = HTTPEventAdapterConstants.ADAPTER_EXECUTOR_JOB_QUEUE_SIZE;
             }
 
-            RejectedExecutionHandler rejectedExecutionHandler = new RejectedExecutionHandler() {
-                @Override
-                public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-                    try {
-                        executor.getQueue().put(r);
-                    } catch (InterruptedException e) {
-                        log.error("Exception while adding event to executor queue : " + e.getMessage(), e);
-                    }
-                }
-
-            };
+            // reject instead of waiting for space in the queue, so that a request thread never blocks on a full queue
+            // and the servlet can ask the client to retry.
+            RejectedExecutionHandler rejectedExecutionHandler = new ThreadPoolExecutor.AbortPolicy();
 
             executorService = new ThreadPoolExecutor(minThread, maxThread, defaultKeepAliveTime, TimeUnit.MILLISECONDS,
                     new LinkedBlockingQueue<Runnable>(jobQueueSize), rejectedExecutionHandler);
@@ -114,6 +106,14 @@ public final class HTTPEventAdapter implements InputEventAdapter {
         }
     }
 
+    /**
+     * @return true if the job queue of the executor is full, so that a new job would be rejected.
+     */
+    public static boolean isJobQueueFull() {
+        return executorService instanceof ThreadPoolExecutor &&
+                ((ThreadPoolExecutor) executorService).getQueue().remainingCapacity() == 0;
+    }
+
     @Override
     public void testConnect() throws TestConnectionNotSupportedException {
         throw new TestConnectionNotSupportedException("not-supported");
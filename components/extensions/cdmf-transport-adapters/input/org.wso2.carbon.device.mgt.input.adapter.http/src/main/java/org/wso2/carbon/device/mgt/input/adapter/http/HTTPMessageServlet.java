@@ -18,10 +18,11 @@ package org.wso2.carbon.device.mgt.input.adapter.http;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.AdapterPropertyUtils;
+import org.wso2.carbon.device.mgt.input.adapter.http.authorization.CachingDeviceAuthorizer;
 import org.wso2.carbon.device.mgt.input.adapter.http.authorization.DeviceAuthorizer;
 import org.wso2.carbon.device.mgt.input.adapter.http.internal.InputAdapterServiceDataHolder;
 import org.wso2.carbon.device.mgt.input.adapter.http.oauth.OAuthAuthenticator;
-import org.wso2.carbon.device.mgt.input.adapter.extension.ContentInfo;
 import org.wso2.carbon.device.mgt.input.adapter.extension.ContentTransformer;
 import org.wso2.carbon.device.mgt.input.adapter.extension.transformer.DefaultContentTransformer;
 import org.wso2.carbon.device.mgt.input.adapter.extension.validator.DefaultContentValidator;
@@ -36,12 +37,11 @@ import org.wso2.carbon.device.mgt.input.adapter.extension.ContentValidator;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This will act as the event reciver.
@@ -60,7 +60,17 @@ public class HTTPMessageServlet extends HttpServlet {
 	private String exposedTransports;
 	private static JWTAuthenticator jwtAuthenticator;
 	private static OAuthAuthenticator oAuthAuthenticator;
-    private static DeviceAuthorizer deviceAuthorizer;
+    private static CachingDeviceAuthorizer deviceAuthorizer;
+    private final boolean splitEventArrays;
+    private final String retryAfterSeconds;
+    private final int maxBodySize;
+    private final HTTPRequestBodyHandler.EventSubmitter eventSubmitter =
+            new HTTPRequestBodyHandler.EventSubmitter() {
+                @Override
+                public void submit(String message) {
+                    HTTPMessageServlet.this.submit(message);
+                }
+            };
 
 	public HTTPMessageServlet(InputEventAdapterListener eventAdaptorListener, int tenantId,
 							  InputEventAdapterConfiguration eventAdapterConfiguration,
@@ -95,20 +105,43 @@ public class HTTPMessageServlet extends HttpServlet {
                     .getContentTransformer(contentValidatorType);
 		}
 
+        splitEventArrays = Boolean.parseBoolean(globalProperties.get(
+                HTTPEventAdapterConstants.SPLIT_EVENT_ARRAYS_NAME));
+        retryAfterSeconds = String.valueOf(AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, HTTPEventAdapterConstants.RETRY_AFTER_NAME,
+                HTTPEventAdapterConstants.RETRY_AFTER_IN_SECONDS));
+        maxBodySize = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, HTTPEventAdapterConstants.MAX_BODY_SIZE_NAME,
+                HTTPEventAdapterConstants.MAX_BODY_SIZE_IN_BYTES);
+
 		jwtAuthenticator = new JWTAuthenticator();
 		oAuthAuthenticator = new OAuthAuthenticator(globalProperties);
-        deviceAuthorizer = new DeviceAuthorizer(globalProperties);
+        int authorizationCacheSize = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, HTTPEventAdapterConstants.AUTHORIZATION_CACHE_SIZE_NAME,
+                HTTPEventAdapterConstants.AUTHORIZATION_CACHE_SIZE);
+        int authorizationCacheTimeout = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, HTTPEventAdapterConstants.AUTHORIZATION_CACHE_TIMEOUT_NAME,
+                HTTPEventAdapterConstants.AUTHORIZATION_CACHE_TIMEOUT_IN_SECONDS);
+        int unauthorizedCacheTimeout = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, HTTPEventAdapterConstants.UNAUTHORIZED_CACHE_TIMEOUT_NAME,
+                HTTPEventAdapterConstants.UNAUTHORIZED_CACHE_TIMEOUT_IN_SECONDS);
+        int authorizationBatchSize = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, HTTPEventAdapterConstants.AUTHORIZATION_BATCH_SIZE_NAME,
+                HTTPEventAdapterConstants.AUTHORIZATION_BATCH_SIZE);
+        int authorizationTimeout = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, HTTPEventAdapterConstants.AUTHORIZATION_TIMEOUT_NAME,
+                HTTPEventAdapterConstants.AUTHORIZATION_TIMEOUT_IN_SECONDS);
+        deviceAuthorizer = new CachingDeviceAuthorizer(new DeviceAuthorizer(globalProperties), authorizationCacheSize,
+                                                       TimeUnit.SECONDS.toMillis(authorizationCacheTimeout),
+                                                       TimeUnit.SECONDS.toMillis(unauthorizedCacheTimeout),
+                                                       authorizationBatchSize,
+                                                       TimeUnit.SECONDS.toMillis(authorizationTimeout));
 	}
 
 	@Override
 	protected void doPost(HttpServletRequest req,
 						  HttpServletResponse res) throws IOException {
 
-		String data = this.inputStreamToString(req.getInputStream());
-		if (data == null) {
-			log.warn("Event Object is empty/null");
-			return;
-		}
 		AuthenticationInfo authenticationInfo = null;
 		if (exposedTransports.equalsIgnoreCase(HTTPEventAdapterConstants.HTTPS)) {
 			if (!req.isSecure()) {
@@ -152,10 +185,6 @@ public class HTTPMessageServlet extends HttpServlet {
 			}
 		}
 
-		if (log.isDebugEnabled()) {
-			log.debug("Message : " + data);
-		}
-
 		if (authenticationInfo != null) {
 			Map<String, Object> paramMap = new HashMap<>();
 			Enumeration<String> reqParameterNames = req.getParameterNames();
@@ -170,14 +199,16 @@ public class HTTPMessageServlet extends HttpServlet {
             String deviceType = (String) paramMap.get("deviceType");
             if (deviceAuthorizer.isAuthorized(authenticationInfo, deviceId, deviceType)) {
                 if (contentValidator != null && contentTransformer != null) {
-                    data = (String) contentTransformer.transform(data, paramMap);
-                    ContentInfo contentInfo = contentValidator.validate(data, paramMap);
-                    if (contentInfo != null && contentInfo.isValidContent()) {
-                        HTTPEventAdapter.executorService.submit(new HTTPRequestProcessor(eventAdaptorListener,
-                                                                                         (String) contentInfo
-                                                                                                 .getMessage(),
-                                                                                         tenantId));
+                    if (HTTPEventAdapter.isJobQueueFull()) {
+                        // reject before reading the body, so that the client backs off instead of the event being
+                        // dropped after it has been received.
+                        res.setHeader(HTTPEventAdapterConstants.RETRY_AFTER_HEADER, retryAfterSeconds);
+                        res.setStatus(HTTPEventAdapterConstants.HTTP_TOO_MANY_REQUESTS);
+                        log.warn("Rejecting the request since the job queue of the http adapter is full");
+                        return;
                     }
+                    new HTTPRequestBodyHandler(contentTransformer, contentValidator, splitEventArrays, maxBodySize,
+                                               retryAfterSeconds, eventSubmitter).handle(req, res, paramMap);
                 }
             } else {
                 if (log.isDebugEnabled()) {
@@ -187,6 +218,10 @@ public class HTTPMessageServlet extends HttpServlet {
 		}
 	}
 
+    private void submit(String message) {
+        HTTPEventAdapter.executorService.submit(new HTTPRequestProcessor(eventAdaptorListener, message, tenantId));
+    }
+
 	@Override
 	protected void doGet(HttpServletRequest req,
 						 HttpServletResponse res) throws IOException {
@@ -245,15 +280,4 @@ public class HTTPMessageServlet extends HttpServlet {
 		return authenticationInfo;
 	}
 
-	private String inputStreamToString(InputStream in) throws IOException {
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		byte[] buff = new byte[1024];
-		int i;
-		while ((i = in.read(buff)) > 0) {
-			out.write(buff, 0, i);
-		}
-		out.close();
-		return out.toString();
-	}
-
 }
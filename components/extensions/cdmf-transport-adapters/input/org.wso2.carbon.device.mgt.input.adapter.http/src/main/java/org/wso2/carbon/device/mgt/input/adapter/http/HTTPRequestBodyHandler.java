@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.http;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.input.adapter.extension.ContentInfo;
+import org.wso2.carbon.device.mgt.input.adapter.extension.ContentTransformer;
+import org.wso2.carbon.device.mgt.input.adapter.extension.ContentValidator;
+import org.wso2.carbon.device.mgt.input.adapter.http.util.HTTPEventAdapterConstants;
+import org.wso2.carbon.device.mgt.input.adapter.http.util.JsonEventReader;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reads the events of a request body straight from the request stream and submits each of them as soon as it has
+ * been read. Events submitted before a malformed array element, a body that grows past the configured limit or a full
+ * job queue stay submitted; the rest of the body is not read and the error is reported through the response status.
+ */
+class HTTPRequestBodyHandler {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static Log log = LogFactory.getLog(HTTPRequestBodyHandler.class);
+
+    private final ContentTransformer contentTransformer;
+    private final ContentValidator contentValidator;
+    private final boolean splitEventArrays;
+    private final int maxBodySize;
+    private final String retryAfterSeconds;
+    private final EventSubmitter eventSubmitter;
+
+    /**
+     * @param maxBodySize the maximum body size in bytes, or 0 if the body size is not limited.
+     */
+    HTTPRequestBodyHandler(ContentTransformer contentTransformer, ContentValidator contentValidator,
+                           boolean splitEventArrays, int maxBodySize, String retryAfterSeconds,
+                           EventSubmitter eventSubmitter) {
+        this.contentTransformer = contentTransformer;
+        this.contentValidator = contentValidator;
+        this.splitEventArrays = splitEventArrays;
+        this.maxBodySize = maxBodySize;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.eventSubmitter = eventSubmitter;
+    }
+
+    void handle(HttpServletRequest req, HttpServletResponse res, Map<String, Object> paramMap) throws IOException {
+        if (maxBodySize > 0 && req.getContentLength() > maxBodySize) {
+            rejectTooLarge(res);
+            return;
+        }
+        InputStream in = req.getInputStream();
+        if (maxBodySize > 0) {
+            in = new BoundedInputStream(in, maxBodySize);
+        }
+        Reader reader = new BufferedReader(new InputStreamReader(in, getCharset(req)), BUFFER_SIZE);
+        try {
+            if (splitEventArrays) {
+                processEvents(reader, res, paramMap);
+            } else {
+                processEvent(readBody(reader, req.getContentLength()), paramMap);
+            }
+        } catch (BodyTooLargeException e) {
+            rejectTooLarge(res);
+        } catch (RejectedExecutionException e) {
+            res.setHeader(HTTPEventAdapterConstants.RETRY_AFTER_HEADER, retryAfterSeconds);
+            res.setStatus(HTTPEventAdapterConstants.HTTP_TOO_MANY_REQUESTS);
+            log.warn("Rejecting the rest of the request since the job queue of the http adapter is full");
+        }
+    }
+
+    private void processEvents(Reader reader, HttpServletResponse res, Map<String, Object> paramMap)
+            throws IOException {
+        JsonEventReader eventReader = new JsonEventReader(reader);
+        int submitted = 0;
+        try {
+            String event;
+            while ((event = eventReader.next()) != null) {
+                // transformers may add to the parameters, hence each event gets its own copy.
+                if (processEvent(event, eventReader.isArray() ? new HashMap<>(paramMap) : paramMap)) {
+                    submitted++;
+                }
+            }
+        } catch (BodyTooLargeException e) {
+            throw e;
+        } catch (IOException e) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            log.error("Error while reading the events of the request after " + submitted + " events were submitted : "
+                              + e.getMessage(), e);
+        }
+    }
+
+    private boolean processEvent(String data, Map<String, Object> paramMap) {
+        if (data.isEmpty()) {
+            log.warn("Event Object is empty/null");
+            return false;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Message : " + data);
+        }
+        data = (String) contentTransformer.transform(data, paramMap);
+        ContentInfo contentInfo = contentValidator.validate(data, paramMap);
+        if (contentInfo != null && contentInfo.isValidContent()) {
+            eventSubmitter.submit((String) contentInfo.getMessage());
+            return true;
+        }
+        return false;
+    }
+
+    private void rejectTooLarge(HttpServletResponse res) {
+        res.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        log.warn("Rejecting the request since its body exceeds " + maxBodySize + " bytes");
+    }
+
+    /**
+     * Reads the whole body of a request that is not split into events, sizing the buffer by the content length when
+     * it is known.
+     */
+    private static String readBody(Reader reader, int contentLength) throws IOException {
+        StringBuilder body = new StringBuilder(contentLength > 0 ? contentLength : BUFFER_SIZE);
+        char[] buff = new char[BUFFER_SIZE];
+        int i;
+        while ((i = reader.read(buff)) > 0) {
+            body.append(buff, 0, i);
+        }
+        return body.toString();
+    }
+
+    private static Charset getCharset(HttpServletRequest req) {
+        String characterEncoding = req.getCharacterEncoding();
+        if (characterEncoding != null) {
+            try {
+                return Charset.forName(characterEncoding);
+            } catch (IllegalArgumentException e) {
+                log.warn("Unsupported character encoding " + characterEncoding + ", reading the request as UTF-8");
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Receives the events read from a request body.
+     */
+    interface EventSubmitter {
+
+        /**
+         * @throws RejectedExecutionException if the event cannot be accepted without blocking.
+         */
+        void submit(String message);
+    }
+
+    private static class BodyTooLargeException extends IOException {
+
+        BodyTooLargeException(int maxBodySize) {
+            super("Request body exceeds " + maxBodySize + " bytes");
+        }
+    }
+
+    /**
+     * Fails the read once more than the given number of bytes has been read, so that an oversized body is detected
+     * while it is streamed.
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+
+        private final int limit;
+        private long count;
+
+        BoundedInputStream(InputStream in, int limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long read) throws BodyTooLargeException {
+            count += read;
+            if (count > limit) {
+                throw new BodyTooLargeException(limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.http.authorization;
+
+/**
+ * Identifies a device authorization decision of a user.
+ */
+public class AuthorizationCacheKey {
+
+    private final String tenantDomain;
+    private final String username;
+    private final String deviceType;
+    private final String deviceId;
+    private final int hashCode;
+
+    public AuthorizationCacheKey(String tenantDomain, String username, String deviceType, String deviceId) {
+        this.tenantDomain = tenantDomain;
+        this.username = username;
+        this.deviceType = deviceType;
+        this.deviceId = deviceId;
+        this.hashCode = (tenantDomain + "@" + username + "@" + deviceType + "@" + deviceId).hashCode();
+    }
+
+    public String getTenantDomain() {
+        return tenantDomain;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getDeviceType() {
+        return deviceType;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof AuthorizationCacheKey)) {
+            return false;
+        }
+        AuthorizationCacheKey other = (AuthorizationCacheKey) obj;
+        return isEqual(deviceId, other.deviceId) && isEqual(deviceType, other.deviceType) &&
+                isEqual(username, other.username) && isEqual(tenantDomain, other.tenantDomain);
+    }
+
+    private static boolean isEqual(String value, String otherValue) {
+        return value == null ? otherValue == null : value.equals(otherValue);
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.http.authorization;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.input.adapter.http.authorization.client.dto.DeviceAuthorizationResult;
+import org.wso2.carbon.device.mgt.input.adapter.http.authorization.client.dto.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.input.adapter.http.util.AuthenticationInfo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the device authorization decisions made by the {@link DeviceAuthorizer}, so that the device management
+ * server is only called for devices which have not been seen within the cache timeout. Unauthorized decisions are
+ * cached with a shorter timeout, and failed calls are not cached at all.
+ * <p/>
+ * Concurrent misses of the same user are coalesced into a single batched authorization request. The first thread
+ * to miss sends the batch holding its own device, while the other threads wait for their result. Devices queued while
+ * that request is in flight are sent in the next batches by a small executor, so a request thread never sends the
+ * batches of other requests. A waiting thread gives up after the authorization timeout, which is also the timeout of
+ * the call to the device management server. A device which is already being authorized is not requested again.
+ */
+public class CachingDeviceAuthorizer {
+
+    private static final Log log = LogFactory.getLog(CachingDeviceAuthorizer.class);
+    private static final String DEVICE_KEY_SEPARATOR = "@";
+    private static final int BATCH_SENDER_THREAD_COUNT = 8;
+    private static final long BATCH_SENDER_KEEP_ALIVE_MILLIS = 60000;
+
+    private final DeviceAuthorizer deviceAuthorizer;
+    private final long cacheTimeoutMillis;
+    private final long unauthorizedCacheTimeoutMillis;
+    private final int maxBatchSize;
+    private final long authorizationTimeoutMillis;
+    private final ThreadPoolExecutor batchSender;
+    private final Map<AuthorizationCacheKey, CacheEntry> cache;
+    private final ConcurrentHashMap<AuthorizationCacheKey, PendingAuthorization> pendingAuthorizations =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AuthorizationBatch> authorizationBatches = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedBatchCount = new AtomicLong();
+    private final AtomicLong totalAuthorizationTimeMillis = new AtomicLong();
+
+    public CachingDeviceAuthorizer(DeviceAuthorizer deviceAuthorizer, final int maxCacheSize,
+                                   long cacheTimeoutMillis, long unauthorizedCacheTimeoutMillis, int maxBatchSize,
+                                   long authorizationTimeoutMillis) {
+        if (maxCacheSize <= 0 || maxBatchSize <= 0 || authorizationTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Authorization cache size, batch size and timeout should be positive");
+        }
+        this.deviceAuthorizer = deviceAuthorizer;
+        this.cacheTimeoutMillis = cacheTimeoutMillis;
+        this.unauthorizedCacheTimeoutMillis = unauthorizedCacheTimeoutMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.authorizationTimeoutMillis = authorizationTimeoutMillis;
+        // the threads stop once idle, hence authorizers replaced along with their servlet leave no threads behind.
+        this.batchSender = new ThreadPoolExecutor(BATCH_SENDER_THREAD_COUNT, BATCH_SENDER_THREAD_COUNT,
+                                                  BATCH_SENDER_KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS,
+                                                  new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "device-authorization-batch-sender");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.batchSender.allowCoreThreadTimeOut(true);
+        this.cache = new LinkedHashMap<AuthorizationCacheKey, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<AuthorizationCacheKey, CacheEntry> eldest) {
+                return size() > maxCacheSize;
+            }
+        };
+    }
+
+    public boolean isAuthorized(AuthenticationInfo authenticationInfo, String deviceId, String deviceType) {
+        if (deviceId == null || deviceId.isEmpty() || deviceType == null || deviceType.isEmpty()) {
+            return false;
+        }
+        AuthorizationCacheKey key = new AuthorizationCacheKey(authenticationInfo.getTenantDomain(),
+                                                              authenticationInfo.getUsername(), deviceType, deviceId);
+        Boolean cachedResult = getCachedResult(key);
+        if (cachedResult != null) {
+            hitCount.incrementAndGet();
+            return cachedResult;
+        }
+        missCount.incrementAndGet();
+        PendingAuthorization pendingAuthorization = new PendingAuthorization(key);
+        PendingAuthorization existingAuthorization = pendingAuthorizations.putIfAbsent(key, pendingAuthorization);
+        if (existingAuthorization != null) {
+            coalescedCount.incrementAndGet();
+            return existingAuthorization.await(authorizationTimeoutMillis);
+        }
+        enqueue(pendingAuthorization);
+        return pendingAuthorization.await(authorizationTimeoutMillis);
+    }
+
+    private void enqueue(PendingAuthorization pendingAuthorization) {
+        String batchKey = pendingAuthorization.key.getTenantDomain() + DEVICE_KEY_SEPARATOR +
+                pendingAuthorization.key.getUsername();
+        while (true) {
+            AuthorizationBatch batch = authorizationBatches.get(batchKey);
+            if (batch == null) {
+                batch = new AuthorizationBatch();
+                if (null != authorizationBatches.putIfAbsent(batchKey, batch)) {
+                    continue;
+                }
+            }
+            boolean sender;
+            synchronized (batch) {
+                if (batch.closed) {
+                    // the batch has just been completed and removed, hence retry with a new one.
+                    continue;
+                }
+                batch.pendingAuthorizations.add(pendingAuthorization);
+                sender = !batch.sending;
+                batch.sending = true;
+            }
+            if (sender) {
+                // nothing is queued in a batch without a sender, hence this authorization heads the next batch.
+                sendBatch(batchKey, batch);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Sends the next batch of queued authorizations. Authorizations queued in the meantime are sent by the batch
+     * sender executor, otherwise the batch is closed and removed.
+     */
+    private void sendBatch(String batchKey, AuthorizationBatch batch) {
+        List<PendingAuthorization> authorizations;
+        synchronized (batch) {
+            List<PendingAuthorization> nextBatch = batch.pendingAuthorizations.subList(
+                    0, Math.min(maxBatchSize, batch.pendingAuthorizations.size()));
+            authorizations = new ArrayList<>(nextBatch);
+            nextBatch.clear();
+        }
+        Set<String> authorizedDevices = null;
+        try {
+            if (!authorizations.isEmpty()) {
+                authorizedDevices = getAuthorizedDevices(authorizations);
+            }
+        } finally {
+            complete(authorizations, authorizedDevices);
+            boolean pending;
+            synchronized (batch) {
+                pending = !batch.pendingAuthorizations.isEmpty();
+                if (!pending) {
+                    closeBatch(batchKey, batch);
+                }
+            }
+            if (pending) {
+                scheduleBatch(batchKey, batch);
+            }
+        }
+    }
+
+    private void scheduleBatch(final String batchKey, final AuthorizationBatch batch) {
+        try {
+            batchSender.execute(new Runnable() {
+                @Override
+                public void run() {
+                    sendBatch(batchKey, batch);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.error("Failed to schedule the authorization of the devices of user " + batchKey, e);
+            List<PendingAuthorization> remainingAuthorizations;
+            synchronized (batch) {
+                remainingAuthorizations = new ArrayList<>(batch.pendingAuthorizations);
+                batch.pendingAuthorizations.clear();
+                closeBatch(batchKey, batch);
+            }
+            complete(remainingAuthorizations, null);
+        }
+    }
+
+    /**
+     * Must be called while holding the lock of the batch.
+     */
+    private void closeBatch(String batchKey, AuthorizationBatch batch) {
+        batch.closed = true;
+        batch.sending = false;
+        authorizationBatches.remove(batchKey, batch);
+    }
+
+    /**
+     * @return the authorized devices, or null if the device management server could not authorize the devices.
+     */
+    private Set<String> getAuthorizedDevices(List<PendingAuthorization> authorizations) {
+        AuthorizationCacheKey firstKey = authorizations.get(0).key;
+        List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>(authorizations.size());
+        for (PendingAuthorization authorization : authorizations) {
+            DeviceIdentifier deviceIdentifier = new DeviceIdentifier();
+            deviceIdentifier.setId(authorization.key.getDeviceId());
+            deviceIdentifier.setType(authorization.key.getDeviceType());
+            deviceIdentifiers.add(deviceIdentifier);
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            DeviceAuthorizationResult deviceAuthorizationResult = deviceAuthorizer.getAuthorizationResult(
+                    firstKey.getTenantDomain(), firstKey.getUsername(), deviceIdentifiers);
+            Set<String> authorizedDevices = new HashSet<>();
+            if (deviceAuthorizationResult != null && deviceAuthorizationResult.getAuthorizedDevices() != null) {
+                for (DeviceIdentifier authorizedDevice : deviceAuthorizationResult.getAuthorizedDevices()) {
+                    authorizedDevices.add(getDeviceKey(authorizedDevice.getId(), authorizedDevice.getType()));
+                }
+            }
+            batchCount.incrementAndGet();
+            return authorizedDevices;
+        } catch (RuntimeException e) {
+            failedBatchCount.incrementAndGet();
+            log.error("Failed to authorize " + deviceIdentifiers.size() + " devices of user " +
+                              firstKey.getUsername(), e);
+            return null;
+        } finally {
+            long authorizationTime = System.currentTimeMillis() - startTime;
+            totalAuthorizationTimeMillis.addAndGet(authorizationTime);
+            if (log.isDebugEnabled()) {
+                log.debug("Authorized " + deviceIdentifiers.size() + " devices of user " + firstKey.getUsername() +
+                                  " in " + authorizationTime + " ms");
+            }
+        }
+    }
+
+    private void complete(List<PendingAuthorization> authorizations, Set<String> authorizedDevices) {
+        for (PendingAuthorization authorization : authorizations) {
+            boolean authorized = authorizedDevices != null && authorizedDevices.contains(
+                    getDeviceKey(authorization.key.getDeviceId(), authorization.key.getDeviceType()));
+            if (authorizedDevices != null) {
+                putCachedResult(authorization.key, authorized);
+            }
+            pendingAuthorizations.remove(authorization.key, authorization);
+            authorization.complete(authorized);
+        }
+    }
+
+    private Boolean getCachedResult(AuthorizationCacheKey key) {
+        CacheEntry cacheEntry;
+        synchronized (cache) {
+            cacheEntry = cache.get(key);
+            if (cacheEntry == null) {
+                return null;
+            }
+            if (cacheEntry.expiryTime < System.currentTimeMillis()) {
+                cache.remove(key);
+                return null;
+            }
+        }
+        return cacheEntry.authorized;
+    }
+
+    private void putCachedResult(AuthorizationCacheKey key, boolean authorized) {
+        long timeout = authorized ? cacheTimeoutMillis : unauthorizedCacheTimeoutMillis;
+        if (timeout <= 0) {
+            return;
+        }
+        CacheEntry cacheEntry = new CacheEntry(authorized, System.currentTimeMillis() + timeout);
+        synchronized (cache) {
+            cache.put(key, cacheEntry);
+        }
+    }
+
+    private static String getDeviceKey(String deviceId, String deviceType) {
+        return deviceType + DEVICE_KEY_SEPARATOR + deviceId;
+    }
+
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public int getCacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * @return number of authorizations answered from the cache.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of authorizations not found in the cache, including the coalesced ones.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of misses which waited for an authorization already in progress for the same device.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * @return number of authorization requests sent to the device management server successfully.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getFailedBatchCount() {
+        return failedBatchCount.get();
+    }
+
+    /**
+     * @return average time taken by an authorization request to the device management server, in milliseconds.
+     */
+    public long getAverageAuthorizationTimeMillis() {
+        long requestCount = batchCount.get() + failedBatchCount.get();
+        return requestCount == 0 ? 0 : totalAuthorizationTimeMillis.get() / requestCount;
+    }
+
+    private static class CacheEntry {
+
+        private final boolean authorized;
+        private final long expiryTime;
+
+        CacheEntry(boolean authorized, long expiryTime) {
+            this.authorized = authorized;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+    private static class AuthorizationBatch {
+
+        private final List<PendingAuthorization> pendingAuthorizations = new ArrayList<>();
+        private boolean sending;
+        private boolean closed;
+    }
+
+    private static class PendingAuthorization {
+
+        private final AuthorizationCacheKey key;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile boolean authorized;
+
+        PendingAuthorization(AuthorizationCacheKey key) {
+            this.key = key;
+        }
+
+        void complete(boolean authorized) {
+            this.authorized = authorized;
+            latch.countDown();
+        }
+
+        boolean await(long timeoutMillis) {
+            try {
+                if (!latch.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    log.warn("Timed out waiting for the authorization of device " + key.getDeviceId() +
+                                     " of type " + key.getDeviceType());
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return authorized;
+        }
+    }
+}
@@ -30,12 +30,14 @@ import feign.slf4j.Slf4jLogger;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.base.ServerConfiguration;
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.AdapterPropertyUtils;
 import org.wso2.carbon.device.mgt.input.adapter.http.authorization.client.OAuthRequestInterceptor;
 import org.wso2.carbon.device.mgt.input.adapter.http.authorization.client.dto.AuthorizationRequest;
 import org.wso2.carbon.device.mgt.input.adapter.http.authorization.client.dto.DeviceAccessAuthorizationAdminService;
 import org.wso2.carbon.device.mgt.input.adapter.http.authorization.client.dto.DeviceAuthorizationResult;
 import org.wso2.carbon.device.mgt.input.adapter.http.authorization.client.dto.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.input.adapter.http.util.AuthenticationInfo;
+import org.wso2.carbon.device.mgt.input.adapter.http.util.HTTPEventAdapterConstants;
 import org.wso2.carbon.device.mgt.input.adapter.http.util.PropertyUtils;
 import org.wso2.carbon.event.input.adapter.core.exception.InputEventAdapterException;
 
@@ -48,6 +50,7 @@ import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This authorizer crossvalidates the request with device id and device type.
@@ -60,9 +63,13 @@ public class DeviceAuthorizer {
     private static Log log = LogFactory.getLog(DeviceAuthorizer.class);
 
     public DeviceAuthorizer(Map<String, String> globalProperties) {
+        int authorizationTimeoutMillis = (int) TimeUnit.SECONDS.toMillis(AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, HTTPEventAdapterConstants.AUTHORIZATION_TIMEOUT_NAME,
+                HTTPEventAdapterConstants.AUTHORIZATION_TIMEOUT_IN_SECONDS));
         try {
             deviceAccessAuthorizationAdminService = Feign.builder().client(getSSLClient()).logger(new Slf4jLogger())
                     .logLevel(Logger.Level.FULL).requestInterceptor(new OAuthRequestInterceptor(globalProperties))
+                    .options(new Request.Options(authorizationTimeoutMillis, authorizationTimeoutMillis))
                     .contract(new JAXRSContract()).encoder(new GsonEncoder()).decoder(new GsonDecoder())
                     .target(DeviceAccessAuthorizationAdminService.class, getDeviceMgtServerUrl(globalProperties)
                             + CDMF_SERVER_BASE_CONTEXT);
@@ -71,23 +78,25 @@ public class DeviceAuthorizer {
         }
     }
 
+    /**
+     * Creates an authorizer which does not connect to the device management server, for subclasses which provide the
+     * authorization result themselves.
+     */
+    DeviceAuthorizer() {
+    }
 
     public boolean isAuthorized(AuthenticationInfo authenticationInfo, String deviceId, String deviceType) {
 
         if (deviceId != null && !deviceId.isEmpty() && deviceType != null && !deviceType.isEmpty()) {
 
-            AuthorizationRequest authorizationRequest = new AuthorizationRequest();
-            authorizationRequest.setTenantDomain(authenticationInfo.getTenantDomain());
-            authorizationRequest.setUsername(authenticationInfo.getUsername());
             DeviceIdentifier deviceIdentifier = new DeviceIdentifier();
             deviceIdentifier.setId(deviceId);
             deviceIdentifier.setType(deviceType);
             List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
             deviceIdentifiers.add(deviceIdentifier);
-            authorizationRequest.setDeviceIdentifiers(deviceIdentifiers);
             try {
-                DeviceAuthorizationResult deviceAuthorizationResult =
-                        deviceAccessAuthorizationAdminService.isAuthorized(authorizationRequest);
+                DeviceAuthorizationResult deviceAuthorizationResult = getAuthorizationResult(
+                        authenticationInfo.getTenantDomain(), authenticationInfo.getUsername(), deviceIdentifiers);
                 List<DeviceIdentifier> devices = deviceAuthorizationResult.getAuthorizedDevices();
                 if (devices != null && devices.size() > 0) {
                     DeviceIdentifier authorizedDevice = devices.get(0);
@@ -102,6 +111,24 @@ public class DeviceAuthorizer {
         return false;
     }
 
+    /**
+     * Authorizes the user against all the given devices with a single call to the device management server.
+     *
+     * @param tenantDomain      tenant domain of the user.
+     * @param username          user to be authorized.
+     * @param deviceIdentifiers devices the user is accessing.
+     * @return the authorized and unauthorized devices.
+     * @throws FeignException if the device management server cannot be reached.
+     */
+    public DeviceAuthorizationResult getAuthorizationResult(String tenantDomain, String username,
+                                                            List<DeviceIdentifier> deviceIdentifiers) {
+        AuthorizationRequest authorizationRequest = new AuthorizationRequest();
+        authorizationRequest.setTenantDomain(tenantDomain);
+        authorizationRequest.setUsername(username);
+        authorizationRequest.setDeviceIdentifiers(deviceIdentifiers);
+        return deviceAccessAuthorizationAdminService.isAuthorized(authorizationRequest);
+    }
+
     private String getDeviceMgtServerUrl(Map<String, String> properties) throws InputEventAdapterException {
         String deviceMgtServerUrl = PropertyUtils.replaceProperty(properties.get(DEVICE_MGT_SERVER_URL));
         if (deviceMgtServerUrl == null || deviceMgtServerUrl.isEmpty()) {
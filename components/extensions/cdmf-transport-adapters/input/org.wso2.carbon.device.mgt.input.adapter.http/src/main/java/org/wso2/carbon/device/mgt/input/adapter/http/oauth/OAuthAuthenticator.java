@@ -23,8 +23,11 @@ import org.apache.axis2.transport.http.HTTPConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
+import org.wso2.carbon.device.mgt.input.adapter.extension.oauth.TokenValidationCache;
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.AdapterPropertyUtils;
 import org.wso2.carbon.device.mgt.input.adapter.http.internal.InputAdapterServiceDataHolder;
 import org.wso2.carbon.device.mgt.input.adapter.http.util.AuthenticationInfo;
+import org.wso2.carbon.device.mgt.input.adapter.http.util.HTTPEventAdapterConstants;
 import org.wso2.carbon.event.input.adapter.core.InputEventAdapterConfiguration;
 import org.wso2.carbon.identity.oauth2.stub.OAuth2TokenValidationServiceStub;
 import org.wso2.carbon.identity.oauth2.stub.dto.OAuth2TokenValidationRequestDTO;
@@ -37,6 +40,7 @@ import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 import javax.servlet.http.HttpServletRequest;
 import java.rmi.RemoteException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,6 +50,14 @@ import java.util.regex.Pattern;
 public class OAuthAuthenticator {
     private static String cookie;
     private GenericObjectPool stubs;
+    private final TokenValidationCache<AuthenticationInfo> tokenValidationCache;
+    private final TokenValidationCache.TokenValidator<AuthenticationInfo> tokenValidator =
+            new TokenValidationCache.TokenValidator<AuthenticationInfo>() {
+                @Override
+                public TokenValidationCache.ValidationResult<AuthenticationInfo> validate(String token) {
+                    return requestTokenValidation(token);
+                }
+            };
 
     private static final Pattern PATTERN = Pattern.compile("[B|b]earer\\s");
     private static final String TOKEN_TYPE = "bearer";
@@ -54,6 +66,14 @@ public class OAuthAuthenticator {
 
     public OAuthAuthenticator(Map<String, String> globalProperties) {
         this.stubs = new GenericObjectPool(new OAuthTokenValidaterStubFactory(globalProperties));
+        int tokenCacheSize = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, HTTPEventAdapterConstants.TOKEN_CACHE_SIZE_NAME,
+                HTTPEventAdapterConstants.TOKEN_CACHE_SIZE);
+        int tokenCacheTimeout = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, HTTPEventAdapterConstants.TOKEN_CACHE_TIMEOUT_NAME,
+                HTTPEventAdapterConstants.TOKEN_CACHE_TIMEOUT_IN_SECONDS);
+        this.tokenValidationCache = new TokenValidationCache<>(tokenCacheSize,
+                                                               TimeUnit.SECONDS.toMillis(tokenCacheTimeout));
     }
 
     public AuthenticationInfo authenticate(HttpServletRequest req) {
@@ -90,11 +110,12 @@ public class OAuthAuthenticator {
      *
      * @param token                      that needs to be validated.
      * @param tokenValidationServiceStub stub that is used to call the external service.
-     * @return AuthenticationInfo This contains the information related to authenticated client.
+     * @return AuthenticationInfo This contains the information related to authenticated client, along with the
+     * time it remains valid.
      * @throws RemoteException that triggers when failing to call the external service..
      */
-    private AuthenticationInfo getAuthenticationInfo(String token,
-                                                     OAuth2TokenValidationServiceStub tokenValidationServiceStub)
+    private TokenValidationCache.ValidationResult<AuthenticationInfo> getAuthenticationInfo(
+            String token, OAuth2TokenValidationServiceStub tokenValidationServiceStub)
             throws RemoteException, UserStoreException {
         AuthenticationInfo authenticationInfo = new AuthenticationInfo();
         OAuth2TokenValidationRequestDTO validationRequest = new OAuth2TokenValidationRequestDTO();
@@ -108,7 +129,7 @@ public class OAuthAuthenticator {
         tokenValidationResponse = tokenValidationServiceStub.validate(validationRequest);
         if (tokenValidationResponse == null) {
             authenticationInfo.setAuthenticated(false);
-            return authenticationInfo;
+            return new TokenValidationCache.ValidationResult<>(authenticationInfo, 0);
         }
         authenticated = tokenValidationResponse.getValid();
         if (authenticated) {
@@ -130,16 +151,34 @@ public class OAuthAuthenticator {
                 .getLastOperationContext().getServiceContext();
         cookie = (String) serviceContext.getProperty(HTTPConstants.COOKIE_STRING);
         authenticationInfo.setAuthenticated(authenticated);
-        return authenticationInfo;
+        long validityPeriod = authenticated ? TimeUnit.SECONDS.toMillis(tokenValidationResponse.getExpiryTime()) : 0;
+        return new TokenValidationCache.ValidationResult<>(authenticationInfo, validityPeriod);
     }
 
     /**
-     * This method gets a string accessToken and validates it
+     * This method gets a string accessToken and validates it, reusing the result of an earlier validation of the
+     * same token until it expires.
      *
      * @param token which need to be validated.
      * @return AuthenticationInfo with the validated results.
      */
     private AuthenticationInfo validateToken(String token) {
+        AuthenticationInfo authenticationInfo = tokenValidationCache.get(token, tokenValidator);
+        if (authenticationInfo == null) {
+            authenticationInfo = new AuthenticationInfo();
+            authenticationInfo.setAuthenticated(false);
+            authenticationInfo.setTenantId(-1);
+        }
+        return authenticationInfo;
+    }
+
+    /**
+     * Validates the token with the token validation service.
+     *
+     * @param token which need to be validated.
+     * @return the validated results, or null if the token validation service could not be reached.
+     */
+    private TokenValidationCache.ValidationResult<AuthenticationInfo> requestTokenValidation(String token) {
         OAuth2TokenValidationServiceStub tokenValidationServiceStub = null;
         try {
             Object stub = this.stubs.borrowObject();
@@ -168,9 +207,6 @@ public class OAuthAuthenticator {
                                  "stub pool.", e);
             }
         }
-        AuthenticationInfo authenticationInfo = new AuthenticationInfo();
-        authenticationInfo.setAuthenticated(false);
-        authenticationInfo.setTenantId(-1);
-        return authenticationInfo;
+        return null;
     }
 }
@@ -61,4 +61,26 @@ public final class HTTPEventAdapterConstants {
     public static final String DEFAULT = "default";
     public static final String ADAPTER_CONF_CONTENT_TRANSFORMER_CLASSNAME = "contentTransformer";
     public static final String ADAPTER_CONF_CONTENT_TRANSFORMER_CLASSNAME_HINT = "contentTransformer.hint";
+    public static final String AUTHORIZATION_CACHE_SIZE_NAME = "authorizationCacheSize";
+    public static final int AUTHORIZATION_CACHE_SIZE = 10000;
+    public static final String AUTHORIZATION_CACHE_TIMEOUT_NAME = "authorizationCacheTimeoutInSeconds";
+    public static final int AUTHORIZATION_CACHE_TIMEOUT_IN_SECONDS = 300;
+    public static final String UNAUTHORIZED_CACHE_TIMEOUT_NAME = "unauthorizedCacheTimeoutInSeconds";
+    public static final int UNAUTHORIZED_CACHE_TIMEOUT_IN_SECONDS = 30;
+    public static final String AUTHORIZATION_BATCH_SIZE_NAME = "authorizationBatchSize";
+    public static final int AUTHORIZATION_BATCH_SIZE = 100;
+    public static final String AUTHORIZATION_TIMEOUT_NAME = "authorizationTimeoutInSeconds";
+    public static final int AUTHORIZATION_TIMEOUT_IN_SECONDS = 10;
+    public static final String TOKEN_CACHE_SIZE_NAME = "tokenCacheSize";
+    public static final int TOKEN_CACHE_SIZE = 10000;
+    public static final String TOKEN_CACHE_TIMEOUT_NAME = "tokenCacheTimeoutInSeconds";
+    public static final int TOKEN_CACHE_TIMEOUT_IN_SECONDS = 60;
+    public static final String SPLIT_EVENT_ARRAYS_NAME = "splitEventArrays";
+    public static final String RETRY_AFTER_NAME = "retryAfterInSeconds";
+    public static final int RETRY_AFTER_IN_SECONDS = 5;
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+    public static final int HTTP_TOO_MANY_REQUESTS = 429;
+    public static final String MAX_BODY_SIZE_NAME = "maxBodySizeInBytes";
+    // the body size is not limited unless maxBodySizeInBytes is configured.
+    public static final int MAX_BODY_SIZE_IN_BYTES = 0;
 }
@@ -0,0 +1,136 @@
+/*
+*  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.device.mgt.input.adapter.http.util;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the events of a request body one at a time. When the body is a JSON array each element is returned as a
+ * separate event as soon as it has been read from the underlying reader, so only one element is held in memory at a
+ * time. Any other body is read completely and returned as a single event.
+ */
+public class JsonEventReader {
+
+    private static final int END_OF_STREAM = -1;
+
+    private final Reader reader;
+    private boolean started;
+    private boolean finished;
+    private boolean array;
+
+    public JsonEventReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the next event, or null if there are no more events.
+     * @throws IOException if the body cannot be read or the JSON array is not terminated.
+     */
+    public String next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!started) {
+            started = true;
+            int first = skipWhitespace();
+            if (first == END_OF_STREAM) {
+                finished = true;
+                return null;
+            }
+            if (first != '[') {
+                finished = true;
+                return readRemaining((char) first);
+            }
+            array = true;
+        }
+        return readElement();
+    }
+
+    /**
+     * @return true if the body was a JSON array.
+     */
+    public boolean isArray() {
+        return array;
+    }
+
+    private String readRemaining(char first) throws IOException {
+        StringBuilder event = new StringBuilder();
+        event.append(first);
+        char[] buffer = new char[1024];
+        int read;
+        while ((read = reader.read(buffer)) != END_OF_STREAM) {
+            event.append(buffer, 0, read);
+        }
+        return event.toString();
+    }
+
+    private String readElement() throws IOException {
+        StringBuilder element = new StringBuilder();
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        int c = skipWhitespace();
+        while (true) {
+            if (c == END_OF_STREAM) {
+                throw new IOException("Unterminated JSON event array");
+            }
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || (c == ']' && depth > 0)) {
+                depth--;
+            } else if (depth == 0 && (c == ',' || c == ']')) {
+                if (c == ']') {
+                    finished = true;
+                }
+                break;
+            }
+            element.append((char) c);
+            c = reader.read();
+        }
+        int length = element.length();
+        while (length > 0 && Character.isWhitespace(element.charAt(length - 1))) {
+            length--;
+        }
+        if (length == 0) {
+            // an empty array, or an empty element between separators.
+            return finished ? null : readElement();
+        }
+        element.setLength(length);
+        return element.toString();
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        do {
+            c = reader.read();
+        } while (c != END_OF_STREAM && Character.isWhitespace(c));
+        return c;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.device.mgt.input.adapter.extension.transformer.DefaultContentTransformer;
+import org.wso2.carbon.device.mgt.input.adapter.extension.validator.DefaultContentValidator;
+import org.wso2.carbon.device.mgt.input.adapter.http.util.HTTPEventAdapterConstants;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+public class HTTPRequestBodyHandlerTestCase {
+
+    @Test
+    public void testArrayEventsAreSubmittedAsTheyAreRead() throws IOException {
+        // events larger than the read buffers, so that reading ahead cannot pull in the whole body.
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 40000; i++) {
+            value.append('x');
+        }
+        String event = "{\"value\":\"" + value + "\"}";
+        String body = "[" + event + "," + event + "," + event + "]";
+        final TrackingInputStream in = new TrackingInputStream(body);
+        final List<Integer> bytesReadAtSubmit = new ArrayList<>();
+        HTTPRequestBodyHandler.EventSubmitter submitter = new HTTPRequestBodyHandler.EventSubmitter() {
+            @Override
+            public void submit(String message) {
+                bytesReadAtSubmit.add(in.bytesRead);
+            }
+        };
+        Response response = new Response();
+        newHandler(true, 0, submitter).handle(newRequest(in, body.length(), null), response.proxy,
+                                              new HashMap<String, Object>());
+        Assert.assertEquals(3, bytesReadAtSubmit.size());
+        Assert.assertTrue(bytesReadAtSubmit.get(0) < 2 * event.length());
+        Assert.assertTrue(bytesReadAtSubmit.get(1) < 3 * event.length());
+        Assert.assertEquals(0, response.status);
+    }
+
+    @Test
+    public void testSingleEventBody() throws IOException {
+        RecordingSubmitter submitter = new RecordingSubmitter(Integer.MAX_VALUE);
+        String body = "{\"name\":\"\u00e9v\u00e9nement\"}";
+        Response response = new Response();
+        newHandler(false, 0, submitter).handle(newRequest(body, "UTF-8"), response.proxy,
+                                               new HashMap<String, Object>());
+        Assert.assertEquals(Arrays.asList(body), submitter.messages);
+        Assert.assertEquals(0, response.status);
+    }
+
+    @Test
+    public void testBodySizeIsNotLimitedByDefault() throws IOException {
+        RecordingSubmitter submitter = new RecordingSubmitter(Integer.MAX_VALUE);
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 50000; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"sensorValue\":").append(i).append('}');
+        }
+        body.append(']');
+        Assert.assertTrue(body.length() > 1024 * 1024);
+        Response response = new Response();
+        newHandler(true, HTTPEventAdapterConstants.MAX_BODY_SIZE_IN_BYTES, submitter)
+                .handle(newRequest(body.toString(), null), response.proxy, new HashMap<String, Object>());
+        Assert.assertEquals(50000, submitter.messages.size());
+        Assert.assertEquals(0, response.status);
+    }
+
+    @Test
+    public void testDeclaredLengthOverLimitIsRejectedBeforeReading() throws IOException {
+        RecordingSubmitter submitter = new RecordingSubmitter(Integer.MAX_VALUE);
+        TrackingInputStream in = new TrackingInputStream("[1,2,3]");
+        Response response = new Response();
+        newHandler(true, 4, submitter).handle(newRequest(in, 7, null), response.proxy,
+                                              new HashMap<String, Object>());
+        Assert.assertEquals(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, response.status);
+        Assert.assertEquals(0, in.bytesRead);
+        Assert.assertTrue(submitter.messages.isEmpty());
+    }
+
+    @Test
+    public void testStreamedBodyOverLimitIsRejected() throws IOException {
+        RecordingSubmitter submitter = new RecordingSubmitter(Integer.MAX_VALUE);
+        Response response = new Response();
+        newHandler(false, 4, submitter).handle(newRequest(new TrackingInputStream("[1,2,3]"), -1, null),
+                                               response.proxy, new HashMap<String, Object>());
+        Assert.assertEquals(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, response.status);
+        Assert.assertTrue(submitter.messages.isEmpty());
+    }
+
+    @Test
+    public void testMalformedArrayKeepsEventsReadBeforeTheError() throws IOException {
+        RecordingSubmitter submitter = new RecordingSubmitter(Integer.MAX_VALUE);
+        Response response = new Response();
+        newHandler(true, 0, submitter).handle(newRequest("[{\"id\":1},{\"id\":", null), response.proxy,
+                                              new HashMap<String, Object>());
+        Assert.assertEquals(Arrays.asList("{\"id\":1}"), submitter.messages);
+        Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.status);
+    }
+
+    @Test
+    public void testRejectedSubmissionStopsReadingAndAsksToRetry() throws IOException {
+        RecordingSubmitter submitter = new RecordingSubmitter(2);
+        Response response = new Response();
+        newHandler(true, 0, submitter).handle(newRequest("[1,2,3,4]", null), response.proxy,
+                                              new HashMap<String, Object>());
+        Assert.assertEquals(Arrays.asList("1", "2"), submitter.messages);
+        Assert.assertEquals(HTTPEventAdapterConstants.HTTP_TOO_MANY_REQUESTS, response.status);
+        Assert.assertEquals("5", response.headers.get(HTTPEventAdapterConstants.RETRY_AFTER_HEADER));
+    }
+
+    @Test
+    public void testArrayEventsGetTheirOwnParameters() throws IOException {
+        final List<Map<String, Object>> parameters = new ArrayList<>();
+        HTTPRequestBodyHandler handler = new HTTPRequestBodyHandler(new DefaultContentTransformer() {
+            @Override
+            public Object transform(Object message, Map<String, Object> dynamicProperties) {
+                dynamicProperties.put("event", message);
+                parameters.add(dynamicProperties);
+                return message;
+            }
+        }, new DefaultContentValidator(), true, 0, "5", new RecordingSubmitter(Integer.MAX_VALUE));
+        Map<String, Object> paramMap = new HashMap<>();
+        paramMap.put("deviceId", "1");
+        handler.handle(newRequest("[1,2]", null), new Response().proxy, paramMap);
+        Assert.assertEquals(2, parameters.size());
+        Assert.assertEquals("1", parameters.get(0).get("event"));
+        Assert.assertEquals("2", parameters.get(1).get("event"));
+        Assert.assertEquals("1", parameters.get(1).get("deviceId"));
+        Assert.assertFalse(paramMap.containsKey("event"));
+    }
+
+    private static HTTPRequestBodyHandler newHandler(boolean splitEventArrays, int maxBodySize,
+                                                     HTTPRequestBodyHandler.EventSubmitter submitter) {
+        return new HTTPRequestBodyHandler(new DefaultContentTransformer(), new DefaultContentValidator(),
+                                          splitEventArrays, maxBodySize, "5", submitter);
+    }
+
+    private static HttpServletRequest newRequest(String body, String characterEncoding) {
+        TrackingInputStream in = new TrackingInputStream(body);
+        return newRequest(in, in.length, characterEncoding);
+    }
+
+    private static HttpServletRequest newRequest(final ServletInputStream in, final int contentLength,
+                                                 final String characterEncoding) {
+        return (HttpServletRequest) Proxy.newProxyInstance(
+                HttpServletRequest.class.getClassLoader(), new Class[]{HttpServletRequest.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "getInputStream":
+                                return in;
+                            case "getContentLength":
+                                return contentLength;
+                            case "getCharacterEncoding":
+                                return characterEncoding;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    private static class Response implements InvocationHandler {
+        private final HttpServletResponse proxy = (HttpServletResponse) Proxy.newProxyInstance(
+                HttpServletResponse.class.getClassLoader(), new Class[]{HttpServletResponse.class}, this);
+        private final Map<String, String> headers = new HashMap<>();
+        private int status;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "setStatus":
+                    status = (Integer) args[0];
+                    return null;
+                case "setHeader":
+                    headers.put((String) args[0], (String) args[1]);
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+
+    private static class RecordingSubmitter implements HTTPRequestBodyHandler.EventSubmitter {
+        private final List<String> messages = new ArrayList<>();
+        private final int capacity;
+
+        RecordingSubmitter(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void submit(String message) {
+            if (messages.size() == capacity) {
+                throw new RejectedExecutionException("queue is full");
+            }
+            messages.add(message);
+        }
+    }
+
+    /**
+     * Hands out the body a few bytes at a time and counts how much of it has been read.
+     */
+    private static class TrackingInputStream extends ServletInputStream {
+        private final ByteArrayInputStream in;
+        private final int length;
+        private int bytesRead;
+
+        TrackingInputStream(String body) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            this.in = new ByteArrayInputStream(bytes);
+            this.length = bytes.length;
+        }
+
+        @Override
+        public int read() {
+            int b = in.read();
+            if (b != -1) {
+                bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            int read = in.read(b, off, Math.min(len, 4));
+            if (read > 0) {
+                bytesRead += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.http.authorization;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.device.mgt.input.adapter.http.authorization.client.dto.DeviceAuthorizationResult;
+import org.wso2.carbon.device.mgt.input.adapter.http.authorization.client.dto.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.input.adapter.http.util.AuthenticationInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class CachingDeviceAuthorizerTestCase {
+
+    private static final String DEVICE_TYPE = "raspberrypi";
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    @Test
+    public void testResultsAreCached() {
+        StubDeviceAuthorizer deviceAuthorizer = new StubDeviceAuthorizer();
+        CachingDeviceAuthorizer authorizer = newAuthorizer(deviceAuthorizer, TIMEOUT_MILLIS);
+        Assert.assertTrue(authorizer.isAuthorized(newUser("admin"), "allowed-1", DEVICE_TYPE));
+        Assert.assertTrue(authorizer.isAuthorized(newUser("admin"), "allowed-1", DEVICE_TYPE));
+        Assert.assertFalse(authorizer.isAuthorized(newUser("admin"), "denied-1", DEVICE_TYPE));
+        Assert.assertFalse(authorizer.isAuthorized(newUser("admin"), "denied-1", DEVICE_TYPE));
+        Assert.assertEquals(2, deviceAuthorizer.getCallCount());
+        Assert.assertEquals(2, authorizer.getHitCount());
+        Assert.assertEquals(2, authorizer.getCacheSize());
+    }
+
+    @Test
+    public void testMissesAreCoalesced() throws Exception {
+        StubDeviceAuthorizer deviceAuthorizer = new StubDeviceAuthorizer();
+        deviceAuthorizer.blockCall(0);
+        final CachingDeviceAuthorizer authorizer = newAuthorizer(deviceAuthorizer, TIMEOUT_MILLIS);
+        AuthorizationThread first = new AuthorizationThread(authorizer, "allowed-0");
+        first.start();
+        deviceAuthorizer.awaitCall(0);
+
+        // misses arriving while the first call is in flight are sent together in the next batch.
+        List<AuthorizationThread> threads = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            threads.add(new AuthorizationThread(authorizer, (i % 2 == 0 ? "denied-" : "allowed-") + i));
+        }
+        threads.add(new AuthorizationThread(authorizer, "allowed-1"));
+        for (AuthorizationThread thread : threads) {
+            thread.start();
+        }
+        awaitWaiting(threads);
+        deviceAuthorizer.release(0);
+        first.join();
+        for (AuthorizationThread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(first.result);
+        for (AuthorizationThread thread : threads) {
+            Assert.assertEquals(thread.deviceId.startsWith("allowed"), thread.result);
+        }
+        Assert.assertEquals(2, deviceAuthorizer.getCallCount());
+        Assert.assertEquals(Collections.singletonList("allowed-0"), deviceAuthorizer.getDeviceIds(0));
+        Assert.assertEquals(5, deviceAuthorizer.getDeviceIds(1).size());
+        Assert.assertEquals(1, authorizer.getCoalescedCount());
+    }
+
+    @Test
+    public void testSenderOnlyWaitsForItsOwnBatch() throws Exception {
+        StubDeviceAuthorizer deviceAuthorizer = new StubDeviceAuthorizer();
+        deviceAuthorizer.blockCall(0);
+        deviceAuthorizer.blockCall(1);
+        CachingDeviceAuthorizer authorizer = newAuthorizer(deviceAuthorizer, TIMEOUT_MILLIS);
+        AuthorizationThread first = new AuthorizationThread(authorizer, "allowed-0");
+        first.start();
+        deviceAuthorizer.awaitCall(0);
+        AuthorizationThread second = new AuthorizationThread(authorizer, "allowed-1");
+        second.start();
+        awaitWaiting(Collections.singletonList(second));
+        deviceAuthorizer.release(0);
+
+        // the batch queued behind the first one is sent by the executor, not by the first caller.
+        first.join(TIMEOUT_MILLIS);
+        Assert.assertFalse(first.isAlive());
+        Assert.assertTrue(first.result);
+        deviceAuthorizer.awaitCall(1);
+        Assert.assertTrue(second.isAlive());
+        deviceAuthorizer.release(1);
+        second.join();
+        Assert.assertTrue(second.result);
+    }
+
+    @Test
+    public void testWaitIsLimitedByTheAuthorizationTimeout() throws Exception {
+        StubDeviceAuthorizer deviceAuthorizer = new StubDeviceAuthorizer();
+        deviceAuthorizer.blockCall(0);
+        CachingDeviceAuthorizer authorizer = newAuthorizer(deviceAuthorizer, 200);
+        AuthorizationThread first = new AuthorizationThread(authorizer, "allowed-0");
+        first.start();
+        deviceAuthorizer.awaitCall(0);
+
+        long startTime = System.currentTimeMillis();
+        Assert.assertFalse(authorizer.isAuthorized(newUser("admin"), "allowed-0", DEVICE_TYPE));
+        long waitTime = System.currentTimeMillis() - startTime;
+        Assert.assertTrue("waited " + waitTime + " ms", waitTime >= 150 && waitTime < TIMEOUT_MILLIS);
+        deviceAuthorizer.release(0);
+        first.join();
+    }
+
+    @Test
+    public void testFailedAuthorizationIsDeniedAndNotCached() {
+        StubDeviceAuthorizer deviceAuthorizer = new StubDeviceAuthorizer();
+        deviceAuthorizer.failing.set(true);
+        CachingDeviceAuthorizer authorizer = newAuthorizer(deviceAuthorizer, TIMEOUT_MILLIS);
+        Assert.assertFalse(authorizer.isAuthorized(newUser("admin"), "allowed-1", DEVICE_TYPE));
+        Assert.assertEquals(1, authorizer.getFailedBatchCount());
+        Assert.assertEquals(0, authorizer.getCacheSize());
+
+        deviceAuthorizer.failing.set(false);
+        Assert.assertTrue(authorizer.isAuthorized(newUser("admin"), "allowed-1", DEVICE_TYPE));
+        Assert.assertEquals(2, deviceAuthorizer.getCallCount());
+        Assert.assertEquals(1, authorizer.getBatchCount());
+    }
+
+    @Test
+    public void testUsersAreAuthorizedSeparately() {
+        StubDeviceAuthorizer deviceAuthorizer = new StubDeviceAuthorizer();
+        CachingDeviceAuthorizer authorizer = newAuthorizer(deviceAuthorizer, TIMEOUT_MILLIS);
+        Assert.assertTrue(authorizer.isAuthorized(newUser("admin"), "allowed-1", DEVICE_TYPE));
+        Assert.assertTrue(authorizer.isAuthorized(newUser("user"), "allowed-1", DEVICE_TYPE));
+        Assert.assertFalse(authorizer.isAuthorized(newUser("admin"), "", DEVICE_TYPE));
+        Assert.assertEquals(2, deviceAuthorizer.getCallCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveTimeout() {
+        newAuthorizer(new StubDeviceAuthorizer(), 0);
+    }
+
+    /**
+     * Waits until the threads are waiting for their authorization result.
+     */
+    private static void awaitWaiting(List<AuthorizationThread> threads) throws InterruptedException {
+        for (AuthorizationThread thread : threads) {
+            while (thread.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static CachingDeviceAuthorizer newAuthorizer(DeviceAuthorizer deviceAuthorizer, long timeoutMillis) {
+        return new CachingDeviceAuthorizer(deviceAuthorizer, 100, 60000, 60000, 100, timeoutMillis);
+    }
+
+    private static AuthenticationInfo newUser(String username) {
+        AuthenticationInfo authenticationInfo = new AuthenticationInfo();
+        authenticationInfo.setUsername(username);
+        authenticationInfo.setTenantDomain("carbon.super");
+        return authenticationInfo;
+    }
+
+    private static class AuthorizationThread extends Thread {
+        private final CachingDeviceAuthorizer authorizer;
+        private final String deviceId;
+        private volatile boolean result;
+
+        AuthorizationThread(CachingDeviceAuthorizer authorizer, String deviceId) {
+            this.authorizer = authorizer;
+            this.deviceId = deviceId;
+        }
+
+        @Override
+        public void run() {
+            result = authorizer.isAuthorized(newUser("admin"), deviceId, DEVICE_TYPE);
+        }
+    }
+
+    /**
+     * Authorizes the devices whose id starts with "allowed", and can hold chosen calls until they are released.
+     */
+    private static class StubDeviceAuthorizer extends DeviceAuthorizer {
+        private final List<List<String>> calls = new ArrayList<>();
+        private final List<CountDownLatch> started = new ArrayList<>();
+        private final List<CountDownLatch> released = new ArrayList<>();
+        private final AtomicBoolean failing = new AtomicBoolean();
+
+        StubDeviceAuthorizer() {
+            for (int i = 0; i < 10; i++) {
+                started.add(new CountDownLatch(1));
+                released.add(new CountDownLatch(0));
+            }
+        }
+
+        void blockCall(int call) {
+            released.set(call, new CountDownLatch(1));
+        }
+
+        void release(int call) {
+            released.get(call).countDown();
+        }
+
+        void awaitCall(int call) throws InterruptedException {
+            Assert.assertTrue(started.get(call).await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        }
+
+        synchronized int getCallCount() {
+            return calls.size();
+        }
+
+        synchronized List<String> getDeviceIds(int call) {
+            return calls.get(call);
+        }
+
+        @Override
+        public DeviceAuthorizationResult getAuthorizationResult(String tenantDomain, String username,
+                                                                List<DeviceIdentifier> deviceIdentifiers) {
+            int call;
+            synchronized (this) {
+                call = calls.size();
+                List<String> deviceIds = new ArrayList<>();
+                for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+                    deviceIds.add(deviceIdentifier.getId());
+                }
+                calls.add(deviceIds);
+            }
+            started.get(call).countDown();
+            try {
+                released.get(call).await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failing.get()) {
+                throw new IllegalStateException("device management server is not reachable");
+            }
+            DeviceAuthorizationResult result = new DeviceAuthorizationResult();
+            for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+                if (deviceIdentifier.getId().startsWith("allowed")) {
+                    result.addAuthorizedDevice(deviceIdentifier);
+                } else {
+                    result.addUnauthorizedDevice(deviceIdentifier);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.input.adapter.http.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class JsonEventReaderTestCase {
+
+    @Test
+    public void testArrayElementsAreSplit() throws IOException {
+        JsonEventReader reader = new JsonEventReader(new StringReader(
+                " [ {\"a\":1} , {\"b\":[1,2,{\"c\":\"]}\"}]},\n\"text\", 42 ]"));
+        Assert.assertEquals(Arrays.asList("{\"a\":1}", "{\"b\":[1,2,{\"c\":\"]}\"}]}", "\"text\"", "42"),
+                            readAll(reader));
+        Assert.assertTrue(reader.isArray());
+    }
+
+    @Test
+    public void testEscapedQuotesInStrings() throws IOException {
+        JsonEventReader reader = new JsonEventReader(new StringReader("[{\"a\":\"x\\\",]\\\\\"},{\"b\":2}]"));
+        Assert.assertEquals(Arrays.asList("{\"a\":\"x\\\",]\\\\\"}", "{\"b\":2}"), readAll(reader));
+    }
+
+    @Test
+    public void testNonArrayBodyIsSingleEvent() throws IOException {
+        JsonEventReader reader = new JsonEventReader(new StringReader("  {\"a\":[1,2]}\n"));
+        Assert.assertEquals(Arrays.asList("{\"a\":[1,2]}\n"), readAll(reader));
+        Assert.assertFalse(reader.isArray());
+    }
+
+    @Test
+    public void testEmptyBodiesAndElements() throws IOException {
+        Assert.assertTrue(readAll(new JsonEventReader(new StringReader(""))).isEmpty());
+        Assert.assertTrue(readAll(new JsonEventReader(new StringReader(" [ ] "))).isEmpty());
+        Assert.assertEquals(Arrays.asList("1", "2"), readAll(new JsonEventReader(new StringReader("[1,,2]"))));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnterminatedArray() throws IOException {
+        readAll(new JsonEventReader(new StringReader("[{\"a\":1},{\"b\":")));
+    }
+
+    @Test
+    public void testElementIsReturnedBeforeTheRestOfTheBodyIsRead() throws IOException {
+        final StringBuilder consumed = new StringBuilder();
+        final String body = "[{\"a\":1},{\"b\":2}]";
+        Reader source = new Reader() {
+            private int position;
+
+            @Override
+            public int read(char[] cbuf, int off, int len) {
+                if (position == body.length()) {
+                    return -1;
+                }
+                cbuf[off] = body.charAt(position++);
+                consumed.append(cbuf[off]);
+                return 1;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        JsonEventReader reader = new JsonEventReader(source);
+        Assert.assertEquals("{\"a\":1}", reader.next());
+        Assert.assertEquals("[{\"a\":1},", consumed.toString());
+        Assert.assertEquals("{\"b\":2}", reader.next());
+        Assert.assertNull(reader.next());
+    }
+
+    private static List<String> readAll(JsonEventReader reader) throws IOException {
+        List<String> events = new ArrayList<>();
+        String event;
+        while ((event = reader.next()) != null) {
+            events.add(event);
+        }
+        return events;
+    }
+}
@@ -39,6 +39,7 @@ import org.wso2.carbon.core.multitenancy.utils.TenantAxisUtils;
 import org.wso2.carbon.device.mgt.input.adapter.extension.ContentInfo;
 import org.wso2.carbon.device.mgt.input.adapter.extension.ContentTransformer;
 import org.wso2.carbon.device.mgt.input.adapter.extension.ContentValidator;
+import org.wso2.carbon.device.mgt.input.adapter.extension.topic.DeviceTopic;
 import org.wso2.carbon.device.mgt.input.adapter.mqtt.internal.InputAdapterServiceDataHolder;
 import org.wso2.carbon.event.input.adapter.core.InputEventAdapterConfiguration;
 import org.wso2.carbon.event.input.adapter.core.InputEventAdapterListener;
@@ -90,7 +91,10 @@ public class MQTTAdapterListener implements MqttCallback, Runnable {
         int keepAlive = mqttBrokerConnectionConfiguration.getKeepAlive();
         this.topic = PropertyUtils.replaceTenantDomainProperty(topic);
         this.eventAdapterListener = inputEventAdapterListener;
-        this.tenantDomain = this.topic.split("/")[0];
+        this.tenantDomain = DeviceTopic.valueOf(this.topic).getTenantDomain();
+        if (this.tenantDomain == null) {
+            throw new IllegalArgumentException("Tenant domain is not specified in the topic : " + this.topic);
+        }
         //this is to allow server listener from IoT Core to connect.
         if (this.tenantDomain.equals("+")) {
             this.tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
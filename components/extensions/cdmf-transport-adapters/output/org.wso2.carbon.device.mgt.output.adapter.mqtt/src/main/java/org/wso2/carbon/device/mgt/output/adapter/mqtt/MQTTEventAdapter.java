@@ -20,7 +20,9 @@ package org.wso2.carbon.device.mgt.output.adapter.mqtt;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.EncodedEvent;
 import org.wso2.carbon.device.mgt.output.adapter.mqtt.util.MQTTAdapterPublisher;
+import org.wso2.carbon.device.mgt.output.adapter.mqtt.util.MQTTConnectionPool;
 import org.wso2.carbon.device.mgt.output.adapter.mqtt.util.MQTTEventAdapterConstants;
 import org.wso2.carbon.device.mgt.output.adapter.mqtt.util.MQTTBrokerConnectionConfiguration;
 import org.wso2.carbon.event.output.adapter.core.EventAdapterUtil;
@@ -42,9 +44,10 @@ public class MQTTEventAdapter implements OutputEventAdapter {
 
     private OutputEventAdapterConfiguration eventAdapterConfiguration;
     private Map<String, String> globalProperties;
-    private MQTTAdapterPublisher mqttAdapterPublisher;
+    private volatile MQTTAdapterPublisher mqttAdapterPublisher;
     private int connectionKeepAliveInterval;
     private static ThreadPoolExecutor threadPoolExecutor;
+    private static final MQTTConnectionPool connectionPool = new MQTTConnectionPool();
     private static final Log log = LogFactory.getLog(MQTTEventAdapter.class);
     private int tenantId;
     private MQTTBrokerConnectionConfiguration mqttBrokerConnectionConfiguration;
@@ -122,7 +125,7 @@ public class MQTTEventAdapter implements OutputEventAdapter {
         String clientId = eventAdapterConfiguration.getStaticProperties().get(
                 MQTTEventAdapterConstants.ADAPTER_CONF_CLIENTID);
 
-        mqttAdapterPublisher = new MQTTAdapterPublisher(mqttBrokerConnectionConfiguration, clientId, tenantId);
+        mqttAdapterPublisher = connectionPool.acquire(mqttBrokerConnectionConfiguration, clientId, tenantId);
     }
 
     @Override
@@ -140,8 +143,9 @@ public class MQTTEventAdapter implements OutputEventAdapter {
     public void disconnect() {
         try {
             if (mqttAdapterPublisher != null) {
-                mqttAdapterPublisher.close();
+                MQTTAdapterPublisher publisher = mqttAdapterPublisher;
                 mqttAdapterPublisher = null;
+                connectionPool.release(publisher);
             }
         } catch (OutputEventAdapterException e) {
             log.error("Exception when closing the mqtt publisher connection on Output MQTT Adapter '" +
@@ -154,6 +158,13 @@ public class MQTTEventAdapter implements OutputEventAdapter {
         //not required
     }
 
+    /**
+     * @return pool of the MQTT connections shared by the adapters, to read the publisher metrics.
+     */
+    public static MQTTConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
     @Override
     public boolean isPolled() {
         return false;
@@ -172,14 +183,16 @@ public class MQTTEventAdapter implements OutputEventAdapter {
         @Override
         public void run() {
             try {
-                if (!mqttAdapterPublisher.isConnected()) {
-                    synchronized (MQTTEventAdapter.class) {
-                        if (!mqttAdapterPublisher.isConnected()) {
-                            mqttAdapterPublisher.connect();
-                        }
-                    }
+                MQTTAdapterPublisher publisher = mqttAdapterPublisher;
+                if (publisher == null || publisher.isClosed()) {
+                    EventAdapterUtil.logAndDrop(eventAdapterConfiguration.getName(), message,
+                                                "Adapter is disconnected", log, tenantId);
+                    return;
                 }
-                mqttAdapterPublisher.publish(mqttBrokerConnectionConfiguration.getQos(), message.toString(), topic);
+                publisher.ensureConnected();
+                // an event already encoded for another output is published with its cached UTF-8 bytes.
+                publisher.publish(mqttBrokerConnectionConfiguration.getQos(), EncodedEvent.valueOf(message).getBytes(),
+                                  topic);
             } catch (Throwable t) {
                 EventAdapterUtil.logAndDrop(eventAdapterConfiguration.getName(), message, null, t, log, tenantId);
             }
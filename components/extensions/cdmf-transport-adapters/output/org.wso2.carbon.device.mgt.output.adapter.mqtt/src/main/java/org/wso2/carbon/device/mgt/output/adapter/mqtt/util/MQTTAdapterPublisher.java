@@ -26,10 +26,14 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.message.BasicHeader;
-import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttClientPersistence;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 import org.eclipse.paho.client.mqttv3.persist.MqttDefaultFilePersistence;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -47,39 +51,54 @@ import org.wso2.carbon.user.api.UserStoreException;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * MQTT publisher related configuration initialization and publishing capabilties are implemented here.
+ * <p/>
+ * Messages are published with an asynchronous client, allowing up to the configured number of messages to be in
+ * flight before a publisher waits for a delivery. A publisher may be shared by several adapters through
+ * {@link MQTTConnectionPool}, connects on the first {@link #ensureConnected()} and reconnects on its own when its
+ * connection is lost. Once closed, a publisher does not connect again and rejects further messages.
  */
 public class MQTTAdapterPublisher {
 
     private static final Log log = LogFactory.getLog(MQTTAdapterPublisher.class);
-    private MqttClient mqttClient;
+    private volatile MqttAsyncClient mqttClient;
     private MQTTBrokerConnectionConfiguration mqttBrokerConnectionConfiguration;
     String clientId;
     int tenantId;
+    private final Semaphore inflightPermits;
+    private volatile long nextConnectTime;
+    private volatile boolean closed;
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final long createdTime = System.currentTimeMillis();
 
     public MQTTAdapterPublisher(MQTTBrokerConnectionConfiguration mqttBrokerConnectionConfiguration, String clientId
             , int tenantId) {
         this.tenantId = tenantId;
-        if (clientId == null || clientId.trim().isEmpty()) {
-            this.clientId = MqttClient.generateClientId();
-        }
+        this.clientId = clientId;
         this.mqttBrokerConnectionConfiguration = mqttBrokerConnectionConfiguration;
-        connect();
+        this.inflightPermits = new Semaphore(mqttBrokerConnectionConfiguration.getMaxInflightMessages());
     }
 
-    public void connect() {
+    public synchronized void connect() {
+        if (closed) {
+            throw newClosedException();
+        }
         if (clientId == null || clientId.trim().isEmpty()) {
-            clientId = MqttClient.generateClientId();
+            clientId = MqttAsyncClient.generateClientId();
         }
         boolean cleanSession = mqttBrokerConnectionConfiguration.isCleanSession();
         int keepAlive = mqttBrokerConnectionConfiguration.getKeepAlive();
-        String temp_directory = System.getProperty(MQTTEventAdapterConstants.ADAPTER_TEMP_DIRECTORY_NAME);
-        MqttDefaultFilePersistence dataStore = new MqttDefaultFilePersistence(temp_directory);
         try {
             MqttConnectOptions connectionOptions = new MqttConnectOptions();
             connectionOptions.setCleanSession(cleanSession);
@@ -88,11 +107,22 @@ public class MQTTAdapterPublisher {
                 connectionOptions.setUserName(getToken());
                 connectionOptions.setPassword(MQTTEventAdapterConstants.DEFAULT_PASSWORD.toCharArray());
             }
-            // Construct an MQTT blocking mode client
-            mqttClient = new MqttClient(mqttBrokerConnectionConfiguration.getBrokerUrl(), clientId, dataStore);
-            mqttClient.connect(connectionOptions);
-
+            if (mqttClient == null) {
+                MqttClientPersistence dataStore;
+                if (mqttBrokerConnectionConfiguration.isInMemoryPersistence()) {
+                    dataStore = new MemoryPersistence();
+                } else {
+                    String temp_directory = System.getProperty(MQTTEventAdapterConstants.ADAPTER_TEMP_DIRECTORY_NAME);
+                    dataStore = new MqttDefaultFilePersistence(temp_directory);
+                }
+                // Construct an MQTT non-blocking mode client
+                mqttClient = new MqttAsyncClient(mqttBrokerConnectionConfiguration.getBrokerUrl(), clientId,
+                                                 dataStore);
+            }
+            mqttClient.connect(connectionOptions).waitForCompletion();
+            nextConnectTime = 0;
         } catch (MqttException e) {
+            nextConnectTime = System.currentTimeMillis() + mqttBrokerConnectionConfiguration.getReconnectInterval();
             log.error("Error occurred when constructing MQTT client for broker url : "
                               + mqttBrokerConnectionConfiguration.getBrokerUrl(), e);
             handleException(e);
@@ -100,41 +130,157 @@ public class MQTTAdapterPublisher {
     }
 
     public boolean isConnected() {
-        return mqttClient.isConnected();
+        MqttAsyncClient client = mqttClient;
+        return client != null && client.isConnected();
     }
 
-    public void publish(int qos, String payload, String topic) {
-        try {
-            // Create and configure a message
-            MqttMessage message = new MqttMessage(payload.getBytes());
-            message.setQos(qos);
-            mqttClient.publish(topic, message);
-        } catch (MqttException e) {
-            log.error("Error occurred when publishing message for MQTT server : " + mqttClient.getServerURI(), e);
-            handleException(e);
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Reconnects if the connection has been lost. Reconnecting only blocks the users of this connection, and is not
+     * attempted again until the reconnect interval has passed since the last failure.
+     */
+    public void ensureConnected() {
+        if (isConnected()) {
+            return;
+        }
+        synchronized (this) {
+            if (isConnected()) {
+                return;
+            }
+            if (closed) {
+                throw newClosedException();
+            }
+            if (System.currentTimeMillis() < nextConnectTime) {
+                throw new ConnectionUnavailableException("Connection to the MQTT broker "
+                        + mqttBrokerConnectionConfiguration.getBrokerUrl() + " is unavailable");
+            }
+            connect();
         }
     }
 
+    public void publish(int qos, String payload, String topic) {
+        publish(qos, payload.getBytes(StandardCharsets.UTF_8), topic);
+    }
+
+    /**
+     * Publishes an already encoded payload, so that a message sent to several topics or retried is only encoded once.
+     * The call returns once the message is handed over to the client, waiting only if the in-flight window of the
+     * connection is full. The message is rejected if no slot frees up within the publish timeout, or if the
+     * publisher is closed.
+     *
+     * @param qos     quality of service of the message.
+     * @param payload UTF-8 encoded message.
+     * @param topic   topic to publish to.
+     */
+    public void publish(int qos, byte[] payload, String topic) {
+        // Create and configure a message
+        MqttMessage message = new MqttMessage(payload);
+        message.setQos(qos);
+        publish(topic, message);
+    }
+
     public void publish(String payload, String topic) {
+        // Create and configure a message
+        publish(topic, new MqttMessage(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void publish(String topic, MqttMessage message) {
+        if (closed) {
+            throw newClosedException();
+        }
         try {
-            // Create and configure a message
-            MqttMessage message = new MqttMessage(payload.getBytes());
-            mqttClient.publish(topic, message);
+            if (!inflightPermits.tryAcquire(mqttBrokerConnectionConfiguration.getPublishTimeout(),
+                                            TimeUnit.MILLISECONDS)) {
+                failedCount.incrementAndGet();
+                throw new ConnectionUnavailableException("In-flight window of the MQTT connection to "
+                        + mqttBrokerConnectionConfiguration.getBrokerUrl() + " is full, publishing to topic "
+                        + topic + " timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutputEventAdapterRuntimeException("Interrupted while waiting to publish to topic " + topic, e);
+        }
+        MqttAsyncClient client = mqttClient;
+        if (closed || client == null) {
+            inflightPermits.release();
+            throw newClosedException();
+        }
+        try {
+            client.publish(topic, message, null, new DeliveryListener(System.nanoTime()));
         } catch (MqttException e) {
-            log.error("Error occurred when publishing message for MQTT server : " + mqttClient.getServerURI(), e);
+            inflightPermits.release();
+            failedCount.incrementAndGet();
+            log.error("Error occurred when publishing message for MQTT server : " + client.getServerURI(), e);
             handleException(e);
+        } catch (RuntimeException e) {
+            inflightPermits.release();
+            failedCount.incrementAndGet();
+            throw e;
         }
     }
 
-    public void close() throws OutputEventAdapterException {
+    public synchronized void close() throws OutputEventAdapterException {
+        closed = true;
+        if (mqttClient == null) {
+            return;
+        }
         try {
-            mqttClient.disconnect(1000);
+            if (mqttClient.isConnected()) {
+                mqttClient.disconnect(MQTTEventAdapterConstants.CLIENT_DISCONNECT_TIMEOUT_IN_MILLIS)
+                        .waitForCompletion();
+            }
             mqttClient.close();
         } catch (MqttException e) {
             throw new OutputEventAdapterException(e);
+        } finally {
+            mqttClient = null;
         }
     }
 
+    /**
+     * @return number of messages delivered to the broker.
+     */
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    /**
+     * @return number of messages which could not be published.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return number of messages published but not yet acknowledged.
+     */
+    public int getInflightCount() {
+        return mqttBrokerConnectionConfiguration.getMaxInflightMessages() - inflightPermits.availablePermits();
+    }
+
+    /**
+     * @return average time between publishing a message and its delivery, in milliseconds.
+     */
+    public double getAveragePublishLatencyMillis() {
+        long published = publishedCount.get();
+        return published == 0 ? 0 : totalLatencyNanos.get() / (published * 1000000.0);
+    }
+
+    /**
+     * @return average number of messages delivered per second since the publisher was created.
+     */
+    public double getThroughputPerSecond() {
+        long elapsedMillis = System.currentTimeMillis() - createdTime;
+        return elapsedMillis <= 0 ? 0 : publishedCount.get() * 1000.0 / elapsedMillis;
+    }
+
+    private ConnectionUnavailableException newClosedException() {
+        return new ConnectionUnavailableException("MQTT publisher of client " + clientId + " is closed");
+    }
+
     private void handleException(MqttException e) {
         //Check for Client not connected exception code and throw ConnectionUnavailableException
         if (e.getReasonCode() == 32104) {
@@ -230,4 +376,28 @@ public class MQTTAdapterPublisher {
         return new String(Base64.encodeBase64((key + ":" + value).getBytes()));
     }
 
+    private class DeliveryListener implements IMqttActionListener {
+
+        private final long publishTime;
+
+        DeliveryListener(long publishTime) {
+            this.publishTime = publishTime;
+        }
+
+        @Override
+        public void onSuccess(IMqttToken asyncActionToken) {
+            inflightPermits.release();
+            publishedCount.incrementAndGet();
+            totalLatencyNanos.addAndGet(System.nanoTime() - publishTime);
+        }
+
+        @Override
+        public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+            inflightPermits.release();
+            failedCount.incrementAndGet();
+            log.error("Error occurred when delivering message to MQTT server : "
+                              + mqttBrokerConnectionConfiguration.getBrokerUrl(), exception);
+        }
+    }
+
 }
@@ -17,6 +17,7 @@
 */
 package org.wso2.carbon.device.mgt.output.adapter.mqtt.util;
 
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.AdapterPropertyUtils;
 import org.wso2.carbon.event.output.adapter.core.OutputEventAdapterConfiguration;
 import org.wso2.carbon.event.output.adapter.core.exception.OutputEventAdapterException;
 
@@ -35,6 +36,10 @@ public class MQTTBrokerConnectionConfiguration {
     private int keepAlive;
     private boolean globalCredentailSet;
     private int qos;
+    private int maxInflightMessages;
+    private boolean inMemoryPersistence;
+    private int reconnectInterval;
+    private int publishTimeout;
 
     public String getTokenUrl() {
         return tokenUrl;
@@ -79,6 +84,29 @@ public class MQTTBrokerConnectionConfiguration {
     public int getQos() {
         return qos;
     }
+
+    public int getMaxInflightMessages() {
+        return maxInflightMessages;
+    }
+
+    /**
+     * @return true if undelivered messages need not survive a restart, which is only honoured for QoS 0.
+     */
+    public boolean isInMemoryPersistence() {
+        return inMemoryPersistence && qos == 0;
+    }
+
+    public int getReconnectInterval() {
+        return reconnectInterval;
+    }
+
+    /**
+     * @return time a publish waits for a free slot in the in-flight window before the message is dropped.
+     */
+    public int getPublishTimeout() {
+        return publishTimeout;
+    }
+
     public MQTTBrokerConnectionConfiguration(OutputEventAdapterConfiguration eventAdapterConfiguration,
                                              Map<String, String> globalProperties) {
         adapterName = eventAdapterConfiguration.getName();
@@ -122,7 +150,17 @@ public class MQTTBrokerConnectionConfiguration {
             qosVal = eventAdapterConfiguration.getStaticProperties().get(MQTTEventAdapterConstants.ADAPTER_MESSAGE_QOS);
             this.qos = Integer.parseInt(qosVal);
         }
-
+        maxInflightMessages = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, MQTTEventAdapterConstants.MAX_INFLIGHT_MESSAGES_NAME,
+                MQTTEventAdapterConstants.DEFAULT_MAX_INFLIGHT_MESSAGES);
+        inMemoryPersistence = Boolean.parseBoolean(
+                globalProperties.get(MQTTEventAdapterConstants.IN_MEMORY_PERSISTENCE_NAME));
+        reconnectInterval = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, MQTTEventAdapterConstants.RECONNECT_INTERVAL_NAME,
+                MQTTEventAdapterConstants.DEFAULT_RECONNECT_INTERVAL_IN_MILLIS);
+        publishTimeout = AdapterPropertyUtils.getPositiveIntProperty(
+                globalProperties, MQTTEventAdapterConstants.PUBLISH_TIMEOUT_NAME,
+                MQTTEventAdapterConstants.DEFAULT_PUBLISH_TIMEOUT_IN_MILLIS);
 
     }
 
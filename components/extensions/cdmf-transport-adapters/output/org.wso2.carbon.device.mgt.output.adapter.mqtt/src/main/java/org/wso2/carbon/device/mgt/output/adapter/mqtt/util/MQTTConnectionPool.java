@@ -0,0 +1,162 @@
+/*
+*  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.device.mgt.output.adapter.mqtt.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.event.output.adapter.core.exception.OutputEventAdapterException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares MQTT publisher connections between the output adapters which publish to the same broker with the same
+ * credentials and tenant. A connection is closed once the last adapter using it has released it.
+ * <p/>
+ * The pool lock only guards the bookkeeping. Connecting happens outside of it, so a slow or unreachable broker only
+ * holds up the adapters which share that connection.
+ */
+public class MQTTConnectionPool {
+
+    private static final Log log = LogFactory.getLog(MQTTConnectionPool.class);
+
+    private final Map<ConnectionKey, PooledPublisher> publishers = new HashMap<>();
+
+    /**
+     * Returns the publisher of the matching connection, connecting a new one if there is none. The publisher is
+     * registered in the pool before it connects, and callers sharing it wait for the same connection attempt.
+     *
+     * @param mqttBrokerConnectionConfiguration connection configuration of the adapter.
+     * @param clientId                          client id configured for the adapter, may be null.
+     * @param tenantId                          tenant of the adapter.
+     * @return the shared publisher, which must be given back with {@link #release(MQTTAdapterPublisher)}.
+     */
+    public MQTTAdapterPublisher acquire(MQTTBrokerConnectionConfiguration mqttBrokerConnectionConfiguration,
+                                        String clientId, int tenantId) {
+        ConnectionKey key = new ConnectionKey(mqttBrokerConnectionConfiguration, clientId, tenantId);
+        MQTTAdapterPublisher publisher;
+        synchronized (this) {
+            PooledPublisher pooledPublisher = publishers.get(key);
+            if (pooledPublisher == null) {
+                pooledPublisher = new PooledPublisher(
+                        new MQTTAdapterPublisher(mqttBrokerConnectionConfiguration, clientId, tenantId));
+                publishers.put(key, pooledPublisher);
+            }
+            pooledPublisher.referenceCount++;
+            publisher = pooledPublisher.publisher;
+        }
+        try {
+            publisher.ensureConnected();
+        } catch (RuntimeException e) {
+            try {
+                release(publisher);
+            } catch (OutputEventAdapterException closeException) {
+                log.error("Error occurred while closing the MQTT connection of client " + publisher.clientId,
+                          closeException);
+            }
+            throw e;
+        }
+        return publisher;
+    }
+
+    /**
+     * Releases a publisher obtained from this pool, closing its connection if no other adapter uses it.
+     *
+     * @param publisher publisher to be released.
+     * @throws OutputEventAdapterException if the connection cannot be closed.
+     */
+    public void release(MQTTAdapterPublisher publisher) throws OutputEventAdapterException {
+        MQTTAdapterPublisher unusedPublisher = null;
+        synchronized (this) {
+            for (Map.Entry<ConnectionKey, PooledPublisher> entry : publishers.entrySet()) {
+                PooledPublisher pooledPublisher = entry.getValue();
+                if (pooledPublisher.publisher == publisher) {
+                    if (--pooledPublisher.referenceCount == 0) {
+                        publishers.remove(entry.getKey());
+                        unusedPublisher = publisher;
+                    }
+                    break;
+                }
+            }
+        }
+        if (unusedPublisher != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Closing the unused MQTT connection of client " + unusedPublisher.clientId);
+            }
+            unusedPublisher.close();
+        }
+    }
+
+    /**
+     * @return publishers of all open connections, to read their metrics.
+     */
+    public synchronized List<MQTTAdapterPublisher> getPublishers() {
+        List<MQTTAdapterPublisher> publisherList = new ArrayList<>(publishers.size());
+        for (PooledPublisher pooledPublisher : publishers.values()) {
+            publisherList.add(pooledPublisher.publisher);
+        }
+        return publisherList;
+    }
+
+    public synchronized int size() {
+        return publishers.size();
+    }
+
+    private static class PooledPublisher {
+
+        private final MQTTAdapterPublisher publisher;
+        private int referenceCount;
+
+        PooledPublisher(MQTTAdapterPublisher publisher) {
+            this.publisher = publisher;
+        }
+    }
+
+    /**
+     * Identifies the connections which can be shared: those to the same broker, with the same credentials, client
+     * id, tenant and session settings.
+     */
+    private static class ConnectionKey {
+
+        private final List<Object> values = new ArrayList<>();
+
+        ConnectionKey(MQTTBrokerConnectionConfiguration configuration, String clientId, int tenantId) {
+            values.add(configuration.getBrokerUrl());
+            values.add(configuration.getUsername());
+            values.add(configuration.getPassword());
+            values.add(configuration.getScopes());
+            values.add(clientId);
+            values.add(tenantId);
+            values.add(configuration.isCleanSession());
+            values.add(configuration.getKeepAlive());
+            values.add(configuration.isInMemoryPersistence());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof ConnectionKey && values.equals(((ConnectionKey) o).values));
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode();
+        }
+    }
+}
@@ -56,6 +56,15 @@ public final class MQTTEventAdapterConstants {
     public static final String ADAPTER_KEEP_ALIVE_TIME_NAME = "keepAliveTimeInMillis";
     public static final String ADAPTER_EXECUTOR_JOB_QUEUE_SIZE_NAME = "jobQueueSize";
 
+    public static final String MAX_INFLIGHT_MESSAGES_NAME = "maxInflightMessages";
+    public static final int DEFAULT_MAX_INFLIGHT_MESSAGES = 10;
+    public static final String IN_MEMORY_PERSISTENCE_NAME = "inMemoryPersistence";
+    public static final String RECONNECT_INTERVAL_NAME = "reconnectIntervalInMillis";
+    public static final int DEFAULT_RECONNECT_INTERVAL_IN_MILLIS = 5000;
+    public static final String PUBLISH_TIMEOUT_NAME = "publishTimeoutInMillis";
+    public static final int DEFAULT_PUBLISH_TIMEOUT_IN_MILLIS = 10000;
+    public static final int CLIENT_DISCONNECT_TIMEOUT_IN_MILLIS = 1000;
+
     public static final String DEFAULT_CALLBACK = "";
     public static final String DEFAULT_PASSWORD = "";
     public static final String GRANT_TYPE = "urn:ietf:params:oauth:grant-type:jwt-bearer";
@@ -21,10 +21,12 @@ package org.wso2.carbon.device.mgt.output.adapter.websocket.endpoint;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.endpoint.constants.Constants;
 import org.wso2.carbon.device.mgt.output.adapter.websocket.endpoint.util.ServiceHolder;
 
 import javax.websocket.CloseReason;
 import javax.websocket.Session;
+import java.util.List;
 
 /**
  * Interface for subscription and un-subscription for web socket
@@ -71,4 +73,24 @@ public class SubscriptionEndpoint {
 		ServiceHolder.getInstance().getWebsocketOutputCallbackControllerService().unsubscribeWebsocket(streamName, version,
 																								session);
 	}
+
+	/**
+	 * Returns the sequence number given by the "since" query parameter, from which the retained events of the stream
+	 * are replayed to a client joining late.
+	 *
+	 * @param session - Users registered session.
+	 * @return the sequence number, or -1 if no valid sequence number is given.
+	 */
+	protected static long getReplaySequence(Session session) {
+		List<String> values = session.getRequestParameterMap().get(Constants.REPLAY_SINCE_PARAM);
+		if (values == null || values.isEmpty()) {
+			return -1;
+		}
+		try {
+			return Math.max(Long.parseLong(values.get(0)), -1);
+		} catch (NumberFormatException e) {
+			log.warn("Ignoring the invalid replay sequence " + values.get(0) + " of session ID: " + session.getId());
+			return -1;
+		}
+	}
 }
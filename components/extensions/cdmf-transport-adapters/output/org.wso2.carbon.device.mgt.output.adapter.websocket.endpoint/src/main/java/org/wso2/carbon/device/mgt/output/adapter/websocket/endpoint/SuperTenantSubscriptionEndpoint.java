@@ -79,9 +79,11 @@ public class SuperTenantSubscriptionEndpoint extends SubscriptionEndpoint {
 					PrivilegedCarbonContext.startTenantFlow();
 					PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(
 							MultitenantConstants.SUPER_TENANT_ID);
+					long replaySequence = getReplaySequence(session);
 					ServiceHolder.getInstance().getWebsocketOutputCallbackControllerService().subscribeWebsocket(streamName,
 																										  version,
-																										  session);
+																										  session,
+																										  replaySequence);
 				} finally {
 					PrivilegedCarbonContext.endTenantFlow();
 				}
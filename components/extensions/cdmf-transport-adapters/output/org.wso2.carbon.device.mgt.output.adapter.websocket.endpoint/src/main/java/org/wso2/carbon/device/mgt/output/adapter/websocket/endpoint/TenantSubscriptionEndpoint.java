@@ -80,7 +80,7 @@ public class TenantSubscriptionEndpoint extends SubscriptionEndpoint {
                     PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(authenticationInfo.getTenantDomain()
                             , true);
                     ServiceHolder.getInstance().getWebsocketOutputCallbackControllerService().subscribeWebsocket(streamName
-                            , version, session);
+                            , version, session, getReplaySequence(session));
                 } finally {
                     PrivilegedCarbonContext.endTenantFlow();
                 }
@@ -23,4 +23,5 @@ package org.wso2.carbon.device.mgt.output.adapter.websocket.endpoint.constants;
 public class Constants {
     public static final String HTTP_HEADERS = "HttpHeaders";
     public static final String  QUERY_STRING = "queryString";
+    public static final String REPLAY_SINCE_PARAM = "since";
 }
@@ -20,15 +20,18 @@ package org.wso2.carbon.device.mgt.output.adapter.websocket;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.json.JSONException;
-import org.json.JSONObject;
 import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.databridge.commons.Attribute;
 import org.wso2.carbon.databridge.commons.Event;
 import org.wso2.carbon.databridge.commons.StreamDefinition;
-import org.wso2.carbon.device.mgt.output.adapter.websocket.constants.WebsocketConstants;
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.EncodedEvent;
 import org.wso2.carbon.device.mgt.output.adapter.websocket.internal.WebsocketEventAdaptorServiceDataHolder;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.EventAttributes;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.EventEncoder;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.EventReplayBuffer;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.SubscriptionFilterIndex;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.WebSocketOutboundQueue;
 import org.wso2.carbon.device.mgt.output.adapter.websocket.util.WebsocketEventAdapterConstants;
 import org.wso2.carbon.device.mgt.output.adapter.websocket.util.WebSocketSessionRequest;
 import org.wso2.carbon.event.output.adapter.core.EventAdapterUtil;
@@ -40,13 +43,10 @@ import org.wso2.carbon.event.output.adapter.core.exception.TestConnectionNotSupp
 import org.wso2.carbon.event.stream.core.EventStreamService;
 import org.wso2.carbon.event.stream.core.exception.EventStreamConfigurationException;
 
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -62,7 +62,7 @@ public class WebsocketEventAdapter implements OutputEventAdapter {
     private OutputEventAdapterConfiguration eventAdapterConfiguration;
     private Map<String, String> globalProperties;
     private int queueSize;
-    private LinkedBlockingDeque<Object> streamSpecificEvents;
+    private EventReplayBuffer streamSpecificEvents;
     private static ThreadPoolExecutor executorService;
     private int tenantId;
     private boolean doLogDroppedMessage;
@@ -71,6 +71,7 @@ public class WebsocketEventAdapter implements OutputEventAdapter {
     private List<Attribute> streamMetaAttributes;
     private List<Attribute> streamCorrelationAttributes;
     private List<Attribute> streamPayloadAttributes;
+    private SubscriptionFilterIndex subscriptionFilterIndex;
 
     public WebsocketEventAdapter(OutputEventAdapterConfiguration eventAdapterConfiguration, Map<String,
             String> globalProperties) {
@@ -135,6 +136,28 @@ public class WebsocketEventAdapter implements OutputEventAdapter {
         streamMetaAttributes = streamDefinition.getMetaData();
         streamCorrelationAttributes = streamDefinition.getCorrelationData();
         streamPayloadAttributes = streamDefinition.getPayloadData();
+        List<String> streamAttributeNames = new ArrayList<>();
+        addAttributeNames(streamAttributeNames, streamMetaAttributes);
+        addAttributeNames(streamAttributeNames, streamCorrelationAttributes);
+        addAttributeNames(streamAttributeNames, streamPayloadAttributes);
+        subscriptionFilterIndex = WebsocketEventAdaptorServiceDataHolder.getUIOutputCallbackRegisterServiceImpl()
+                .attachSubscriptionFilterIndex(tenantId, streamId, streamAttributeNames);
+
+        if (globalProperties.get(WebsocketEventAdapterConstants.ADAPTER_EVENT_QUEUE_SIZE_NAME) != null) {
+            try {
+                queueSize = Integer.parseInt(
+                        globalProperties.get(WebsocketEventAdapterConstants.ADAPTER_EVENT_QUEUE_SIZE_NAME));
+            } catch (NumberFormatException e) {
+                log.error("String does not have the appropriate format for conversion." + e.getMessage());
+                queueSize = WebsocketEventAdapterConstants.EVENTS_QUEUE_SIZE;
+            }
+        } else {
+            queueSize = WebsocketEventAdapterConstants.EVENTS_QUEUE_SIZE;
+        }
+        if (queueSize <= 0) {
+            log.error("Event queue size of the websocket adapter should be positive, using the default value.");
+            queueSize = WebsocketEventAdapterConstants.EVENTS_QUEUE_SIZE;
+        }
 
         ConcurrentHashMap<Integer, ConcurrentHashMap<String, String>> tenantSpecifcEventOutputAdapterMap =
                 WebsocketEventAdaptorServiceDataHolder.getTenantSpecificOutputEventStreamAdapterMap();
@@ -156,9 +179,9 @@ public class WebsocketEventAdapter implements OutputEventAdapter {
         } else {
             streamSpecifAdapterMap.put(streamId, eventAdapterConfiguration.getName());
 
-            ConcurrentHashMap<Integer, ConcurrentHashMap<String, LinkedBlockingDeque<Object>>> tenantSpecificStreamMap =
+            ConcurrentHashMap<Integer, ConcurrentHashMap<String, EventReplayBuffer>> tenantSpecificStreamMap =
                     WebsocketEventAdaptorServiceDataHolder.getTenantSpecificStreamEventMap();
-            ConcurrentHashMap<String, LinkedBlockingDeque<Object>> streamSpecificEventsMap =
+            ConcurrentHashMap<String, EventReplayBuffer> streamSpecificEventsMap =
                     tenantSpecificStreamMap.get(tenantId);
             if (streamSpecificEventsMap == null) {
                 streamSpecificEventsMap = new ConcurrentHashMap<>();
@@ -168,23 +191,36 @@ public class WebsocketEventAdapter implements OutputEventAdapter {
             }
             streamSpecificEvents = streamSpecificEventsMap.get(streamId);
             if (streamSpecificEvents == null) {
-                streamSpecificEvents = new LinkedBlockingDeque<>();
+                streamSpecificEvents = new EventReplayBuffer(queueSize);
                 if (null != streamSpecificEventsMap.putIfAbsent(streamId, streamSpecificEvents)) {
                     streamSpecificEvents = streamSpecificEventsMap.get(streamId);
                 }
             }
         }
 
-        if (globalProperties.get(WebsocketEventAdapterConstants.ADAPTER_EVENT_QUEUE_SIZE_NAME) != null) {
+        if (globalProperties.get(WebsocketEventAdapterConstants.ADAPTER_SESSION_QUEUE_SIZE_NAME) != null) {
             try {
-                queueSize = Integer.parseInt(
-                        globalProperties.get(WebsocketEventAdapterConstants.ADAPTER_EVENT_QUEUE_SIZE_NAME));
+                int sessionQueueSize = Integer.parseInt(
+                        globalProperties.get(WebsocketEventAdapterConstants.ADAPTER_SESSION_QUEUE_SIZE_NAME));
+                if (sessionQueueSize > 0) {
+                    WebsocketEventAdaptorServiceDataHolder.setSessionQueueSize(sessionQueueSize);
+                } else {
+                    log.error("Session queue size of the websocket adapter should be positive, using the default " +
+                                      "value.");
+                }
             } catch (NumberFormatException e) {
                 log.error("String does not have the appropriate format for conversion." + e.getMessage());
-                queueSize = WebsocketEventAdapterConstants.EVENTS_QUEUE_SIZE;
             }
-        } else {
-            queueSize = WebsocketEventAdapterConstants.EVENTS_QUEUE_SIZE;
+        }
+
+        if (globalProperties.get(WebsocketEventAdapterConstants.ADAPTER_SESSION_OVERFLOW_POLICY_NAME) != null) {
+            try {
+                WebsocketEventAdaptorServiceDataHolder.setSessionOverflowPolicy(
+                        WebSocketOutboundQueue.OverflowPolicy.fromValue(globalProperties.get(
+                                WebsocketEventAdapterConstants.ADAPTER_SESSION_OVERFLOW_POLICY_NAME)));
+            } catch (IllegalArgumentException e) {
+                log.error("Invalid session overflow policy given for the websocket adapter, " + e.getMessage());
+            }
         }
     }
 
@@ -200,72 +236,14 @@ public class WebsocketEventAdapter implements OutputEventAdapter {
 
     @Override
     public void publish(Object message, Map<String, String> dynamicProperties) {
-        String eventString;
-        if (streamSpecificEvents.size() == queueSize) {
-            streamSpecificEvents.removeFirst();
-        }
-        if (message instanceof Event) {
-            Event event = (Event) message;
-            StringBuilder eventBuilder = new StringBuilder("[");
-            eventBuilder.append(event.getTimeStamp());
-
-            if (event.getMetaData() != null) {
-                eventBuilder.append(",");
-                Object[] metaData = event.getMetaData();
-                for (int i = 0; i < metaData.length; i++) {
-                    eventBuilder.append("\"");
-                    eventBuilder.append(metaData[i]);
-                    eventBuilder.append("\"");
-                    if (i != (metaData.length - 1)) {
-                        eventBuilder.append(",");
-                    }
-                }
-            }
-
-            if (event.getCorrelationData() != null) {
-                Object[] correlationData = event.getCorrelationData();
-
-                eventBuilder.append(",");
-
-                for (int i = 0; i < correlationData.length; i++) {
-                    eventBuilder.append("\"");
-                    eventBuilder.append(correlationData[i]);
-                    eventBuilder.append("\"");
-                    if (i != (correlationData.length - 1)) {
-                        eventBuilder.append(",");
-                    }
-                }
-            }
-
-            if (event.getPayloadData() != null) {
-                Object[] payloadData = event.getPayloadData();
-                eventBuilder.append(",");
-                for (int i = 0; i < payloadData.length; i++) {
-                    eventBuilder.append("\"");
-                    eventBuilder.append(payloadData[i]);
-                    eventBuilder.append("\"");
-                    if (i != (payloadData.length - 1)) {
-                        eventBuilder.append(",");
-                    }
-                }
-            }
-
-            eventBuilder.append("]");
-            eventString = eventBuilder.toString();
-        } else {
-            eventString = message.toString();
-        }
-
-        Object[] eventValues = new Object[WebsocketEventAdapterConstants.INDEX_TWO];
-        eventValues[WebsocketEventAdapterConstants.INDEX_ZERO] = eventString;
-        eventValues[WebsocketEventAdapterConstants.INDEX_ONE] = System.currentTimeMillis();
-        streamSpecificEvents.add(eventValues);
+        EncodedEvent encodedEvent = EventEncoder.encode(message);
+        streamSpecificEvents.add(encodedEvent);
 
         // fetch all valid sessions checked against any queryParameters provided when subscribing.
-        CopyOnWriteArrayList<WebSocketSessionRequest> validSessions = getValidSessions(message);
+        List<WebSocketSessionRequest> validSessions = getValidSessions(message);
 
         try {
-            executorService.execute(new WebSocketSender(validSessions, eventString));
+            executorService.execute(new WebSocketSender(validSessions, encodedEvent));
         } catch (RejectedExecutionException e) {
             EventAdapterUtil.logAndDrop(eventAdapterConfiguration.getName(), message, "Job queue is full", e, log,
                     tenantId);
@@ -288,12 +266,17 @@ public class WebsocketEventAdapter implements OutputEventAdapter {
             tenantSpecificAdapterMap.remove(streamId);      //Removing outputadapter and streamId
         }
 
-        ConcurrentHashMap<String, LinkedBlockingDeque<Object>> tenantSpecificStreamEventMap =
+        ConcurrentHashMap<String, EventReplayBuffer> tenantSpecificStreamEventMap =
                 WebsocketEventAdaptorServiceDataHolder.getTenantSpecificStreamEventMap().get(tenantId);
         if (tenantSpecificStreamEventMap != null && streamId != null) {
             //Removing the streamId and events registered for the output adapter
             tenantSpecificStreamEventMap.remove(streamId);
         }
+
+        if (subscriptionFilterIndex != null) {
+            WebsocketEventAdaptorServiceDataHolder.getUIOutputCallbackRegisterServiceImpl()
+                    .detachSubscriptionFilterIndex(tenantId, streamId);
+        }
     }
 
     @Override
@@ -330,143 +313,41 @@ public class WebsocketEventAdapter implements OutputEventAdapter {
 
     /**
      * Fetches all valid web-socket sessions from the entire pool of subscribed sessions. The validity is checked
-     * against any queryString provided when subscribing to the web-socket endpoint.
+     * against any queryString provided when subscribing to the web-socket endpoint, using the subscription filter
+     * index of the stream so that the event is parsed once and only the sessions which may match are checked.
      *
      * @param event the current event received and that which needs to be published to subscribed sessions.
-     * @return a list of all validated web-socket sessions against the queryString values.
+     * @return a list of all validated web-socket sessions against the queryString values, null if there are no
+     * subscribed sessions.
      */
-    private CopyOnWriteArrayList<WebSocketSessionRequest> getValidSessions(Object event) {
-        CopyOnWriteArrayList<WebSocketSessionRequest> validSessions = new CopyOnWriteArrayList<>();
-        WebsocketOutputCallbackControllerServiceImpl websocketOutputCallbackControllerServiceImpl =
-                WebsocketEventAdaptorServiceDataHolder.getUIOutputCallbackRegisterServiceImpl();
-        // get all subscribed web-socket sessions.
-        CopyOnWriteArrayList<WebSocketSessionRequest> webSocketSessionUtils =
-                websocketOutputCallbackControllerServiceImpl.getSessions(tenantId, streamId);
-        if (webSocketSessionUtils != null) {
-            for (WebSocketSessionRequest webSocketSessionUtil : webSocketSessionUtils) {
-                boolean isValidSession;
-                if (event instanceof Event) {
-                    isValidSession = validateEventAgainstSessionFilters((Event) event, webSocketSessionUtil);
-                } else {
-                    isValidSession = validateJsonMessageAgainstEventFilters(event.toString(), webSocketSessionUtil);
-                }
-                if (isValidSession) {
-                    validSessions.add(webSocketSessionUtil);
-                }
-            }
+    private List<WebSocketSessionRequest> getValidSessions(Object event) {
+        if (subscriptionFilterIndex.isEmpty()) {
+            return null;
         }
-        return validSessions;
-    }
-
-
-    /**
-     * Processes the given session's validity to receive the current "event" against any queryParams that was used at
-     * the time when the web-socket-session is subscribed. This method can be extended to validate the event against
-     * any additional attribute of the given session too.
-     *
-     * @param event                the current event received and that which needs to be published to subscribed
-     *                             sessions.
-     * @param webSocketSessionUtil the session which needs validated for its authenticity to receive this event.
-     * @return "true" if the session is valid to receive the event else "false".
-     */
-    private boolean validateEventAgainstSessionFilters(Event event, WebSocketSessionRequest webSocketSessionUtil) {
-
-        // fetch the queryString Key:Value pair map of the given session.
-        Map<String, String> queryParamValuePairs = webSocketSessionUtil.getQueryParamValuePairs();
-        if (queryParamValuePairs != null && !queryParamValuePairs.isEmpty()) {
-            // fetch the different attribute values received as part of the current event.
-            Object[] eventMetaData = event.getMetaData();
-            Object[] eventCorrelationData = event.getCorrelationData();
-            Object[] eventPayloadData = event.getPayloadData();
-
-            if (streamMetaAttributes != null) {
-                for (int i = 0; i < streamMetaAttributes.size(); i++) {
-                    String attributeName = streamMetaAttributes.get(i).getName();
-                    String queryValue = queryParamValuePairs.get(attributeName);
-
-                    if (queryValue != null &&
-                            (eventMetaData == null || !eventMetaData[i].toString().equals(queryValue))) {
-                        return false;
-                    }
-                }
-            }
-
-            if (streamCorrelationAttributes != null) {
-                for (int i = 0; i < streamCorrelationAttributes.size(); i++) {
-                    String attributeName = streamCorrelationAttributes.get(i).getName();
-                    String queryValue = queryParamValuePairs.get(attributeName);
-
-                    if (queryValue != null &&
-                            (eventCorrelationData == null || !eventCorrelationData[i].toString().equals(queryValue))) {
-                        return false;
-                    }
-                }
-            }
-
-            if (streamPayloadAttributes != null) {
-                for (int i = 0; i < streamPayloadAttributes.size(); i++) {
-                    String attributeName = streamPayloadAttributes.get(i).getName();
-                    String queryValue = queryParamValuePairs.get(attributeName);
-
-                    if (queryValue != null && (eventPayloadData == null || !eventPayloadData[i].toString().equals(
-                            queryValue))) {
-                        return false;
-                    }
-                }
-            }
+        EventAttributes eventAttributes;
+        if (event instanceof Event) {
+            eventAttributes = EventAttributes.fromEvent((Event) event, streamMetaAttributes,
+                                                        streamCorrelationAttributes, streamPayloadAttributes);
+        } else {
+            eventAttributes = EventAttributes.fromJson(event.toString());
         }
-        return true;
+        return subscriptionFilterIndex.getMatchingSessions(eventAttributes);
     }
 
-
-    private boolean validateJsonMessageAgainstEventFilters(String jsonMessage, WebSocketSessionRequest webSocketSessionRequest) {
-        Map<String, String> queryParamValuePairs = webSocketSessionRequest.getQueryParamValuePairs();
-        if (queryParamValuePairs != null && !queryParamValuePairs.isEmpty()) {
-            // fetch the different attribute values received as part of the current event.
-            Set<String> queryParams = queryParamValuePairs.keySet();
-            for (String aQueryParam : queryParams) {
-                try {
-
-                    String queryValue = queryParamValuePairs.get(aQueryParam);
-                    if (queryValue != null && !queryValue.trim().isEmpty()) {
-                        JSONObject jsonObject = new JSONObject(jsonMessage);
-                        JSONObject event = jsonObject.getJSONObject(WebsocketConstants.EVENT);
-                        JSONObject data;
-                        if (!event.isNull(WebsocketConstants.META_DATA)) {
-                            data = event.getJSONObject(WebsocketConstants.META_DATA);
-                            if (!data.isNull(aQueryParam)) {
-                                String eventValue = data.get(aQueryParam).toString();
-                                if (eventValue == null || !eventValue.equalsIgnoreCase(queryValue)) {
-                                    return false;
-                                }
-                            }
-
-                        }
-
-                        if (!event.isNull(WebsocketConstants.PAYLOAD_DATA)) {
-                            data = event.getJSONObject(WebsocketConstants.PAYLOAD_DATA);
-                            if (!data.isNull(aQueryParam)) {
-                                String eventValue = data.get(aQueryParam).toString();
-                                if (eventValue == null || !eventValue.equalsIgnoreCase(queryValue)) {
-                                    return false;
-                                }
-                            }
-                        }
-                    }
-                } catch (JSONException e) {
-                    //do nothing - This exception is thrown when the event does not have query parameter.
-                }
+    private void addAttributeNames(List<String> attributeNames, List<Attribute> attributes) {
+        if (attributes != null) {
+            for (Attribute attribute : attributes) {
+                attributeNames.add(attribute.getName());
             }
         }
-        return true;
     }
 
     private class WebSocketSender implements Runnable {
 
-        private String message;
-        private CopyOnWriteArrayList<WebSocketSessionRequest> webSocketSessionUtils;
+        private EncodedEvent message;
+        private List<WebSocketSessionRequest> webSocketSessionUtils;
 
-        public WebSocketSender(CopyOnWriteArrayList<WebSocketSessionRequest> webSocketSessionUtils, String message) {
+        public WebSocketSender(List<WebSocketSessionRequest> webSocketSessionUtils, EncodedEvent message) {
             this.webSocketSessionUtils = webSocketSessionUtils;
             this.message = message;
         }
@@ -486,14 +367,12 @@ public class WebsocketEventAdapter implements OutputEventAdapter {
         public void run() {
             if (webSocketSessionUtils != null) {
                 doLogDroppedMessage = true;
+                String messageText = message.getText();
                 for (WebSocketSessionRequest webSocketSessionUtil : webSocketSessionUtils) {
-                    synchronized (WebSocketSessionRequest.class) {
-                        try {
-                            webSocketSessionUtil.getSession().getBasicRemote().sendText(message);
-                        } catch (IOException e) {
-                            EventAdapterUtil.logAndDrop(eventAdapterConfiguration.getName(), message,
-                                    "Cannot send to endpoint", e, log, tenantId);
-                        }
+                    if (!webSocketSessionUtil.getOutboundQueue().offer(messageText) && log.isDebugEnabled()) {
+                        log.debug("Message dropped for the closed web-socket session " +
+                                          webSocketSessionUtil.getSession().getId() + " of adapter " +
+                                          eventAdapterConfiguration.getName());
                     }
                 }
             } else if (doLogDroppedMessage) {
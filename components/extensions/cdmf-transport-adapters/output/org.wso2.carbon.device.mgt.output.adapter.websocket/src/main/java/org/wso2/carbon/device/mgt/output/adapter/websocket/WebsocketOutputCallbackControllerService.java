@@ -19,7 +19,10 @@
 
 package org.wso2.carbon.device.mgt.output.adapter.websocket;
 
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.EventReplayBuffer;
+
 import javax.websocket.Session;
+import java.util.List;
 
 /**
  * This interface is exposed as an OSGI service, which will be invoked by the local websocket endpoint to inform new subscriptions; and do un-subscriptions..
@@ -36,6 +39,30 @@ public interface WebsocketOutputCallbackControllerService {
      */
     void subscribeWebsocket(String streamName, String version, Session session);
 
+    /**
+     * Used to subscribe the session id and stream id for later web socket connectivity, replaying the retained events
+     * of the stream from the given sequence number to the session before the new ones.
+     *
+     * @param streamName    - Stream name which user register to.
+     * @param version       - Stream version which user uses.
+     * @param session       - Session which user registered.
+     * @param sinceSequence - Sequence number of the first retained event to be replayed, or a negative value to only
+     *                      receive the events published after subscribing.
+     */
+    void subscribeWebsocket(String streamName, String version, Session session, long sinceSequence);
+
+    /**
+     * Used to return the events per streamId which were published after the ones a client has already received.
+     *
+     * @param tenantId   - Tenant id of the user.
+     * @param streamName - Stream name which user register to.
+     * @param version    - Stream version which user uses.
+     * @param sequence   - Sequence number of the first event required.
+     * @return the retained events from the given sequence number, oldest first, or null if the stream has no adapter.
+     */
+    List<EventReplayBuffer.ReplayEvent> getEventsSince(int tenantId, String streamName, String version,
+                                                       long sequence);
+
     /**
      * Used to return events per streamId
      *
@@ -20,14 +20,16 @@ package org.wso2.carbon.device.mgt.output.adapter.websocket;
 
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.output.adapter.websocket.internal.WebsocketEventAdaptorServiceDataHolder;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.EventReplayBuffer;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.SubscriptionFilterIndex;
 import org.wso2.carbon.device.mgt.output.adapter.websocket.util.WebSocketSessionRequest;
 import org.wso2.carbon.device.mgt.output.adapter.websocket.util.WebsocketEventAdapterConstants;
 
 import javax.websocket.Session;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.LinkedBlockingDeque;
 
 /**
  * Service implementation class which exposes to front end
@@ -36,9 +38,11 @@ public class WebsocketOutputCallbackControllerServiceImpl implements WebsocketOu
 
     private ConcurrentHashMap<Integer, ConcurrentHashMap<String, CopyOnWriteArrayList<WebSocketSessionRequest>>>
             outputEventAdaptorSessionMap;
+    private ConcurrentHashMap<Integer, ConcurrentHashMap<String, SubscriptionFilterIndex>> subscriptionFilterIndexMap;
 
     public WebsocketOutputCallbackControllerServiceImpl() {
         outputEventAdaptorSessionMap = new ConcurrentHashMap<>();
+        subscriptionFilterIndexMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -49,6 +53,22 @@ public class WebsocketOutputCallbackControllerServiceImpl implements WebsocketOu
      * @param session    - Session which user registered.
      */
     public void subscribeWebsocket(String streamName, String version, Session session) {
+        subscribeWebsocket(streamName, version, session, -1);
+    }
+
+    /**
+     * Used to subscribe the session id and stream id for later web socket connectivity, replaying the retained events
+     * of the stream from the given sequence number to the session before the new ones. The events published while
+     * the session is being registered are replayed once it is registered, hence none of them is missed, though one
+     * which was being published at that moment may be received twice.
+     *
+     * @param streamName    - Stream name which user register to.
+     * @param version       - Stream version which user uses.
+     * @param session       - Session which user registered.
+     * @param sinceSequence - Sequence number of the first retained event to be replayed, or a negative value to only
+     *                      receive the events published after subscribing.
+     */
+    public void subscribeWebsocket(String streamName, String version, Session session, long sinceSequence) {
 
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
 
@@ -72,8 +92,105 @@ public class WebsocketOutputCallbackControllerServiceImpl implements WebsocketOu
             }
         }
 
-        WebSocketSessionRequest webSocketSessionUtil = new WebSocketSessionRequest(session);
+        WebSocketSessionRequest webSocketSessionUtil = new WebSocketSessionRequest(session,
+                WebsocketEventAdaptorServiceDataHolder.getSessionQueueSize(),
+                WebsocketEventAdaptorServiceDataHolder.getSessionOverflowPolicy());
+        EventReplayBuffer eventReplayBuffer = null;
+        long nextSequence = sinceSequence;
+        if (sinceSequence >= 0) {
+            eventReplayBuffer = getEventReplayBuffer(tenantId, streamId);
+            if (eventReplayBuffer != null) {
+                nextSequence = replay(webSocketSessionUtil, eventReplayBuffer.getEventsSince(sinceSequence),
+                                      sinceSequence, Long.MAX_VALUE);
+            }
+        }
         adapterSpecificSessions.add(webSocketSessionUtil);
+        boolean indexed;
+        do {
+            // the index is retired when a concurrent un-subscription leaves it unused, then a new one is created.
+            indexed = getSubscriptionFilterIndex(tenantId, streamId).addSession(webSocketSessionUtil);
+        } while (!indexed);
+        if (eventReplayBuffer != null) {
+            // events published from now on are sent to the registered session by the adapter.
+            long registeredSequence = eventReplayBuffer.getLatestSequence();
+            replay(webSocketSessionUtil, eventReplayBuffer.getEventsSince(nextSequence), nextSequence,
+                   registeredSequence);
+        }
+    }
+
+    /**
+     * Offers the replayed events up to the given sequence number to the outbound queue of the session.
+     *
+     * @return sequence number of the event following the last one offered.
+     */
+    private static long replay(WebSocketSessionRequest webSocketSessionUtil,
+                               List<EventReplayBuffer.ReplayEvent> replayEvents, long nextSequence, long lastSequence) {
+        for (EventReplayBuffer.ReplayEvent replayEvent : replayEvents) {
+            if (replayEvent.getSequence() > lastSequence) {
+                break;
+            }
+            webSocketSessionUtil.getOutboundQueue().offer(replayEvent.getEvent().getText());
+            nextSequence = replayEvent.getSequence() + 1;
+        }
+        return nextSequence;
+    }
+
+    /**
+     * Used to attach the output adapter of a stream to the subscription filter index of the sessions registered per
+     * streamId. The index is created if it does not exist yet.
+     *
+     * @param tenantId       - Tenant id of the adapter.
+     * @param streamId       - Stream name and version of the adapter.
+     * @param attributeNames - Attribute names of the stream.
+     * @return the subscription filter index.
+     */
+    public SubscriptionFilterIndex attachSubscriptionFilterIndex(int tenantId, String streamId,
+                                                                 List<String> attributeNames) {
+        SubscriptionFilterIndex subscriptionFilterIndex = getSubscriptionFilterIndex(tenantId, streamId);
+        while (!subscriptionFilterIndex.setAttributeNames(attributeNames)) {
+            subscriptionFilterIndex = getSubscriptionFilterIndex(tenantId, streamId);
+        }
+        return subscriptionFilterIndex;
+    }
+
+    /**
+     * Used to detach the output adapter of a stream from its subscription filter index, which is discarded if no
+     * session is registered for the stream.
+     *
+     * @param tenantId - Tenant id of the adapter.
+     * @param streamId - Stream name and version of the adapter.
+     */
+    public void detachSubscriptionFilterIndex(int tenantId, String streamId) {
+        ConcurrentHashMap<String, SubscriptionFilterIndex> tenantSpecificIndexMap =
+                subscriptionFilterIndexMap.get(tenantId);
+        if (tenantSpecificIndexMap != null) {
+            SubscriptionFilterIndex subscriptionFilterIndex = tenantSpecificIndexMap.get(streamId);
+            if (subscriptionFilterIndex != null) {
+                subscriptionFilterIndex.clearAttributeNames();
+                if (subscriptionFilterIndex.retireIfUnused()) {
+                    tenantSpecificIndexMap.remove(streamId, subscriptionFilterIndex);
+                }
+            }
+        }
+    }
+
+    private SubscriptionFilterIndex getSubscriptionFilterIndex(int tenantId, String streamId) {
+        ConcurrentHashMap<String, SubscriptionFilterIndex> tenantSpecificIndexMap =
+                subscriptionFilterIndexMap.get(tenantId);
+        if (tenantSpecificIndexMap == null) {
+            tenantSpecificIndexMap = new ConcurrentHashMap<>();
+            if (null != subscriptionFilterIndexMap.putIfAbsent(tenantId, tenantSpecificIndexMap)) {
+                tenantSpecificIndexMap = subscriptionFilterIndexMap.get(tenantId);
+            }
+        }
+        SubscriptionFilterIndex subscriptionFilterIndex = tenantSpecificIndexMap.get(streamId);
+        if (subscriptionFilterIndex == null) {
+            subscriptionFilterIndex = new SubscriptionFilterIndex();
+            if (null != tenantSpecificIndexMap.putIfAbsent(streamId, subscriptionFilterIndex)) {
+                subscriptionFilterIndex = tenantSpecificIndexMap.get(streamId);
+            }
+        }
+        return subscriptionFilterIndex;
     }
 
     /**
@@ -98,13 +215,40 @@ public class WebsocketOutputCallbackControllerServiceImpl implements WebsocketOu
      * @param tenanId    - Tenant id of the user.
      * @param streamName - Stream name which user register to.
      * @param version    - Stream version which user uses.
-     * @return the events list.
+     * @return the events retained for the stream, oldest first, or null if the stream has no adapter.
      */
-    public LinkedBlockingDeque<Object> getEvents(int tenanId, String streamName, String version) {
-        ConcurrentHashMap<String, LinkedBlockingDeque<Object>> tenantSpecificStreamMap =
+    public List<EventReplayBuffer.ReplayEvent> getEvents(int tenanId, String streamName, String version) {
+        EventReplayBuffer eventReplayBuffer = getEventReplayBuffer(tenanId, streamName
+                + WebsocketEventAdapterConstants.ADAPTER_UI_COLON + version);
+        if (eventReplayBuffer != null) {
+            return eventReplayBuffer.getEvents();
+        }
+        return null;
+    }
+
+    /**
+     * Used to return the events per streamId which were published after the ones a client has already received.
+     *
+     * @param tenantId   - Tenant id of the user.
+     * @param streamName - Stream name which user register to.
+     * @param version    - Stream version which user uses.
+     * @param sequence   - Sequence number of the first event required.
+     * @return the retained events from the given sequence number, oldest first, or null if the stream has no adapter.
+     */
+    public List<EventReplayBuffer.ReplayEvent> getEventsSince(int tenantId, String streamName, String version,
+                                                              long sequence) {
+        EventReplayBuffer eventReplayBuffer = getEventReplayBuffer(tenantId, streamName
+                + WebsocketEventAdapterConstants.ADAPTER_UI_COLON + version);
+        if (eventReplayBuffer != null) {
+            return eventReplayBuffer.getEventsSince(sequence);
+        }
+        return null;
+    }
+
+    private EventReplayBuffer getEventReplayBuffer(int tenanId, String streamId) {
+        ConcurrentHashMap<String, EventReplayBuffer> tenantSpecificStreamMap =
                 WebsocketEventAdaptorServiceDataHolder.getTenantSpecificStreamEventMap().get(tenanId);
         if (tenantSpecificStreamMap != null) {
-            String streamId = streamName + WebsocketEventAdapterConstants.ADAPTER_UI_COLON + version;
             return tenantSpecificStreamMap.get(streamId);
         }
         return null;
@@ -142,6 +286,17 @@ public class WebsocketOutputCallbackControllerServiceImpl implements WebsocketOu
                 }
             }
         }
+        ConcurrentHashMap<String, SubscriptionFilterIndex> tenantSpecificIndexMap =
+                subscriptionFilterIndexMap.get(tenantId);
+        if (tenantSpecificIndexMap != null) {
+            SubscriptionFilterIndex subscriptionFilterIndex = tenantSpecificIndexMap.get(id);
+            if (subscriptionFilterIndex != null) {
+                subscriptionFilterIndex.removeSession(session.getId());
+                if (subscriptionFilterIndex.retireIfUnused()) {
+                    tenantSpecificIndexMap.remove(id, subscriptionFilterIndex);
+                }
+            }
+        }
     }
 
 }
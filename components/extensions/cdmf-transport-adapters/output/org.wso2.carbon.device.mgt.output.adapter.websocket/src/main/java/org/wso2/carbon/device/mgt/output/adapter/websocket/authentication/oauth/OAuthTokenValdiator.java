@@ -19,6 +19,8 @@ import org.apache.axis2.transport.http.HTTPConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
+import org.wso2.carbon.device.mgt.input.adapter.extension.oauth.TokenValidationCache;
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.AdapterPropertyUtils;
 import org.wso2.carbon.device.mgt.output.adapter.websocket.authentication.AuthenticationInfo;
 import org.wso2.carbon.device.mgt.output.adapter.websocket.constants.WebsocketConstants;
 import org.wso2.carbon.identity.oauth2.stub.OAuth2TokenValidationServiceStub;
@@ -32,6 +34,7 @@ import java.rmi.RemoteException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This acts as a contract point for OAuth token validation.
@@ -40,6 +43,14 @@ public class OAuthTokenValdiator {
 
 	private static String cookie;
 	private GenericObjectPool stubs;
+	private final TokenValidationCache<AuthenticationInfo> tokenValidationCache;
+	private final TokenValidationCache.TokenValidator<AuthenticationInfo> tokenValidator =
+			new TokenValidationCache.TokenValidator<AuthenticationInfo>() {
+				@Override
+				public TokenValidationCache.ValidationResult<AuthenticationInfo> validate(String token) {
+					return requestTokenValidation(token);
+				}
+			};
 	private static Log log = LogFactory.getLog(OAuthTokenValdiator.class);
 	private static final String COOKIE_KEY_VALUE_SEPERATOR = "=";
 	private static final String COOKIE_KEYPAIR_SEPERATOR = ";";
@@ -54,20 +65,40 @@ public class OAuthTokenValdiator {
 
 	public OAuthTokenValdiator(Map<String, String> globalProperties) {
 		this.stubs = new GenericObjectPool(new OAuthTokenValidaterStubFactory(globalProperties));
+		int tokenCacheSize = AdapterPropertyUtils.getPositiveIntProperty(
+				globalProperties, WebsocketConstants.TOKEN_CACHE_SIZE_NAME, WebsocketConstants.TOKEN_CACHE_SIZE);
+		int tokenCacheTimeout = AdapterPropertyUtils.getPositiveIntProperty(
+				globalProperties, WebsocketConstants.TOKEN_CACHE_TIMEOUT_NAME,
+				WebsocketConstants.TOKEN_CACHE_TIMEOUT_IN_SECONDS);
+		this.tokenValidationCache = new TokenValidationCache<>(tokenCacheSize,
+															   TimeUnit.SECONDS.toMillis(tokenCacheTimeout));
 	}
 
 	/**
-	 * This method gets a string accessToken and validates it
+	 * This method gets a string accessToken and validates it, reusing the result of an earlier validation of the
+	 * same token until it expires.
 	 * @param webSocketConnectionProperties WebSocket connection information including http headers
 	 * @return AuthenticationInfo with the validated results.
 	 */
 	public AuthenticationInfo validateToken(Map<String, List<String>> webSocketConnectionProperties) {
 		String token = getTokenFromSession(webSocketConnectionProperties);
-		if (token == null) {
-			AuthenticationInfo authenticationInfo = new AuthenticationInfo();
+		AuthenticationInfo authenticationInfo = null;
+		if (token != null) {
+			authenticationInfo = tokenValidationCache.get(token, tokenValidator);
+		}
+		if (authenticationInfo == null) {
+			authenticationInfo = new AuthenticationInfo();
 			authenticationInfo.setAuthenticated(false);
-			return authenticationInfo;
 		}
+		return authenticationInfo;
+	}
+
+	/**
+	 * Validates the token with the token validation service.
+	 * @param token which need to be validated.
+	 * @return the validated results, or null if the token validation service could not be reached.
+	 */
+	private TokenValidationCache.ValidationResult<AuthenticationInfo> requestTokenValidation(String token) {
 		OAuth2TokenValidationServiceStub tokenValidationServiceStub = null;
 		try {
 			Object stub = this.stubs.borrowObject();
@@ -96,9 +127,7 @@ public class OAuthTokenValdiator {
 								 "stub pool.", e);
 			}
 		}
-		AuthenticationInfo authenticationInfo = new AuthenticationInfo();
-		authenticationInfo.setAuthenticated(false);
-		return authenticationInfo;
+		return null;
 	}
 
 	/**
@@ -108,11 +137,12 @@ public class OAuthTokenValdiator {
 	 *
 	 * @param token                      that needs to be validated.
 	 * @param tokenValidationServiceStub stub that is used to call the external service.
-	 * @return AuthenticationInfo This contains the information related to authenticated client.
+	 * @return AuthenticationInfo This contains the information related to authenticated client, along with the
+	 * time it remains valid.
 	 * @throws RemoteException that triggers when failing to call the external service..
 	 */
-	private AuthenticationInfo getAuthenticationInfo(String token,
-													 OAuth2TokenValidationServiceStub tokenValidationServiceStub)
+	private TokenValidationCache.ValidationResult<AuthenticationInfo> getAuthenticationInfo(
+			String token, OAuth2TokenValidationServiceStub tokenValidationServiceStub)
 			throws RemoteException, UserStoreException {
 		AuthenticationInfo authenticationInfo = new AuthenticationInfo();
 		OAuth2TokenValidationRequestDTO validationRequest = new OAuth2TokenValidationRequestDTO();
@@ -126,7 +156,7 @@ public class OAuthTokenValdiator {
 		tokenValidationResponse = tokenValidationServiceStub.validate(validationRequest);
 		if (tokenValidationResponse == null) {
 			authenticationInfo.setAuthenticated(false);
-			return authenticationInfo;
+			return new TokenValidationCache.ValidationResult<>(authenticationInfo, 0);
 		}
 		authenticated = tokenValidationResponse.getValid();
 		if (authenticated) {
@@ -150,7 +180,8 @@ public class OAuthTokenValdiator {
 				.getLastOperationContext().getServiceContext();
 		cookie = (String) serviceContext.getProperty(HTTPConstants.COOKIE_STRING);
 		authenticationInfo.setAuthenticated(authenticated);
-		return authenticationInfo;
+		long validityPeriod = authenticated ? TimeUnit.SECONDS.toMillis(tokenValidationResponse.getExpiryTime()) : 0;
+		return new TokenValidationCache.ValidationResult<>(authenticationInfo, validityPeriod);
 	}
 
 	/**
@@ -37,4 +37,8 @@ public class WebsocketConstants {
     public static final String META_DATA = "metaData";
     public static final String PAYLOAD_DATA = "payloadData";
     public static final String EVENT = "event";
+    public static final String TOKEN_CACHE_SIZE_NAME = "tokenCacheSize";
+    public static final int TOKEN_CACHE_SIZE = 10000;
+    public static final String TOKEN_CACHE_TIMEOUT_NAME = "tokenCacheTimeoutInSeconds";
+    public static final int TOKEN_CACHE_TIMEOUT_IN_SECONDS = 60;
 }
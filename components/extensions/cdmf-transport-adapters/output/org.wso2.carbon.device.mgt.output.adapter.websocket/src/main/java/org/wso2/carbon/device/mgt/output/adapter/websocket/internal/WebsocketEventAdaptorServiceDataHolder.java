@@ -19,11 +19,13 @@
 package org.wso2.carbon.device.mgt.output.adapter.websocket.internal;
 
 import org.wso2.carbon.device.mgt.output.adapter.websocket.WebsocketOutputCallbackControllerServiceImpl;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.EventReplayBuffer;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.WebSocketOutboundQueue;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.util.WebsocketEventAdapterConstants;
 import org.wso2.carbon.event.stream.core.EventStreamService;
 import org.wso2.carbon.registry.core.service.RegistryService;
 
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingDeque;
 
 /**
  * Creates a holder of type UIOutputCallbackRegisterServiceImpl.
@@ -33,10 +35,13 @@ public final class WebsocketEventAdaptorServiceDataHolder {
     private static WebsocketOutputCallbackControllerServiceImpl UIOutputCallbackRegisterServiceImpl;
     private static ConcurrentHashMap<Integer, ConcurrentHashMap<String, String>>
             tenantSpecificOutputEventStreamAdapterMap = new ConcurrentHashMap<>();
-    private static ConcurrentHashMap<Integer, ConcurrentHashMap<String, LinkedBlockingDeque<Object>>>
+    private static ConcurrentHashMap<Integer, ConcurrentHashMap<String, EventReplayBuffer>>
             tenantSpecificStreamEventMap = new ConcurrentHashMap<>();
     private static EventStreamService eventStreamService;
     private static RegistryService registryService;
+    private static volatile int sessionQueueSize = WebsocketEventAdapterConstants.SESSION_QUEUE_SIZE;
+    private static volatile WebSocketOutboundQueue.OverflowPolicy sessionOverflowPolicy =
+            WebSocketOutboundQueue.OverflowPolicy.fromValue(WebsocketEventAdapterConstants.SESSION_OVERFLOW_POLICY);
 
     public static void registerEventStreamService(EventStreamService eventBuilderService) {
         WebsocketEventAdaptorServiceDataHolder.eventStreamService = eventBuilderService;
@@ -61,7 +66,7 @@ public final class WebsocketEventAdaptorServiceDataHolder {
         return tenantSpecificOutputEventStreamAdapterMap;
     }
 
-    public static ConcurrentHashMap<Integer, ConcurrentHashMap<String, LinkedBlockingDeque<Object>>>
+    public static ConcurrentHashMap<Integer, ConcurrentHashMap<String, EventReplayBuffer>>
     getTenantSpecificStreamEventMap() {
         return tenantSpecificStreamEventMap;
     }
@@ -76,4 +81,20 @@ public final class WebsocketEventAdaptorServiceDataHolder {
     public static void setRegistryService(RegistryService registryService) {
         WebsocketEventAdaptorServiceDataHolder.registryService = registryService;
     }
+
+    public static int getSessionQueueSize() {
+        return sessionQueueSize;
+    }
+
+    public static void setSessionQueueSize(int sessionQueueSize) {
+        WebsocketEventAdaptorServiceDataHolder.sessionQueueSize = sessionQueueSize;
+    }
+
+    public static WebSocketOutboundQueue.OverflowPolicy getSessionOverflowPolicy() {
+        return sessionOverflowPolicy;
+    }
+
+    public static void setSessionOverflowPolicy(WebSocketOutboundQueue.OverflowPolicy sessionOverflowPolicy) {
+        WebsocketEventAdaptorServiceDataHolder.sessionOverflowPolicy = sessionOverflowPolicy;
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.output.adapter.websocket.util;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wso2.carbon.databridge.commons.Attribute;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.device.mgt.output.adapter.websocket.constants.WebsocketConstants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attribute values of a single published event, extracted once so that the event can be matched against the query
+ * parameters of any number of subscribed sessions.
+ * <p/>
+ * For wso2event messages a query parameter which names a stream attribute must be equal to the attribute value, and
+ * fails when the relevant data array is missing. For JSON messages a non-blank query parameter must be equal,
+ * ignoring case, to the value of the same key in both the metaData and payloadData of the event, when present.
+ */
+public class EventAttributes {
+
+    private final Map<String, List<String>> values;
+    private final boolean caseSensitive;
+
+    private EventAttributes(Map<String, List<String>> values, boolean caseSensitive) {
+        this.values = values;
+        this.caseSensitive = caseSensitive;
+    }
+
+    public static EventAttributes fromEvent(Event event, List<Attribute> metaAttributes,
+                                            List<Attribute> correlationAttributes,
+                                            List<Attribute> payloadAttributes) {
+        Map<String, List<String>> values = new HashMap<>();
+        addValues(values, metaAttributes, event.getMetaData());
+        addValues(values, correlationAttributes, event.getCorrelationData());
+        addValues(values, payloadAttributes, event.getPayloadData());
+        return new EventAttributes(values, true);
+    }
+
+    public static EventAttributes fromJson(String jsonMessage) {
+        Map<String, List<String>> values = new HashMap<>();
+        try {
+            JSONObject event = new JSONObject(jsonMessage).getJSONObject(WebsocketConstants.EVENT);
+            addValues(values, event.optJSONObject(WebsocketConstants.META_DATA));
+            addValues(values, event.optJSONObject(WebsocketConstants.PAYLOAD_DATA));
+        } catch (JSONException e) {
+            //do nothing - a message without event data is not filtered.
+        }
+        return new EventAttributes(values, false);
+    }
+
+    private static void addValues(Map<String, List<String>> values, List<Attribute> attributes, Object[] data) {
+        if (attributes == null) {
+            return;
+        }
+        for (int i = 0; i < attributes.size(); i++) {
+            String value = null;
+            if (data != null) {
+                value = data[i] == null ? "null" : data[i].toString();
+            }
+            getValueList(values, attributes.get(i).getName()).add(value);
+        }
+    }
+
+    private static void addValues(Map<String, List<String>> values, JSONObject data) {
+        String[] keys = data == null ? null : JSONObject.getNames(data);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            if (!data.isNull(key)) {
+                getValueList(values, key).add(data.get(key).toString());
+            }
+        }
+    }
+
+    private static List<String> getValueList(Map<String, List<String>> values, String name) {
+        List<String> valueList = values.get(name);
+        if (valueList == null) {
+            valueList = new ArrayList<>(1);
+            values.put(name, valueList);
+        }
+        return valueList;
+    }
+
+    /**
+     * @param name attribute name.
+     * @return the value used to look up subscriptions of the given attribute, null if the event does not have a
+     * usable value for it.
+     */
+    public String getIndexValue(String name) {
+        List<String> valueList = values.get(name);
+        if (valueList == null || valueList.isEmpty()) {
+            return null;
+        }
+        return valueList.get(0);
+    }
+
+    /**
+     * Checks whether the event satisfies the given query parameters of a session.
+     *
+     * @param queryParamValuePairs query parameters the session subscribed with.
+     * @return true if the session should receive the event.
+     */
+    public boolean matches(Map<String, String> queryParamValuePairs) {
+        if (queryParamValuePairs == null || queryParamValuePairs.isEmpty()) {
+            return true;
+        }
+        for (Map.Entry<String, String> queryParam : queryParamValuePairs.entrySet()) {
+            String queryValue = queryParam.getValue();
+            if (queryValue == null || (!caseSensitive && queryValue.trim().isEmpty())) {
+                continue;
+            }
+            List<String> valueList = values.get(queryParam.getKey());
+            if (valueList == null) {
+                continue;
+            }
+            for (String value : valueList) {
+                if (value == null) {
+                    return false;
+                }
+                if (caseSensitive ? !value.equals(queryValue) : !value.equalsIgnoreCase(queryValue)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.output.adapter.websocket.util;
+
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.EncodedEvent;
+
+/**
+ * Serializes wso2events into the array form sent to the web-socket clients, ie:
+ * <code>[timestamp,"meta1",...,"correlation1",...,"payload1",...]</code>. The string builder is sized from the
+ * attribute count, so that it rarely has to grow while an event is appended.
+ */
+public final class EventEncoder {
+
+    private static final int TIMESTAMP_SIZE = 16;
+    private static final int ESTIMATED_ATTRIBUTE_SIZE = 16;
+
+    private EventEncoder() {
+    }
+
+    public static EncodedEvent encode(Object message) {
+        if (message instanceof Event) {
+            return EncodedEvent.fromText(encodeEvent((Event) message));
+        }
+        return EncodedEvent.valueOf(message);
+    }
+
+    private static String encodeEvent(Event event) {
+        int attributeCount = getLength(event.getMetaData()) + getLength(event.getCorrelationData()) +
+                getLength(event.getPayloadData());
+        StringBuilder eventBuilder = new StringBuilder(TIMESTAMP_SIZE + attributeCount * ESTIMATED_ATTRIBUTE_SIZE);
+        eventBuilder.append('[').append(event.getTimeStamp());
+        appendData(eventBuilder, event.getMetaData());
+        appendData(eventBuilder, event.getCorrelationData());
+        appendData(eventBuilder, event.getPayloadData());
+        eventBuilder.append(']');
+        return eventBuilder.toString();
+    }
+
+    private static int getLength(Object[] data) {
+        return data == null ? 0 : data.length;
+    }
+
+    private static void appendData(StringBuilder eventBuilder, Object[] data) {
+        if (data == null) {
+            return;
+        }
+        eventBuilder.append(',');
+        for (int i = 0; i < data.length; i++) {
+            if (i != 0) {
+                eventBuilder.append(',');
+            }
+            eventBuilder.append('"').append(data[i]).append('"');
+        }
+    }
+}
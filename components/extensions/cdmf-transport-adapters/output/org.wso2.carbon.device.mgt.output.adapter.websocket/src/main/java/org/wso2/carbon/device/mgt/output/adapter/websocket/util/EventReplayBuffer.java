@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.output.adapter.websocket.util;
+
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.EncodedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed capacity ring buffer holding the latest events published to a stream, for clients which poll or join late.
+ * Every event is given a sequence number, starting from zero, so a client can ask only for the events it has not
+ * seen yet. Once the buffer is full the oldest event is overwritten.
+ * <p/>
+ * Writes are serialized on the buffer, while reads do not lock and never block the publisher.
+ */
+public class EventReplayBuffer {
+
+    private final int capacity;
+    private final AtomicReferenceArray<ReplayEvent> slots;
+    private volatile long nextSequence;
+
+    public EventReplayBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Event replay buffer capacity should be positive : " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Appends the event, overwriting the oldest one if the buffer is full.
+     *
+     * @param event event to be retained.
+     * @return sequence number of the event.
+     */
+    public synchronized long add(EncodedEvent event) {
+        long sequence = nextSequence;
+        slots.set(indexOf(sequence), new ReplayEvent(sequence, event, System.currentTimeMillis()));
+        nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    /**
+     * @return all the retained events, oldest first.
+     */
+    public List<ReplayEvent> getEvents() {
+        return getEventsSince(0);
+    }
+
+    /**
+     * Returns the retained events with a sequence number equal to or greater than the given one, oldest first.
+     * Events which have already been overwritten are not returned.
+     *
+     * @param sequence sequence number of the first event required.
+     * @return the retained events from the given sequence number.
+     */
+    public List<ReplayEvent> getEventsSince(long sequence) {
+        long end = nextSequence;
+        long start = Math.max(Math.max(sequence, 0), end - capacity);
+        if (start >= end) {
+            return new ArrayList<>(0);
+        }
+        List<ReplayEvent> events = new ArrayList<>((int) (end - start));
+        for (long current = start; current < end; current++) {
+            ReplayEvent replayEvent = slots.get(indexOf(current));
+            // a newer event in the slot means the publisher has overwritten it since the read started.
+            if (replayEvent != null && replayEvent.getSequence() == current) {
+                events.add(replayEvent);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * @return sequence number of the latest event, -1 if no event has been added.
+     */
+    public long getLatestSequence() {
+        return nextSequence - 1;
+    }
+
+    public int size() {
+        return (int) Math.min(nextSequence, capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private int indexOf(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    /**
+     * An event retained in the buffer, along with its sequence number and the time it was published.
+     */
+    public static final class ReplayEvent {
+
+        private final long sequence;
+        private final EncodedEvent event;
+        private final long timestamp;
+
+        ReplayEvent(long sequence, EncodedEvent event, long timestamp) {
+            this.sequence = sequence;
+            this.event = event;
+            this.timestamp = timestamp;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public EncodedEvent getEvent() {
+            return event;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.output.adapter.websocket.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Inverted index of the web-socket sessions subscribed to a stream, keyed by the attribute name and value of their
+ * query parameters (eg: deviceId=xyz). Each session is indexed under the first of its query parameters that names a
+ * stream attribute, so publishing an event only needs to look at the sessions which may match it. Sessions which do
+ * not filter on a stream attribute are always considered.
+ * <p/>
+ * Subscription changes are serialized and only update the bucket of the affected session, removing the buckets
+ * which become empty. Events are matched against the concurrent buckets without locking, so a subscription which
+ * changes while an event is being matched may or may not receive that event.
+ */
+public class SubscriptionFilterIndex {
+
+    private final Map<String, IndexedSession> sessions = new HashMap<>();
+    private List<String> attributeNames;
+    private boolean retired;
+    private volatile Index index = new Index();
+    private volatile int size;
+
+    /**
+     * Sets the attribute names of the stream, which decide the query parameters the sessions are indexed on, and
+     * re-indexes the subscribed sessions.
+     *
+     * @param attributeNames meta, correlation and payload attribute names of the stream.
+     * @return false if the index has been retired, in which case a new index should be obtained.
+     */
+    public synchronized boolean setAttributeNames(List<String> attributeNames) {
+        if (retired) {
+            return false;
+        }
+        this.attributeNames = new ArrayList<>(attributeNames);
+        reindex();
+        return true;
+    }
+
+    /**
+     * Clears the attribute names once the adapter of the stream is removed. The subscribed sessions are kept, without
+     * being indexed on an attribute, until an adapter sets the attribute names again.
+     */
+    public synchronized void clearAttributeNames() {
+        if (attributeNames != null) {
+            attributeNames = null;
+            reindex();
+        }
+    }
+
+    /**
+     * @param webSocketSessionRequest session to be added.
+     * @return false if the index has been retired, in which case the session should be added to a new index.
+     */
+    public synchronized boolean addSession(WebSocketSessionRequest webSocketSessionRequest) {
+        if (retired) {
+            return false;
+        }
+        String sessionId = webSocketSessionRequest.getSession().getId();
+        IndexedSession previous = sessions.remove(sessionId);
+        if (previous != null) {
+            index.remove(previous);
+        }
+        IndexedSession indexedSession = newIndexedSession(webSocketSessionRequest);
+        index.add(indexedSession);
+        sessions.put(sessionId, indexedSession);
+        size = sessions.size();
+        return true;
+    }
+
+    public synchronized void removeSession(String sessionId) {
+        IndexedSession indexedSession = sessions.remove(sessionId);
+        if (indexedSession != null) {
+            index.remove(indexedSession);
+            size = sessions.size();
+        }
+    }
+
+    /**
+     * Retires the index if no session is subscribed and no adapter has set the attribute names, after which it does
+     * not accept sessions or attribute names any more and can be discarded.
+     *
+     * @return true if the index is retired.
+     */
+    public synchronized boolean retireIfUnused() {
+        if (sessions.isEmpty() && attributeNames == null) {
+            retired = true;
+        }
+        return retired;
+    }
+
+    /**
+     * Returns the subscribed sessions which should receive the given event.
+     *
+     * @param eventAttributes attributes of the event being published.
+     * @return the matching sessions.
+     */
+    public List<WebSocketSessionRequest> getMatchingSessions(EventAttributes eventAttributes) {
+        Index current = index;
+        List<WebSocketSessionRequest> matchingSessions = new ArrayList<>();
+        addMatchingSessions(matchingSessions, current.unindexedSessions.values(), eventAttributes);
+        for (Map.Entry<String, ConcurrentMap<String, ConcurrentMap<String, WebSocketSessionRequest>>> attributeEntry :
+                current.indexedSessions.entrySet()) {
+            String value = eventAttributes.getIndexValue(attributeEntry.getKey());
+            if (value == null) {
+                // the event does not carry the attribute, hence the sessions filtering on it can not be narrowed down.
+                for (ConcurrentMap<String, WebSocketSessionRequest> valueSessions :
+                        attributeEntry.getValue().values()) {
+                    addMatchingSessions(matchingSessions, valueSessions.values(), eventAttributes);
+                }
+            } else {
+                ConcurrentMap<String, WebSocketSessionRequest> valueSessions =
+                        attributeEntry.getValue().get(toIndexKey(value));
+                if (valueSessions != null) {
+                    addMatchingSessions(matchingSessions, valueSessions.values(), eventAttributes);
+                }
+            }
+        }
+        return matchingSessions;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void addMatchingSessions(List<WebSocketSessionRequest> matchingSessions,
+                                     Collection<WebSocketSessionRequest> candidates, EventAttributes eventAttributes) {
+        for (WebSocketSessionRequest candidate : candidates) {
+            if (eventAttributes.matches(candidate.getQueryParamValuePairs())) {
+                matchingSessions.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Indexes all the sessions again into a new index, which replaces the current one once complete.
+     */
+    private void reindex() {
+        Index newIndex = new Index();
+        for (Map.Entry<String, IndexedSession> sessionEntry : sessions.entrySet()) {
+            IndexedSession indexedSession = newIndexedSession(sessionEntry.getValue().webSocketSessionRequest);
+            newIndex.add(indexedSession);
+            sessionEntry.setValue(indexedSession);
+        }
+        index = newIndex;
+    }
+
+    private IndexedSession newIndexedSession(WebSocketSessionRequest webSocketSessionRequest) {
+        String indexAttribute = getIndexAttribute(webSocketSessionRequest.getQueryParamValuePairs());
+        String indexKey = null;
+        if (indexAttribute != null) {
+            indexKey = toIndexKey(webSocketSessionRequest.getQueryParamValuePairs().get(indexAttribute));
+        }
+        return new IndexedSession(webSocketSessionRequest, indexAttribute, indexKey);
+    }
+
+    private String getIndexAttribute(Map<String, String> queryParamValuePairs) {
+        if (attributeNames == null || queryParamValuePairs == null || queryParamValuePairs.isEmpty()) {
+            return null;
+        }
+        for (String attributeName : attributeNames) {
+            String queryValue = queryParamValuePairs.get(attributeName);
+            if (queryValue != null && !queryValue.trim().isEmpty()) {
+                return attributeName;
+            }
+        }
+        return null;
+    }
+
+    private static String toIndexKey(String value) {
+        return value.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static class IndexedSession {
+        private final WebSocketSessionRequest webSocketSessionRequest;
+        private final String sessionId;
+        private final String indexAttribute;
+        private final String indexKey;
+
+        IndexedSession(WebSocketSessionRequest webSocketSessionRequest, String indexAttribute, String indexKey) {
+            this.webSocketSessionRequest = webSocketSessionRequest;
+            this.sessionId = webSocketSessionRequest.getSession().getId();
+            this.indexAttribute = indexAttribute;
+            this.indexKey = indexKey;
+        }
+    }
+
+    /**
+     * Buckets of the sessions, keyed by session id. Only modified while holding the lock of the enclosing index.
+     */
+    private static class Index {
+        private final ConcurrentMap<String, WebSocketSessionRequest> unindexedSessions = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, WebSocketSessionRequest>>>
+                indexedSessions = new ConcurrentHashMap<>();
+
+        void add(IndexedSession indexedSession) {
+            if (indexedSession.indexAttribute == null) {
+                unindexedSessions.put(indexedSession.sessionId, indexedSession.webSocketSessionRequest);
+                return;
+            }
+            ConcurrentMap<String, ConcurrentMap<String, WebSocketSessionRequest>> valueMap =
+                    indexedSessions.get(indexedSession.indexAttribute);
+            if (valueMap == null) {
+                valueMap = new ConcurrentHashMap<>();
+                indexedSessions.put(indexedSession.indexAttribute, valueMap);
+            }
+            ConcurrentMap<String, WebSocketSessionRequest> valueSessions = valueMap.get(indexedSession.indexKey);
+            if (valueSessions == null) {
+                valueSessions = new ConcurrentHashMap<>();
+                valueMap.put(indexedSession.indexKey, valueSessions);
+            }
+            valueSessions.put(indexedSession.sessionId, indexedSession.webSocketSessionRequest);
+        }
+
+        void remove(IndexedSession indexedSession) {
+            if (indexedSession.indexAttribute == null) {
+                unindexedSessions.remove(indexedSession.sessionId);
+                return;
+            }
+            ConcurrentMap<String, ConcurrentMap<String, WebSocketSessionRequest>> valueMap =
+                    indexedSessions.get(indexedSession.indexAttribute);
+            if (valueMap == null) {
+                return;
+            }
+            ConcurrentMap<String, WebSocketSessionRequest> valueSessions = valueMap.get(indexedSession.indexKey);
+            if (valueSessions == null) {
+                return;
+            }
+            valueSessions.remove(indexedSession.sessionId);
+            if (valueSessions.isEmpty()) {
+                valueMap.remove(indexedSession.indexKey);
+                if (valueMap.isEmpty()) {
+                    indexedSessions.remove(indexedSession.indexAttribute);
+                }
+            }
+        }
+    }
+}
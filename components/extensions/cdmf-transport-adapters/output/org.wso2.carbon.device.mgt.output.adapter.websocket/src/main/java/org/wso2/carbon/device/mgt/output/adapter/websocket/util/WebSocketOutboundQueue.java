@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.output.adapter.websocket.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded outbound message queue of a single web-socket session. Messages are written with the asynchronous remote
+ * endpoint of the session, one at a time, so a slow client only delays its own messages. When the queue is full the
+ * configured {@link OverflowPolicy} is applied.
+ */
+public class WebSocketOutboundQueue {
+
+    private static final Log log = LogFactory.getLog(WebSocketOutboundQueue.class);
+
+    /**
+     * Action taken when a message is offered to a full queue.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Discard the oldest pending message to make room for the new one.
+         */
+        DROP_OLDEST("drop-oldest"),
+        /**
+         * Close the session of the client which cannot keep up.
+         */
+        DISCONNECT("disconnect-slow-consumer");
+
+        private final String value;
+
+        OverflowPolicy(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public static OverflowPolicy fromValue(String value) {
+            for (OverflowPolicy policy : OverflowPolicy.values()) {
+                if (policy.value.equalsIgnoreCase(value)) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("Invalid overflow policy : " + value);
+        }
+    }
+
+    private final Session session;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final ConcurrentLinkedQueue<PendingMessage> pendingMessages = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicBoolean disconnected = new AtomicBoolean();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private volatile long lastSendLagMillis;
+
+    public WebSocketOutboundQueue(Session session, int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Outbound queue capacity should be positive : " + capacity);
+        }
+        this.session = session;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Queues the message for the session and triggers a write if none is in progress.
+     *
+     * @param message message to be sent.
+     * @return false if the message was not accepted since the session is closed or disconnected.
+     */
+    public boolean offer(String message) {
+        if (disconnected.get() || !session.isOpen()) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        if (pendingCount.incrementAndGet() > capacity) {
+            if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                pendingCount.decrementAndGet();
+                droppedCount.incrementAndGet();
+                disconnect();
+                return false;
+            }
+            if (pendingMessages.poll() != null) {
+                pendingCount.decrementAndGet();
+                droppedCount.incrementAndGet();
+            }
+        }
+        pendingMessages.offer(new PendingMessage(message));
+        drain();
+        return true;
+    }
+
+    /**
+     * Starts writing the next pending message, unless a write is already in progress. The completion of that write
+     * continues with the message after it. Only one thread drains at a time, a request made while draining, including
+     * one from a write that completed within the send call, is picked up by the loop of the draining thread instead
+     * of recursing.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests = 1;
+        do {
+            while (!pendingMessages.isEmpty() && sending.compareAndSet(false, true)) {
+                PendingMessage pendingMessage = pendingMessages.poll();
+                if (pendingMessage == null) {
+                    sending.set(false);
+                    continue;
+                }
+                pendingCount.decrementAndGet();
+                try {
+                    session.getAsyncRemote().sendText(pendingMessage.message, pendingMessage);
+                    break;
+                } catch (RuntimeException e) {
+                    droppedCount.incrementAndGet();
+                    sending.set(false);
+                    log.error("Cannot send to the web-socket session " + session.getId(), e);
+                }
+            }
+            requests = drainRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private void disconnect() {
+        if (disconnected.compareAndSet(false, true)) {
+            int discarded = pendingCount.getAndSet(0);
+            pendingMessages.clear();
+            droppedCount.addAndGet(discarded);
+            log.warn("Disconnecting the slow web-socket session " + session.getId() + " since its outbound queue " +
+                             "exceeded " + capacity + " messages.");
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER,
+                                              "Outbound message queue is full"));
+            } catch (IOException e) {
+                log.error("Failed to close the web-socket session " + session.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * @return number of messages waiting to be written.
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * @return number of messages written to the session.
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * @return number of messages discarded due to overflow, send failures or a closed session.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return time between queuing and completing the write of the last message sent, in milliseconds.
+     */
+    public long getLastSendLagMillis() {
+        return lastSendLagMillis;
+    }
+
+    /**
+     * @return time the oldest pending message has been waiting, in milliseconds.
+     */
+    public long getOldestPendingAgeMillis() {
+        PendingMessage oldest = pendingMessages.peek();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.queuedTime;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    private class PendingMessage implements SendHandler {
+
+        private final String message;
+        private final long queuedTime;
+
+        PendingMessage(String message) {
+            this.message = message;
+            this.queuedTime = System.currentTimeMillis();
+        }
+
+        @Override
+        public void onResult(SendResult sendResult) {
+            if (sendResult.isOK()) {
+                sentCount.incrementAndGet();
+                lastSendLagMillis = System.currentTimeMillis() - queuedTime;
+            } else {
+                droppedCount.incrementAndGet();
+                log.error("Cannot send to the web-socket session " + session.getId(), sendResult.getException());
+            }
+            sending.set(false);
+            drain();
+        }
+    }
+}
@@ -37,9 +37,17 @@ public class WebSocketSessionRequest {
     private static final String QUERY_KEY_VALUE_SEPERATOR = "=";
     private Map<String, String> queryParamValuePairs = new HashMap<>();
     private Session session;
+    private WebSocketOutboundQueue outboundQueue;
 
     public WebSocketSessionRequest(Session session) {
+        this(session, WebsocketEventAdapterConstants.SESSION_QUEUE_SIZE,
+             WebSocketOutboundQueue.OverflowPolicy.fromValue(WebsocketEventAdapterConstants.SESSION_OVERFLOW_POLICY));
+    }
+
+    public WebSocketSessionRequest(Session session, int outboundQueueSize,
+                                   WebSocketOutboundQueue.OverflowPolicy overflowPolicy) {
         this.session = session;
+        this.outboundQueue = new WebSocketOutboundQueue(session, outboundQueueSize, overflowPolicy);
         setQueryParamValuePairs();
     }
 
@@ -51,6 +59,10 @@ public class WebSocketSessionRequest {
         return session;
     }
 
+    public WebSocketOutboundQueue getOutboundQueue() {
+        return outboundQueue;
+    }
+
     /**
      * Processes the queryString from the current instance's Session attribute and constructs a map of Query
      * Key:Value pair.
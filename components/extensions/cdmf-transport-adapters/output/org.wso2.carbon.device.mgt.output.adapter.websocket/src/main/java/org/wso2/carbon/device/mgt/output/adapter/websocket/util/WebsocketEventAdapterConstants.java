@@ -46,6 +46,10 @@ public class WebsocketEventAdapterConstants {
 
     public static final String ADAPTER_EVENT_QUEUE_SIZE_NAME = "eventQueueSize";
     public static final int EVENTS_QUEUE_SIZE = 30;
+    public static final String ADAPTER_SESSION_QUEUE_SIZE_NAME = "sessionQueueSize";
+    public static final int SESSION_QUEUE_SIZE = 100;
+    public static final String ADAPTER_SESSION_OVERFLOW_POLICY_NAME = "sessionOverflowPolicy";
+    public static final String SESSION_OVERFLOW_POLICY = "drop-oldest";
     public static final String AUTHENTICATOR_CLASS = "authenticator";
     public static final String AUTHORIZER_CLASS = "authorizer";
 
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.output.adapter.websocket.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.EncodedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class EventEncoderTestCase {
+
+    @Test
+    public void testEventIsEncodedAsArray() {
+        Event event = new Event("org.wso2.iot.temperature:1.0.0", 1500000000000L, new Object[]{"device-1", 7},
+                                new Object[]{"raspberrypi"}, new Object[]{23.5, "\u00b0C"});
+        EncodedEvent encodedEvent = EventEncoder.encode(event);
+        String expected = "[1500000000000,\"device-1\",\"7\",\"raspberrypi\",\"23.5\",\"\u00b0C\"]";
+        Assert.assertEquals(expected, encodedEvent.getText());
+        Assert.assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), encodedEvent.getBytes());
+    }
+
+    @Test
+    public void testMissingDataIsSkipped() {
+        Assert.assertEquals("[5]", EventEncoder.encode(new Event("stream", 5, null, null, null)).getText());
+        Assert.assertEquals("[5,\"a\"]",
+                            EventEncoder.encode(new Event("stream", 5, null, null, new Object[]{"a"})).getText());
+    }
+
+    @Test
+    public void testOtherMessagesAreWrapped() {
+        EncodedEvent encodedEvent = EncodedEvent.fromText("{\"a\":1}");
+        Assert.assertSame(encodedEvent, EventEncoder.encode(encodedEvent));
+        Assert.assertEquals("{\"a\":1}", EventEncoder.encode("{\"a\":1}").getText());
+        Assert.assertEquals("{\"a\":1}", EventEncoder.encode("{\"a\":1}".getBytes(StandardCharsets.UTF_8)).getText());
+    }
+
+    @Test
+    public void testLargeEvent() {
+        Object[] payload = new Object[5000];
+        StringBuilder expected = new StringBuilder("[1");
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = "value-" + i;
+            expected.append(",\"value-").append(i).append('"');
+        }
+        expected.append(']');
+        Assert.assertEquals(expected.toString(),
+                            EventEncoder.encode(new Event("stream", 1, null, null, payload)).getText());
+    }
+
+    @Test
+    public void testConcurrentEncoding() throws InterruptedException {
+        final AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int threadId = t;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        String text = EventEncoder.encode(new Event("stream", i, new Object[]{threadId}, null,
+                                                                    new Object[]{i})).getText();
+                        String expected = "[" + i + ",\"" + threadId + "\",\"" + i + "\"]";
+                        if (!expected.equals(text)) {
+                            failure.compareAndSet(null, expected + " != " + text);
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertNull(failure.get());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.output.adapter.websocket.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.device.mgt.input.adapter.extension.util.EncodedEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class EventReplayBufferTestCase {
+
+    @Test
+    public void testEventsAreReturnedInOrder() {
+        EventReplayBuffer buffer = new EventReplayBuffer(4);
+        Assert.assertTrue(buffer.getEvents().isEmpty());
+        Assert.assertEquals(-1, buffer.getLatestSequence());
+        Assert.assertEquals(0, buffer.add(EncodedEvent.fromText("e0")));
+        Assert.assertEquals(1, buffer.add(EncodedEvent.fromText("e1")));
+        Assert.assertEquals(Arrays.asList("e0", "e1"), texts(buffer.getEvents()));
+        Assert.assertEquals(Arrays.asList(0L, 1L), sequences(buffer.getEvents()));
+        Assert.assertEquals(1, buffer.getLatestSequence());
+        Assert.assertEquals(2, buffer.size());
+    }
+
+    @Test
+    public void testOldestEventsAreOverwrittenOnWrapAround() {
+        EventReplayBuffer buffer = newBuffer(4, 10);
+        Assert.assertEquals(Arrays.asList("e6", "e7", "e8", "e9"), texts(buffer.getEvents()));
+        Assert.assertEquals(Arrays.asList(6L, 7L, 8L, 9L), sequences(buffer.getEvents()));
+        Assert.assertEquals(9, buffer.getLatestSequence());
+        Assert.assertEquals(4, buffer.size());
+        Assert.assertEquals(4, buffer.getCapacity());
+    }
+
+    @Test
+    public void testEventsSinceSequence() {
+        EventReplayBuffer buffer = newBuffer(4, 10);
+        Assert.assertEquals(Arrays.asList("e8", "e9"), texts(buffer.getEventsSince(8)));
+        Assert.assertEquals(Arrays.asList("e9"), texts(buffer.getEventsSince(9)));
+        Assert.assertTrue(buffer.getEventsSince(10).isEmpty());
+        Assert.assertTrue(buffer.getEventsSince(Long.MAX_VALUE).isEmpty());
+        // events already overwritten are skipped, the replay starts from the oldest retained one.
+        Assert.assertEquals(Arrays.asList("e6", "e7", "e8", "e9"), texts(buffer.getEventsSince(2)));
+        Assert.assertEquals(Arrays.asList("e6", "e7", "e8", "e9"), texts(buffer.getEventsSince(-5)));
+    }
+
+    @Test
+    public void testSlotsOverwrittenWhileReadingAreSkipped() throws InterruptedException {
+        final EventReplayBuffer buffer = new EventReplayBuffer(8);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                long sequence = 0;
+                while (running.get()) {
+                    buffer.add(EncodedEvent.fromText("e" + sequence++));
+                }
+            }
+        };
+        writer.start();
+        try {
+            for (int i = 0; i < 100000; i++) {
+                long since = Math.max(buffer.getLatestSequence() - 4, 0);
+                long previous = -1;
+                for (EventReplayBuffer.ReplayEvent replayEvent : buffer.getEventsSince(since)) {
+                    // a slot overwritten by the writer would show up as a newer event out of order.
+                    Assert.assertTrue(replayEvent.getSequence() >= since);
+                    Assert.assertTrue(replayEvent.getSequence() > previous);
+                    Assert.assertEquals("e" + replayEvent.getSequence(), replayEvent.getEvent().getText());
+                    previous = replayEvent.getSequence();
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveCapacity() {
+        new EventReplayBuffer(0);
+    }
+
+    private static EventReplayBuffer newBuffer(int capacity, int events) {
+        EventReplayBuffer buffer = new EventReplayBuffer(capacity);
+        for (int i = 0; i < events; i++) {
+            buffer.add(EncodedEvent.fromText("e" + i));
+        }
+        return buffer;
+    }
+
+    private static List<String> texts(List<EventReplayBuffer.ReplayEvent> replayEvents) {
+        List<String> texts = new ArrayList<>();
+        for (EventReplayBuffer.ReplayEvent replayEvent : replayEvents) {
+            texts.add(replayEvent.getEvent().getText());
+        }
+        return texts;
+    }
+
+    private static List<Long> sequences(List<EventReplayBuffer.ReplayEvent> replayEvents) {
+        List<Long> sequences = new ArrayList<>();
+        for (EventReplayBuffer.ReplayEvent replayEvent : replayEvents) {
+            sequences.add(replayEvent.getSequence());
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.output.adapter.websocket.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.websocket.Session;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SubscriptionFilterIndexTestCase {
+    private static final List<String> ATTRIBUTE_NAMES = Arrays.asList("deviceId", "owner", "temperature");
+
+    @Test
+    public void testMatchingSessions() {
+        SubscriptionFilterIndex index = new SubscriptionFilterIndex();
+        index.setAttributeNames(ATTRIBUTE_NAMES);
+        index.addSession(newSessionRequest("s1", "deviceId=device1"));
+        index.addSession(newSessionRequest("s2", "deviceId=DEVICE1&owner=admin"));
+        index.addSession(newSessionRequest("s3", "deviceId=device2"));
+        index.addSession(newSessionRequest("s4", "owner=admin"));
+        index.addSession(newSessionRequest("s5", null));
+        index.addSession(newSessionRequest("s6", "grouping=true"));
+
+        Assert.assertEquals(set("s1", "s2", "s4", "s5", "s6"),
+                            match(index, "{\"deviceId\":\"device1\"}", "{\"owner\":\"admin\"}"));
+        Assert.assertEquals(set("s1", "s5", "s6"), match(index, "{\"deviceId\":\"device1\"}", "{\"owner\":\"x\"}"));
+        Assert.assertEquals(set("s3", "s5", "s6"), match(index, "{\"deviceId\":\"device2\"}", "{\"owner\":\"x\"}"));
+        // sessions filtering on an attribute the event does not carry are not narrowed down.
+        Assert.assertEquals(set("s1", "s2", "s3", "s4", "s5", "s6"), match(index, "{}", "{}"));
+    }
+
+    @Test
+    public void testRemoveSession() {
+        SubscriptionFilterIndex index = new SubscriptionFilterIndex();
+        index.setAttributeNames(ATTRIBUTE_NAMES);
+        index.addSession(newSessionRequest("s1", "deviceId=device1"));
+        index.addSession(newSessionRequest("s2", "deviceId=device1"));
+        index.addSession(newSessionRequest("s3", null));
+        index.removeSession("s1");
+        Assert.assertEquals(set("s2", "s3"), match(index, "{\"deviceId\":\"device1\"}", "{}"));
+        index.removeSession("s2");
+        index.removeSession("s3");
+        index.removeSession("unknown");
+        Assert.assertTrue(index.isEmpty());
+        Assert.assertEquals(Collections.<String>emptySet(), match(index, "{}", "{}"));
+    }
+
+    @Test
+    public void testReindexOnAttributeNames() {
+        SubscriptionFilterIndex index = new SubscriptionFilterIndex();
+        index.addSession(newSessionRequest("s1", "deviceId=device1"));
+        index.addSession(newSessionRequest("s2", "deviceId=device2"));
+        Assert.assertEquals(set("s1"), match(index, "{\"deviceId\":\"device1\"}", "{}"));
+        index.setAttributeNames(ATTRIBUTE_NAMES);
+        Assert.assertEquals(set("s2"), match(index, "{\"deviceId\":\"device2\"}", "{}"));
+        index.clearAttributeNames();
+        Assert.assertEquals(set("s2"), match(index, "{\"deviceId\":\"device2\"}", "{}"));
+    }
+
+    @Test
+    public void testRetireIfUnused() {
+        SubscriptionFilterIndex index = new SubscriptionFilterIndex();
+        index.setAttributeNames(ATTRIBUTE_NAMES);
+        Assert.assertFalse(index.retireIfUnused());
+        index.addSession(newSessionRequest("s1", "deviceId=device1"));
+        index.clearAttributeNames();
+        Assert.assertFalse(index.retireIfUnused());
+        index.removeSession("s1");
+        Assert.assertTrue(index.retireIfUnused());
+        Assert.assertFalse(index.addSession(newSessionRequest("s2", null)));
+        Assert.assertFalse(index.setAttributeNames(ATTRIBUTE_NAMES));
+        Assert.assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void testSubscriptionStorm() {
+        SubscriptionFilterIndex index = new SubscriptionFilterIndex();
+        index.setAttributeNames(ATTRIBUTE_NAMES);
+        int sessionCount = 50000;
+        for (int i = 0; i < sessionCount; i++) {
+            index.addSession(newSessionRequest("s" + i, "deviceId=device" + (i % 100)));
+        }
+        Assert.assertEquals(sessionCount / 100, match(index, "{\"deviceId\":\"device7\"}", "{}").size());
+        for (int i = 0; i < sessionCount; i++) {
+            index.removeSession("s" + i);
+        }
+        Assert.assertTrue(index.isEmpty());
+        Assert.assertEquals(0, match(index, "{}", "{}").size());
+    }
+
+    private static Set<String> match(SubscriptionFilterIndex index, String metaData, String payloadData) {
+        EventAttributes eventAttributes = EventAttributes.fromJson(
+                "{\"event\":{\"metaData\":" + metaData + ",\"payloadData\":" + payloadData + "}}");
+        Set<String> sessionIds = new HashSet<>();
+        for (WebSocketSessionRequest webSocketSessionRequest : index.getMatchingSessions(eventAttributes)) {
+            Assert.assertTrue(sessionIds.add(webSocketSessionRequest.getSession().getId()));
+        }
+        return sessionIds;
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    private static WebSocketSessionRequest newSessionRequest(final String sessionId, final String queryString) {
+        Session session = (Session) Proxy.newProxyInstance(
+                SubscriptionFilterIndexTestCase.class.getClassLoader(), new Class[]{Session.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "getId":
+                                return sessionId;
+                            case "getQueryString":
+                                return queryString;
+                            case "isOpen":
+                                return true;
+                            default:
+                                return null;
+                        }
+                    }
+                });
+        return new WebSocketSessionRequest(session, 10, WebSocketOutboundQueue.OverflowPolicy.DROP_OLDEST);
+    }
+}
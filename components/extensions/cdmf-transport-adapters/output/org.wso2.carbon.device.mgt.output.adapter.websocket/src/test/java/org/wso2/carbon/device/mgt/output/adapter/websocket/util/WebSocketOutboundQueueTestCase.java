@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.output.adapter.websocket.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WebSocketOutboundQueueTestCase {
+
+    @Test
+    public void testSynchronousCompletionDoesNotRecurse() {
+        MockSession mockSession = new MockSession(true);
+        WebSocketOutboundQueue queue = new WebSocketOutboundQueue(mockSession.session, 100000,
+                                                                  WebSocketOutboundQueue.OverflowPolicy.DROP_OLDEST);
+        int messageCount = 100000;
+        for (int i = 0; i < messageCount; i++) {
+            Assert.assertTrue(queue.offer("message-" + i));
+        }
+        Assert.assertEquals(messageCount, mockSession.sent.size());
+        Assert.assertEquals(messageCount, queue.getSentCount());
+        Assert.assertEquals(0, queue.getPendingCount());
+        Assert.assertEquals(1, mockSession.maxDepth);
+    }
+
+    @Test
+    public void testQueuedBacklogIsDrainedIteratively() {
+        MockSession mockSession = new MockSession(false);
+        WebSocketOutboundQueue queue = new WebSocketOutboundQueue(mockSession.session, 100000,
+                                                                  WebSocketOutboundQueue.OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 50000; i++) {
+            queue.offer("message-" + i);
+        }
+        Assert.assertEquals(1, mockSession.sent.size());
+        mockSession.completeSynchronously = true;
+        mockSession.completePending();
+        Assert.assertEquals(50000, mockSession.sent.size());
+        Assert.assertEquals(1, mockSession.maxDepth);
+    }
+
+    @Test
+    public void testDropOldest() {
+        MockSession mockSession = new MockSession(false);
+        WebSocketOutboundQueue queue = new WebSocketOutboundQueue(mockSession.session, 2,
+                                                                  WebSocketOutboundQueue.OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(queue.offer("message-" + i));
+        }
+        Assert.assertEquals(2, queue.getPendingCount());
+        Assert.assertEquals(2, queue.getDroppedCount());
+        mockSession.completeSynchronously = true;
+        mockSession.completePending();
+        Assert.assertEquals("message-0", mockSession.sent.get(0));
+        Assert.assertEquals("message-3", mockSession.sent.get(1));
+        Assert.assertEquals("message-4", mockSession.sent.get(2));
+    }
+
+    @Test
+    public void testDisconnectSlowConsumer() {
+        MockSession mockSession = new MockSession(false);
+        WebSocketOutboundQueue queue = new WebSocketOutboundQueue(mockSession.session, 2,
+                                                                  WebSocketOutboundQueue.OverflowPolicy.DISCONNECT);
+        Assert.assertTrue(queue.offer("message-0"));
+        Assert.assertTrue(queue.offer("message-1"));
+        Assert.assertTrue(queue.offer("message-2"));
+        Assert.assertFalse(queue.offer("message-3"));
+        Assert.assertNotNull(mockSession.closeReason);
+        Assert.assertEquals(0, queue.getPendingCount());
+        Assert.assertFalse(queue.offer("message-4"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveCapacity() {
+        new WebSocketOutboundQueue(new MockSession(true).session, 0, WebSocketOutboundQueue.OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Session whose asynchronous remote either completes the write within the send call, as some containers do, or
+     * holds it until {@link #completePending()} is called.
+     */
+    private static class MockSession {
+        private final List<String> sent = new ArrayList<>();
+        private final Session session;
+        private boolean completeSynchronously;
+        private SendHandler pendingHandler;
+        private CloseReason closeReason;
+        private int depth;
+        private int maxDepth;
+
+        MockSession(boolean completeSynchronously) {
+            this.completeSynchronously = completeSynchronously;
+            final RemoteEndpoint.Async async = (RemoteEndpoint.Async) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class[]{RemoteEndpoint.Async.class}, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            if ("sendText".equals(method.getName()) && args.length == 2) {
+                                send((String) args[0], (SendHandler) args[1]);
+                            }
+                            return null;
+                        }
+                    });
+            session = (Session) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class[]{Session.class}, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            switch (method.getName()) {
+                                case "isOpen":
+                                    return closeReason == null;
+                                case "getId":
+                                    return "session";
+                                case "getAsyncRemote":
+                                    return async;
+                                case "close":
+                                    closeReason = (CloseReason) args[0];
+                                    return null;
+                                default:
+                                    return null;
+                            }
+                        }
+                    });
+        }
+
+        private void send(String message, SendHandler handler) {
+            sent.add(message);
+            if (completeSynchronously) {
+                depth++;
+                maxDepth = Math.max(maxDepth, depth);
+                handler.onResult(new SendResult());
+                depth--;
+            } else {
+                pendingHandler = handler;
+            }
+        }
+
+        void completePending() {
+            SendHandler handler = pendingHandler;
+            pendingHandler = null;
+            handler.onResult(new SendResult());
+        }
+    }
+}
@@ -44,6 +44,7 @@ import org.wso2.carbon.andes.extensions.device.mgt.mqtt.authorization.util.Autho
 import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.base.ServerConfiguration;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.input.adapter.extension.topic.DeviceTopic;
 import org.wso2.carbon.user.api.UserRealm;
 import org.wso2.carbon.user.api.UserStoreException;
 
@@ -100,8 +101,8 @@ public class DeviceAccessBasedMQTTAuthorizer implements IAuthorizer {
         PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(
                 MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, true);
         try {
-            String topics[] = topic.split("/");
-            String tenantDomainFromTopic = topics[0];
+            DeviceTopic deviceTopic = DeviceTopic.valueOf(topic);
+            String tenantDomainFromTopic = deviceTopic.getTenantDomain();
             if (ALL_TENANT_DOMAIN.equals(tenantDomainFromTopic)) {
                 if (MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equals(authorizationSubject.getTenantDomain())
                         && isUserAuthorized(authorizationSubject, DEFAULT_ADMIN_PERMISSION, UI_EXECUTE)) {
@@ -109,11 +110,12 @@ public class DeviceAccessBasedMQTTAuthorizer implements IAuthorizer {
                 }
                 return false;
             }
-            if (!tenantDomainFromTopic.equals(authorizationSubject.getTenantDomain())) {
+            if (tenantDomainFromTopic == null
+                    || !tenantDomainFromTopic.equals(authorizationSubject.getTenantDomain())) {
                 return false;
             }
             Cache<AuthorizationCacheKey, Boolean> cache = getCache();
-            if (topics.length < 3) {
+            if (deviceTopic.getSegmentCount() < 3) {
                 AuthorizationCacheKey authorizationCacheKey = new AuthorizationCacheKey(tenantDomainFromTopic
                         , authorizationSubject.getUsername(), "", "");
                 if (cache.get(authorizationCacheKey) != null && cache.get(authorizationCacheKey)) {
@@ -139,8 +141,8 @@ public class DeviceAccessBasedMQTTAuthorizer implements IAuthorizer {
                     return false;
                 }
             }
-            String deviceType = topics[1];
-            String deviceId = topics[2];
+            String deviceType = deviceTopic.getDeviceType();
+            String deviceId = deviceTopic.getDeviceId();
             AuthorizationCacheKey authorizationCacheKey = new AuthorizationCacheKey(tenantDomainFromTopic
                     , authorizationSubject.getUsername(), deviceId, deviceType);
             if (cache.get(authorizationCacheKey) != null && cache.get(authorizationCacheKey)) {
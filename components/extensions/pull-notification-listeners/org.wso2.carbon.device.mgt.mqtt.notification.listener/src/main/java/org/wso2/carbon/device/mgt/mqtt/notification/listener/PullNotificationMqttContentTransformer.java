@@ -23,6 +23,7 @@ import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.input.adapter.extension.ContentTransformer;
+import org.wso2.carbon.device.mgt.input.adapter.extension.topic.DeviceTopic;
 
 import java.util.Map;
 
@@ -42,10 +43,10 @@ public class PullNotificationMqttContentTransformer implements ContentTransforme
     @Override
     public Object transform(Object message, Map<String, Object> dynamicProperties) {
         String topic = (String) dynamicProperties.get("topic");
-        String[] topicParams = topic.split("/");
-        String tenantDomain = topicParams[0];
-        String deviceType = topicParams[1];
-        String deviceId = topicParams[2];
+        DeviceTopic deviceTopic = DeviceTopic.valueOf(topic);
+        String tenantDomain = deviceTopic.getTenantDomain();
+        String deviceType = deviceTopic.getDeviceType();
+        String deviceId = deviceTopic.getDeviceId();
         Gson gson = new Gson();
         try {
             Operation operation = gson.fromJson((String) message, Operation.class);
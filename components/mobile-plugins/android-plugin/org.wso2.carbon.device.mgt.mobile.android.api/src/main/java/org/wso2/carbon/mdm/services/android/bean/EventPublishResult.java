@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http:www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mdm.services.android.bean;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * Result of publishing an event of a batch.
+ */
+@ApiModel(value = "EventPublishResult",
+        description = "Result of publishing an event of a batch.")
+public class EventPublishResult {
+
+    public enum Status {
+        PUBLISHED, INVALID, FAILED, SKIPPED
+    }
+
+    @ApiModelProperty(name = "index", value = "Position of the event in the batch.", required = true)
+    private int index;
+    @ApiModelProperty(name = "status", value = "Status of the event. PUBLISHED, INVALID, FAILED or SKIPPED, where " +
+            "FAILED and SKIPPED events can be sent again.", required = true)
+    private Status status;
+    @ApiModelProperty(name = "message", value = "Reason the event was not published.")
+    private String message;
+
+    public EventPublishResult() {
+    }
+
+    public EventPublishResult(int index, Status status, String message) {
+        this.index = index;
+        this.status = status;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
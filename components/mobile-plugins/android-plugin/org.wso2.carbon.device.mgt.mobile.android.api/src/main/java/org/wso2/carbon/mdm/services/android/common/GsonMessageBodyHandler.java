@@ -20,6 +20,7 @@ package org.wso2.carbon.mdm.services.android.common;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
@@ -33,6 +34,7 @@ import javax.ws.rs.ext.Provider;
 import java.io.*;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.Collection;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
@@ -81,11 +83,31 @@ public class GsonMessageBodyHandler implements MessageBodyWriter<Object>, Messag
             MultivaluedMap<String, Object> stringObjectMultivaluedMap, OutputStream entityStream)
             throws IOException, WebApplicationException {
 
-        OutputStreamWriter writer = new OutputStreamWriter(entityStream, UTF_8);
+        JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(entityStream, UTF_8)));
         try {
-            getGson().toJson(object, type, writer);
+            if (object instanceof Collection) {
+                writeCollection((Collection<?>) object, writer);
+            } else {
+                getGson().toJson(object, type, writer);
+            }
         } finally {
             writer.close();
         }
     }
+
+    /**
+     * Writes a collection element by element to the buffered stream, so that large results such as event pages are
+     * sent as each element is serialized.
+     */
+    private void writeCollection(Collection<?> collection, JsonWriter writer) throws IOException {
+        writer.beginArray();
+        for (Object element : collection) {
+            if (element == null) {
+                writer.nullValue();
+            } else {
+                getGson().toJson(element, element.getClass(), writer);
+            }
+        }
+        writer.endArray();
+    }
 }
@@ -179,7 +179,12 @@ public interface DeviceManagementService {
                             @ResponseHeader(
                                     name = "Last-Modified",
                                     description = "Date and time the resource was last modified.\n" +
-                                            "Used by caches, or in conditional requests.")
+                                            "Used by caches, or in conditional requests."),
+                            @ResponseHeader(
+                                    name = AndroidConstants.HEADER_FAILED_OPERATIONS,
+                                    description = "Comma separated IDs of the shared operations whose results " +
+                                            "could not be applied.\n" +
+                                            "Their status is not updated, hence their results should be shared again.")
                     }),
             @ApiResponse(
                     code = 304,
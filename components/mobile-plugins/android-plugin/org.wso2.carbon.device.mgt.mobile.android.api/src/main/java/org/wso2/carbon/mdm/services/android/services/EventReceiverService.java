@@ -32,6 +32,7 @@ import io.swagger.annotations.ResponseHeader;
 import org.wso2.carbon.apimgt.annotations.api.Scope;
 import org.wso2.carbon.apimgt.annotations.api.Scopes;
 import org.wso2.carbon.mdm.services.android.bean.DeviceState;
+import org.wso2.carbon.mdm.services.android.bean.EventPublishResult;
 import org.wso2.carbon.mdm.services.android.bean.wrapper.EventBeanWrapper;
 import org.wso2.carbon.mdm.services.android.util.AndroidConstants;
 
@@ -40,6 +41,7 @@ import javax.validation.constraints.Size;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.List;
 
 @SwaggerDefinition(
         info = @Info(
@@ -134,6 +136,62 @@ public interface EventReceiverService {
                     @Valid
             EventBeanWrapper eventBeanWrapper);
 
+    @POST
+    @Path("/publish/batch")
+    @ApiOperation(
+            produces = MediaType.APPLICATION_JSON,
+            consumes = MediaType.APPLICATION_JSON,
+            httpMethod = "POST",
+            value = "Publishing a Batch of Events",
+            notes = "Publish the location events buffered by the WSO2 EMM Android client to the WSO2 Data Analytics " +
+                    "Server (DAS) in a single request using this API. A batch can contain at most 500 events, and " +
+                    "the result of each event is returned in the order of the batch.",
+            response = EventPublishResult.class,
+            responseContainer = "List",
+            tags = "Event Receiver",
+            extensions = {
+                    @Extension(properties = {
+                            @ExtensionProperty(name = AndroidConstants.SCOPE, value = "perm:android:enroll")
+                    })
+            }
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            code = 201,
+                            message = "Created. \n Successfully published all the events of the batch.",
+                            response = EventPublishResult.class, responseContainer = "List"),
+                    @ApiResponse(
+                            code = 200,
+                            message = "OK. \n Some of the events were not published. The FAILED and SKIPPED events " +
+                                    "can be sent again.",
+                            response = EventPublishResult.class, responseContainer = "List"),
+                    @ApiResponse(
+                            code = 400,
+                            message = "Bad Request. \n The batch is empty or contains more than 500 events."),
+                    @ApiResponse(
+                            code = 415,
+                            message = "Unsupported media type. \n The format of the requested entity was not supported."),
+                    @ApiResponse(
+                            code = 429,
+                            message = "Too Many Requests. \n Too many batches are being published. Send the batch " +
+                                    "again after the time given in the Retry-After header.",
+                            responseHeaders = {
+                                    @ResponseHeader(
+                                            name = "Retry-After",
+                                            description = "Seconds to wait before sending the batch again.")
+                            }),
+                    @ApiResponse(
+                            code = 500,
+                            message = "Internal Server Error. \n " +
+                                    "Server error occurred while publishing events.")
+            })
+    Response publishEventBatch(
+            @ApiParam(
+                    name = "eventBeanWrappers",
+                    value = "The agent events to be published on DAS.")
+            List<EventBeanWrapper> eventBeanWrappers);
+
     @GET
     @ApiOperation(
             produces = MediaType.APPLICATION_JSON,
@@ -142,7 +200,8 @@ public interface EventReceiverService {
             notes = "Get the event details of a device for a given time duration using this API. The request must contain " +
                     "the device identifier. Optionally, both date from and date to value should be present to get " +
                     "alerts between a specified time. Filtering can also be done based on the device type and the device identifier." +
-                    "(This cannot be combined with the to and from parameters).",
+                    "(This cannot be combined with the to and from parameters). The events are returned in pages, " +
+                    "which are selected using the offset and limit parameters.",
             response = DeviceState.class,
             responseContainer = "List",
             tags = "Event Receiver",
@@ -203,6 +262,19 @@ public interface EventReceiverService {
                             "Provide APPLICATION_STATE or RUNTIME_STATE as the value.")
             @Size(min = 2, max = 45)
             @QueryParam("type") String type,
+            @ApiParam(
+                    name = "offset",
+                    value = "The starting pagination index for the complete list of matching events.",
+                    required = false,
+                    defaultValue = "0")
+            @QueryParam("offset") int offset,
+            @ApiParam(
+                    name = "limit",
+                    value = "Provide how many event details you require from the starting pagination index/offset. " +
+                            "At most 1000 events are returned.",
+                    required = false,
+                    defaultValue = "100")
+            @QueryParam("limit") int limit,
             @ApiParam(
                     name = "If-Modified-Since",
                     value = "Checks if the requested variant was modified, since the specified date-time.\n" +
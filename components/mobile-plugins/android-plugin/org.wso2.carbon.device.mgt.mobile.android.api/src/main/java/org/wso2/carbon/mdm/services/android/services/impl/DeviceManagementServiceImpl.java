@@ -32,7 +32,6 @@ import org.wso2.carbon.device.mgt.common.device.details.DeviceLocation;
 import org.wso2.carbon.device.mgt.common.notification.mgt.NotificationManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
-import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceException;
 import org.wso2.carbon.device.mgt.core.device.details.mgt.DeviceDetailsMgtException;
 import org.wso2.carbon.device.mgt.core.device.details.mgt.DeviceInformationManager;
 import org.wso2.carbon.device.mgt.core.operation.mgt.CommandOperation;
@@ -71,7 +70,6 @@ import java.util.List;
 @Consumes(MediaType.APPLICATION_JSON)
 public class DeviceManagementServiceImpl implements DeviceManagementService {
 
-    private static final String OPERATION_ERROR_STATUS = "ERROR";
     private static final Log log = LogFactory.getLog(DeviceManagementServiceImpl.class);
 
     @PUT
@@ -127,6 +125,7 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
             return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
         }
         DeviceIdentifier deviceIdentifier = AndroidAPIUtils.convertToDeviceIdentifierObject(id);
+        List<Integer> failedOperationIds = null;
         try {
             if (!AndroidDeviceUtils.isValidDeviceIdentifier(deviceIdentifier)) {
                 String msg = "Device not found for identifier '" + id + "'";
@@ -137,28 +136,18 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
                 log.debug("Invoking Android pending operations:" + id);
             }
             if (resultOperations != null && !resultOperations.isEmpty()) {
-                updateOperations(id, resultOperations);
+                failedOperationIds = AndroidAPIUtils.updateOperations(id, resultOperations);
             }
         } catch (OperationManagementException e) {
             String msg = "Issue in retrieving operation management service instance";
             log.error(msg, e);
             throw new UnexpectedServerErrorException(
                     new ErrorResponse.ErrorResponseBuilder().setCode(500l).setMessage(msg).build());
-        } catch (PolicyComplianceException e) {
-            String msg = "Issue in updating Monitoring operation";
-            log.error(msg, e);
-            throw new UnexpectedServerErrorException(
-                    new ErrorResponse.ErrorResponseBuilder().setCode(500l).setMessage(msg).build());
         } catch (DeviceManagementException e) {
             String msg = "Issue in retrieving device management service instance";
             log.error(msg, e);
             throw new UnexpectedServerErrorException(
                     new ErrorResponse.ErrorResponseBuilder().setCode(500l).setMessage(msg).build());
-        } catch (ApplicationManagementException e) {
-            String msg = "Issue in retrieving application management service instance";
-            log.error(msg, e);
-            throw new UnexpectedServerErrorException(
-                    new ErrorResponse.ErrorResponseBuilder().setCode(500l).setMessage(msg).build());
         } catch (NotificationManagementException e) {
             String msg = "Issue in retrieving Notification management service instance";
             log.error(msg, e);
@@ -175,32 +164,19 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
             throw new UnexpectedServerErrorException(
                     new ErrorResponse.ErrorResponseBuilder().setCode(500l).setMessage(msg).build());
         }
-        return Response.status(Response.Status.CREATED).entity(pendingOperations).build();
-    }
-
-    private void updateOperations(String deviceId, List<? extends Operation> operations)
-            throws OperationManagementException, PolicyComplianceException,
-            ApplicationManagementException, NotificationManagementException, DeviceManagementException {
-        for (org.wso2.carbon.device.mgt.common.operation.mgt.Operation operation : operations) {
-            AndroidAPIUtils.updateOperation(deviceId, operation);
-            if (OPERATION_ERROR_STATUS.equals(operation.getStatus().toString())) {
-                org.wso2.carbon.device.mgt.common.notification.mgt.Notification notification = new
-                        org.wso2.carbon.device.mgt.common.notification.mgt.Notification();
-                DeviceIdentifier id = new DeviceIdentifier();
-                id.setId(deviceId);
-                id.setType(AndroidConstants.DEVICE_TYPE_ANDROID);
-                String deviceName = AndroidAPIUtils.getDeviceManagementService().getDevice(id, false).getName();
-                notification.setOperationId(operation.getId());
-                notification.setStatus(org.wso2.carbon.device.mgt.common.notification.mgt.Notification.
-                        Status.NEW.toString());
-                notification.setDescription(operation.getCode() + " operation failed to execute on device " +
-                        deviceName + " (ID: " + deviceId + ")");
-                AndroidAPIUtils.getNotificationManagementService().addNotification(id, notification);
-            }
-            if (log.isDebugEnabled()) {
-                log.debug("Updating operation '" + operation.toString() + "'");
+        Response.ResponseBuilder responseBuilder = Response.status(Response.Status.CREATED).entity(pendingOperations);
+        if (failedOperationIds != null && !failedOperationIds.isEmpty()) {
+            // the device reports the results of these operations again in its next request.
+            StringBuilder failedOperations = new StringBuilder();
+            for (Integer failedOperationId : failedOperationIds) {
+                if (failedOperations.length() > 0) {
+                    failedOperations.append(',');
+                }
+                failedOperations.append(failedOperationId);
             }
+            responseBuilder.header(AndroidConstants.HEADER_FAILED_OPERATIONS, failedOperations.toString());
         }
+        return responseBuilder.build();
     }
 
     @POST
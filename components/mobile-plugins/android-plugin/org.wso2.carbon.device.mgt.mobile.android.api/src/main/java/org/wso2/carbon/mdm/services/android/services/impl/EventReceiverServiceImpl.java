@@ -18,14 +18,15 @@
  */
 package org.wso2.carbon.mdm.services.android.services.impl;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.analytics.datasource.commons.exception.AnalyticsException;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublisherConfigurationException;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublisherService;
 import org.wso2.carbon.mdm.services.android.bean.DeviceState;
 import org.wso2.carbon.mdm.services.android.bean.ErrorResponse;
+import org.wso2.carbon.mdm.services.android.bean.EventPublishResult;
 import org.wso2.carbon.mdm.services.android.bean.wrapper.EventBeanWrapper;
 import org.wso2.carbon.mdm.services.android.exception.BadRequestException;
 import org.wso2.carbon.mdm.services.android.exception.NotFoundException;
@@ -42,18 +43,29 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
 @Path("/events")
 public class EventReceiverServiceImpl implements EventReceiverService {
     private static final String EVENT_STREAM_DEFINITION = "org.wso2.iot.LocationStream";
     private static final Log log = LogFactory.getLog(EventReceiverServiceImpl.class);
-    private Gson gson = new Gson();
 
     private static final String LONGITUDE = "longitude";
     private static final String LATITUDE = "latitude";
     private static final String TIME_STAMP = "timeStamp";
     private static final String LOCATION_EVENT_TYPE = "location";
+    private static final int DEFAULT_EVENT_PAGE_SIZE = 100;
+    private static final int MAX_EVENT_PAGE_SIZE = 1000;
+    private static final int MAX_EVENT_BATCH_SIZE = 500;
+    private static final int MAX_CONCURRENT_EVENT_BATCHES = 8;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+    private static final String BATCH_RETRY_AFTER_SECONDS = "5";
+    private static final Semaphore eventBatchPermits = new Semaphore(MAX_CONCURRENT_EVENT_BATCHES);
 
     @POST
     @Path("/publish")
@@ -70,13 +82,13 @@ public class EventReceiverServiceImpl implements EventReceiverService {
         }
         Message message = new Message();
         Object metaData[] = {eventBeanWrapper.getDeviceIdentifier(), eventType};
-        String eventPayload = eventBeanWrapper.getPayload();
-        JsonObject jsonObject = gson.fromJson(eventPayload, JsonObject.class);
-        Object payload[] = {
-                jsonObject.get(TIME_STAMP).getAsLong(),
-                jsonObject.get(LONGITUDE).getAsDouble(),
-                jsonObject.get(LATITUDE).getAsDouble()
-        };
+        Object payload[] = parseLocationPayload(eventBeanWrapper.getPayload());
+        if (payload == null) {
+            String msg = "Dropping Android " + eventType + " Event. The payload must contain the " + TIME_STAMP +
+                    ", " + LONGITUDE + " and " + LATITUDE + " of the location.";
+            log.warn(msg);
+            return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+        }
         try {
             if (AndroidAPIUtils.getEventPublisherService().publishEvent(
                     EVENT_STREAM_DEFINITION, "1.0.0", metaData, new Object[0], payload)) {
@@ -95,6 +107,128 @@ public class EventReceiverServiceImpl implements EventReceiverService {
         }
     }
 
+    @POST
+    @Path("/publish/batch")
+    @Override
+    public Response publishEventBatch(List<EventBeanWrapper> eventBeanWrappers) {
+        if (eventBeanWrappers == null || eventBeanWrappers.isEmpty()) {
+            throw new BadRequestException(
+                    new ErrorResponse.ErrorResponseBuilder().setCode(400l).setMessage("Request must contain at " +
+                            "least one event.").build());
+        }
+        if (eventBeanWrappers.size() > MAX_EVENT_BATCH_SIZE) {
+            throw new BadRequestException(
+                    new ErrorResponse.ErrorResponseBuilder().setCode(400l).setMessage("A batch can contain at most " +
+                            MAX_EVENT_BATCH_SIZE + " events.").build());
+        }
+        if (!eventBatchPermits.tryAcquire()) {
+            // the agent keeps the events and sends them again, rather than the events piling up on the server.
+            String msg = "Rejecting the Android event batch since " + MAX_CONCURRENT_EVENT_BATCHES +
+                    " batches are being published.";
+            log.warn(msg);
+            return Response.status(HTTP_TOO_MANY_REQUESTS).header(RETRY_AFTER_HEADER, BATCH_RETRY_AFTER_SECONDS)
+                    .entity(msg).build();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Publishing a batch of " + eventBeanWrappers.size() + " Android device events.");
+        }
+        try {
+            EventsPublisherService publisherService = AndroidAPIUtils.getEventPublisherService();
+            List<EventPublishResult> results = new ArrayList<>(eventBeanWrappers.size());
+            boolean isAccepting = true;
+            boolean isAllPublished = true;
+            for (int i = 0; i < eventBeanWrappers.size(); i++) {
+                EventPublishResult result = publishEvent(publisherService, eventBeanWrappers.get(i), i, isAccepting);
+                if (EventPublishResult.Status.FAILED.equals(result.getStatus())) {
+                    // the publisher is not taking events, hence the rest are left for the agent to send again.
+                    isAccepting = false;
+                }
+                isAllPublished &= EventPublishResult.Status.PUBLISHED.equals(result.getStatus());
+                results.add(result);
+            }
+            return Response.status(isAllPublished ? Response.Status.CREATED : Response.Status.OK)
+                    .entity(results).build();
+        } catch (DataPublisherConfigurationException e) {
+            String msg = "Error occurred while getting the Data publisher Service instance.";
+            log.error(msg, e);
+            throw new UnexpectedServerErrorException(
+                    new ErrorResponse.ErrorResponseBuilder().setCode(500l).setMessage(msg).build());
+        } finally {
+            eventBatchPermits.release();
+        }
+    }
+
+    private EventPublishResult publishEvent(EventsPublisherService publisherService, EventBeanWrapper event,
+                                            int index, boolean isAccepting)
+            throws DataPublisherConfigurationException {
+        if (event == null || event.getDeviceIdentifier() == null) {
+            return new EventPublishResult(index, EventPublishResult.Status.INVALID,
+                    "Event must contain the device identifier.");
+        }
+        if (!LOCATION_EVENT_TYPE.equals(event.getType())) {
+            return new EventPublishResult(index, EventPublishResult.Status.INVALID,
+                    "Only Location Event Type is supported.");
+        }
+        Object payload[] = parseLocationPayload(event.getPayload());
+        if (payload == null) {
+            return new EventPublishResult(index, EventPublishResult.Status.INVALID, "The payload must contain the " +
+                    TIME_STAMP + ", " + LONGITUDE + " and " + LATITUDE + " of the location.");
+        }
+        if (!isAccepting) {
+            return new EventPublishResult(index, EventPublishResult.Status.SKIPPED,
+                    "Event is not published since publishing an earlier event failed.");
+        }
+        Object metaData[] = {event.getDeviceIdentifier(), event.getType()};
+        if (publisherService.publishEvent(EVENT_STREAM_DEFINITION, "1.0.0", metaData, new Object[0], payload)) {
+            return new EventPublishResult(index, EventPublishResult.Status.PUBLISHED, null);
+        }
+        return new EventPublishResult(index, EventPublishResult.Status.FAILED,
+                "Error occurred while publishing the event.");
+    }
+
+    /**
+     * Reads the time stamp, longitude and latitude of a location payload in a single pass, skipping the other fields.
+     *
+     * @param eventPayload JSON payload of the location event.
+     * @return payload of the location stream, or null if the payload is not a valid location.
+     */
+    private static Object[] parseLocationPayload(String eventPayload) {
+        if (eventPayload == null) {
+            return null;
+        }
+        Long timeStamp = null;
+        Double longitude = null;
+        Double latitude = null;
+        JsonReader reader = new JsonReader(new StringReader(eventPayload));
+        // as lenient as the Gson parsing the payloads were read with before.
+        reader.setLenient(true);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (TIME_STAMP.equals(name)) {
+                    timeStamp = reader.nextLong();
+                } else if (LONGITUDE.equals(name)) {
+                    longitude = reader.nextDouble();
+                } else if (LATITUDE.equals(name)) {
+                    latitude = reader.nextDouble();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Invalid location event payload '" + eventPayload + "'", e);
+            }
+            return null;
+        }
+        if (timeStamp == null || longitude == null || latitude == null) {
+            return null;
+        }
+        return new Object[]{timeStamp, longitude, latitude};
+    }
+
     @GET
     @Override
     public Response retrieveAlerts(@QueryParam("id")
@@ -104,14 +238,26 @@ public class EventReceiverServiceImpl implements EventReceiverService {
                                    @QueryParam("to") long to,
                                        @Size(min = 2, max = 45)
                                    @QueryParam("type") String type,
+                                   @QueryParam("offset") int offset,
+                                   @QueryParam("limit") int limit,
                                    @HeaderParam("If-Modified-Since") String ifModifiedSince) {
 
-        if (from != 0l && to != 0l && deviceId != null) {
-            return retrieveAlertFromDate(deviceId, from, to);
+        if (offset < 0 || limit < 0) {
+            throw new BadRequestException(
+                    new ErrorResponse.ErrorResponseBuilder().setCode(400l).setMessage("Offset and limit must not " +
+                            "be negative.").build());
+        }
+        if (limit == 0) {
+            limit = DEFAULT_EVENT_PAGE_SIZE;
+        } else if (limit > MAX_EVENT_PAGE_SIZE) {
+            limit = MAX_EVENT_PAGE_SIZE;
+        }
+        if ((from != 0l || to != 0l) && deviceId != null) {
+            return retrieveAlertFromDate(deviceId, from, to, offset, limit);
         } else if (deviceId != null && type != null) {
-            return retrieveAlertByType(deviceId, type);
+            return retrieveAlertByType(deviceId, type, offset, limit);
         } else if (deviceId != null) {
-            return retrieveAlert(deviceId);
+            return retrieveAlert(deviceId, offset, limit);
         } else {
             throw new BadRequestException(
                     new ErrorResponse.ErrorResponseBuilder().setCode(400l).setMessage("Request must contain " +
@@ -120,15 +266,15 @@ public class EventReceiverServiceImpl implements EventReceiverService {
         }
     }
 
-    private Response retrieveAlert(String deviceId) {
+    private Response retrieveAlert(String deviceId, int offset, int limit) {
         if (log.isDebugEnabled()) {
             log.debug("Retrieving events for given device Identifier.");
         }
         String query = "deviceIdentifier:" + deviceId;
         List<DeviceState> deviceStates;
         try {
-            deviceStates = AndroidAPIUtils.getAllEventsForDevice(EVENT_STREAM_DEFINITION, query);
-            if (deviceStates == null) {
+            deviceStates = AndroidAPIUtils.getEventsForDevice(EVENT_STREAM_DEFINITION, query, offset, limit);
+            if (deviceStates.isEmpty() && offset == 0) {
                 throw new NotFoundException(
                         new ErrorResponse.ErrorResponseBuilder().setCode(404l).setMessage("No any alerts are " +
                                 "published for Device: " + deviceId + ".").build());
@@ -143,9 +289,10 @@ public class EventReceiverServiceImpl implements EventReceiverService {
         }
     }
 
-    private Response retrieveAlertFromDate(String deviceId, long from, long to) {
-        String fromDate = String.valueOf(from);
-        String toDate = String.valueOf(to);
+    private Response retrieveAlertFromDate(String deviceId, long from, long to, int offset, int limit) {
+        // an open bound is left to the index rather than filtered after the search.
+        String fromDate = from != 0l ? String.valueOf(from) : "*";
+        String toDate = to != 0l ? String.valueOf(to) : "*";
         if (log.isDebugEnabled()) {
             log.debug("Retrieving events for given device Identifier and time period.");
         }
@@ -153,8 +300,8 @@ public class EventReceiverServiceImpl implements EventReceiverService {
         String query = "deviceIdentifier:" + deviceId + " AND _timestamp: [" + fromDate + " TO " + toDate + "]";
         List<DeviceState> deviceStates;
         try {
-            deviceStates = AndroidAPIUtils.getAllEventsForDevice(EVENT_STREAM_DEFINITION, query);
-            if (deviceStates == null) {
+            deviceStates = AndroidAPIUtils.getEventsForDevice(EVENT_STREAM_DEFINITION, query, offset, limit);
+            if (deviceStates.isEmpty() && offset == 0) {
                 throw new NotFoundException(
                         new ErrorResponse.ErrorResponseBuilder().setCode(404l).setMessage("No any alerts are " +
                                 "published on given date for given Device: " + deviceId + ".").build());
@@ -171,15 +318,15 @@ public class EventReceiverServiceImpl implements EventReceiverService {
         }
     }
 
-    private Response retrieveAlertByType(String deviceId, String type) {
+    private Response retrieveAlertByType(String deviceId, String type, int offset, int limit) {
         if (log.isDebugEnabled()) {
             log.debug("Retrieving events for given device identifier and type.");
         }
         String query = "deviceIdentifier:" + deviceId + " AND type:" + type;
         List<DeviceState> deviceStates;
         try {
-            deviceStates = AndroidAPIUtils.getAllEventsForDevice(EVENT_STREAM_DEFINITION, query);
-            if (deviceStates == null) {
+            deviceStates = AndroidAPIUtils.getEventsForDevice(EVENT_STREAM_DEFINITION, query, offset, limit);
+            if (deviceStates.isEmpty() && offset == 0) {
                 throw new NotFoundException(
                         new ErrorResponse.ErrorResponseBuilder().setCode(404l).setMessage("No any alerts are " +
                                 "published for given Device: '" + deviceId + "' and given specific Type.").build());
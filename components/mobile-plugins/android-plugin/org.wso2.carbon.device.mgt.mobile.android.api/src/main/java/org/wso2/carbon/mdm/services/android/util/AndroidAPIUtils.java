@@ -21,7 +21,6 @@ package org.wso2.carbon.mdm.services.android.util;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -43,6 +42,8 @@ import org.wso2.carbon.device.mgt.common.app.mgt.Application;
 import org.wso2.carbon.device.mgt.common.app.mgt.ApplicationManagementException;
 import org.wso2.carbon.device.mgt.common.device.details.DeviceInfo;
 import org.wso2.carbon.device.mgt.common.device.details.DeviceLocation;
+import org.wso2.carbon.device.mgt.common.notification.mgt.Notification;
+import org.wso2.carbon.device.mgt.common.notification.mgt.NotificationManagementException;
 import org.wso2.carbon.device.mgt.common.notification.mgt.NotificationManagementService;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
@@ -51,7 +52,6 @@ import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.ComplianceFeature;
 import org.wso2.carbon.device.mgt.core.app.mgt.ApplicationManagementProviderService;
 import org.wso2.carbon.device.mgt.core.device.details.mgt.DeviceDetailsMgtException;
 import org.wso2.carbon.device.mgt.core.device.details.mgt.DeviceInformationManager;
-import org.wso2.carbon.device.mgt.core.search.mgt.impl.Utils;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.mdm.services.android.bean.DeviceState;
 import org.wso2.carbon.mdm.services.android.bean.ErrorResponse;
@@ -62,9 +62,14 @@ import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * AndroidAPIUtil class provides utility functions used by Android REST-API classes.
@@ -72,6 +77,10 @@ import java.util.Map;
 public class AndroidAPIUtils {
 
     private static Log log = LogFactory.getLog(AndroidAPIUtils.class);
+    private static final Gson gson = new Gson();
+    private static final Set<String> STATE_OPERATION_CODES = new HashSet<>(Arrays.asList(
+            AndroidConstants.OperationCodes.MONITOR, AndroidConstants.OperationCodes.APPLICATION_LIST,
+            AndroidConstants.OperationCodes.DEVICE_INFO, AndroidConstants.OperationCodes.DEVICE_LOCATION));
 
     public static DeviceIdentifier convertToDeviceIdentifierObject(String deviceId) {
         DeviceIdentifier identifier = new DeviceIdentifier();
@@ -217,14 +226,24 @@ public class AndroidAPIUtils {
         return analyticsDataAPI;
     }
 
-    public static List<DeviceState> getAllEventsForDevice(String tableName, String query) throws AnalyticsException {
+    /**
+     * Returns a page of the events matching a query, in the order they are returned by the search.
+     *
+     * @param tableName name of the table the events are published to.
+     * @param query     search query of the events.
+     * @param offset    number of matching events to skip.
+     * @param limit     maximum number of events to return.
+     * @return the events of the page, which is empty if there are no more matching events.
+     * @throws AnalyticsException if the events cannot be searched or read.
+     */
+    public static List<DeviceState> getEventsForDevice(String tableName, String query, int offset, int limit)
+            throws AnalyticsException {
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
         AnalyticsDataAPI analyticsDataAPI = getAnalyticsDataAPI();
-        int eventCount = analyticsDataAPI.searchCount(tenantId, tableName, query);
-        if (eventCount == 0) {
-            return null;
+        List<SearchResultEntry> resultEntries = analyticsDataAPI.search(tenantId, tableName, query, offset, limit);
+        if (resultEntries == null || resultEntries.isEmpty()) {
+            return new ArrayList<>();
         }
-        List<SearchResultEntry> resultEntries = analyticsDataAPI.search(tenantId, tableName, query, 0, eventCount);
         List<String> recordIds = getRecordIds(resultEntries);
         AnalyticsDataResponse response = analyticsDataAPI.get(tenantId, tableName, 1, null, recordIds);
         Map<String, DeviceState> deviceStateses = createDeviceStatusData(AnalyticsDataAPIUtil.listRecords(
@@ -233,7 +252,7 @@ public class AndroidAPIUtils {
     }
 
     private static List<String> getRecordIds(List<SearchResultEntry> searchResults) {
-        List<String> ids = new ArrayList();
+        List<String> ids = new ArrayList<>(searchResults.size());
         for (SearchResultEntry searchResult : searchResults) {
             ids.add(searchResult.getId());
         }
@@ -258,19 +277,122 @@ public class AndroidAPIUtils {
 
     public static List<DeviceState> getSortedDeviceStateData(Map<String, DeviceState> sensorDatas,
                                                              List<SearchResultEntry> searchResults) {
-        List<DeviceState> sortedRecords = new ArrayList();
+        List<DeviceState> sortedRecords = new ArrayList<>(searchResults.size());
         for (SearchResultEntry searchResultEntry : searchResults) {
-            sortedRecords.add(sensorDatas.get(searchResultEntry.getId()));
+            DeviceState deviceState = sensorDatas.get(searchResultEntry.getId());
+            // a record may be purged between the search and the read.
+            if (deviceState != null) {
+                sortedRecords.add(deviceState);
+            }
         }
         return sortedRecords;
     }
 
     public static void updateOperation(String deviceId, Operation operation)
             throws OperationManagementException, PolicyComplianceException, ApplicationManagementException {
-        DeviceIdentifier deviceIdentifier = new DeviceIdentifier();
-        deviceIdentifier.setId(deviceId);
-        deviceIdentifier.setType(DeviceManagementConstants.MobileDeviceTypes.MOBILE_DEVICE_TYPE_ANDROID);
+        DeviceIdentifier deviceIdentifier = convertToDeviceIdentifierObject(deviceId);
+        applyOperationResult(deviceIdentifier, operation);
+        getDeviceManagementService().updateOperation(deviceIdentifier, operation);
+    }
+
+    /**
+     * Updates the operations reported by a device in a single pending operations request. Compliance status,
+     * application list, device info and location responses describe the current state of the device, so only the
+     * last applicable response of each such code is applied, eg: a location response without coordinates falls
+     * back to an earlier one. The status of an operation whose response cannot be applied is left untouched, so that
+     * the response is applied when the device reports it again, while the other operations are still updated. The
+     * device name needed for failure notifications is looked up at most once.
+     *
+     * @param deviceId   id of the device which reported the operations.
+     * @param operations operations with their status and responses.
+     * @return ids of the operations whose response could not be applied.
+     */
+    public static List<Integer> updateOperations(String deviceId, List<? extends Operation> operations)
+            throws OperationManagementException, NotificationManagementException, DeviceManagementException {
+        return updateOperations(convertToDeviceIdentifierObject(deviceId), operations,
+                                new OperationResultApplier() {
+                                    @Override
+                                    public boolean apply(DeviceIdentifier deviceIdentifier, Operation operation)
+                                            throws OperationManagementException, PolicyComplianceException,
+                                                   ApplicationManagementException {
+                                        return applyOperationResult(deviceIdentifier, operation);
+                                    }
+                                }, getDeviceManagementService(), getNotificationManagementService());
+    }
+
+    static List<Integer> updateOperations(DeviceIdentifier deviceIdentifier, List<? extends Operation> operations,
+                                          OperationResultApplier resultApplier,
+                                          DeviceManagementProviderService deviceManagementService,
+                                          NotificationManagementService notificationManagementService)
+            throws OperationManagementException, NotificationManagementException, DeviceManagementException {
+        String deviceId = deviceIdentifier.getId();
+        Set<String> appliedCodes = new HashSet<>();
+        Set<Operation> failedOperations = Collections.newSetFromMap(new IdentityHashMap<Operation, Boolean>());
+        for (int i = operations.size() - 1; i >= 0; i--) {
+            Operation operation = operations.get(i);
+            if (Operation.Status.ERROR.equals(operation.getStatus()) ||
+                !STATE_OPERATION_CODES.contains(operation.getCode()) ||
+                appliedCodes.contains(operation.getCode())) {
+                continue;
+            }
+            try {
+                if (resultApplier.apply(deviceIdentifier, operation)) {
+                    appliedCodes.add(operation.getCode());
+                }
+            } catch (OperationManagementException | PolicyComplianceException | ApplicationManagementException |
+                    RuntimeException e) {
+                failedOperations.add(operation);
+                log.error("Error occurred while applying the response of " + operation.getCode() + " operation "
+                                  + operation.getId() + " of device '" + deviceId + "'", e);
+            }
+        }
 
+        List<Integer> failedOperationIds = new ArrayList<>(failedOperations.size());
+        String deviceName = null;
+        for (Operation operation : operations) {
+            if (failedOperations.contains(operation)) {
+                failedOperationIds.add(operation.getId());
+                continue;
+            }
+            deviceManagementService.updateOperation(deviceIdentifier, operation);
+            if (Operation.Status.ERROR.equals(operation.getStatus())) {
+                if (deviceName == null) {
+                    deviceName = deviceManagementService.getDevice(deviceIdentifier, false).getName();
+                }
+                Notification notification = new Notification();
+                notification.setOperationId(operation.getId());
+                notification.setStatus(Notification.Status.NEW.toString());
+                notification.setDescription(operation.getCode() + " operation failed to execute on device " +
+                        deviceName + " (ID: " + deviceId + ")");
+                notificationManagementService.addNotification(deviceIdentifier, notification);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Updating operation '" + operation.toString() + "'");
+            }
+        }
+        return failedOperationIds;
+    }
+
+    /**
+     * Applies the response of an operation reported by a device.
+     */
+    interface OperationResultApplier {
+
+        /**
+         * @return true if the response was applied, false if the operation carries no applicable response.
+         */
+        boolean apply(DeviceIdentifier deviceIdentifier, Operation operation)
+                throws OperationManagementException, PolicyComplianceException, ApplicationManagementException;
+    }
+
+    /**
+     * Applies the response of an operation which reports the state of the device.
+     *
+     * @return true if the response was applied, false if the operation carries no applicable response.
+     */
+    private static boolean applyOperationResult(DeviceIdentifier deviceIdentifier, Operation operation)
+            throws OperationManagementException, PolicyComplianceException, ApplicationManagementException {
+        String deviceId = deviceIdentifier.getId();
         if (!Operation.Status.ERROR.equals(operation.getStatus()) &&
             AndroidConstants.OperationCodes.MONITOR.equals(operation.getCode())) {
             if (log.isDebugEnabled()) {
@@ -278,12 +400,13 @@ public class AndroidAPIUtils {
             }
             getPolicyManagerService().checkPolicyCompliance(deviceIdentifier,
                                                             getComplianceFeatures(operation.getPayLoad()));
+            return true;
         } else if (!Operation.Status.ERROR.equals(operation.getStatus()) && AndroidConstants.
                 OperationCodes.APPLICATION_LIST.equals(operation.getCode())) {
             if (log.isDebugEnabled()) {
                 log.info("Received applications list from device '" + deviceId + "'");
             }
-            updateApplicationList(operation, deviceIdentifier);
+            return updateApplicationList(operation, deviceIdentifier);
 
         } else if (!Operation.Status.ERROR.equals(operation.getStatus()) && AndroidConstants.
                 OperationCodes.DEVICE_INFO.equals(operation.getCode())) {
@@ -292,9 +415,13 @@ public class AndroidAPIUtils {
                 if (log.isDebugEnabled()){
                     log.debug("Operation response: " + operation.getOperationResponse());
                 }
-                Device device = new Gson().fromJson(operation.getOperationResponse(), Device.class);
-                org.wso2.carbon.device.mgt.common.device.details.DeviceInfo deviceInfo = convertDeviceToInfo(device);
+                Device device = gson.fromJson(operation.getOperationResponse(), Device.class);
+                if (device == null) {
+                    return false;
+                }
+                org.wso2.carbon.device.mgt.common.device.details.DeviceInfo deviceInfo = AndroidDeviceInfoDecoder.decode(device);
                 updateDeviceInfo(deviceIdentifier, deviceInfo);
+                return true;
             } catch (DeviceDetailsMgtException e) {
                 throw new OperationManagementException("Error occurred while updating the device information.", e);
             }
@@ -303,19 +430,20 @@ public class AndroidAPIUtils {
         } else if (!Operation.Status.ERROR.equals(operation.getStatus()) &&
                    AndroidConstants.OperationCodes.DEVICE_LOCATION.equals(operation.getCode())) {
             try {
-                DeviceLocation location = new Gson().fromJson(operation.getOperationResponse(), DeviceLocation.class);
+                DeviceLocation location = gson.fromJson(operation.getOperationResponse(), DeviceLocation.class);
                 // reason for checking "location.getLatitude() != null" because when device fails to provide
                 // device location and send status instead, above Gson converter create new location object
                 // with null attributes
                 if (location != null && location.getLatitude() != null) {
                     location.setDeviceIdentifier(deviceIdentifier);
                     updateDeviceLocation(location);
+                    return true;
                 }
             } catch (DeviceDetailsMgtException e) {
                 throw new OperationManagementException("Error occurred while updating the device location.", e);
             }
         }
-        getDeviceManagementService().updateOperation(deviceIdentifier, operation);
+        return false;
     }
 
     public static List<? extends Operation> getPendingOperations
@@ -326,7 +454,7 @@ public class AndroidAPIUtils {
         return operations;
     }
 
-    private static void updateApplicationList(Operation operation, DeviceIdentifier deviceIdentifier)
+    private static boolean updateApplicationList(Operation operation, DeviceIdentifier deviceIdentifier)
             throws ApplicationManagementException {
         // Parsing json string to get applications list.
         if (operation.getOperationResponse() != null) {
@@ -353,8 +481,10 @@ public class AndroidAPIUtils {
                 applications.add(app);
             }
             getApplicationManagerService().updateApplicationListInstalledInDevice(deviceIdentifier, applications);
+            return true;
         } else {
             log.error("Operation Response is null.");
+            return false;
         }
 
     }
@@ -379,130 +509,8 @@ public class AndroidAPIUtils {
         informationManager.addDeviceInfo(deviceId, deviceInfo);
     }
 
-
-    private static org.wso2.carbon.device.mgt.common.device.details.DeviceInfo convertDeviceToInfo(Device device) {
-
-        org.wso2.carbon.device.mgt.common.device.details.DeviceInfo deviceInfo =
-                new org.wso2.carbon.device.mgt.common.device.details.DeviceInfo();
-        if (deviceInfo.getDeviceDetailsMap() == null) {
-            deviceInfo.setDeviceDetailsMap(new HashMap<String, String>());
-        }
-        List<Device.Property> props = device.getProperties();
-
-        for (Device.Property prop : props) {
-            if (Utils.getDeviceDetailsColumnNames().containsValue(prop.getName())) {
-                if (prop.getName().equalsIgnoreCase("DEVICE_MODEL")) {
-                    deviceInfo.setDeviceModel(prop.getValue());
-                } else if (prop.getName().equalsIgnoreCase("VENDOR")) {
-                    deviceInfo.setVendor(prop.getValue());
-                } else if (prop.getName().equalsIgnoreCase("OS_VERSION")) {
-                    deviceInfo.setOsVersion(prop.getValue());
-                } else if (prop.getName().equalsIgnoreCase("IMEI")) {
-                    deviceInfo.getDeviceDetailsMap().put("IMEI", prop.getValue());
-                } else if (prop.getName().equalsIgnoreCase("IMSI")) {
-                    deviceInfo.getDeviceDetailsMap().put("IMSI", prop.getValue());
-                } else if (prop.getName().equalsIgnoreCase("MAC")) {
-                    deviceInfo.getDeviceDetailsMap().put("mac", prop.getValue());
-                } else if (prop.getName().equalsIgnoreCase("SERIAL")) {
-                    deviceInfo.getDeviceDetailsMap().put("serial", prop.getValue());
-                } else if (prop.getName().equalsIgnoreCase("OS_BUILD_DATE")) {
-                    deviceInfo.setOsBuildDate(prop.getValue());
-                }
-            } else {
-                if (prop.getName().equalsIgnoreCase("CPU_INFO")) {
-                    deviceInfo.getDeviceDetailsMap().put("cpuUser",
-                            getProperty(prop.getValue(), "User"));
-                    deviceInfo.getDeviceDetailsMap().put("cpuSystem",
-                            getProperty(prop.getValue(), "System"));
-                    deviceInfo.getDeviceDetailsMap().put("IOW",
-                            getProperty(prop.getValue(), "IOW"));
-                    deviceInfo.getDeviceDetailsMap().put("IRQ",
-                            getProperty(prop.getValue(), "IRQ"));
-                } else if (prop.getName().equalsIgnoreCase("RAM_INFO")) {
-                    deviceInfo.setTotalRAMMemory(Double.parseDouble(getProperty(prop.getValue(), "TOTAL_MEMORY")));
-                    deviceInfo.setAvailableRAMMemory(Double.parseDouble(getProperty(prop.getValue(), "AVAILABLE_MEMORY")));
-
-                    deviceInfo.getDeviceDetailsMap().put("ramThreshold",
-                            getProperty(prop.getValue(), "THRESHOLD"));
-                    deviceInfo.getDeviceDetailsMap().put("ramLowMemory",
-                            getProperty(prop.getValue(), "LOW_MEMORY"));
-                } else if (prop.getName().equalsIgnoreCase("BATTERY_INFO")) {
-                    deviceInfo.setPluggedIn(Boolean.parseBoolean(getProperty(prop.getValue(), "PLUGGED")));
-
-                    deviceInfo.getDeviceDetailsMap().put("batteryLevel",
-                            getProperty(prop.getValue(), "BATTERY_LEVEL"));
-                    deviceInfo.getDeviceDetailsMap().put("batteryScale",
-                            getProperty(prop.getValue(), "SCALE"));
-                    deviceInfo.getDeviceDetailsMap().put("batteryVoltage",
-                            getProperty(prop.getValue(), "BATTERY_VOLTAGE"));
-                    deviceInfo.getDeviceDetailsMap().put("batteryTemperature",
-                            getProperty(prop.getValue(), "TEMPERATURE"));
-                    deviceInfo.getDeviceDetailsMap().put("batteryCurrentTemperature",
-                            getProperty(prop.getValue(), "CURRENT_AVERAGE"));
-                    deviceInfo.getDeviceDetailsMap().put("batteryTechnology",
-                            getProperty(prop.getValue(), "TECHNOLOGY"));
-                    deviceInfo.getDeviceDetailsMap().put("batteryHealth",
-                            getProperty(prop.getValue(), "HEALTH"));
-                    deviceInfo.getDeviceDetailsMap().put("batteryStatus",
-                            getProperty(prop.getValue(), "STATUS"));
-                } else if (prop.getName().equalsIgnoreCase("NETWORK_INFO")) {
-                    deviceInfo.setSsid(getProperty(prop.getValue(), "WIFI_SSID"));
-                    deviceInfo.setConnectionType(getProperty(prop.getValue(), "CONNECTION_TYPE"));
-
-                    deviceInfo.getDeviceDetailsMap().put("mobileSignalStrength",
-                            getProperty(prop.getValue(), "MOBILE_SIGNAL_STRENGTH"));
-                    deviceInfo.getDeviceDetailsMap().put("wifiSignalStrength",
-                            getProperty(prop.getValue(), "WIFI_SIGNAL_STRENGTH"));
-                } else if (prop.getName().equalsIgnoreCase("DEVICE_INFO")) {
-                    deviceInfo.setBatteryLevel(Double.parseDouble(
-                            getProperty(prop.getValue(), "BATTERY_LEVEL")));
-                    deviceInfo.setInternalTotalMemory(Double.parseDouble(
-                            getProperty(prop.getValue(), "INTERNAL_TOTAL_MEMORY")));
-                    deviceInfo.setInternalAvailableMemory(Double.parseDouble(
-                            getProperty(prop.getValue(), "INTERNAL_AVAILABLE_MEMORY")));
-                    deviceInfo.setExternalTotalMemory(Double.parseDouble(
-                            getProperty(prop.getValue(), "EXTERNAL_TOTAL_MEMORY")));
-                    deviceInfo.setExternalAvailableMemory(Double.parseDouble(
-                            getProperty(prop.getValue(), "EXTERNAL_AVAILABLE_MEMORY")));
-
-                    deviceInfo.getDeviceDetailsMap().put("encryptionEnabled",
-                            getProperty(prop.getValue(), "ENCRYPTION_ENABLED"));
-                    deviceInfo.getDeviceDetailsMap().put("passcodeEnabled",
-                            getProperty(prop.getValue(), "PASSCODE_ENABLED"));
-                    deviceInfo.getDeviceDetailsMap().put("operator",
-                            getProperty(prop.getValue(), "OPERATOR"));
-		    deviceInfo.getDeviceDetailsMap().put("PhoneNumber",
-                            getProperty(prop.getValue(), "PHONE_NUMBER"));
-                }
-            }
-        }
-        return deviceInfo;
-    }
-
-    private static String getProperty(String a, String needed) {
-
-        JsonElement jsonElement = new JsonParser().parse(a);
-        JsonArray jsonArray = jsonElement.getAsJsonArray();
-        boolean exist = false;
-        for (JsonElement element : jsonArray) {
-            //  if (((JsonObject) element).entrySet().iterator().next().getValue().getAsString().equalsIgnoreCase(needed));
-            for (Map.Entry<String, JsonElement> ob : ((JsonObject) element).entrySet()) {
-                JsonElement val = ob.getValue();
-                if (val != null && !val.isJsonNull()) {
-                    if (exist) {
-                        return val.getAsString().replace("%", "");
-                    }
-                    if (val.getAsString().equalsIgnoreCase(needed)) {
-                        exist = true;
-                    }
-                }
-            }
-        }
-        return "";
-    }
-
     private static List<ComplianceFeature> getComplianceFeatures(Object compliancePayload) throws PolicyComplianceException {
-        String compliancePayloadString = new Gson().toJson(compliancePayload);
+        String compliancePayloadString = gson.toJson(compliancePayload);
         if (compliancePayload == null) {
             return null;
         }
@@ -515,7 +523,6 @@ public class AndroidAPIUtils {
         }
 
         JsonArray jsonArray = jsonElement.getAsJsonArray();
-        Gson gson = new Gson();
         ComplianceFeature complianceFeature;
         List<ComplianceFeature> complianceFeatures = new ArrayList<ComplianceFeature>(jsonArray.size());
 
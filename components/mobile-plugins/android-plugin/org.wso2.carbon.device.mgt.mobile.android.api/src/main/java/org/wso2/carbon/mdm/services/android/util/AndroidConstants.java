@@ -25,6 +25,7 @@ public final class AndroidConstants {
 
     public static final String DEVICE_TYPE_ANDROID = "android";
     public static final String HEADER_CONTENT_TYPE = "Content-Type";
+    public static final String HEADER_FAILED_OPERATIONS = "Failed-Operations";
     public static final String APPLICATION_JSON = "application/json";
     public static final String SCOPE = "scope";
 
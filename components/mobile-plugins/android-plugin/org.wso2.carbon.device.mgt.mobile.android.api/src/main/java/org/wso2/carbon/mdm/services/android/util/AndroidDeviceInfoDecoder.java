@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.mdm.services.android.util;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.device.details.DeviceInfo;
+import org.wso2.carbon.device.mgt.core.search.mgt.impl.Utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decodes the properties of a DEVICE_INFO operation response into {@link DeviceInfo}.
+ * <p/>
+ * The CPU, RAM, battery, network and device info properties hold a JSON array of name/value objects, eg:
+ * <code>[{"name":"TOTAL_MEMORY","value":"1024"}, ...]</code>. Each such array is read once into a
+ * {@link PropertyValues} view, instead of parsing and scanning it again for every value looked up.
+ */
+public class AndroidDeviceInfoDecoder {
+
+    private AndroidDeviceInfoDecoder() {
+    }
+
+    /**
+     * Converts the properties reported by the device to device information.
+     *
+     * @param device device sent in the operation response.
+     * @return device information populated from the properties.
+     */
+    public static DeviceInfo decode(Device device) {
+        DeviceInfo deviceInfo = new DeviceInfo();
+        if (deviceInfo.getDeviceDetailsMap() == null) {
+            deviceInfo.setDeviceDetailsMap(new HashMap<String, String>());
+        }
+        Map<String, String> detailsMap = deviceInfo.getDeviceDetailsMap();
+        List<Device.Property> props = device.getProperties();
+        if (props == null) {
+            return deviceInfo;
+        }
+        Map<String, String> columnNames = Utils.getDeviceDetailsColumnNames();
+
+        for (Device.Property prop : props) {
+            String name = prop.getName();
+            if (columnNames.containsValue(name)) {
+                if (name.equalsIgnoreCase("DEVICE_MODEL")) {
+                    deviceInfo.setDeviceModel(prop.getValue());
+                } else if (name.equalsIgnoreCase("VENDOR")) {
+                    deviceInfo.setVendor(prop.getValue());
+                } else if (name.equalsIgnoreCase("OS_VERSION")) {
+                    deviceInfo.setOsVersion(prop.getValue());
+                } else if (name.equalsIgnoreCase("IMEI")) {
+                    detailsMap.put("IMEI", prop.getValue());
+                } else if (name.equalsIgnoreCase("IMSI")) {
+                    detailsMap.put("IMSI", prop.getValue());
+                } else if (name.equalsIgnoreCase("MAC")) {
+                    detailsMap.put("mac", prop.getValue());
+                } else if (name.equalsIgnoreCase("SERIAL")) {
+                    detailsMap.put("serial", prop.getValue());
+                } else if (name.equalsIgnoreCase("OS_BUILD_DATE")) {
+                    deviceInfo.setOsBuildDate(prop.getValue());
+                }
+            } else if (name.equalsIgnoreCase("CPU_INFO")) {
+                PropertyValues values = PropertyValues.parse(prop.getValue());
+                detailsMap.put("cpuUser", values.getString("User"));
+                detailsMap.put("cpuSystem", values.getString("System"));
+                detailsMap.put("IOW", values.getString("IOW"));
+                detailsMap.put("IRQ", values.getString("IRQ"));
+            } else if (name.equalsIgnoreCase("RAM_INFO")) {
+                PropertyValues values = PropertyValues.parse(prop.getValue());
+                deviceInfo.setTotalRAMMemory(values.getDouble("TOTAL_MEMORY"));
+                deviceInfo.setAvailableRAMMemory(values.getDouble("AVAILABLE_MEMORY"));
+
+                detailsMap.put("ramThreshold", values.getString("THRESHOLD"));
+                detailsMap.put("ramLowMemory", values.getString("LOW_MEMORY"));
+            } else if (name.equalsIgnoreCase("BATTERY_INFO")) {
+                PropertyValues values = PropertyValues.parse(prop.getValue());
+                deviceInfo.setPluggedIn(values.getBoolean("PLUGGED"));
+
+                detailsMap.put("batteryLevel", values.getString("BATTERY_LEVEL"));
+                detailsMap.put("batteryScale", values.getString("SCALE"));
+                detailsMap.put("batteryVoltage", values.getString("BATTERY_VOLTAGE"));
+                detailsMap.put("batteryTemperature", values.getString("TEMPERATURE"));
+                detailsMap.put("batteryCurrentTemperature", values.getString("CURRENT_AVERAGE"));
+                detailsMap.put("batteryTechnology", values.getString("TECHNOLOGY"));
+                detailsMap.put("batteryHealth", values.getString("HEALTH"));
+                detailsMap.put("batteryStatus", values.getString("STATUS"));
+            } else if (name.equalsIgnoreCase("NETWORK_INFO")) {
+                PropertyValues values = PropertyValues.parse(prop.getValue());
+                deviceInfo.setSsid(values.getString("WIFI_SSID"));
+                deviceInfo.setConnectionType(values.getString("CONNECTION_TYPE"));
+
+                detailsMap.put("mobileSignalStrength", values.getString("MOBILE_SIGNAL_STRENGTH"));
+                detailsMap.put("wifiSignalStrength", values.getString("WIFI_SIGNAL_STRENGTH"));
+            } else if (name.equalsIgnoreCase("DEVICE_INFO")) {
+                PropertyValues values = PropertyValues.parse(prop.getValue());
+                deviceInfo.setBatteryLevel(values.getDouble("BATTERY_LEVEL"));
+                deviceInfo.setInternalTotalMemory(values.getDouble("INTERNAL_TOTAL_MEMORY"));
+                deviceInfo.setInternalAvailableMemory(values.getDouble("INTERNAL_AVAILABLE_MEMORY"));
+                deviceInfo.setExternalTotalMemory(values.getDouble("EXTERNAL_TOTAL_MEMORY"));
+                deviceInfo.setExternalAvailableMemory(values.getDouble("EXTERNAL_AVAILABLE_MEMORY"));
+
+                detailsMap.put("encryptionEnabled", values.getString("ENCRYPTION_ENABLED"));
+                detailsMap.put("passcodeEnabled", values.getString("PASSCODE_ENABLED"));
+                detailsMap.put("operator", values.getString("OPERATOR"));
+                detailsMap.put("PhoneNumber", values.getString("PHONE_NUMBER"));
+            }
+        }
+        return deviceInfo;
+    }
+
+    /**
+     * Values of a property array, looked up by name ignoring case. The value of a name is the value which follows
+     * it in the array, with any '%' sign removed, and an empty string if the name is not present.
+     */
+    public static class PropertyValues {
+
+        private static final String EMPTY = "";
+        private static final String PERCENTAGE = "%";
+
+        private final Map<String, String> values;
+
+        private PropertyValues(Map<String, String> values) {
+            this.values = values;
+        }
+
+        /**
+         * Reads the name/value pairs of a property array in a single pass.
+         *
+         * @param json JSON array of the property.
+         * @return the values of the array.
+         * @throws IllegalArgumentException if the property is not a JSON array of objects.
+         */
+        public static PropertyValues parse(String json) {
+            Map<String, String> values = new HashMap<>();
+            JsonReader reader = new JsonReader(new StringReader(json));
+            try {
+                String previous = null;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        reader.nextName();
+                        String value = nextValue(reader);
+                        if (value == null) {
+                            continue;
+                        }
+                        if (previous != null) {
+                            String key = previous.toLowerCase(Locale.ENGLISH);
+                            if (!values.containsKey(key)) {
+                                values.put(key, value.replace(PERCENTAGE, EMPTY));
+                            }
+                        }
+                        previous = value;
+                    }
+                    reader.endObject();
+                }
+                reader.endArray();
+            } catch (IOException | IllegalStateException e) {
+                throw new IllegalArgumentException("Invalid device property : " + json, e);
+            }
+            return new PropertyValues(values);
+        }
+
+        private static String nextValue(JsonReader reader) throws IOException {
+            JsonToken token = reader.peek();
+            switch (token) {
+                case STRING:
+                case NUMBER:
+                    return reader.nextString();
+                case BOOLEAN:
+                    return String.valueOf(reader.nextBoolean());
+                default:
+                    reader.skipValue();
+                    return null;
+            }
+        }
+
+        public String getString(String name) {
+            String value = values.get(name.toLowerCase(Locale.ENGLISH));
+            return value == null ? EMPTY : value;
+        }
+
+        public double getDouble(String name) {
+            return Double.parseDouble(getString(name));
+        }
+
+        public boolean getBoolean(String name) {
+            return Boolean.parseBoolean(getString(name));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.mdm.services.android.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.app.mgt.ApplicationManagementException;
+import org.wso2.carbon.device.mgt.common.notification.mgt.Notification;
+import org.wso2.carbon.device.mgt.common.notification.mgt.NotificationManagementService;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class AndroidAPIUtilsTestCase {
+
+    private static final String DEVICE_ID = "android-1";
+
+    @Test
+    public void testFailedResultsAreNotUpdated() throws Exception {
+        List<Operation> operations = Arrays.asList(
+                newOperation(1, AndroidConstants.OperationCodes.DEVICE_INFO, Operation.Status.COMPLETED),
+                newOperation(2, AndroidConstants.OperationCodes.DEVICE_LOCK, Operation.Status.COMPLETED),
+                newOperation(3, AndroidConstants.OperationCodes.DEVICE_LOCATION, Operation.Status.COMPLETED),
+                newOperation(4, AndroidConstants.OperationCodes.WIPE_DATA, Operation.Status.ERROR),
+                newOperation(5, AndroidConstants.OperationCodes.MONITOR, Operation.Status.COMPLETED));
+        RecordingServices services = new RecordingServices();
+        RecordingApplier applier = new RecordingApplier(1, 5);
+
+        List<Integer> failedOperationIds = update(operations, applier, services);
+
+        Assert.assertEquals(failedOperationIds, Arrays.asList(1, 5));
+        Assert.assertEquals(applier.appliedIds, Arrays.asList(5, 3, 1));
+        Assert.assertEquals(services.updatedIds, Arrays.asList(2, 3, 4));
+        Assert.assertEquals(services.notifiedIds, Collections.singletonList(4));
+        Assert.assertEquals(services.deviceLookups, 1);
+    }
+
+    @Test
+    public void testEarlierResultIsAppliedWhenTheLatestFails() throws Exception {
+        List<Operation> operations = Arrays.asList(
+                newOperation(1, AndroidConstants.OperationCodes.APPLICATION_LIST, Operation.Status.COMPLETED),
+                newOperation(2, AndroidConstants.OperationCodes.APPLICATION_LIST, Operation.Status.COMPLETED),
+                newOperation(3, AndroidConstants.OperationCodes.APPLICATION_LIST, Operation.Status.COMPLETED));
+        RecordingServices services = new RecordingServices();
+        RecordingApplier applier = new RecordingApplier(3);
+
+        List<Integer> failedOperationIds = update(operations, applier, services);
+
+        // the latest result failed, the one before it is applied and the oldest is superseded.
+        Assert.assertEquals(failedOperationIds, Collections.singletonList(3));
+        Assert.assertEquals(applier.appliedIds, Arrays.asList(3, 2));
+        Assert.assertEquals(services.updatedIds, Arrays.asList(1, 2));
+    }
+
+    @Test
+    public void testSuccessfulBatch() throws Exception {
+        List<Operation> operations = Arrays.asList(
+                newOperation(1, AndroidConstants.OperationCodes.DEVICE_INFO, Operation.Status.COMPLETED),
+                newOperation(2, AndroidConstants.OperationCodes.DEVICE_INFO, Operation.Status.COMPLETED),
+                newOperation(3, AndroidConstants.OperationCodes.DEVICE_LOCATION, Operation.Status.ERROR));
+        RecordingServices services = new RecordingServices();
+        RecordingApplier applier = new RecordingApplier();
+
+        List<Integer> failedOperationIds = update(operations, applier, services);
+
+        Assert.assertTrue(failedOperationIds.isEmpty());
+        Assert.assertEquals(applier.appliedIds, Collections.singletonList(2));
+        Assert.assertEquals(services.updatedIds, Arrays.asList(1, 2, 3));
+        Assert.assertEquals(services.notifiedIds, Collections.singletonList(3));
+    }
+
+    @Test
+    public void testUpdateFailureIsPropagated() {
+        List<Operation> operations = Collections.singletonList(
+                newOperation(1, AndroidConstants.OperationCodes.DEVICE_LOCK, Operation.Status.COMPLETED));
+        RecordingServices services = new RecordingServices();
+        services.failUpdates = true;
+        try {
+            update(operations, new RecordingApplier(), services);
+            Assert.fail("Operation update failure is not propagated");
+        } catch (Exception e) {
+            Assert.assertTrue(e instanceof OperationManagementException);
+        }
+    }
+
+    private static List<Integer> update(List<Operation> operations, RecordingApplier applier,
+                                        RecordingServices services) throws Exception {
+        return AndroidAPIUtils.updateOperations(AndroidAPIUtils.convertToDeviceIdentifierObject(DEVICE_ID),
+                                                operations, applier, services.deviceManagementService,
+                                                services.notificationManagementService);
+    }
+
+    private static Operation newOperation(int id, String code, Operation.Status status) {
+        Operation operation = new Operation();
+        operation.setId(id);
+        operation.setCode(code);
+        operation.setStatus(status);
+        return operation;
+    }
+
+    /**
+     * Applies the results of the operations, failing for the given operation ids.
+     */
+    private static class RecordingApplier implements AndroidAPIUtils.OperationResultApplier {
+        private final Set<Integer> failingIds;
+        private final List<Integer> appliedIds = new ArrayList<>();
+
+        RecordingApplier(Integer... failingIds) {
+            this.failingIds = new HashSet<>(Arrays.asList(failingIds));
+        }
+
+        @Override
+        public boolean apply(DeviceIdentifier deviceIdentifier, Operation operation)
+                throws ApplicationManagementException {
+            Assert.assertEquals(deviceIdentifier.getId(), DEVICE_ID);
+            appliedIds.add(operation.getId());
+            if (failingIds.contains(operation.getId())) {
+                if (AndroidConstants.OperationCodes.DEVICE_INFO.equals(operation.getCode())) {
+                    throw new IllegalStateException("Unexpected response");
+                }
+                throw new ApplicationManagementException("Cannot apply the response");
+            }
+            return true;
+        }
+    }
+
+    private static class RecordingServices {
+        private final List<Integer> updatedIds = new ArrayList<>();
+        private final List<Integer> notifiedIds = new ArrayList<>();
+        private int deviceLookups;
+        private boolean failUpdates;
+
+        private final DeviceManagementProviderService deviceManagementService =
+                (DeviceManagementProviderService) Proxy.newProxyInstance(
+                        DeviceManagementProviderService.class.getClassLoader(),
+                        new Class[]{DeviceManagementProviderService.class}, new InvocationHandler() {
+                            @Override
+                            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                                switch (method.getName()) {
+                                    case "updateOperation":
+                                        if (failUpdates) {
+                                            throw new OperationManagementException("Cannot update the operation");
+                                        }
+                                        updatedIds.add(((Operation) args[1]).getId());
+                                        return null;
+                                    case "getDevice":
+                                        deviceLookups++;
+                                        Device device = new Device();
+                                        device.setName("Nexus");
+                                        return device;
+                                    default:
+                                        throw new UnsupportedOperationException(method.getName());
+                                }
+                            }
+                        });
+
+        private final NotificationManagementService notificationManagementService =
+                (NotificationManagementService) Proxy.newProxyInstance(
+                        NotificationManagementService.class.getClassLoader(),
+                        new Class[]{NotificationManagementService.class}, new InvocationHandler() {
+                            @Override
+                            public Object invoke(Object proxy, Method method, Object[] args) {
+                                if ("addNotification".equals(method.getName())) {
+                                    Notification notification = (Notification) args[1];
+                                    Assert.assertTrue(notification.getDescription().contains("Nexus"));
+                                    notifiedIds.add(notification.getOperationId());
+                                    return true;
+                                }
+                                throw new UnsupportedOperationException(method.getName());
+                            }
+                        });
+    }
+}
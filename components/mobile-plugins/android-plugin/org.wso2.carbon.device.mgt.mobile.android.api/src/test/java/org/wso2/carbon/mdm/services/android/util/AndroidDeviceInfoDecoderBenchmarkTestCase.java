@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.mdm.services.android.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the single pass {@link AndroidDeviceInfoDecoder.PropertyValues} lookup against the lookup it replaced,
+ * which parsed and scanned the property array again for every value. Both read every value the decoder reads from
+ * the CPU, RAM, battery, network and device info properties of a device. The rates are logged for comparison, and
+ * are not asserted since they depend on the build machine.
+ */
+public class AndroidDeviceInfoDecoderBenchmarkTestCase {
+
+    private static final Log log = LogFactory.getLog(AndroidDeviceInfoDecoderBenchmarkTestCase.class);
+
+    private static final int WARM_UP_ITERATIONS = 2000;
+    private static final int ITERATIONS = 10000;
+
+    private static final String[][] PROPERTY_NAMES = {
+            {"User", "System", "IOW", "IRQ"},
+            {"TOTAL_MEMORY", "AVAILABLE_MEMORY", "THRESHOLD", "LOW_MEMORY"},
+            {"PLUGGED", "BATTERY_LEVEL", "SCALE", "BATTERY_VOLTAGE", "TEMPERATURE", "CURRENT_AVERAGE", "TECHNOLOGY",
+                    "HEALTH", "STATUS"},
+            {"WIFI_SSID", "CONNECTION_TYPE", "MOBILE_SIGNAL_STRENGTH", "WIFI_SIGNAL_STRENGTH"},
+            {"BATTERY_LEVEL", "INTERNAL_TOTAL_MEMORY", "INTERNAL_AVAILABLE_MEMORY", "EXTERNAL_TOTAL_MEMORY",
+                    "EXTERNAL_AVAILABLE_MEMORY", "ENCRYPTION_ENABLED", "PASSCODE_ENABLED", "OPERATOR",
+                    "PHONE_NUMBER"}
+    };
+
+    @Test
+    public void testLookupThroughput() {
+        final String[] properties = new String[PROPERTY_NAMES.length];
+        for (int i = 0; i < PROPERTY_NAMES.length; i++) {
+            properties[i] = property(PROPERTY_NAMES[i]);
+        }
+        Lookup singlePass = new Lookup() {
+            @Override
+            public int read(String json, String[] names) {
+                AndroidDeviceInfoDecoder.PropertyValues values = AndroidDeviceInfoDecoder.PropertyValues.parse(json);
+                int length = 0;
+                for (String name : names) {
+                    length += values.getString(name).length();
+                }
+                return length;
+            }
+        };
+        Lookup scanning = new Lookup() {
+            @Override
+            public int read(String json, String[] names) {
+                int length = 0;
+                for (String name : names) {
+                    length += AndroidDeviceInfoDecoderTestCase.getProperty(json, name).length();
+                }
+                return length;
+            }
+        };
+        Assert.assertEquals(run(singlePass, properties, 1), run(scanning, properties, 1));
+        run(singlePass, properties, WARM_UP_ITERATIONS);
+        run(scanning, properties, WARM_UP_ITERATIONS);
+        double singlePassRate = rate(singlePass, properties);
+        double scanningRate = rate(scanning, properties);
+        log.info(String.format("Device info responses decoded per second, single pass : %.0f, scanning : %.0f",
+                               singlePassRate, scanningRate));
+    }
+
+    /**
+     * @return a property array holding the given names, in the order the device agent reports them.
+     */
+    private static String property(String[] names) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"").append(names[i]).append("\",\"value\":\"").append(10 + i * 7).append("%\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * @return the number of device info responses decoded per second.
+     */
+    private static double rate(Lookup lookup, String[] properties) {
+        long start = System.nanoTime();
+        run(lookup, properties, ITERATIONS);
+        long elapsed = System.nanoTime() - start;
+        return (double) ITERATIONS * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * @return the total length of the values read, so that the lookups cannot be optimized away.
+     */
+    private static long run(Lookup lookup, String[] properties, int iterations) {
+        long length = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (int property = 0; property < properties.length; property++) {
+                length += lookup.read(properties[property], PROPERTY_NAMES[property]);
+            }
+        }
+        return length;
+    }
+
+    private interface Lookup {
+
+        int read(String json, String[] names);
+    }
+}
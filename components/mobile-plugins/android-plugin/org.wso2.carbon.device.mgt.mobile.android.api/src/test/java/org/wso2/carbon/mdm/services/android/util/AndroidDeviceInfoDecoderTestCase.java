@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.mdm.services.android.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+public class AndroidDeviceInfoDecoderTestCase {
+
+    private static final String[] NAMES = {"User", "System", "IOW", "IRQ", "TOTAL_MEMORY", "AVAILABLE_MEMORY",
+            "THRESHOLD", "LOW_MEMORY", "PLUGGED", "BATTERY_LEVEL", "SCALE", "BATTERY_VOLTAGE", "TEMPERATURE",
+            "CURRENT_AVERAGE", "TECHNOLOGY", "HEALTH", "STATUS", "WIFI_SSID", "CONNECTION_TYPE",
+            "MOBILE_SIGNAL_STRENGTH", "WIFI_SIGNAL_STRENGTH", "INTERNAL_TOTAL_MEMORY", "INTERNAL_AVAILABLE_MEMORY",
+            "EXTERNAL_TOTAL_MEMORY", "EXTERNAL_AVAILABLE_MEMORY", "ENCRYPTION_ENABLED", "PASSCODE_ENABLED",
+            "OPERATOR", "PHONE_NUMBER", "UNKNOWN"};
+
+    @DataProvider(name = "properties")
+    public Object[][] properties() {
+        return new Object[][]{
+                {"[{\"name\":\"User\",\"value\":\"12%\"},{\"name\":\"System\",\"value\":\"3%\"},"
+                        + "{\"name\":\"IOW\",\"value\":\"0%\"},{\"name\":\"IRQ\",\"value\":\"1%\"}]"},
+                {"[{\"name\":\"TOTAL_MEMORY\",\"value\":1024},{\"name\":\"AVAILABLE_MEMORY\",\"value\":512.5},"
+                        + "{\"name\":\"THRESHOLD\",\"value\":\"64\"},{\"name\":\"LOW_MEMORY\",\"value\":false}]"},
+                {"[{\"name\":\"plugged\",\"value\":\"true\"},{\"name\":\"BATTERY_LEVEL\",\"value\":\"80\"},"
+                        + "{\"name\":\"SCALE\",\"value\":null},{\"name\":\"TEMPERATURE\",\"value\":\"30\"}]"},
+                {"[{\"name\":\"WIFI_SSID\",\"value\":\"office\"},{\"name\":\"CONNECTION_TYPE\",\"value\":\"WIFI\"},"
+                        + "{\"name\":\"WIFI_SSID\",\"value\":\"home\"}]"},
+                {"[{\"name\":\"INTERNAL_TOTAL_MEMORY\",\"value\":\"12.5\"},{\"name\":\"OPERATOR\"},"
+                        + "{\"name\":\"PHONE_NUMBER\",\"value\":\"+94771234567\"},{\"name\":\"ENCRYPTION_ENABLED\"}]"},
+                {"[]"}
+        };
+    }
+
+    @Test(dataProvider = "properties")
+    public void testSameValuesAsScanningLookup(String json) {
+        AndroidDeviceInfoDecoder.PropertyValues values = AndroidDeviceInfoDecoder.PropertyValues.parse(json);
+        for (String name : NAMES) {
+            Assert.assertEquals(values.getString(name), getProperty(json, name), name + " of " + json);
+        }
+    }
+
+    @Test
+    public void testTypedValues() {
+        AndroidDeviceInfoDecoder.PropertyValues values = AndroidDeviceInfoDecoder.PropertyValues.parse(
+                "[{\"name\":\"TOTAL_MEMORY\",\"value\":\"1024.5\"},{\"name\":\"PLUGGED\",\"value\":true}]");
+        Assert.assertEquals(values.getDouble("total_memory"), 1024.5, 0);
+        Assert.assertTrue(values.getBoolean("PLUGGED"));
+        Assert.assertFalse(values.getBoolean("UNKNOWN"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidProperty() {
+        AndroidDeviceInfoDecoder.PropertyValues.parse("{\"name\":\"TOTAL_MEMORY\"}");
+    }
+
+    /**
+     * Lookup the decoder replaced, which parses and scans the property array for every value.
+     */
+    static String getProperty(String a, String needed) {
+        JsonElement jsonElement = new JsonParser().parse(a);
+        JsonArray jsonArray = jsonElement.getAsJsonArray();
+        boolean exist = false;
+        for (JsonElement element : jsonArray) {
+            for (Map.Entry<String, JsonElement> ob : ((JsonObject) element).entrySet()) {
+                JsonElement val = ob.getValue();
+                if (val != null && !val.isJsonNull()) {
+                    if (exist) {
+                        return val.getAsString().replace("%", "");
+                    }
+                    if (val.getAsString().equalsIgnoreCase(needed)) {
+                        exist = true;
+                    }
+                }
+            }
+        }
+        return "";
+    }
+}
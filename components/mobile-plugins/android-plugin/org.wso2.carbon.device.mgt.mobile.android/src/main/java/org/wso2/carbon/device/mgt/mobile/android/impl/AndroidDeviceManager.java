@@ -39,30 +39,34 @@ import org.wso2.carbon.device.mgt.mobile.android.impl.dao.impl.AndroidDeviceMgtP
 import org.wso2.carbon.device.mgt.mobile.android.impl.dto.MobileDevice;
 import org.wso2.carbon.device.mgt.mobile.android.impl.util.AndroidPluginConstants;
 import org.wso2.carbon.device.mgt.mobile.android.impl.util.AndroidPluginUtils;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.MobileDeviceCache;
 import org.wso2.carbon.device.mgt.mobile.android.impl.util.MobileDeviceManagementUtil;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.PlatformConfigurationCache;
 import org.wso2.carbon.registry.api.RegistryException;
 import org.wso2.carbon.registry.api.Resource;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
-import java.io.StringReader;
 import java.io.StringWriter;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class AndroidDeviceManager implements DeviceManager {
 
     private AbstractMobileDeviceManagementDAOFactory daoFactory;
     private static final Log log = LogFactory.getLog(AndroidDeviceManagementService.class);
+    private static final int DEFAULT_PAGE_SIZE = 1000;
     private FeatureManager featureManager = new AndroidFeatureManager();
     private LicenseManager licenseManager;
+    private MobileDeviceCache deviceCache = MobileDeviceCache.getInstance();
+    private DeviceLocationBuffer locationBuffer;
 
     public AndroidDeviceManager() {
         this.daoFactory = new AndroidDAOFactory();
         this.licenseManager = new RegistryBasedLicenseManager();
+        this.locationBuffer = new DeviceLocationBuffer(daoFactory);
         License defaultLicense;
 
         try {
@@ -80,6 +84,14 @@ public class AndroidDeviceManager implements DeviceManager {
         }
     }
 
+    /**
+     * Reads the devices through the given DAO factory, without setting up the default license and features.
+     */
+    AndroidDeviceManager(AbstractMobileDeviceManagementDAOFactory daoFactory) {
+        this.daoFactory = daoFactory;
+        this.locationBuffer = new DeviceLocationBuffer(daoFactory);
+    }
+
     @Override
     public FeatureManager getFeatureManager() {
         return featureManager;
@@ -97,14 +109,14 @@ public class AndroidDeviceManager implements DeviceManager {
                     DeviceManagementConstants.
                             MobileDeviceTypes.MOBILE_DEVICE_TYPE_ANDROID);
             StringWriter writer = new StringWriter();
-            JAXBContext context = JAXBContext.newInstance(PlatformConfiguration.class);
-            Marshaller marshaller = context.createMarshaller();
+            Marshaller marshaller = PlatformConfigurationCache.getJAXBContext().createMarshaller();
             marshaller.marshal(tenantConfiguration, writer);
 
             Resource resource = MobileDeviceManagementUtil.getConfigurationRegistry().newResource();
             resource.setContent(writer.toString());
             resource.setMediaType(AndroidPluginConstants.MobilePluginConstants.MEDIA_TYPE_XML);
             MobileDeviceManagementUtil.putRegistryResource(resourcePath, resource);
+            PlatformConfigurationCache.getInstance().invalidate();
             status = true;
         } catch (AndroidDeviceMgtPluginException e) {
             throw new DeviceManagementException(
@@ -121,52 +133,26 @@ public class AndroidDeviceManager implements DeviceManager {
 
     @Override
     public PlatformConfiguration getConfiguration() throws DeviceManagementException {
-        Resource resource;
-        try {
-            String androidRegPath =
-                    MobileDeviceManagementUtil.getPlatformConfigPath(DeviceManagementConstants.
-                            MobileDeviceTypes.MOBILE_DEVICE_TYPE_ANDROID);
-            resource = MobileDeviceManagementUtil.getRegistryResource(androidRegPath);
-            if (resource != null) {
-                JAXBContext context = JAXBContext.newInstance(PlatformConfiguration.class);
-                Unmarshaller unmarshaller = context.createUnmarshaller();
-                return (PlatformConfiguration) unmarshaller.unmarshal(
-                        new StringReader(new String((byte[]) resource.getContent(), Charset.
-                                forName(AndroidPluginConstants.MobilePluginConstants.CHARSET_UTF8))));
-            }
-            return null;
-        } catch (AndroidDeviceMgtPluginException e) {
-            throw new DeviceManagementException(
-                    "Error occurred while retrieving the Registry instance : " + e.getMessage(), e);
-        } catch (JAXBException e) {
-            throw new DeviceManagementException(
-                    "Error occurred while parsing the Android configuration : " + e.getMessage(), e);
-        } catch (RegistryException e) {
-            throw new DeviceManagementException(
-                    "Error occurred while retrieving the Registry resource of Android Configuration : " + e.getMessage(), e);
-        }
+        return PlatformConfigurationCache.getInstance().getTenantConfiguration().getPlatformConfiguration();
     }
 
     @Override
     public boolean enrollDevice(Device device) throws DeviceManagementException {
-        boolean status = false;
-        boolean isEnrolled = this.isEnrolled(
-                new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
-
+        boolean status;
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Enrolling a new Android device : " + device.getDeviceIdentifier());
             }
-
-            if (isEnrolled) {
-                this.modifyEnrollment(device);
-            } else {
-                MobileDevice mobileDevice = MobileDeviceManagementUtil.convertToMobileDevice(device);
-                AndroidDAOFactory.beginTransaction();
-                status = daoFactory.getMobileDeviceDAO().addMobileDevice(mobileDevice);
-                AndroidDAOFactory.commitTransaction();
-            }
+            // a device which is already enrolled is updated by the same statement, hence no lookup.
+            MobileDevice mobileDevice = MobileDeviceManagementUtil.convertToMobileDevice(device);
+            // a location reported before the re-enrollment must not overwrite the enrolled one.
+            locationBuffer.remove(device.getDeviceIdentifier());
+            AndroidDAOFactory.beginTransaction();
+            status = daoFactory.getMobileDeviceDAO().addOrUpdateMobileDevice(mobileDevice);
+            AndroidDAOFactory.commitTransaction();
+            deviceCache.put(mobileDevice);
         } catch (MobileDeviceManagementDAOException e) {
+            deviceCache.remove(device.getDeviceIdentifier());
             try {
                 AndroidDAOFactory.rollbackTransaction();
             } catch (MobileDeviceManagementDAOException mobileDAOEx) {
@@ -189,10 +175,15 @@ public class AndroidDeviceManager implements DeviceManager {
             if (log.isDebugEnabled()) {
                 log.debug("Modifying the Android device enrollment data");
             }
+            locationBuffer.remove(device.getDeviceIdentifier());
             AndroidDAOFactory.beginTransaction();
             status = daoFactory.getMobileDeviceDAO().updateMobileDevice(mobileDevice);
             AndroidDAOFactory.commitTransaction();
+            if (status) {
+                deviceCache.put(mobileDevice);
+            }
         } catch (MobileDeviceManagementDAOException e) {
+            deviceCache.remove(device.getDeviceIdentifier());
             try {
                 AndroidDAOFactory.rollbackTransaction();
             } catch (MobileDeviceManagementDAOException mobileDAOEx) {
@@ -220,8 +211,7 @@ public class AndroidDeviceManager implements DeviceManager {
             if (log.isDebugEnabled()) {
                 log.debug("Checking the enrollment of Android device : " + deviceId.getId());
             }
-            MobileDevice mobileDevice =
-                    daoFactory.getMobileDeviceDAO().getMobileDevice(deviceId.getId());
+            MobileDevice mobileDevice = this.getMobileDevice(deviceId.getId());
             if (mobileDevice != null) {
                 isEnrolled = true;
             }
@@ -251,8 +241,7 @@ public class AndroidDeviceManager implements DeviceManager {
             if (log.isDebugEnabled()) {
                 log.debug("Getting the details of Android device : '" + deviceId.getId() + "'");
             }
-            MobileDevice mobileDevice = daoFactory.getMobileDeviceDAO().
-                    getMobileDevice(deviceId.getId());
+            MobileDevice mobileDevice = this.getMobileDevice(deviceId.getId());
             device = MobileDeviceManagementUtil.convertToDevice(mobileDevice);
         } catch (MobileDeviceManagementDAOException e) {
             throw new DeviceManagementException(
@@ -298,29 +287,49 @@ public class AndroidDeviceManager implements DeviceManager {
     @Override
     public boolean updateDeviceInfo(DeviceIdentifier deviceIdentifier, Device device)
             throws DeviceManagementException {
-        boolean status;
-        Device existingDevice = this.getDevice(deviceIdentifier);
-        // This object holds the current persisted device object
-        MobileDevice existingMobileDevice =
-                MobileDeviceManagementUtil.convertToMobileDevice(existingDevice);
-
         // This object holds the newly received device object from response
         MobileDevice mobileDevice = MobileDeviceManagementUtil.convertToMobileDevice(device);
-
-        // Updating current object features using newer ones
-        existingMobileDevice.setLatitude(mobileDevice.getLatitude());
-        existingMobileDevice.setLongitude(mobileDevice.getLongitude());
-        existingMobileDevice.setDeviceProperties(mobileDevice.getDeviceProperties());
-
         try {
             if (log.isDebugEnabled()) {
                 log.debug(
                         "updating the details of Android device : " + device.getDeviceIdentifier());
             }
-            AndroidDAOFactory.beginTransaction();
-            status = daoFactory.getMobileDeviceDAO().updateMobileDevice(existingMobileDevice);
-            AndroidDAOFactory.commitTransaction();
+            // This object holds the current persisted device object, which must not be modified
+            MobileDevice existingMobileDevice = this.getMobileDevice(deviceIdentifier.getId());
+            if (existingMobileDevice == null) {
+                log.warn("Android device '" + deviceIdentifier.getId() + "' to be updated is not enrolled");
+                return false;
+            }
+            // Only the location and the device properties are taken from the newer object, of which only the
+            // changed ones are written
+            Map<String, String> changedProperties = getChangedProperties(existingMobileDevice, mobileDevice);
+            if (!changedProperties.isEmpty()) {
+                AndroidDAOFactory.beginTransaction();
+                boolean status = daoFactory.getMobileDeviceDAO().
+                        updateProperties(deviceIdentifier.getId(), changedProperties);
+                AndroidDAOFactory.commitTransaction();
+                if (!status) {
+                    deviceCache.remove(deviceIdentifier.getId());
+                    return false;
+                }
+            }
+            boolean locationChanged = !equals(existingMobileDevice.getLatitude(), mobileDevice.getLatitude()) ||
+                    !equals(existingMobileDevice.getLongitude(), mobileDevice.getLongitude());
+            if (locationChanged) {
+                locationBuffer.add(deviceIdentifier.getId(), mobileDevice.getLatitude(), mobileDevice.getLongitude());
+            }
+            if (!changedProperties.isEmpty() || locationChanged) {
+                mobileDevice.setModel(existingMobileDevice.getModel());
+                mobileDevice.setSerial(existingMobileDevice.getSerial());
+                mobileDevice.setVendor(existingMobileDevice.getVendor());
+                mobileDevice.setImei(existingMobileDevice.getImei());
+                mobileDevice.setImsi(existingMobileDevice.getImsi());
+                mobileDevice.setOsVersion(existingMobileDevice.getOsVersion());
+                mobileDevice.setOsBuildDate(existingMobileDevice.getOsBuildDate());
+                deviceCache.put(mobileDevice);
+            }
         } catch (MobileDeviceManagementDAOException e) {
+            deviceCache.remove(deviceIdentifier.getId());
             try {
                 AndroidDAOFactory.rollbackTransaction();
             } catch (MobileDeviceManagementDAOException e1) {
@@ -331,29 +340,107 @@ public class AndroidDeviceManager implements DeviceManager {
                     "Error occurred while updating the Android device: '" +
                             device.getDeviceIdentifier() + "'", e);
         }
-        return status;
+        return true;
     }
 
-    @Override
-    public List<Device> getAllDevices() throws DeviceManagementException {
-        List<Device> devices = null;
-        try {
-            if (log.isDebugEnabled()) {
-                log.debug("Fetching the details of all Android devices");
+    /**
+     * Returns the stored properties which differ in the newer object. The MAC address is never read back from the
+     * database, hence it is only refreshed along with the other properties, and does not cause a write by itself.
+     */
+    private static Map<String, String> getChangedProperties(MobileDevice existingMobileDevice,
+                                                            MobileDevice mobileDevice) {
+        Map<String, String> existingProperties = existingMobileDevice.getDeviceProperties();
+        Map<String, String> properties = mobileDevice.getDeviceProperties();
+        Map<String, String> changedProperties = new HashMap<>();
+        for (String name : new String[]{AndroidPluginConstants.FCM_TOKEN, AndroidPluginConstants.DEVICE_INFO,
+                AndroidPluginConstants.DEVICE_NAME}) {
+            if (!equals(existingProperties.get(name), properties.get(name))) {
+                changedProperties.put(name, properties.get(name));
             }
-            List<MobileDevice> mobileDevices =
-                    daoFactory.getMobileDeviceDAO().getAllMobileDevices();
-            if (mobileDevices != null) {
-                devices = new ArrayList<>(mobileDevices.size());
-                for (MobileDevice mobileDevice : mobileDevices) {
-                    devices.add(MobileDeviceManagementUtil.convertToDevice(mobileDevice));
-                }
+        }
+        if (!changedProperties.isEmpty() && properties.get(AndroidPluginConstants.MAC_ADDRESS) != null) {
+            changedProperties.put(AndroidPluginConstants.MAC_ADDRESS, properties.get(AndroidPluginConstants.MAC_ADDRESS));
+        }
+        return changedProperties;
+    }
+
+    private static boolean equals(String value, String otherValue) {
+        return value == null ? otherValue == null : value.equals(otherValue);
+    }
+
+    /**
+     * Writes the device locations which are yet to be written, and stops writing them periodically.
+     */
+    public void shutdown() {
+        locationBuffer.shutdown();
+    }
+
+    /**
+     * Reads the record of a device through the device cache.
+     */
+    private MobileDevice getMobileDevice(String mblDeviceId) throws MobileDeviceManagementDAOException {
+        MobileDevice mobileDevice = deviceCache.get(mblDeviceId);
+        if (mobileDevice == null) {
+            mobileDevice = daoFactory.getMobileDeviceDAO().getMobileDevice(mblDeviceId);
+            if (mobileDevice != null) {
+                deviceCache.putIfAbsent(mobileDevice);
             }
-        } catch (MobileDeviceManagementDAOException e) {
-            throw new DeviceManagementException("Error occurred while fetching all Android devices",
-                    e);
         }
+        return mobileDevice;
+    }
+
+    @Override
+    public List<Device> getAllDevices() throws DeviceManagementException {
+        if (log.isDebugEnabled()) {
+            log.debug("Fetching the details of all Android devices");
+        }
+        final List<Device> devices = new ArrayList<>();
+        this.processAllDevices(DEFAULT_PAGE_SIZE, true, new DevicePageHandler() {
+            @Override
+            public boolean handle(List<Device> page) {
+                devices.addAll(page);
+                return true;
+            }
+        });
         return devices;
     }
 
+    /**
+     * Passes all Android devices to the handler, one page at a time. Each page is read with its own query
+     * continuing after the last device of the previous page, so no database cursor is held in between.
+     *
+     * @param pageSize    maximum number of devices in a page.
+     * @param withDetails whether to read the device info and FCM token of the devices, which are the largest
+     *                    properties.
+     * @param handler     handler of the pages.
+     * @throws DeviceManagementException if the devices cannot be read, or the handler fails.
+     */
+    public void processAllDevices(int pageSize, boolean withDetails, DevicePageHandler handler)
+            throws DeviceManagementException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive : " + pageSize);
+        }
+        String lastDeviceId = null;
+        List<MobileDevice> mobileDevices;
+        do {
+            try {
+                mobileDevices = daoFactory.getMobileDeviceDAO().getMobileDevices(lastDeviceId, pageSize, withDetails);
+            } catch (MobileDeviceManagementDAOException e) {
+                throw new DeviceManagementException("Error occurred while fetching the Android devices after '" +
+                        lastDeviceId + "'", e);
+            }
+            if (mobileDevices.isEmpty()) {
+                return;
+            }
+            List<Device> devices = new ArrayList<>(mobileDevices.size());
+            for (MobileDevice mobileDevice : mobileDevices) {
+                devices.add(MobileDeviceManagementUtil.convertToDevice(mobileDevice));
+            }
+            lastDeviceId = mobileDevices.get(mobileDevices.size() - 1).getMobileDeviceId();
+            if (!handler.handle(devices)) {
+                return;
+            }
+        } while (mobileDevices.size() == pageSize);
+    }
+
 }
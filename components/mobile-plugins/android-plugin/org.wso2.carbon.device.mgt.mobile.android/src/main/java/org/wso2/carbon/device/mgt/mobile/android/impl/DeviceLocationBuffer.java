@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.AbstractMobileDeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.AndroidDAOFactory;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.MobileDeviceManagementDAOException;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dto.MobileDevice;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.MobileDeviceCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the locations reported by the Android devices and writes them to the database in batches, once per flush
+ * interval. Only the latest location of a device within an interval is written.
+ * <p/>
+ * The flush interval defaults to 5 seconds, and can be set in milliseconds through the
+ * <code>android.device.location.flush.interval</code> system property, an invalid value is logged and the default is
+ * used instead.
+ */
+public class DeviceLocationBuffer {
+
+    private static final Log log = LogFactory.getLog(DeviceLocationBuffer.class);
+
+    private static final String FLUSH_INTERVAL_PROPERTY = "android.device.location.flush.interval";
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5000;
+
+    private final AbstractMobileDeviceManagementDAOFactory daoFactory;
+    private final ConcurrentHashMap<String, MobileDevice> locations = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+
+    /**
+     * @param daoFactory factory of the DAO the locations are written with, once per configured flush interval.
+     */
+    public DeviceLocationBuffer(AbstractMobileDeviceManagementDAOFactory daoFactory) {
+        this(daoFactory, getConfiguredFlushInterval());
+    }
+
+    /**
+     * @param daoFactory          factory of the DAO the locations are written with.
+     * @param flushIntervalMillis interval between two writes, which is the longest a location is held in memory.
+     */
+    public DeviceLocationBuffer(AbstractMobileDeviceManagementDAOFactory daoFactory, long flushIntervalMillis) {
+        this.daoFactory = daoFactory;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "android-device-location-writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static long getConfiguredFlushInterval() {
+        String value = System.getProperty(FLUSH_INTERVAL_PROPERTY);
+        if (value == null) {
+            return DEFAULT_FLUSH_INTERVAL_MILLIS;
+        }
+        try {
+            long flushInterval = Long.parseLong(value.trim());
+            if (flushInterval > 0) {
+                return flushInterval;
+            }
+        } catch (NumberFormatException e) {
+            // Logged below, together with the non positive values.
+        }
+        log.warn("Invalid value '" + value + "' for " + FLUSH_INTERVAL_PROPERTY + ", using the default location " +
+                         "flush interval of " + DEFAULT_FLUSH_INTERVAL_MILLIS + " ms");
+        return DEFAULT_FLUSH_INTERVAL_MILLIS;
+    }
+
+    /**
+     * Queues the location of a device, replacing any location of it which has not been written yet.
+     *
+     * @param mblDeviceId id of the device.
+     * @param latitude    latitude of the device.
+     * @param longitude   longitude of the device.
+     */
+    public void add(String mblDeviceId, String latitude, String longitude) {
+        MobileDevice location = new MobileDevice();
+        location.setMobileDeviceId(mblDeviceId);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        locations.put(mblDeviceId, location);
+    }
+
+    /**
+     * Drops the location of a device which has not been written yet, to be called when the whole record of the
+     * device is written, so that an older location does not overwrite the new one.
+     *
+     * @param mblDeviceId id of the device.
+     */
+    public void remove(String mblDeviceId) {
+        locations.remove(mblDeviceId);
+    }
+
+    /**
+     * Writes the queued locations as a single batch. If the batch fails, the devices are dropped from the device
+     * cache, which already holds their new locations.
+     */
+    public void flush() {
+        if (locations.isEmpty()) {
+            return;
+        }
+        List<MobileDevice> batch = new ArrayList<>(locations.size());
+        for (String mblDeviceId : locations.keySet()) {
+            MobileDevice location = locations.get(mblDeviceId);
+            // a location queued meanwhile stays for the next flush.
+            if (location != null && locations.remove(mblDeviceId, location)) {
+                batch.add(location);
+            }
+        }
+        try {
+            AndroidDAOFactory.beginTransaction();
+            daoFactory.getMobileDeviceDAO().updateLocations(batch);
+            AndroidDAOFactory.commitTransaction();
+        } catch (MobileDeviceManagementDAOException e) {
+            try {
+                AndroidDAOFactory.rollbackTransaction();
+            } catch (MobileDeviceManagementDAOException e1) {
+                log.warn("Error occurred while roll back the update device location transaction", e1);
+            }
+            // locations are reported again by the devices, hence the failed ones are not retried.
+            log.error("Error occurred while updating the locations of " + batch.size() + " Android devices", e);
+            evict(batch);
+        } catch (RuntimeException e) {
+            log.error("Error occurred while updating the locations of " + batch.size() + " Android devices", e);
+            evict(batch);
+        } finally {
+            try {
+                AndroidDAOFactory.closeConnection();
+            } catch (MobileDeviceManagementDAOException e) {
+                log.warn("Error occurred while closing the connection", e);
+            }
+        }
+    }
+
+    private static void evict(List<MobileDevice> batch) {
+        MobileDeviceCache deviceCache = MobileDeviceCache.getInstance();
+        for (MobileDevice location : batch) {
+            deviceCache.remove(location.getMobileDeviceId());
+        }
+    }
+
+    /**
+     * Stops the periodic writes, after writing the locations which are still queued.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -19,7 +19,10 @@
 package org.wso2.carbon.device.mgt.mobile.android.impl.dao;
 
 import org.wso2.carbon.device.mgt.mobile.android.impl.dto.MobileDevice;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents the key operations associated with persisting mobile-device related
@@ -71,4 +74,91 @@ public interface MobileDeviceDAO {
 	 */
 	List<MobileDevice> getAllMobileDevices() throws MobileDeviceManagementDAOException;
 
+	/**
+	 * Fetches the MobileDevices of the given ids from MDM database, in as few queries as the
+	 * number of ids allows.
+	 *
+	 * @param mblDeviceIds Ids of the Mobile-Devices.
+	 * @return List of the MobileDevices found, in no particular order.
+	 * @throws MobileDeviceManagementDAOException
+	 */
+	List<MobileDevice> getMobileDevices(Collection<String> mblDeviceIds) throws MobileDeviceManagementDAOException;
+
+	/**
+	 * Fetches a page of MobileDevices from MDM database, ordered by device id. The next page
+	 * starts after the last device id of the previous one, so that no rows are skipped or
+	 * repeated if devices are added or removed in between.
+	 *
+	 * @param lastMblDeviceId Id of the last Mobile-Device of the previous page, or null for the first page.
+	 * @param pageSize        Maximum number of MobileDevices to fetch.
+	 * @param withDetails     Whether to fetch the device info and FCM token, which are the largest columns.
+	 * @return List of MobileDevices, which is shorter than the page size only for the last page.
+	 * @throws MobileDeviceManagementDAOException
+	 */
+	List<MobileDevice> getMobileDevices(String lastMblDeviceId, int pageSize, boolean withDetails)
+			throws MobileDeviceManagementDAOException;
+
+	/**
+	 * Adds a list of new MobileDevices to the MDM database as a single batch.
+	 *
+	 * @param mobileDevices MobileDevices to be added.
+	 * @return The status of the operation.
+	 * @throws MobileDeviceManagementDAOException
+	 */
+	boolean addMobileDevices(List<MobileDevice> mobileDevices) throws MobileDeviceManagementDAOException;
+
+	/**
+	 * Updates the information of a list of MobileDevices in MDM database as a single batch.
+	 *
+	 * @param mobileDevices MobileDevices to be updated.
+	 * @return The status of the operation.
+	 * @throws MobileDeviceManagementDAOException
+	 */
+	boolean updateMobileDevices(List<MobileDevice> mobileDevices) throws MobileDeviceManagementDAOException;
+
+	/**
+	 * Updates the latitude and longitude of a list of MobileDevices in MDM database as a single
+	 * batch, leaving the rest of their information as it is.
+	 *
+	 * @param mobileDevices MobileDevices with the new locations.
+	 * @return The status of the operation.
+	 * @throws MobileDeviceManagementDAOException
+	 */
+	boolean updateLocations(List<MobileDevice> mobileDevices) throws MobileDeviceManagementDAOException;
+
+	/**
+	 * Updates the given properties of a MobileDevice in MDM database, leaving the rest of its
+	 * information as it is. The FCM token, device info, device name and MAC address are stored
+	 * as properties, and other properties are ignored.
+	 *
+	 * @param mblDeviceId Id of the Mobile-Device.
+	 * @param properties  Properties to be updated, by name.
+	 * @return The status of the operation.
+	 * @throws MobileDeviceManagementDAOException
+	 */
+	boolean updateProperties(String mblDeviceId, Map<String, String> properties)
+			throws MobileDeviceManagementDAOException;
+
+	/**
+	 * Replaces the FCM token of a MobileDevice in MDM database, provided the device still has the
+	 * expected token, so that a token registered by the device in the meantime is not overwritten.
+	 *
+	 * @param mblDeviceId   Id of the Mobile-Device.
+	 * @param expectedToken FCM token the device is expected to have.
+	 * @param newToken      New FCM token, or null to clear the token.
+	 * @return true if the token has been replaced.
+	 * @throws MobileDeviceManagementDAOException
+	 */
+	boolean updateFCMToken(String mblDeviceId, String expectedToken, String newToken)
+			throws MobileDeviceManagementDAOException;
+
+	/**
+	 * Adds a MobileDevice to the MDM database, or updates its information if it is already there.
+	 *
+	 * @param mobileDevice MobileDevice to be added or updated.
+	 * @return The status of the operation.
+	 * @throws MobileDeviceManagementDAOException
+	 */
+	boolean addOrUpdateMobileDevice(MobileDevice mobileDevice) throws MobileDeviceManagementDAOException;
+
 }
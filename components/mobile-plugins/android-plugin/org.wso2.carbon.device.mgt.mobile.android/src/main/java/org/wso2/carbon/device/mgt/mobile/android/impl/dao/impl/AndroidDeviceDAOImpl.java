@@ -31,8 +31,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -43,6 +47,61 @@ public class AndroidDeviceDAOImpl implements MobileDeviceDAO{
 
 	private static final Log log = LogFactory.getLog(AndroidDeviceDAOImpl.class);
 
+	/**
+	 * Maximum number of device ids bound to a single IN clause, which keeps well below the
+	 * parameter limits of the supported databases.
+	 */
+	private static final int MAX_IN_CLAUSE_SIZE = 100;
+
+	private static final String SELECT_DEVICE_QUERY =
+			"SELECT DEVICE_ID, FCM_TOKEN, DEVICE_INFO, DEVICE_MODEL, SERIAL, " +
+			"VENDOR, MAC_ADDRESS, DEVICE_NAME, LATITUDE, LONGITUDE, IMEI, IMSI, OS_VERSION, OS_BUILD_DATE " +
+			"FROM AD_DEVICE";
+
+	/**
+	 * Selects all but the device info and FCM token, for callers which do not need them.
+	 */
+	private static final String SELECT_DEVICE_SUMMARY_QUERY =
+			"SELECT DEVICE_ID, DEVICE_MODEL, SERIAL, VENDOR, MAC_ADDRESS, DEVICE_NAME, LATITUDE, LONGITUDE, " +
+			"IMEI, IMSI, OS_VERSION, OS_BUILD_DATE FROM AD_DEVICE";
+
+	private static final String INSERT_DEVICE_QUERY =
+			"INSERT INTO AD_DEVICE(DEVICE_ID, FCM_TOKEN, DEVICE_INFO, SERIAL, " +
+			"VENDOR, MAC_ADDRESS, DEVICE_NAME, LATITUDE, LONGITUDE, IMEI, IMSI, " +
+			"OS_VERSION, DEVICE_MODEL, OS_BUILD_DATE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String UPDATE_DEVICE_QUERY =
+			"UPDATE AD_DEVICE SET FCM_TOKEN = ?, DEVICE_INFO = ?, SERIAL = ?, VENDOR = ?, " +
+			"MAC_ADDRESS = ?, DEVICE_NAME = ?, LATITUDE = ?, LONGITUDE = ?, IMEI = ?, " +
+			"IMSI = ?, OS_VERSION = ?, DEVICE_MODEL = ?, OS_BUILD_DATE = ? WHERE DEVICE_ID = ?";
+
+	private static final String UPDATE_LOCATION_QUERY =
+			"UPDATE AD_DEVICE SET LATITUDE = ?, LONGITUDE = ? WHERE DEVICE_ID = ?";
+
+	private static final String UPDATE_FCM_TOKEN_QUERY =
+			"UPDATE AD_DEVICE SET FCM_TOKEN = ? WHERE DEVICE_ID = ? AND FCM_TOKEN = ?";
+
+	/**
+	 * Columns of AD_DEVICE which hold device properties, by property name.
+	 */
+	private static final Map<String, String> PROPERTY_COLUMNS = new LinkedHashMap<>();
+
+	static {
+		PROPERTY_COLUMNS.put(AndroidPluginConstants.FCM_TOKEN, "FCM_TOKEN");
+		PROPERTY_COLUMNS.put(AndroidPluginConstants.DEVICE_INFO, "DEVICE_INFO");
+		PROPERTY_COLUMNS.put(AndroidPluginConstants.DEVICE_NAME, "DEVICE_NAME");
+		PROPERTY_COLUMNS.put(AndroidPluginConstants.MAC_ADDRESS, "MAC_ADDRESS");
+	}
+
+	/**
+	 * Columns of AD_DEVICE in the order of the insert parameters, the first being the key.
+	 */
+	private static final String[] DEVICE_COLUMNS = {"DEVICE_ID", "FCM_TOKEN", "DEVICE_INFO", "SERIAL",
+			"VENDOR", "MAC_ADDRESS", "DEVICE_NAME", "LATITUDE", "LONGITUDE", "IMEI", "IMSI", "OS_VERSION",
+			"DEVICE_MODEL", "OS_BUILD_DATE"};
+
+	private static volatile String upsertDeviceQuery;
+
 	@Override
 	public MobileDevice getMobileDevice(String mblDeviceId) throws MobileDeviceManagementDAOException {
 		Connection conn;
@@ -51,33 +110,13 @@ public class AndroidDeviceDAOImpl implements MobileDeviceDAO{
         ResultSet rs = null;
 		try {
 			conn = AndroidDAOFactory.getConnection();
-			String selectDBQuery =
-					"SELECT DEVICE_ID, FCM_TOKEN, DEVICE_INFO, DEVICE_MODEL, SERIAL, " +
-					"VENDOR, MAC_ADDRESS, DEVICE_NAME, LATITUDE, LONGITUDE, IMEI, IMSI, OS_VERSION, OS_BUILD_DATE" +
-					" FROM AD_DEVICE WHERE DEVICE_ID = ?";
+			String selectDBQuery = SELECT_DEVICE_QUERY + " WHERE DEVICE_ID = ?";
 			stmt = conn.prepareStatement(selectDBQuery);
 			stmt.setString(1, mblDeviceId);
 			rs = stmt.executeQuery();
 
 			if (rs.next()) {
-				mobileDevice = new MobileDevice();
-				mobileDevice.setMobileDeviceId(rs.getString(AndroidPluginConstants.DEVICE_ID));
-				mobileDevice.setModel(rs.getString(AndroidPluginConstants.DEVICE_MODEL));
-				mobileDevice.setSerial(rs.getString(AndroidPluginConstants.SERIAL));
-				mobileDevice.setVendor(rs.getString(AndroidPluginConstants.VENDOR));
-				mobileDevice.setLatitude(rs.getString(AndroidPluginConstants.LATITUDE));
-				mobileDevice.setLongitude(rs.getString(AndroidPluginConstants.LONGITUDE));
-				mobileDevice.setImei(rs.getString(AndroidPluginConstants.IMEI));
-				mobileDevice.setImsi(rs.getString(AndroidPluginConstants.IMSI));
-				mobileDevice.setOsVersion(rs.getString(AndroidPluginConstants.OS_VERSION));
-				mobileDevice.setOsBuildDate(rs.getString(AndroidPluginConstants.OS_BUILD_DATE));
-
-				Map<String, String> propertyMap = new HashMap<String, String>();
-				propertyMap.put(AndroidPluginConstants.FCM_TOKEN, rs.getString(AndroidPluginConstants.FCM_TOKEN));
-				propertyMap.put(AndroidPluginConstants.DEVICE_INFO, rs.getString(AndroidPluginConstants.DEVICE_INFO));
-				propertyMap.put(AndroidPluginConstants.DEVICE_NAME, rs.getString(AndroidPluginConstants.DEVICE_NAME));
-				mobileDevice.setDeviceProperties(propertyMap);
-
+				mobileDevice = loadMobileDevice(rs);
 				if (log.isDebugEnabled()) {
 					log.debug("Android device " + mblDeviceId + " data has been fetched from " +
 					          "Android database.");
@@ -102,28 +141,8 @@ public class AndroidDeviceDAOImpl implements MobileDeviceDAO{
 		PreparedStatement stmt = null;
 		try {
 			conn = AndroidDAOFactory.getConnection();
-			String createDBQuery =
-					"INSERT INTO AD_DEVICE(DEVICE_ID, FCM_TOKEN, DEVICE_INFO, SERIAL, " +
-					"VENDOR, MAC_ADDRESS, DEVICE_NAME, LATITUDE, LONGITUDE, IMEI, IMSI, " +
-					"OS_VERSION, DEVICE_MODEL, OS_BUILD_DATE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-			stmt = conn.prepareStatement(createDBQuery);
-			stmt.setString(1, mobileDevice.getMobileDeviceId());
-
-            Map<String, String> properties = mobileDevice.getDeviceProperties();
-			stmt.setString(2, properties.get(AndroidPluginConstants.FCM_TOKEN));
-			stmt.setString(3, properties.get(AndroidPluginConstants.DEVICE_INFO));
-			stmt.setString(4, mobileDevice.getSerial());
-			stmt.setString(5, mobileDevice.getVendor());
-			stmt.setString(6, mobileDevice.getMobileDeviceId());
-			stmt.setString(7, properties.get(AndroidPluginConstants.DEVICE_NAME));
-			stmt.setString(8, mobileDevice.getLatitude());
-			stmt.setString(9, mobileDevice.getLongitude());
-			stmt.setString(10, mobileDevice.getImei());
-			stmt.setString(11, mobileDevice.getImsi());
-			stmt.setString(12, mobileDevice.getOsVersion());
-			stmt.setString(13, mobileDevice.getModel());
-			stmt.setString(14, mobileDevice.getOsBuildDate());
+			stmt = conn.prepareStatement(INSERT_DEVICE_QUERY);
+			setInsertParameters(stmt, mobileDevice);
 			int rows = stmt.executeUpdate();
 			if (rows > 0) {
 				status = true;
@@ -148,27 +167,8 @@ public class AndroidDeviceDAOImpl implements MobileDeviceDAO{
 		PreparedStatement stmt = null;
 		try {
 			conn = AndroidDAOFactory.getConnection();
-			String updateDBQuery =
-					"UPDATE AD_DEVICE SET FCM_TOKEN = ?, DEVICE_INFO = ?, SERIAL = ?, VENDOR = ?, " +
-					"MAC_ADDRESS = ?, DEVICE_NAME = ?, LATITUDE = ?, LONGITUDE = ?, IMEI = ?, " +
-					"IMSI = ?, OS_VERSION = ?, DEVICE_MODEL = ?, OS_BUILD_DATE = ? WHERE DEVICE_ID = ?";
-			stmt = conn.prepareStatement(updateDBQuery);
-
-			Map<String, String> properties = mobileDevice.getDeviceProperties();
-			stmt.setString(1, properties.get(AndroidPluginConstants.FCM_TOKEN));
-			stmt.setString(2, properties.get(AndroidPluginConstants.DEVICE_INFO));
-			stmt.setString(3, mobileDevice.getSerial());
-			stmt.setString(4, mobileDevice.getVendor());
-			stmt.setString(5, properties.get(AndroidPluginConstants.MAC_ADDRESS));
-			stmt.setString(6, properties.get(AndroidPluginConstants.DEVICE_NAME));
-			stmt.setString(7, mobileDevice.getLatitude());
-			stmt.setString(8, mobileDevice.getLongitude());
-			stmt.setString(9, mobileDevice.getImei());
-			stmt.setString(10, mobileDevice.getImsi());
-			stmt.setString(11, mobileDevice.getOsVersion());
-			stmt.setString(12, mobileDevice.getModel());
-			stmt.setString(13, mobileDevice.getOsBuildDate());
-			stmt.setString(14, mobileDevice.getMobileDeviceId());
+			stmt = conn.prepareStatement(UPDATE_DEVICE_QUERY);
+			setUpdateParameters(stmt, mobileDevice);
 			int rows = stmt.executeUpdate();
 			if (rows > 0) {
 				status = true;
@@ -222,37 +222,14 @@ public class AndroidDeviceDAOImpl implements MobileDeviceDAO{
 		Connection conn;
 		PreparedStatement stmt = null;
         ResultSet rs = null;
-		MobileDevice mobileDevice;
 		List<MobileDevice> mobileDevices = new ArrayList<MobileDevice>();
 		try {
 			conn = AndroidDAOFactory.getConnection();
-			String selectDBQuery =
-					"SELECT DEVICE_ID, FCM_TOKEN, DEVICE_INFO, DEVICE_MODEL, SERIAL, " +
-					"VENDOR, MAC_ADDRESS, DEVICE_NAME, LATITUDE, LONGITUDE, IMEI, IMSI, OS_VERSION, OS_BUILD_DATE " +
-					"FROM AD_DEVICE";
-			stmt = conn.prepareStatement(selectDBQuery);
+			stmt = conn.prepareStatement(SELECT_DEVICE_QUERY);
 			rs = stmt.executeQuery();
 
 			while (rs.next()) {
-				mobileDevice = new MobileDevice();
-				mobileDevice.setMobileDeviceId(rs.getString(AndroidPluginConstants.DEVICE_ID));
-				mobileDevice.setModel(rs.getString(AndroidPluginConstants.DEVICE_MODEL));
-				mobileDevice.setSerial(rs.getString(AndroidPluginConstants.SERIAL));
-				mobileDevice.setVendor(rs.getString(AndroidPluginConstants.VENDOR));
-				mobileDevice.setLatitude(rs.getString(AndroidPluginConstants.LATITUDE));
-				mobileDevice.setLongitude(rs.getString(AndroidPluginConstants.LONGITUDE));
-				mobileDevice.setImei(rs.getString(AndroidPluginConstants.IMEI));
-				mobileDevice.setImsi(rs.getString(AndroidPluginConstants.IMSI));
-				mobileDevice.setOsVersion(rs.getString(AndroidPluginConstants.OS_VERSION));
-				mobileDevice.setOsBuildDate(rs.getString(AndroidPluginConstants.OS_BUILD_DATE));
-
-				Map<String, String> propertyMap = new HashMap<>();
-				propertyMap.put(AndroidPluginConstants.FCM_TOKEN, rs.getString(AndroidPluginConstants.FCM_TOKEN));
-				propertyMap.put(AndroidPluginConstants.DEVICE_INFO, rs.getString(AndroidPluginConstants.DEVICE_INFO));
-				propertyMap.put(AndroidPluginConstants.DEVICE_NAME, rs.getString(AndroidPluginConstants.DEVICE_NAME));
-				mobileDevice.setDeviceProperties(propertyMap);
-
-				mobileDevices.add(mobileDevice);
+				mobileDevices.add(loadMobileDevice(rs));
 			}
 			if (log.isDebugEnabled()) {
 				log.debug("All Android device details have fetched from Android database.");
@@ -266,4 +243,431 @@ public class AndroidDeviceDAOImpl implements MobileDeviceDAO{
 		}
 	}
 
+	@Override
+	public List<MobileDevice> getMobileDevices(Collection<String> mblDeviceIds)
+			throws MobileDeviceManagementDAOException {
+		List<MobileDevice> mobileDevices = new ArrayList<>(mblDeviceIds.size());
+		if (mblDeviceIds.isEmpty()) {
+			return mobileDevices;
+		}
+		List<String> ids = new ArrayList<>(new LinkedHashSet<>(mblDeviceIds));
+		Connection conn;
+		PreparedStatement stmt = null;
+		ResultSet rs = null;
+		try {
+			conn = AndroidDAOFactory.getConnection();
+			for (int from = 0; from < ids.size(); from += MAX_IN_CLAUSE_SIZE) {
+				List<String> chunk = ids.subList(from, Math.min(from + MAX_IN_CLAUSE_SIZE, ids.size()));
+				// all chunks but the last share the same statement text, hence the same cached plan.
+				stmt = conn.prepareStatement(SELECT_DEVICE_QUERY + " WHERE DEVICE_ID IN (" +
+				                             getPlaceholders(chunk.size()) + ")");
+				int index = 1;
+				for (String id : chunk) {
+					stmt.setString(index++, id);
+				}
+				rs = stmt.executeQuery();
+				while (rs.next()) {
+					mobileDevices.add(loadMobileDevice(rs));
+				}
+				MobileDeviceManagementDAOUtil.cleanupResources(stmt, rs);
+				stmt = null;
+				rs = null;
+			}
+			if (log.isDebugEnabled()) {
+				log.debug(mobileDevices.size() + " of " + ids.size() + " requested Android devices have been " +
+				          "fetched from Android database.");
+			}
+			return mobileDevices;
+		} catch (SQLException e) {
+			throw new MobileDeviceManagementDAOException("Error occurred while fetching " + ids.size() +
+			                                             " Android devices", e);
+		} finally {
+			MobileDeviceManagementDAOUtil.cleanupResources(stmt, rs);
+			AndroidDAOFactory.closeConnection();
+		}
+	}
+
+	@Override
+	public List<MobileDevice> getMobileDevices(String lastMblDeviceId, int pageSize, boolean withDetails)
+			throws MobileDeviceManagementDAOException {
+		Connection conn;
+		PreparedStatement stmt = null;
+		ResultSet rs = null;
+		List<MobileDevice> mobileDevices = new ArrayList<>(pageSize);
+		try {
+			conn = AndroidDAOFactory.getConnection();
+			String selectDBQuery = withDetails ? SELECT_DEVICE_QUERY : SELECT_DEVICE_SUMMARY_QUERY;
+			if (lastMblDeviceId != null) {
+				selectDBQuery += " WHERE DEVICE_ID > ?";
+			}
+			// the page is bounded through JDBC, as each supported database limits rows differently.
+			stmt = conn.prepareStatement(selectDBQuery + " ORDER BY DEVICE_ID");
+			stmt.setMaxRows(pageSize);
+			stmt.setFetchSize(pageSize);
+			if (lastMblDeviceId != null) {
+				stmt.setString(1, lastMblDeviceId);
+			}
+			rs = stmt.executeQuery();
+			while (rs.next()) {
+				mobileDevices.add(withDetails ? loadMobileDevice(rs) : loadMobileDeviceSummary(rs));
+			}
+			if (log.isDebugEnabled()) {
+				log.debug(mobileDevices.size() + " Android devices after '" + lastMblDeviceId + "' have been " +
+				          "fetched from Android database.");
+			}
+			return mobileDevices;
+		} catch (SQLException e) {
+			throw new MobileDeviceManagementDAOException("Error occurred while fetching the Android devices after '" +
+			                                             lastMblDeviceId + "'", e);
+		} finally {
+			MobileDeviceManagementDAOUtil.cleanupResources(stmt, rs);
+			AndroidDAOFactory.closeConnection();
+		}
+	}
+
+	@Override
+	public boolean addMobileDevices(List<MobileDevice> mobileDevices) throws MobileDeviceManagementDAOException {
+		if (mobileDevices.isEmpty()) {
+			return true;
+		}
+		Connection conn;
+		PreparedStatement stmt = null;
+		try {
+			conn = AndroidDAOFactory.getConnection();
+			stmt = conn.prepareStatement(INSERT_DEVICE_QUERY);
+			for (MobileDevice mobileDevice : mobileDevices) {
+				setInsertParameters(stmt, mobileDevice);
+				stmt.addBatch();
+			}
+			boolean status = isBatchSuccessful(stmt.executeBatch());
+			if (log.isDebugEnabled()) {
+				log.debug(mobileDevices.size() + " Android devices have been added to the Android database.");
+			}
+			return status;
+		} catch (SQLException e) {
+			throw new MobileDeviceManagementDAOException("Error occurred while adding " + mobileDevices.size() +
+			                                             " Android devices to the Android plugin data store.", e);
+		} finally {
+			MobileDeviceManagementDAOUtil.cleanupResources(stmt, null);
+		}
+	}
+
+	@Override
+	public boolean updateMobileDevices(List<MobileDevice> mobileDevices) throws MobileDeviceManagementDAOException {
+		if (mobileDevices.isEmpty()) {
+			return true;
+		}
+		Connection conn;
+		PreparedStatement stmt = null;
+		try {
+			conn = AndroidDAOFactory.getConnection();
+			stmt = conn.prepareStatement(UPDATE_DEVICE_QUERY);
+			for (MobileDevice mobileDevice : mobileDevices) {
+				setUpdateParameters(stmt, mobileDevice);
+				stmt.addBatch();
+			}
+			boolean status = isBatchSuccessful(stmt.executeBatch());
+			if (log.isDebugEnabled()) {
+				log.debug(mobileDevices.size() + " Android devices have been modified.");
+			}
+			return status;
+		} catch (SQLException e) {
+			String msg = "Error occurred while modifying " + mobileDevices.size() + " Android devices.";
+			log.error(msg, e);
+			throw new MobileDeviceManagementDAOException(msg, e);
+		} finally {
+			MobileDeviceManagementDAOUtil.cleanupResources(stmt, null);
+		}
+	}
+
+	@Override
+	public boolean updateLocations(List<MobileDevice> mobileDevices) throws MobileDeviceManagementDAOException {
+		if (mobileDevices.isEmpty()) {
+			return true;
+		}
+		Connection conn;
+		PreparedStatement stmt = null;
+		try {
+			conn = AndroidDAOFactory.getConnection();
+			stmt = conn.prepareStatement(UPDATE_LOCATION_QUERY);
+			for (MobileDevice mobileDevice : mobileDevices) {
+				stmt.setString(1, mobileDevice.getLatitude());
+				stmt.setString(2, mobileDevice.getLongitude());
+				stmt.setString(3, mobileDevice.getMobileDeviceId());
+				stmt.addBatch();
+			}
+			boolean status = isBatchSuccessful(stmt.executeBatch());
+			if (log.isDebugEnabled()) {
+				log.debug("Locations of " + mobileDevices.size() + " Android devices have been modified.");
+			}
+			return status;
+		} catch (SQLException e) {
+			String msg = "Error occurred while modifying the locations of " + mobileDevices.size() +
+			             " Android devices.";
+			log.error(msg, e);
+			throw new MobileDeviceManagementDAOException(msg, e);
+		} finally {
+			MobileDeviceManagementDAOUtil.cleanupResources(stmt, null);
+		}
+	}
+
+	@Override
+	public boolean updateProperties(String mblDeviceId, Map<String, String> properties)
+			throws MobileDeviceManagementDAOException {
+		StringBuilder updateDBQuery = new StringBuilder("UPDATE AD_DEVICE SET ");
+		List<String> values = new ArrayList<>(properties.size());
+		for (Map.Entry<String, String> column : PROPERTY_COLUMNS.entrySet()) {
+			if (properties.containsKey(column.getKey())) {
+				if (!values.isEmpty()) {
+					updateDBQuery.append(", ");
+				}
+				updateDBQuery.append(column.getValue()).append(" = ?");
+				values.add(properties.get(column.getKey()));
+			}
+		}
+		if (values.isEmpty()) {
+			return true;
+		}
+		updateDBQuery.append(" WHERE DEVICE_ID = ?");
+		Connection conn;
+		PreparedStatement stmt = null;
+		try {
+			conn = AndroidDAOFactory.getConnection();
+			stmt = conn.prepareStatement(updateDBQuery.toString());
+			int index = 1;
+			for (String value : values) {
+				stmt.setString(index++, value);
+			}
+			stmt.setString(index, mblDeviceId);
+			boolean status = stmt.executeUpdate() > 0;
+			if (status && log.isDebugEnabled()) {
+				log.debug(values.size() + " properties of Android device " + mblDeviceId + " have been modified.");
+			}
+			return status;
+		} catch (SQLException e) {
+			String msg = "Error occurred while modifying the properties of Android device '" + mblDeviceId + "'.";
+			log.error(msg, e);
+			throw new MobileDeviceManagementDAOException(msg, e);
+		} finally {
+			MobileDeviceManagementDAOUtil.cleanupResources(stmt, null);
+		}
+	}
+
+	@Override
+	public boolean updateFCMToken(String mblDeviceId, String expectedToken, String newToken)
+			throws MobileDeviceManagementDAOException {
+		Connection conn;
+		PreparedStatement stmt = null;
+		try {
+			conn = AndroidDAOFactory.getConnection();
+			stmt = conn.prepareStatement(UPDATE_FCM_TOKEN_QUERY);
+			stmt.setString(1, newToken);
+			stmt.setString(2, mblDeviceId);
+			stmt.setString(3, expectedToken);
+			boolean status = stmt.executeUpdate() > 0;
+			if (status && log.isDebugEnabled()) {
+				log.debug("FCM token of Android device " + mblDeviceId + " has been modified.");
+			}
+			return status;
+		} catch (SQLException e) {
+			String msg = "Error occurred while modifying the FCM token of Android device '" + mblDeviceId + "'.";
+			log.error(msg, e);
+			throw new MobileDeviceManagementDAOException(msg, e);
+		} finally {
+			MobileDeviceManagementDAOUtil.cleanupResources(stmt, null);
+		}
+	}
+
+	@Override
+	public boolean addOrUpdateMobileDevice(MobileDevice mobileDevice) throws MobileDeviceManagementDAOException {
+		Connection conn;
+		PreparedStatement stmt = null;
+		try {
+			conn = AndroidDAOFactory.getConnection();
+			String upsertDBQuery = getUpsertDeviceQuery(conn);
+			if (upsertDBQuery == null) {
+				// no single statement upsert for this database, hence update and insert if not found.
+				stmt = conn.prepareStatement(UPDATE_DEVICE_QUERY);
+				setUpdateParameters(stmt, mobileDevice);
+				if (stmt.executeUpdate() > 0) {
+					return true;
+				}
+				MobileDeviceManagementDAOUtil.cleanupResources(stmt, null);
+				stmt = conn.prepareStatement(INSERT_DEVICE_QUERY);
+				setInsertParameters(stmt, mobileDevice);
+				return stmt.executeUpdate() > 0;
+			}
+			stmt = conn.prepareStatement(upsertDBQuery);
+			int index = 1;
+			for (String value : getUpsertValues(mobileDevice)) {
+				stmt.setString(index++, value);
+			}
+			// MySQL reports no rows for an unchanged row, which is still a successful upsert.
+			stmt.executeUpdate();
+			if (log.isDebugEnabled()) {
+				log.debug("Android device " + mobileDevice.getMobileDeviceId() + " data has been" +
+				          " added or modified in the Android database.");
+			}
+			return true;
+		} catch (SQLException e) {
+			String msg = "Error occurred while adding or modifying the Android device '" +
+			             mobileDevice.getMobileDeviceId() + "' data.";
+			log.error(msg, e);
+			throw new MobileDeviceManagementDAOException(msg, e);
+		} finally {
+			MobileDeviceManagementDAOUtil.cleanupResources(stmt, null);
+		}
+	}
+
+	private static MobileDevice loadMobileDevice(ResultSet rs) throws SQLException {
+		MobileDevice mobileDevice = loadMobileDeviceSummary(rs);
+		Map<String, String> propertyMap = mobileDevice.getDeviceProperties();
+		propertyMap.put(AndroidPluginConstants.FCM_TOKEN, rs.getString(AndroidPluginConstants.FCM_TOKEN));
+		propertyMap.put(AndroidPluginConstants.DEVICE_INFO, rs.getString(AndroidPluginConstants.DEVICE_INFO));
+		return mobileDevice;
+	}
+
+	private static MobileDevice loadMobileDeviceSummary(ResultSet rs) throws SQLException {
+		MobileDevice mobileDevice = new MobileDevice();
+		mobileDevice.setMobileDeviceId(rs.getString(AndroidPluginConstants.DEVICE_ID));
+		mobileDevice.setModel(rs.getString(AndroidPluginConstants.DEVICE_MODEL));
+		mobileDevice.setSerial(rs.getString(AndroidPluginConstants.SERIAL));
+		mobileDevice.setVendor(rs.getString(AndroidPluginConstants.VENDOR));
+		mobileDevice.setLatitude(rs.getString(AndroidPluginConstants.LATITUDE));
+		mobileDevice.setLongitude(rs.getString(AndroidPluginConstants.LONGITUDE));
+		mobileDevice.setImei(rs.getString(AndroidPluginConstants.IMEI));
+		mobileDevice.setImsi(rs.getString(AndroidPluginConstants.IMSI));
+		mobileDevice.setOsVersion(rs.getString(AndroidPluginConstants.OS_VERSION));
+		mobileDevice.setOsBuildDate(rs.getString(AndroidPluginConstants.OS_BUILD_DATE));
+
+		Map<String, String> propertyMap = new HashMap<>();
+		propertyMap.put(AndroidPluginConstants.DEVICE_NAME, rs.getString(AndroidPluginConstants.DEVICE_NAME));
+		mobileDevice.setDeviceProperties(propertyMap);
+		return mobileDevice;
+	}
+
+	private static void setInsertParameters(PreparedStatement stmt, MobileDevice mobileDevice)
+			throws SQLException {
+		Map<String, String> properties = mobileDevice.getDeviceProperties();
+		stmt.setString(1, mobileDevice.getMobileDeviceId());
+		stmt.setString(2, properties.get(AndroidPluginConstants.FCM_TOKEN));
+		stmt.setString(3, properties.get(AndroidPluginConstants.DEVICE_INFO));
+		stmt.setString(4, mobileDevice.getSerial());
+		stmt.setString(5, mobileDevice.getVendor());
+		stmt.setString(6, mobileDevice.getMobileDeviceId());
+		stmt.setString(7, properties.get(AndroidPluginConstants.DEVICE_NAME));
+		stmt.setString(8, mobileDevice.getLatitude());
+		stmt.setString(9, mobileDevice.getLongitude());
+		stmt.setString(10, mobileDevice.getImei());
+		stmt.setString(11, mobileDevice.getImsi());
+		stmt.setString(12, mobileDevice.getOsVersion());
+		stmt.setString(13, mobileDevice.getModel());
+		stmt.setString(14, mobileDevice.getOsBuildDate());
+	}
+
+	private static void setUpdateParameters(PreparedStatement stmt, MobileDevice mobileDevice)
+			throws SQLException {
+		Map<String, String> properties = mobileDevice.getDeviceProperties();
+		stmt.setString(1, properties.get(AndroidPluginConstants.FCM_TOKEN));
+		stmt.setString(2, properties.get(AndroidPluginConstants.DEVICE_INFO));
+		stmt.setString(3, mobileDevice.getSerial());
+		stmt.setString(4, mobileDevice.getVendor());
+		stmt.setString(5, properties.get(AndroidPluginConstants.MAC_ADDRESS));
+		stmt.setString(6, properties.get(AndroidPluginConstants.DEVICE_NAME));
+		stmt.setString(7, mobileDevice.getLatitude());
+		stmt.setString(8, mobileDevice.getLongitude());
+		stmt.setString(9, mobileDevice.getImei());
+		stmt.setString(10, mobileDevice.getImsi());
+		stmt.setString(11, mobileDevice.getOsVersion());
+		stmt.setString(12, mobileDevice.getModel());
+		stmt.setString(13, mobileDevice.getOsBuildDate());
+		stmt.setString(14, mobileDevice.getMobileDeviceId());
+	}
+
+	/**
+	 * Values of {@link #DEVICE_COLUMNS} for an upsert. The MAC address reported by the device is
+	 * stored as on update, falling back to the device id which is stored on insert.
+	 */
+	private static String[] getUpsertValues(MobileDevice mobileDevice) {
+		Map<String, String> properties = mobileDevice.getDeviceProperties();
+		String macAddress = properties.get(AndroidPluginConstants.MAC_ADDRESS);
+		return new String[]{mobileDevice.getMobileDeviceId(), properties.get(AndroidPluginConstants.FCM_TOKEN),
+				properties.get(AndroidPluginConstants.DEVICE_INFO), mobileDevice.getSerial(),
+				mobileDevice.getVendor(), macAddress != null ? macAddress : mobileDevice.getMobileDeviceId(),
+				properties.get(AndroidPluginConstants.DEVICE_NAME), mobileDevice.getLatitude(),
+				mobileDevice.getLongitude(), mobileDevice.getImei(), mobileDevice.getImsi(),
+				mobileDevice.getOsVersion(), mobileDevice.getModel(), mobileDevice.getOsBuildDate()};
+	}
+
+	/**
+	 * Returns the single statement upsert of AD_DEVICE for the database behind the connection, or
+	 * null if the database does not have one.
+	 */
+	private static String getUpsertDeviceQuery(Connection conn) throws SQLException {
+		String query = upsertDeviceQuery;
+		if (query == null) {
+			query = buildUpsertDeviceQuery(conn.getMetaData().getDatabaseProductName());
+			upsertDeviceQuery = query;
+		}
+		return query.isEmpty() ? null : query;
+	}
+
+	private static String buildUpsertDeviceQuery(String databaseProductName) {
+		String columns = formatColumns("%s", 0);
+		String placeholders = getPlaceholders(DEVICE_COLUMNS.length);
+		switch (databaseProductName) {
+			case "H2":
+				return "MERGE INTO AD_DEVICE(" + columns + ") KEY(DEVICE_ID) VALUES (" + placeholders + ")";
+			case "MySQL":
+				return "INSERT INTO AD_DEVICE(" + columns + ") VALUES (" + placeholders + ") " +
+				       "ON DUPLICATE KEY UPDATE " + formatColumns("%1$s = VALUES(%1$s)", 1);
+			case "PostgreSQL":
+				return "INSERT INTO AD_DEVICE(" + columns + ") VALUES (" + placeholders + ") " +
+				       "ON CONFLICT (DEVICE_ID) DO UPDATE SET " + formatColumns("%1$s = EXCLUDED.%1$s", 1);
+			case "Microsoft SQL Server":
+				return "MERGE INTO AD_DEVICE AS T USING (SELECT " + formatColumns("? AS %s", 0) +
+				       ") AS S ON T.DEVICE_ID = S.DEVICE_ID WHEN MATCHED THEN UPDATE SET " +
+				       formatColumns("%1$s = S.%1$s", 1) + " WHEN NOT MATCHED THEN INSERT (" + columns +
+				       ") VALUES (" + formatColumns("S.%s", 0) + ");";
+			case "Oracle":
+				return "MERGE INTO AD_DEVICE T USING (SELECT " + formatColumns("? AS %s", 0) +
+				       " FROM DUAL) S ON (T.DEVICE_ID = S.DEVICE_ID) WHEN MATCHED THEN UPDATE SET " +
+				       formatColumns("%1$s = S.%1$s", 1) + " WHEN NOT MATCHED THEN INSERT (" + columns +
+				       ") VALUES (" + formatColumns("S.%s", 0) + ")";
+			default:
+				return "";
+		}
+	}
+
+	/**
+	 * Formats each of {@link #DEVICE_COLUMNS} from the given index, and joins them with commas.
+	 */
+	private static String formatColumns(String format, int from) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = from; i < DEVICE_COLUMNS.length; i++) {
+			if (i > from) {
+				builder.append(", ");
+			}
+			builder.append(String.format(format, DEVICE_COLUMNS[i]));
+		}
+		return builder.toString();
+	}
+
+	private static String getPlaceholders(int count) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			builder.append(i == 0 ? "?" : ", ?");
+		}
+		return builder.toString();
+	}
+
+	private static boolean isBatchSuccessful(int[] results) {
+		for (int result : results) {
+			if (result == Statement.EXECUTE_FAILED) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 }
@@ -0,0 +1,538 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl.fcm;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.common.Device;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends FCM wake up messages asynchronously.
+ * <p/>
+ * Devices notified with the same message and API key within the linger time are coalesced into a single multicast
+ * request of up to {@link #MAX_REGISTRATION_IDS} tokens. Requests are sent by a fixed number of threads, which bounds
+ * the requests in flight, over keep-alive connections reused by {@link HttpURLConnection}. The per-token results are
+ * passed to the {@link FCMTokenHandler}, and requests or tokens which failed with a temporary error (429, 5xx) are
+ * retried with exponential back off, honouring the Retry-After header of the response. A request is retried after an
+ * I/O error only if it could not have reached FCM, since retrying a delivered request would wake the devices twice.
+ * Each of these retries counts towards the maximum number of retries.
+ * <p/>
+ * When all the connections are busy and the queue is full, the request is submitted again after the initial back off
+ * instead of blocking the sender. Since the request has not been sent yet, this does not count as a retry, and the
+ * request is only dropped once the dispatcher is shut down.
+ */
+public class FCMDispatcher {
+
+    private static final Log log = LogFactory.getLog(FCMDispatcher.class);
+
+    public static final int MAX_REGISTRATION_IDS = 1000;
+    public static final int DEFAULT_MAX_INFLIGHT_REQUESTS = 5;
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+    public static final long DEFAULT_LINGER_MILLIS = 100;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 1000;
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 30000;
+
+    private static final int HTTP_STATUS_CODE_OK = 200;
+    private static final int HTTP_STATUS_CODE_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_STATUS_CODE_SERVER_ERROR = 500;
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+    private static final String RESULTS = "results";
+    private static final String MESSAGE_ID = "message_id";
+    private static final String REGISTRATION_ID = "registration_id";
+    private static final String ERROR = "error";
+    private static final String ERROR_NOT_REGISTERED = "NotRegistered";
+    private static final String ERROR_INVALID_REGISTRATION = "InvalidRegistration";
+    private static final String ERROR_UNAVAILABLE = "Unavailable";
+    private static final String ERROR_INTERNAL_SERVER_ERROR = "InternalServerError";
+    private static final int BUFFER_SIZE = 4096;
+
+    private final URL endpoint;
+    private final long lingerMillis;
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final FCMTokenHandler tokenHandler;
+    private final ThreadPoolExecutor requestExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final Map<BatchKey, List<Recipient>> pendingBatches = new HashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong failedRequestCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong requeueCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong invalidTokenCount = new AtomicLong();
+
+    public FCMDispatcher(String endpoint, FCMTokenHandler tokenHandler) {
+        this(endpoint, DEFAULT_MAX_INFLIGHT_REQUESTS, DEFAULT_QUEUE_SIZE, DEFAULT_LINGER_MILLIS, DEFAULT_MAX_RETRIES,
+             DEFAULT_INITIAL_BACKOFF_MILLIS, DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS, tokenHandler);
+    }
+
+    public FCMDispatcher(String endpoint, int maxInflightRequests, int queueSize, long lingerMillis, int maxRetries,
+                         long initialBackoffMillis, int connectTimeoutMillis, int readTimeoutMillis,
+                         FCMTokenHandler tokenHandler) {
+        try {
+            this.endpoint = new URL(endpoint);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid FCM endpoint : " + endpoint, e);
+        }
+        this.lingerMillis = lingerMillis;
+        this.maxRetries = maxRetries;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.tokenHandler = tokenHandler;
+        this.requestExecutor = new ThreadPoolExecutor(maxInflightRequests, maxInflightRequests, 0,
+                                                      TimeUnit.MILLISECONDS,
+                                                      new LinkedBlockingQueue<Runnable>(queueSize),
+                                                      new DispatcherThreadFactory("fcm-dispatcher"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new DispatcherThreadFactory("fcm-scheduler"));
+    }
+
+    /**
+     * Queues a wake up message for the given devices. Devices without an FCM token are skipped.
+     *
+     * @param apiKey  FCM API key of the tenant the devices belong to.
+     * @param message message to be sent.
+     * @param devices devices to be notified.
+     */
+    public void send(String apiKey, String message, List<Device> devices) {
+        send(apiKey, message, devices, connectTimeoutMillis, readTimeoutMillis);
+    }
+
+    /**
+     * Queues a wake up message for the given devices, to be sent with the given timeouts. Devices without an FCM token
+     * are skipped.
+     *
+     * @param apiKey               FCM API key of the tenant the devices belong to.
+     * @param message              message to be sent.
+     * @param devices              devices to be notified.
+     * @param connectTimeoutMillis timeout of connecting to FCM.
+     * @param readTimeoutMillis    timeout of reading the response of FCM.
+     */
+    public void send(String apiKey, String message, List<Device> devices, int connectTimeoutMillis,
+                     int readTimeoutMillis) {
+        BatchKey key = new BatchKey(apiKey, message, connectTimeoutMillis, readTimeoutMillis);
+        for (Device device : devices) {
+            String token = FCMUtil.getFCMToken(device.getProperties());
+            if (token == null || token.isEmpty()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipping device '" + device.getDeviceIdentifier() + "' since it has no FCM token");
+                }
+                continue;
+            }
+            add(key, new Recipient(device.getDeviceIdentifier(), token));
+        }
+    }
+
+    private void add(final BatchKey key, Recipient recipient) {
+        List<Recipient> fullBatch = null;
+        List<Recipient> newBatch = null;
+        synchronized (pendingBatches) {
+            List<Recipient> batch = pendingBatches.get(key);
+            if (batch == null) {
+                batch = new ArrayList<>();
+                pendingBatches.put(key, batch);
+                newBatch = batch;
+            }
+            batch.add(recipient);
+            if (batch.size() >= MAX_REGISTRATION_IDS) {
+                pendingBatches.remove(key);
+                fullBatch = batch;
+                newBatch = null;
+            }
+        }
+        if (fullBatch != null) {
+            submit(new FCMRequest(key, fullBatch, 0));
+        } else if (newBatch != null) {
+            final List<Recipient> batch = newBatch;
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush(key, batch);
+                }
+            }, lingerMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(BatchKey key, List<Recipient> batch) {
+        synchronized (pendingBatches) {
+            if (pendingBatches.get(key) != batch) {
+                // already sent since it became full.
+                return;
+            }
+            pendingBatches.remove(key);
+        }
+        submit(new FCMRequest(key, batch, 0));
+    }
+
+    private void submit(final FCMRequest request) {
+        try {
+            requestExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    dispatch(request);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (requestExecutor.isShutdown()) {
+                failedRequestCount.incrementAndGet();
+                log.error("Dropping the FCM request of " + request.recipients.size() + " devices since the " +
+                                  "dispatcher is shut down");
+                return;
+            }
+            // all the connections are busy and the queue is full, try again once the backlog has had time to drain.
+            log.warn("FCM request queue is full, hence the request of " + request.recipients.size() +
+                             " devices is submitted again later");
+            requeue(request);
+        }
+    }
+
+    /**
+     * Submits a request, which has not been sent, again after the initial back off. The attempt of the request is
+     * kept as it is, since a full queue is not a failure of the request.
+     */
+    private void requeue(final FCMRequest request) {
+        requeueCount.incrementAndGet();
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    submit(request);
+                }
+            }, initialBackoffMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            failedRequestCount.incrementAndGet();
+            log.error("Dropping the FCM request of " + request.recipients.size() + " devices since the " +
+                              "dispatcher is shut down");
+        }
+    }
+
+    private void dispatch(FCMRequest request) {
+        requestCount.incrementAndGet();
+        List<String> tokens = new ArrayList<>(request.recipients.size());
+        for (Recipient recipient : request.recipients) {
+            tokens.add(recipient.token);
+        }
+        byte[] bytes = FCMUtil.getFCMRequest(request.key.message, tokens).getBytes(StandardCharsets.UTF_8);
+        boolean sent = false;
+        try {
+            HttpURLConnection conn = (HttpURLConnection) endpoint.openConnection();
+            conn.setConnectTimeout(request.key.connectTimeoutMillis);
+            conn.setReadTimeout(request.key.readTimeoutMillis);
+            conn.setDoOutput(true);
+            conn.setUseCaches(false);
+            conn.setFixedLengthStreamingMode(bytes.length);
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("Content-Type", "application/json");
+            conn.setRequestProperty("Authorization", "key=" + request.key.apiKey);
+
+            OutputStream out = conn.getOutputStream();
+            out.write(bytes);
+            out.close();
+            sent = true;
+
+            int status = conn.getResponseCode();
+            if (status == HTTP_STATUS_CODE_OK) {
+                handleResults(request, read(conn.getInputStream()));
+                return;
+            }
+            // the error body has to be consumed for the connection to be kept alive.
+            String error = read(conn.getErrorStream());
+            if (status == HTTP_STATUS_CODE_TOO_MANY_REQUESTS || status >= HTTP_STATUS_CODE_SERVER_ERROR) {
+                retry(request, request.recipients, getRetryAfterMillis(conn));
+            } else {
+                failedRequestCount.incrementAndGet();
+                log.error("FCM request failed with status " + status + " : " + error);
+            }
+        } catch (IOException e) {
+            if (!sent) {
+                // unlike a full queue, a connection failure is a failed attempt and uses up the retries.
+                log.warn("Exception occurred while sending the FCM request : " + e.getMessage());
+                retry(request, request.recipients, -1);
+                return;
+            }
+            // FCM may have delivered the message even though its response was lost.
+            failedRequestCount.incrementAndGet();
+            log.error("Exception occurred while reading the response of the FCM request of " +
+                              request.recipients.size() + " devices, hence it is not retried : " + e.getMessage());
+        }
+    }
+
+    private void handleResults(FCMRequest request, String response) {
+        JsonArray results;
+        try {
+            JsonElement element = new JsonParser().parse(response);
+            results = element.isJsonObject() ? element.getAsJsonObject().getAsJsonArray(RESULTS) : null;
+        } catch (JsonParseException | ClassCastException e) {
+            log.error("Invalid FCM response : " + response, e);
+            return;
+        }
+        if (results == null || results.size() != request.recipients.size()) {
+            log.warn("Unexpected number of results in the FCM response : " + response);
+            return;
+        }
+        List<Recipient> retryRecipients = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            Recipient recipient = request.recipients.get(i);
+            JsonObject result = results.get(i).getAsJsonObject();
+            if (result.has(MESSAGE_ID)) {
+                deliveredCount.incrementAndGet();
+                if (result.has(REGISTRATION_ID) && tokenHandler != null) {
+                    tokenHandler.onTokenRefreshed(recipient.deviceId, recipient.token,
+                                                  result.get(REGISTRATION_ID).getAsString());
+                }
+                continue;
+            }
+            String error = result.has(ERROR) ? result.get(ERROR).getAsString() : null;
+            if (ERROR_NOT_REGISTERED.equals(error) || ERROR_INVALID_REGISTRATION.equals(error)) {
+                invalidTokenCount.incrementAndGet();
+                if (tokenHandler != null) {
+                    tokenHandler.onInvalidToken(recipient.deviceId, recipient.token);
+                }
+            } else if (ERROR_UNAVAILABLE.equals(error) || ERROR_INTERNAL_SERVER_ERROR.equals(error)) {
+                retryRecipients.add(recipient);
+            } else {
+                log.error("FCM notification to device '" + recipient.deviceId + "' failed : " + error);
+            }
+        }
+        if (!retryRecipients.isEmpty()) {
+            retry(request, retryRecipients, -1);
+        }
+    }
+
+    private void retry(FCMRequest request, List<Recipient> recipients, long retryAfterMillis) {
+        if (request.attempt >= maxRetries) {
+            failedRequestCount.incrementAndGet();
+            log.error("Giving up the FCM notification of " + recipients.size() + " devices after " +
+                              (request.attempt + 1) + " attempts");
+            return;
+        }
+        retryCount.incrementAndGet();
+        long delay = retryAfterMillis > 0 ? retryAfterMillis : initialBackoffMillis << request.attempt;
+        final FCMRequest retryRequest = new FCMRequest(request.key, recipients, request.attempt + 1);
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    submit(retryRequest);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            failedRequestCount.incrementAndGet();
+            log.error("Cannot retry the FCM notification of " + recipients.size() + " devices", e);
+        }
+    }
+
+    private long getRetryAfterMillis(HttpURLConnection conn) {
+        String retryAfter = conn.getHeaderField(RETRY_AFTER_HEADER);
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException e) {
+                // an HTTP date is not honoured, the default back off applies.
+            }
+        }
+        return -1;
+    }
+
+    private static String read(InputStream stream) throws IOException {
+        if (stream == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Stops the dispatcher. Messages which have not been sent yet are discarded.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        requestExecutor.shutdown();
+    }
+
+    /**
+     * @return number of FCM requests sent, including retries.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return number of requests, or parts of them, which were given up.
+     */
+    public long getFailedRequestCount() {
+        return failedRequestCount.get();
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * @return number of times a request was submitted again since the queue was full.
+     */
+    public long getRequeueCount() {
+        return requeueCount.get();
+    }
+
+    /**
+     * @return number of devices FCM accepted the message for.
+     */
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getInvalidTokenCount() {
+        return invalidTokenCount.get();
+    }
+
+    /**
+     * @return number of requests waiting for a free connection.
+     */
+    public int getQueuedRequestCount() {
+        return requestExecutor.getQueue().size();
+    }
+
+    private static class Recipient {
+
+        private final String deviceId;
+        private final String token;
+
+        Recipient(String deviceId, String token) {
+            this.deviceId = deviceId;
+            this.token = token;
+        }
+    }
+
+    private static class FCMRequest {
+
+        private final BatchKey key;
+        private final List<Recipient> recipients;
+        private final int attempt;
+
+        FCMRequest(BatchKey key, List<Recipient> recipients, int attempt) {
+            this.key = key;
+            this.recipients = recipients;
+            this.attempt = attempt;
+        }
+    }
+
+    /**
+     * Devices can share a multicast request only if they are sent the same message with the same API key and timeouts.
+     */
+    private static class BatchKey {
+
+        private final String apiKey;
+        private final String message;
+        private final int connectTimeoutMillis;
+        private final int readTimeoutMillis;
+
+        BatchKey(String apiKey, String message, int connectTimeoutMillis, int readTimeoutMillis) {
+            this.apiKey = apiKey;
+            this.message = message;
+            this.connectTimeoutMillis = connectTimeoutMillis;
+            this.readTimeoutMillis = readTimeoutMillis;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey batchKey = (BatchKey) o;
+            return connectTimeoutMillis == batchKey.connectTimeoutMillis &&
+                    readTimeoutMillis == batchKey.readTimeoutMillis && equals(apiKey, batchKey.apiKey) &&
+                    equals(message, batchKey.message);
+        }
+
+        private static boolean equals(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = apiKey != null ? apiKey.hashCode() : 0;
+            result = 31 * result + (message != null ? message.hashCode() : 0);
+            result = 31 * result + connectTimeoutMillis;
+            result = 31 * result + readTimeoutMillis;
+            return result;
+        }
+    }
+
+    private static class DispatcherThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        DispatcherThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, namePrefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
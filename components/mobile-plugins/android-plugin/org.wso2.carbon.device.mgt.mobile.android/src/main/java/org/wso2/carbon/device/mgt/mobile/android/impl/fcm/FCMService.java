@@ -33,6 +33,18 @@ public class FCMService {
     private static final Log log = LogFactory.getLog(FCMService.class);
     private static final String NOTIFIER_TYPE = "notifierType";
     private static final String FCM_NOTIFIER_CODE = "2";
+    private static final String FCM_CONNECT_TIMEOUT = "fcmConnectTimeout";
+    private static final String FCM_READ_TIMEOUT = "fcmReadTimeout";
+
+    private final FCMDispatcher dispatcher;
+
+    public FCMService() {
+        this(new FCMDispatcher(FCMUtil.FCM_ENDPOINT, new FCMTokenUpdater()));
+    }
+
+    public FCMService(FCMDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
 
     public boolean isFCMEnabled() {
         String notifierType = FCMUtil.getConfigurationProperty(NOTIFIER_TYPE);
@@ -45,20 +57,55 @@ public class FCMService {
     public void sendNotification(String messageData, Device device) {
         List<Device> devices = new ArrayList<>(1);
         devices.add(device);
-        FCMResult result = FCMUtil.sendWakeUpCall(messageData, devices);
-        if (result.getStatusCode() != 200) {
-            log.error("Exception occurred while sending the FCM notification : " + result.getErrorMsg());
-        }
+        sendNotification(messageData, devices);
     }
 
+    /**
+     * Queues the wake up call of the given devices, which is sent asynchronously together with the other devices
+     * notified with the same message.
+     */
     public void sendNotification(String messageData, List<Device> devices) {
-        FCMResult result = FCMUtil.sendWakeUpCall(messageData, devices);
-        if (result.getStatusCode() != 200) {
-            log.error("Exception occurred while sending the FCM notification : " + result.getErrorMsg());
+        String apiKey = FCMUtil.getConfigurationProperty(FCMUtil.FCM_API_KEY);
+        if (apiKey == null || apiKey.isEmpty()) {
+            log.error("FCM API key is not configured, hence the FCM notification is not sent");
+            return;
+        }
+        dispatcher.send(apiKey, messageData, devices,
+                        getTimeoutProperty(FCM_CONNECT_TIMEOUT, FCMDispatcher.DEFAULT_CONNECT_TIMEOUT_MILLIS),
+                        getTimeoutProperty(FCM_READ_TIMEOUT, FCMDispatcher.DEFAULT_READ_TIMEOUT_MILLIS));
+    }
+
+    /**
+     * @return timeout in milliseconds configured for the tenant under the given name, or the default timeout if it is
+     * not set to a positive number.
+     */
+    private static int getTimeoutProperty(String name, int defaultValue) {
+        String value = FCMUtil.getConfigurationProperty(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
         }
+        try {
+            int timeout = Integer.parseInt(value.trim());
+            if (timeout > 0) {
+                return timeout;
+            }
+        } catch (NumberFormatException e) {
+            // falls through to the default timeout.
+        }
+        log.warn("Invalid value '" + value + "' configured for " + name + ", hence the default " + defaultValue +
+                         " ms is used");
+        return defaultValue;
+    }
+
+    public FCMDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public void shutdown() {
+        dispatcher.shutdown();
     }
 
     public void resetTenantConfigCache() {
         FCMUtil.resetTenantConfigCache();
     }
-}
\ No newline at end of file
+}
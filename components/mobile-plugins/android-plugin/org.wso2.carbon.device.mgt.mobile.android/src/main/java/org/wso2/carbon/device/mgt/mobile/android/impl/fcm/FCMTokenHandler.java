@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl.fcm;
+
+/**
+ * Receives the FCM tokens which the FCM server reported as changed or no longer valid.
+ */
+public interface FCMTokenHandler {
+
+    /**
+     * Called when FCM rejects a token since the app is no longer registered with it.
+     *
+     * @param deviceId id of the device the token belongs to.
+     * @param token    rejected token.
+     */
+    void onInvalidToken(String deviceId, String token);
+
+    /**
+     * Called when FCM returns a canonical token, which should be used for the device from now on.
+     *
+     * @param deviceId id of the device the token belongs to.
+     * @param oldToken token the message was sent to.
+     * @param newToken canonical token of the device.
+     */
+    void onTokenRefreshed(String deviceId, String oldToken, String newToken);
+
+}
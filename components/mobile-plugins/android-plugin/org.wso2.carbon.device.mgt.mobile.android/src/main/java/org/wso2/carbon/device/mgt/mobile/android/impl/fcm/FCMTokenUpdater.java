@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl.fcm;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.AbstractMobileDeviceManagementDAOFactory;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.AndroidDAOFactory;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.MobileDeviceManagementDAOException;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.MobileDeviceCache;
+
+/**
+ * Keeps the FCM tokens stored for the Android devices in line with the results of FCM, clearing the rejected tokens
+ * and replacing the tokens FCM returned a canonical one for. A token is replaced only if the device still has the token
+ * the message was sent to, so that a token registered by the device in the meantime is kept.
+ */
+public class FCMTokenUpdater implements FCMTokenHandler {
+
+    private static final Log log = LogFactory.getLog(FCMTokenUpdater.class);
+
+    private final AbstractMobileDeviceManagementDAOFactory daoFactory;
+
+    public FCMTokenUpdater() {
+        this(new AndroidDAOFactory());
+    }
+
+    public FCMTokenUpdater(AbstractMobileDeviceManagementDAOFactory daoFactory) {
+        this.daoFactory = daoFactory;
+    }
+
+    @Override
+    public void onInvalidToken(String deviceId, String token) {
+        if (log.isDebugEnabled()) {
+            log.debug("Clearing the invalid FCM token of device '" + deviceId + "'");
+        }
+        updateToken(deviceId, token, null);
+    }
+
+    @Override
+    public void onTokenRefreshed(String deviceId, String oldToken, String newToken) {
+        if (log.isDebugEnabled()) {
+            log.debug("Updating the FCM token of device '" + deviceId + "' to the canonical token");
+        }
+        updateToken(deviceId, oldToken, newToken);
+    }
+
+    private void updateToken(String deviceId, String expectedToken, String newToken) {
+        try {
+            AndroidDAOFactory.beginTransaction();
+            boolean updated = daoFactory.getMobileDeviceDAO().updateFCMToken(deviceId, expectedToken, newToken);
+            AndroidDAOFactory.commitTransaction();
+            if (!updated && log.isDebugEnabled()) {
+                log.debug("FCM token of device '" + deviceId + "' is not updated since it has changed meanwhile");
+            }
+        } catch (MobileDeviceManagementDAOException e) {
+            try {
+                AndroidDAOFactory.rollbackTransaction();
+            } catch (MobileDeviceManagementDAOException e1) {
+                log.warn("Error occurred while roll back the update FCM token transaction", e1);
+            }
+            log.error("Error occurred while updating the FCM token of device '" + deviceId + "'", e);
+        } finally {
+            try {
+                AndroidDAOFactory.closeConnection();
+            } catch (MobileDeviceManagementDAOException e) {
+                log.warn("Error occurred while closing the connection", e);
+            }
+            // the cached record may still hold the old token.
+            MobileDeviceCache.getInstance().remove(deviceId);
+        }
+    }
+}
@@ -23,14 +23,10 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
-import org.wso2.carbon.device.mgt.common.configuration.mgt.ConfigurationEntry;
-import org.wso2.carbon.device.mgt.common.configuration.mgt.PlatformConfiguration;
-import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 import org.wso2.carbon.device.mgt.mobile.android.impl.util.AndroidPluginConstants;
-import org.wso2.carbon.device.mgt.mobile.android.internal.AndroidDeviceManagementDataHolder;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.PlatformConfigurationCache;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -41,7 +37,6 @@ import java.net.HttpURLConnection;
 import java.net.ProtocolException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 /**
@@ -51,13 +46,11 @@ public class FCMUtil {
 
     private static final Log log = LogFactory.getLog(FCMService.class);
 
-    private final static String FCM_ENDPOINT = "https://fcm.googleapis.com/fcm/send";
-    private static final String FCM_API_KEY = "fcmAPIKey";
+    static final String FCM_ENDPOINT = "https://fcm.googleapis.com/fcm/send";
+    static final String FCM_API_KEY = "fcmAPIKey";
     private static final int TIME_TO_LIVE = 60;
     private static final int HTTP_STATUS_CODE_OK = 200;
 
-    private static HashMap<Integer, PlatformConfiguration> tenantConfigurationCache = new HashMap<>();
-
     public static FCMResult sendWakeUpCall(String message, List<Device> devices) {
         FCMResult result = new FCMResult();
 
@@ -114,7 +107,7 @@ public class FCMUtil {
         return null;
     }
 
-    private static String getFCMRequest(String message, List<String> registrationIds) {
+    static String getFCMRequest(String message, List<String> registrationIds) {
         JsonObject fcmRequest = new JsonObject();
         fcmRequest.addProperty("delay_while_idle", false);
         fcmRequest.addProperty("time_to_live", TIME_TO_LIVE);
@@ -147,7 +140,7 @@ public class FCMUtil {
         return tokens;
     }
 
-    private static String getFCMToken(List<Device.Property> properties) {
+    static String getFCMToken(List<Device.Property> properties) {
         String fcmToken = null;
         for (Device.Property property : properties) {
             if (AndroidPluginConstants.FCM_TOKEN.equals(property.getName())) {
@@ -159,27 +152,9 @@ public class FCMUtil {
     }
 
     public static String getConfigurationProperty(String property) {
-        DeviceManagementService androidDMService = AndroidDeviceManagementDataHolder.getInstance().
-                getAndroidDeviceManagementService();
         try {
-            //Get the TenantConfiguration from cache if not we'll get it from DM service
-            PlatformConfiguration tenantConfiguration = getTenantConfigurationFromCache();
-            if (tenantConfiguration == null) {
-                tenantConfiguration = androidDMService.getDeviceManager().getConfiguration();
-                if (tenantConfiguration != null) {
-                    addTenantConfigurationToCache(tenantConfiguration);
-                }
-            }
-
-            if (tenantConfiguration != null) {
-                List<ConfigurationEntry> configs = tenantConfiguration.getConfiguration();
-                for (ConfigurationEntry entry : configs) {
-                    if (property.equals(entry.getName())) {
-                        return (String) entry.getValue();
-                    }
-                }
-            }
-            return "";
+            Object value = PlatformConfigurationCache.getInstance().getTenantConfiguration().getValue(property);
+            return value == null ? "" : (String) value;
         } catch (DeviceManagementException e) {
             log.error("Exception occurred while fetching the tenant-config.",e);
         }
@@ -187,18 +162,6 @@ public class FCMUtil {
     }
 
     public static void resetTenantConfigCache() {
-        tenantConfigurationCache.remove(getTenantId());
-    }
-
-    private static void addTenantConfigurationToCache(PlatformConfiguration tenantConfiguration) {
-        tenantConfigurationCache.put(getTenantId(), tenantConfiguration);
-    }
-
-    private static PlatformConfiguration getTenantConfigurationFromCache() {
-        return tenantConfigurationCache.get(getTenantId());
-    }
-
-    private static int getTenantId() {
-        return CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        PlatformConfigurationCache.getInstance().invalidate();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl.util;
+
+import org.wso2.carbon.device.mgt.mobile.android.impl.dto.MobileDevice;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the Android device records, keyed by device id, which keeps the agents' frequent
+ * enrollment checks and device reads off the database.
+ * <p/>
+ * The least recently used records are evicted when the cache is full, and records expire after a while so that
+ * changes made by other nodes are picked up. Records written on this node are put in the cache once committed.
+ * <p/>
+ * Records are held in the form they are read from the database, and must not be modified by the callers.
+ */
+public class MobileDeviceCache {
+
+    private static final int DEFAULT_CAPACITY = 10000;
+    private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final MobileDeviceCache thisInstance =
+            new MobileDeviceCache(DEFAULT_CAPACITY, DEFAULT_TIMEOUT_MILLIS);
+
+    private final long timeoutMillis;
+    private final Map<String, CachedDevice> devices;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public MobileDeviceCache(final int capacity, long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.devices = new LinkedHashMap<String, CachedDevice>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDevice> eldest) {
+                if (size() > capacity) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static MobileDeviceCache getInstance() {
+        return thisInstance;
+    }
+
+    /**
+     * @param mblDeviceId id of the device.
+     * @return the cached record of the device, or null if it is not cached or has expired.
+     */
+    public MobileDevice get(String mblDeviceId) {
+        CachedDevice cachedDevice;
+        synchronized (devices) {
+            cachedDevice = devices.get(mblDeviceId);
+            if (cachedDevice != null && currentTimeMillis() > cachedDevice.expiryTime) {
+                devices.remove(mblDeviceId);
+                cachedDevice = null;
+            }
+        }
+        if (cachedDevice == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return cachedDevice.mobileDevice;
+    }
+
+    /**
+     * Caches the record of a device, which has been committed to the database.
+     *
+     * @param mobileDevice record of the device.
+     */
+    public void put(MobileDevice mobileDevice) {
+        CachedDevice cachedDevice = new CachedDevice(toStoredForm(mobileDevice),
+                currentTimeMillis() + timeoutMillis);
+        synchronized (devices) {
+            devices.put(mobileDevice.getMobileDeviceId(), cachedDevice);
+        }
+    }
+
+    /**
+     * Caches the record of a device read from the database, unless a live record is already cached. This keeps a
+     * read which raced with an update from replacing the updated record.
+     *
+     * @param mobileDevice record of the device.
+     */
+    public void putIfAbsent(MobileDevice mobileDevice) {
+        long now = currentTimeMillis();
+        CachedDevice cachedDevice = new CachedDevice(toStoredForm(mobileDevice), now + timeoutMillis);
+        synchronized (devices) {
+            CachedDevice existing = devices.get(mobileDevice.getMobileDeviceId());
+            if (existing == null || now > existing.expiryTime) {
+                devices.put(mobileDevice.getMobileDeviceId(), cachedDevice);
+            }
+        }
+    }
+
+    /**
+     * Drops the record of a device, to be called when it is removed or its update is rolled back.
+     *
+     * @param mblDeviceId id of the device.
+     */
+    public void remove(String mblDeviceId) {
+        synchronized (devices) {
+            devices.remove(mblDeviceId);
+        }
+    }
+
+    public void clear() {
+        synchronized (devices) {
+            devices.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (devices) {
+            return devices.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return the fraction of the look ups served from the cache, or 0 if there were none.
+     */
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return the current time in milliseconds, against which the records expire.
+     */
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Copies a record as it would be read back from the database, which only returns the FCM token, device info
+     * and device name of the device properties.
+     */
+    private static MobileDevice toStoredForm(MobileDevice mobileDevice) {
+        MobileDevice storedDevice = new MobileDevice();
+        storedDevice.setMobileDeviceId(mobileDevice.getMobileDeviceId());
+        storedDevice.setModel(mobileDevice.getModel());
+        storedDevice.setSerial(mobileDevice.getSerial());
+        storedDevice.setVendor(mobileDevice.getVendor());
+        storedDevice.setLatitude(mobileDevice.getLatitude());
+        storedDevice.setLongitude(mobileDevice.getLongitude());
+        storedDevice.setImei(mobileDevice.getImei());
+        storedDevice.setImsi(mobileDevice.getImsi());
+        storedDevice.setOsVersion(mobileDevice.getOsVersion());
+        storedDevice.setOsBuildDate(mobileDevice.getOsBuildDate());
+
+        Map<String, String> properties = mobileDevice.getDeviceProperties() != null ?
+                mobileDevice.getDeviceProperties() : Collections.<String, String>emptyMap();
+        Map<String, String> propertyMap = new HashMap<>();
+        propertyMap.put(AndroidPluginConstants.FCM_TOKEN, properties.get(AndroidPluginConstants.FCM_TOKEN));
+        propertyMap.put(AndroidPluginConstants.DEVICE_INFO, properties.get(AndroidPluginConstants.DEVICE_INFO));
+        propertyMap.put(AndroidPluginConstants.DEVICE_NAME, properties.get(AndroidPluginConstants.DEVICE_NAME));
+        storedDevice.setDeviceProperties(propertyMap);
+        return storedDevice;
+    }
+
+    private static class CachedDevice {
+
+        private final MobileDevice mobileDevice;
+        private final long expiryTime;
+
+        private CachedDevice(MobileDevice mobileDevice, long expiryTime) {
+            this.mobileDevice = mobileDevice;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
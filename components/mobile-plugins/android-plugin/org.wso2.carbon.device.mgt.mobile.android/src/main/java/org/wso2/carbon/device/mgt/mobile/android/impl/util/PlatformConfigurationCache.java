@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl.util;
+
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.common.configuration.mgt.ConfigurationEntry;
+import org.wso2.carbon.device.mgt.common.configuration.mgt.PlatformConfiguration;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.impl.AndroidDeviceMgtPluginException;
+import org.wso2.carbon.registry.api.RegistryException;
+import org.wso2.carbon.registry.api.Resource;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-through cache of the Android platform configuration of each tenant, which is stored in the registry.
+ * <p/>
+ * Entries expire after a while so that changes made by other nodes are picked up, and are invalidated when the
+ * configuration is saved on this node. Each tenant has a version, bumped on invalidation, so that a configuration
+ * read from the registry before it was saved is not cached.
+ */
+public class PlatformConfigurationCache {
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final PlatformConfigurationCache thisInstance =
+            new PlatformConfigurationCache(DEFAULT_TIMEOUT_MILLIS);
+    private static volatile JAXBContext jaxbContext;
+
+    private final long timeoutMillis;
+    private final ConcurrentHashMap<Integer, TenantConfiguration> configurations = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> versions = new HashMap<>();
+
+    public PlatformConfigurationCache(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public static PlatformConfigurationCache getInstance() {
+        return thisInstance;
+    }
+
+    /**
+     * @return JAXB context of {@link PlatformConfiguration}, which is thread safe and hence shared.
+     * @throws JAXBException if the context cannot be created.
+     */
+    public static JAXBContext getJAXBContext() throws JAXBException {
+        JAXBContext context = jaxbContext;
+        if (context == null) {
+            synchronized (PlatformConfigurationCache.class) {
+                context = jaxbContext;
+                if (context == null) {
+                    context = JAXBContext.newInstance(PlatformConfiguration.class);
+                    jaxbContext = context;
+                }
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Returns the configuration of the current tenant, reading it from the registry if it is not cached.
+     *
+     * @return configuration of the tenant.
+     * @throws DeviceManagementException if the configuration cannot be read.
+     */
+    public TenantConfiguration getTenantConfiguration() throws DeviceManagementException {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        TenantConfiguration configuration = configurations.get(tenantId);
+        if (configuration != null && !configuration.isExpired()) {
+            return configuration;
+        }
+        long version = getVersion(tenantId);
+        configuration = new TenantConfiguration(loadConfiguration(), System.currentTimeMillis() + timeoutMillis);
+        synchronized (versions) {
+            if (version == getVersion(tenantId)) {
+                configurations.put(tenantId, configuration);
+            }
+        }
+        return configuration;
+    }
+
+    /**
+     * Drops the cached configuration of the current tenant, to be called when the configuration is saved.
+     */
+    public void invalidate() {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        synchronized (versions) {
+            versions.put(tenantId, getVersion(tenantId) + 1);
+            configurations.remove(tenantId);
+        }
+    }
+
+    private long getVersion(int tenantId) {
+        synchronized (versions) {
+            Long version = versions.get(tenantId);
+            return version == null ? 0 : version;
+        }
+    }
+
+    private PlatformConfiguration loadConfiguration() throws DeviceManagementException {
+        try {
+            String androidRegPath =
+                    MobileDeviceManagementUtil.getPlatformConfigPath(DeviceManagementConstants.
+                            MobileDeviceTypes.MOBILE_DEVICE_TYPE_ANDROID);
+            Resource resource = MobileDeviceManagementUtil.getRegistryResource(androidRegPath);
+            if (resource != null) {
+                return (PlatformConfiguration) getJAXBContext().createUnmarshaller().unmarshal(
+                        new StringReader(new String((byte[]) resource.getContent(), Charset.
+                                forName(AndroidPluginConstants.MobilePluginConstants.CHARSET_UTF8))));
+            }
+            return null;
+        } catch (AndroidDeviceMgtPluginException e) {
+            throw new DeviceManagementException(
+                    "Error occurred while retrieving the Registry instance : " + e.getMessage(), e);
+        } catch (JAXBException e) {
+            throw new DeviceManagementException(
+                    "Error occurred while parsing the Android configuration : " + e.getMessage(), e);
+        } catch (RegistryException e) {
+            throw new DeviceManagementException(
+                    "Error occurred while retrieving the Registry resource of Android Configuration : " +
+                            e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cached configuration of a tenant, with its entries indexed by name.
+     */
+    public static class TenantConfiguration {
+
+        private final PlatformConfiguration configuration;
+        private final Map<String, Object> values;
+        private final long expiryTime;
+
+        TenantConfiguration(PlatformConfiguration configuration, long expiryTime) {
+            this.configuration = configuration;
+            this.expiryTime = expiryTime;
+            if (configuration == null || configuration.getConfiguration() == null) {
+                this.values = Collections.emptyMap();
+                return;
+            }
+            Map<String, Object> values = new HashMap<>();
+            for (ConfigurationEntry entry : configuration.getConfiguration()) {
+                if (!values.containsKey(entry.getName())) {
+                    values.put(entry.getName(), entry.getValue());
+                }
+            }
+            this.values = values;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiryTime;
+        }
+
+        /**
+         * @return a copy of the configuration, which the caller may modify, or null if the tenant has none.
+         */
+        public PlatformConfiguration getPlatformConfiguration() {
+            if (configuration == null) {
+                return null;
+            }
+            PlatformConfiguration copy = new PlatformConfiguration();
+            copy.setType(configuration.getType());
+            if (configuration.getConfiguration() != null) {
+                copy.setConfiguration(new ArrayList<>(configuration.getConfiguration()));
+            }
+            return copy;
+        }
+
+        /**
+         * @param name name of the configuration entry.
+         * @return value of the entry, or null if there is no such entry.
+         */
+        public Object getValue(String name) {
+            return values.get(name);
+        }
+    }
+}
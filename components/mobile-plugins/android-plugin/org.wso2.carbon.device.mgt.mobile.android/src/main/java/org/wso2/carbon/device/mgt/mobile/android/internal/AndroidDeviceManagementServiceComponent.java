@@ -25,6 +25,7 @@ import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.ComponentContext;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 import org.wso2.carbon.device.mgt.mobile.android.impl.AndroidDeviceManagementService;
+import org.wso2.carbon.device.mgt.mobile.android.impl.AndroidDeviceManager;
 import org.wso2.carbon.device.mgt.mobile.android.impl.fcm.FCMService;
 import org.wso2.carbon.ndatasource.core.DataSourceService;
 import org.wso2.carbon.registry.core.service.RegistryService;
@@ -99,6 +100,16 @@ public class AndroidDeviceManagementServiceComponent {
             if (fcmServiceRegRef != null) {
                 fcmServiceRegRef.unregister();
             }
+            FCMService fcmService = AndroidDeviceManagementDataHolder.getInstance().getFCMService();
+            if (fcmService != null) {
+                fcmService.shutdown();
+            }
+            DeviceManagementService androidDeviceManagementService =
+                    AndroidDeviceManagementDataHolder.getInstance().getAndroidDeviceManagementService();
+            if (androidDeviceManagementService != null &&
+                    androidDeviceManagementService.getDeviceManager() instanceof AndroidDeviceManager) {
+                ((AndroidDeviceManager) androidDeviceManagementService.getDeviceManager()).shutdown();
+            }
             if (log.isDebugEnabled()) {
                 log.debug(
                         "Android Mobile Device Management Service Component has been successfully de-activated");
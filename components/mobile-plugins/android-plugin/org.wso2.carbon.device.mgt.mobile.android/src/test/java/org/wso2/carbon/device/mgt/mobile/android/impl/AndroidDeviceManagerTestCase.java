@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.AndroidDAOFactory;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.BaseAndroidDAOTest;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dto.MobileDevice;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.AndroidPluginConstants;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.MobileDeviceCache;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.MobileDeviceManagementUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AndroidDeviceManagerTestCase extends BaseAndroidDAOTest {
+
+    @Test
+    public void testDevicesAreProcessedInPages() throws Exception {
+        addDevices(25);
+        RecordingPageHandler handler = new RecordingPageHandler(true);
+        newDeviceManager().processAllDevices(10, true, handler);
+        Assert.assertEquals(handler.pageSizes, Arrays.asList(10, 10, 5));
+        Assert.assertEquals(handler.deviceIds.size(), 25);
+        for (int i = 0; i < 25; i++) {
+            Assert.assertEquals(handler.deviceIds.get(i), getDeviceId(i));
+        }
+    }
+
+    @Test
+    public void testLastFullPageEndsTheIteration() throws Exception {
+        addDevices(20);
+        RecordingPageHandler handler = new RecordingPageHandler(true);
+        newDeviceManager().processAllDevices(10, true, handler);
+        // the empty page read after the last full one is not handed to the handler.
+        Assert.assertEquals(handler.pageSizes, Arrays.asList(10, 10));
+    }
+
+    @Test
+    public void testHandlerStopsTheIteration() throws Exception {
+        addDevices(25);
+        RecordingPageHandler handler = new RecordingPageHandler(false);
+        newDeviceManager().processAllDevices(10, true, handler);
+        Assert.assertEquals(handler.pageSizes, Arrays.asList(10));
+    }
+
+    @Test
+    public void testSummaryPagesSkipDeviceInfoAndToken() throws Exception {
+        addDevices(3);
+        RecordingPageHandler summaryHandler = new RecordingPageHandler(true);
+        newDeviceManager().processAllDevices(10, false, summaryHandler);
+        Assert.assertEquals(summaryHandler.devices.size(), 3);
+        for (Device device : summaryHandler.devices) {
+            Assert.assertEquals(getProperty(device, AndroidPluginConstants.DEVICE_NAME),
+                                "name-" + device.getDeviceIdentifier());
+            Assert.assertNull(getProperty(device, AndroidPluginConstants.DEVICE_INFO));
+            Assert.assertNull(getProperty(device, AndroidPluginConstants.FCM_TOKEN));
+        }
+
+        RecordingPageHandler detailsHandler = new RecordingPageHandler(true);
+        newDeviceManager().processAllDevices(10, true, detailsHandler);
+        for (Device device : detailsHandler.devices) {
+            Assert.assertEquals(getProperty(device, AndroidPluginConstants.DEVICE_INFO), "{\"battery\":\"80\"}");
+            Assert.assertEquals(getProperty(device, AndroidPluginConstants.FCM_TOKEN),
+                                "token-" + device.getDeviceIdentifier());
+        }
+    }
+
+    @Test
+    public void testGetAllDevices() throws Exception {
+        addDevices(25);
+        List<Device> devices = newDeviceManager().getAllDevices();
+        Assert.assertEquals(devices.size(), 25);
+        Assert.assertEquals(getProperty(devices.get(0), AndroidPluginConstants.FCM_TOKEN), "token-" + getDeviceId(0));
+    }
+
+    @Test
+    public void testUpdateDeviceInfoWritesOnlyChangedProperties() throws Exception {
+        MobileDeviceCache.getInstance().clear();
+        MobileDevice mobileDevice = newMobileDevice(getDeviceId(1), "Nexus 5");
+        Assert.assertTrue(new AndroidDAOFactory().getMobileDeviceDAO().addMobileDevice(mobileDevice));
+        closeConnection();
+        AndroidDeviceManager deviceManager = newDeviceManager();
+        DeviceIdentifier deviceIdentifier = new DeviceIdentifier(getDeviceId(1), "android");
+        try {
+            // an unchanged report only reads the device, which caches it.
+            Assert.assertTrue(deviceManager.updateDeviceInfo(deviceIdentifier, toDevice(mobileDevice)));
+            execute("UPDATE AD_DEVICE SET DEVICE_INFO = 'written elsewhere'");
+
+            MobileDevice reportedDevice = newMobileDevice(getDeviceId(1), "Nexus 5");
+            reportedDevice.getDeviceProperties().put(AndroidPluginConstants.DEVICE_NAME, "renamed");
+            reportedDevice.setLatitude("7.2");
+            Assert.assertTrue(deviceManager.updateDeviceInfo(deviceIdentifier, toDevice(reportedDevice)));
+            closeConnection();
+            Assert.assertEquals(getColumn(getDeviceId(1), "DEVICE_NAME"), "renamed");
+            Assert.assertEquals(getColumn(getDeviceId(1), "DEVICE_INFO"), "written elsewhere");
+            // the location is written by the location buffer, not along with the properties.
+            Assert.assertEquals(getColumn(getDeviceId(1), "LATITUDE"), "6.9");
+            Assert.assertEquals(MobileDeviceCache.getInstance().get(getDeviceId(1)).getLatitude(), "7.2");
+        } finally {
+            deviceManager.shutdown();
+            MobileDeviceCache.getInstance().clear();
+        }
+        Assert.assertEquals(getColumn(getDeviceId(1), "LATITUDE"), "7.2");
+    }
+
+    @Test
+    public void testUpdateDeviceInfoOfUnknownDevice() throws Exception {
+        MobileDeviceCache.getInstance().clear();
+        AndroidDeviceManager deviceManager = newDeviceManager();
+        try {
+            Assert.assertFalse(deviceManager.updateDeviceInfo(
+                    new DeviceIdentifier(getDeviceId(1), "android"),
+                    toDevice(newMobileDevice(getDeviceId(1), "Nexus 5"))));
+        } finally {
+            deviceManager.shutdown();
+        }
+        Assert.assertEquals(getDeviceCount(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonPositivePageSize() throws Exception {
+        newDeviceManager().processAllDevices(0, true, new RecordingPageHandler(true));
+    }
+
+    private static AndroidDeviceManager newDeviceManager() {
+        return new AndroidDeviceManager(new AndroidDAOFactory());
+    }
+
+    private static Device toDevice(MobileDevice mobileDevice) {
+        return MobileDeviceManagementUtil.convertToDevice(mobileDevice);
+    }
+
+    private void addDevices(int count) throws Exception {
+        List<MobileDevice> mobileDevices = new ArrayList<>();
+        for (int i = count - 1; i >= 0; i--) {
+            mobileDevices.add(newMobileDevice(getDeviceId(i), "Nexus 5"));
+        }
+        Assert.assertTrue(new AndroidDAOFactory().getMobileDeviceDAO().addMobileDevices(mobileDevices));
+        closeConnection();
+    }
+
+    /**
+     * Zero padded, so that the device ids sort in the order they are numbered.
+     */
+    private static String getDeviceId(int i) {
+        return String.format("device-%03d", i);
+    }
+
+    private static String getProperty(Device device, String name) {
+        for (Device.Property property : device.getProperties()) {
+            if (name.equals(property.getName())) {
+                return property.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static class RecordingPageHandler implements DevicePageHandler {
+        private final boolean fetchNextPage;
+        private final List<Integer> pageSizes = new ArrayList<>();
+        private final List<Device> devices = new ArrayList<>();
+        private final List<String> deviceIds = new ArrayList<>();
+
+        RecordingPageHandler(boolean fetchNextPage) {
+            this.fetchNextPage = fetchNextPage;
+        }
+
+        @Override
+        public boolean handle(List<Device> page) throws DeviceManagementException {
+            pageSizes.add(page.size());
+            devices.addAll(page);
+            for (Device device : page) {
+                deviceIds.add(device.getDeviceIdentifier());
+            }
+            return fetchNextPage;
+        }
+    }
+}
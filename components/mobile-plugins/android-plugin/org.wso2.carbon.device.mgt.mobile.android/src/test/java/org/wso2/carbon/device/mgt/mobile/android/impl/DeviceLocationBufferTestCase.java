@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.AndroidDAOFactory;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.BaseAndroidDAOTest;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dto.MobileDevice;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.MobileDeviceCache;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class DeviceLocationBufferTestCase extends BaseAndroidDAOTest {
+
+    private final MobileDeviceCache deviceCache = MobileDeviceCache.getInstance();
+    private DeviceLocationBuffer locationBuffer;
+
+    @BeforeMethod
+    public void initLocationBuffer() throws Exception {
+        deviceCache.clear();
+        // flushed by the tests only.
+        locationBuffer = new DeviceLocationBuffer(new AndroidDAOFactory(), TimeUnit.HOURS.toMillis(1));
+        MobileDevice[] mobileDevices = {newMobileDevice("device-1", "Nexus 5"), newMobileDevice("device-2", "Nexus 5"),
+                newMobileDevice("device-3", "Nexus 5")};
+        Assert.assertTrue(new AndroidDAOFactory().getMobileDeviceDAO().addMobileDevices(Arrays.asList(mobileDevices)));
+        closeConnection();
+        for (MobileDevice mobileDevice : mobileDevices) {
+            deviceCache.put(mobileDevice);
+        }
+    }
+
+    @AfterMethod
+    public void shutdownLocationBuffer() {
+        locationBuffer.shutdown();
+        deviceCache.clear();
+    }
+
+    @Test
+    public void testLatestLocationIsWritten() throws Exception {
+        locationBuffer.add("device-1", "7.1", "80.1");
+        locationBuffer.add("device-1", "7.2", "80.2");
+        locationBuffer.add("device-2", "7.3", "80.3");
+        locationBuffer.flush();
+
+        Assert.assertEquals(getColumn("device-1", "LATITUDE"), "7.2");
+        Assert.assertEquals(getColumn("device-1", "LONGITUDE"), "80.2");
+        Assert.assertEquals(getColumn("device-2", "LATITUDE"), "7.3");
+        Assert.assertEquals(getColumn("device-3", "LATITUDE"), "6.9");
+        Assert.assertNotNull(deviceCache.get("device-1"));
+    }
+
+    @Test
+    public void testRemovedLocationIsNotWritten() throws Exception {
+        locationBuffer.add("device-1", "7.1", "80.1");
+        locationBuffer.remove("device-1");
+        locationBuffer.flush();
+        Assert.assertEquals(getColumn("device-1", "LATITUDE"), "6.9");
+    }
+
+    @Test
+    public void testPartlyFailedFlushIsRolledBack() throws Exception {
+        locationBuffer.add("device-1", "7.1", "80.1");
+        // longer than the LATITUDE column, hence only this row of the batch fails.
+        locationBuffer.add("device-2", "7.123456789012345678901234567890123456789012345678", "80.2");
+        locationBuffer.flush();
+
+        Assert.assertEquals(getColumn("device-1", "LATITUDE"), "6.9");
+        Assert.assertEquals(getColumn("device-2", "LATITUDE"), "6.9");
+        // the cache may hold the locations which were not written, hence the devices of the batch are dropped.
+        Assert.assertNull(deviceCache.get("device-1"));
+        Assert.assertNull(deviceCache.get("device-2"));
+        Assert.assertNotNull(deviceCache.get("device-3"));
+
+        // the failed locations are not retried, and the next flush starts on a clean connection.
+        locationBuffer.add("device-3", "7.3", "80.3");
+        locationBuffer.flush();
+        Assert.assertEquals(getColumn("device-1", "LATITUDE"), "6.9");
+        Assert.assertEquals(getColumn("device-2", "LATITUDE"), "6.9");
+        Assert.assertEquals(getColumn("device-3", "LATITUDE"), "7.3");
+    }
+
+    @Test
+    public void testShutdownWritesQueuedLocations() throws Exception {
+        locationBuffer.add("device-1", "7.1", "80.1");
+        locationBuffer.shutdown();
+        Assert.assertEquals(getColumn("device-1", "LATITUDE"), "7.1");
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl.dao;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.wso2.carbon.device.mgt.common.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dto.MobileDevice;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.AndroidPluginConstants;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Points the Android DAO factory to an in-memory H2 database created from the plugin's H2 script, and empties
+ * AD_DEVICE before each test.
+ */
+public abstract class BaseAndroidDAOTest {
+
+    private static final String DATASOURCE_URL = "jdbc:h2:mem:AD_DB_TEST;DB_CLOSE_DELAY=-1";
+    private static final String SCRIPT_PATH = "./src/test/resources/sql/h2.sql";
+
+    private static JdbcDataSource dataSource;
+
+    @BeforeClass
+    public void initDataSource() throws SQLException {
+        if (dataSource == null) {
+            JdbcDataSource h2DataSource = new JdbcDataSource();
+            h2DataSource.setURL(DATASOURCE_URL);
+            h2DataSource.setUser("sa");
+            h2DataSource.setPassword("sa");
+            dataSource = h2DataSource;
+            execute("RUNSCRIPT FROM '" + SCRIPT_PATH + "'");
+        }
+        // registered as well, since each new AndroidDAOFactory reads its data source from the map.
+        AbstractMobileDeviceManagementDAOFactory.getDataSourceMap().put(
+                DeviceManagementConstants.MobileDeviceTypes.MOBILE_DEVICE_TYPE_ANDROID, dataSource);
+        AndroidDAOFactory.dataSource = dataSource;
+    }
+
+    @BeforeMethod
+    public void clearDevices() throws SQLException {
+        execute("DELETE FROM AD_DEVICE");
+    }
+
+    @AfterMethod
+    public void closeConnection() throws MobileDeviceManagementDAOException {
+        AndroidDAOFactory.closeConnection();
+    }
+
+    protected static void execute(String sql) throws SQLException {
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement stmt = conn.createStatement();
+            stmt.execute(sql);
+            stmt.close();
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * Reads a single column of a device straight from AD_DEVICE, for columns the DAO does not load.
+     */
+    protected static String getColumn(String mblDeviceId, String column) throws SQLException {
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT " + column + " FROM AD_DEVICE WHERE DEVICE_ID = '" +
+                                                     mblDeviceId + "'");
+            String value = rs.next() ? rs.getString(1) : null;
+            stmt.close();
+            return value;
+        } finally {
+            conn.close();
+        }
+    }
+
+    protected static int getDeviceCount() throws SQLException {
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM AD_DEVICE");
+            rs.next();
+            int count = rs.getInt(1);
+            stmt.close();
+            return count;
+        } finally {
+            conn.close();
+        }
+    }
+
+    protected static MobileDevice newMobileDevice(String mblDeviceId, String model) {
+        MobileDevice mobileDevice = new MobileDevice();
+        mobileDevice.setMobileDeviceId(mblDeviceId);
+        mobileDevice.setModel(model);
+        mobileDevice.setVendor("vendor");
+        mobileDevice.setSerial("serial-" + mblDeviceId);
+        mobileDevice.setOsVersion("7.0");
+        mobileDevice.setOsBuildDate("1490000000");
+        mobileDevice.setImei("imei-" + mblDeviceId);
+        mobileDevice.setImsi("imsi-" + mblDeviceId);
+        mobileDevice.setLatitude("6.9");
+        mobileDevice.setLongitude("79.8");
+        mobileDevice.getDeviceProperties().put(AndroidPluginConstants.FCM_TOKEN, "token-" + mblDeviceId);
+        mobileDevice.getDeviceProperties().put(AndroidPluginConstants.DEVICE_INFO, "{\"battery\":\"80\"}");
+        mobileDevice.getDeviceProperties().put(AndroidPluginConstants.DEVICE_NAME, "name-" + mblDeviceId);
+        return mobileDevice;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl.dao.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.BaseAndroidDAOTest;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dao.MobileDeviceDAO;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dto.MobileDevice;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.AndroidPluginConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class AndroidDeviceDAOTestCase extends BaseAndroidDAOTest {
+
+    private final MobileDeviceDAO mobileDeviceDAO = new AndroidDeviceDAOImpl();
+
+    @Test
+    public void testAddOrUpdateInsertsNewDevice() throws Exception {
+        Assert.assertTrue(mobileDeviceDAO.addOrUpdateMobileDevice(newMobileDevice("device-1", "Nexus 5")));
+        closeConnection();
+
+        MobileDevice mobileDevice = mobileDeviceDAO.getMobileDevice("device-1");
+        Assert.assertNotNull(mobileDevice);
+        Assert.assertEquals(mobileDevice.getModel(), "Nexus 5");
+        Assert.assertEquals(mobileDevice.getSerial(), "serial-device-1");
+        Assert.assertEquals(mobileDevice.getDeviceProperties().get(AndroidPluginConstants.FCM_TOKEN),
+                            "token-device-1");
+        // as on insert, the device id is stored as the MAC address when the device has not reported one.
+        Assert.assertEquals(getColumn("device-1", "MAC_ADDRESS"), "device-1");
+        Assert.assertEquals(getDeviceCount(), 1);
+    }
+
+    @Test
+    public void testAddOrUpdateUpdatesExistingDevice() throws Exception {
+        Assert.assertTrue(mobileDeviceDAO.addMobileDevice(newMobileDevice("device-1", "Nexus 5")));
+        MobileDevice updatedDevice = newMobileDevice("device-1", "Pixel");
+        updatedDevice.setLatitude("7.2");
+        updatedDevice.getDeviceProperties().put(AndroidPluginConstants.FCM_TOKEN, "refreshed-token");
+        updatedDevice.getDeviceProperties().put(AndroidPluginConstants.MAC_ADDRESS, "00:11:22:33:44:55");
+        Assert.assertTrue(mobileDeviceDAO.addOrUpdateMobileDevice(updatedDevice));
+        closeConnection();
+
+        MobileDevice mobileDevice = mobileDeviceDAO.getMobileDevice("device-1");
+        Assert.assertEquals(mobileDevice.getModel(), "Pixel");
+        Assert.assertEquals(mobileDevice.getLatitude(), "7.2");
+        Assert.assertEquals(mobileDevice.getDeviceProperties().get(AndroidPluginConstants.FCM_TOKEN),
+                            "refreshed-token");
+        Assert.assertEquals(getColumn("device-1", "MAC_ADDRESS"), "00:11:22:33:44:55");
+        Assert.assertEquals(getDeviceCount(), 1);
+    }
+
+    @Test
+    public void testDevicesAreAddedAndFetchedInBatches() throws Exception {
+        List<MobileDevice> mobileDevices = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        // more devices than a single IN clause takes, so that the fetch is split into chunks.
+        for (int i = 0; i < 250; i++) {
+            mobileDevices.add(newMobileDevice("device-" + i, "Nexus 5"));
+            ids.add("device-" + i);
+        }
+        Assert.assertTrue(mobileDeviceDAO.addMobileDevices(mobileDevices));
+        closeConnection();
+        Assert.assertEquals(getDeviceCount(), 250);
+
+        ids.add("device-0");
+        ids.add("unknown-device");
+        List<MobileDevice> fetchedDevices = mobileDeviceDAO.getMobileDevices(ids);
+        Set<String> fetchedIds = new HashSet<>();
+        for (MobileDevice mobileDevice : fetchedDevices) {
+            fetchedIds.add(mobileDevice.getMobileDeviceId());
+        }
+        Assert.assertEquals(fetchedDevices.size(), 250);
+        Assert.assertEquals(fetchedIds.size(), 250);
+        Assert.assertFalse(fetchedIds.contains("unknown-device"));
+    }
+
+    @Test
+    public void testDevicesAreUpdatedInBatches() throws Exception {
+        Assert.assertTrue(mobileDeviceDAO.addMobileDevices(Arrays.asList(newMobileDevice("device-1", "Nexus 5"),
+                                                                         newMobileDevice("device-2", "Nexus 5"),
+                                                                         newMobileDevice("device-3", "Nexus 5"))));
+        Assert.assertTrue(mobileDeviceDAO.updateMobileDevices(Arrays.asList(newMobileDevice("device-1", "Pixel"),
+                                                                            newMobileDevice("device-3", "Pixel"))));
+        closeConnection();
+
+        List<MobileDevice> mobileDevices = mobileDeviceDAO.getMobileDevices(
+                Arrays.asList("device-1", "device-2", "device-3"));
+        Assert.assertEquals(mobileDevices.size(), 3);
+        for (MobileDevice mobileDevice : mobileDevices) {
+            String expectedModel = "device-2".equals(mobileDevice.getMobileDeviceId()) ? "Nexus 5" : "Pixel";
+            Assert.assertEquals(mobileDevice.getModel(), expectedModel);
+        }
+    }
+
+    @Test
+    public void testEmptyBatches() throws Exception {
+        Assert.assertTrue(mobileDeviceDAO.addMobileDevices(Collections.<MobileDevice>emptyList()));
+        Assert.assertTrue(mobileDeviceDAO.updateMobileDevices(Collections.<MobileDevice>emptyList()));
+        Assert.assertTrue(mobileDeviceDAO.getMobileDevices(Collections.<String>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testDevicesArePagedByDeviceId() throws Exception {
+        List<MobileDevice> mobileDevices = new ArrayList<>();
+        for (int i = 4; i >= 0; i--) {
+            mobileDevices.add(newMobileDevice("device-" + i, "Nexus 5"));
+        }
+        Assert.assertTrue(mobileDeviceDAO.addMobileDevices(mobileDevices));
+        closeConnection();
+
+        List<MobileDevice> firstPage = mobileDeviceDAO.getMobileDevices(null, 2, true);
+        Assert.assertEquals(getDeviceIds(firstPage), Arrays.asList("device-0", "device-1"));
+        List<MobileDevice> secondPage = mobileDeviceDAO.getMobileDevices("device-1", 2, true);
+        Assert.assertEquals(getDeviceIds(secondPage), Arrays.asList("device-2", "device-3"));
+        List<MobileDevice> lastPage = mobileDeviceDAO.getMobileDevices("device-3", 2, true);
+        Assert.assertEquals(getDeviceIds(lastPage), Collections.singletonList("device-4"));
+        Assert.assertTrue(mobileDeviceDAO.getMobileDevices("device-4", 2, true).isEmpty());
+    }
+
+    @Test
+    public void testSummaryPageSkipsDeviceInfoAndToken() throws Exception {
+        Assert.assertTrue(mobileDeviceDAO.addMobileDevice(newMobileDevice("device-1", "Nexus 5")));
+        closeConnection();
+
+        MobileDevice summary = mobileDeviceDAO.getMobileDevices(null, 10, false).get(0);
+        Assert.assertEquals(summary.getModel(), "Nexus 5");
+        Assert.assertEquals(summary.getImei(), "imei-device-1");
+        Assert.assertEquals(summary.getDeviceProperties().get(AndroidPluginConstants.DEVICE_NAME), "name-device-1");
+        Assert.assertFalse(summary.getDeviceProperties().containsKey(AndroidPluginConstants.DEVICE_INFO));
+        Assert.assertFalse(summary.getDeviceProperties().containsKey(AndroidPluginConstants.FCM_TOKEN));
+
+        MobileDevice details = mobileDeviceDAO.getMobileDevices(null, 10, true).get(0);
+        Assert.assertEquals(details.getDeviceProperties().get(AndroidPluginConstants.DEVICE_INFO),
+                            "{\"battery\":\"80\"}");
+        Assert.assertEquals(details.getDeviceProperties().get(AndroidPluginConstants.FCM_TOKEN), "token-device-1");
+    }
+
+    @Test
+    public void testUpdatePropertiesWritesOnlyTheGivenColumns() throws Exception {
+        Assert.assertTrue(mobileDeviceDAO.addMobileDevice(newMobileDevice("device-1", "Nexus 5")));
+        Map<String, String> properties = new HashMap<>();
+        properties.put(AndroidPluginConstants.DEVICE_NAME, "renamed");
+        properties.put(AndroidPluginConstants.MAC_ADDRESS, "00:11:22:33:44:55");
+        properties.put("UNKNOWN_PROPERTY", "ignored");
+        Assert.assertTrue(mobileDeviceDAO.updateProperties("device-1", properties));
+        closeConnection();
+
+        Assert.assertEquals(getColumn("device-1", "DEVICE_NAME"), "renamed");
+        Assert.assertEquals(getColumn("device-1", "MAC_ADDRESS"), "00:11:22:33:44:55");
+        Assert.assertEquals(getColumn("device-1", "FCM_TOKEN"), "token-device-1");
+        Assert.assertEquals(getColumn("device-1", "DEVICE_INFO"), "{\"battery\":\"80\"}");
+        Assert.assertEquals(getColumn("device-1", "DEVICE_MODEL"), "Nexus 5");
+        Assert.assertEquals(getColumn("device-1", "LATITUDE"), "6.9");
+    }
+
+    @Test
+    public void testUpdatePropertiesToNull() throws Exception {
+        Assert.assertTrue(mobileDeviceDAO.addMobileDevice(newMobileDevice("device-1", "Nexus 5")));
+        Map<String, String> properties = new HashMap<>();
+        properties.put(AndroidPluginConstants.DEVICE_INFO, null);
+        Assert.assertTrue(mobileDeviceDAO.updateProperties("device-1", properties));
+        closeConnection();
+
+        Assert.assertNull(getColumn("device-1", "DEVICE_INFO"));
+        Assert.assertEquals(getColumn("device-1", "FCM_TOKEN"), "token-device-1");
+    }
+
+    @Test
+    public void testUpdatePropertiesOfUnknownDevice() throws Exception {
+        Assert.assertFalse(mobileDeviceDAO.updateProperties(
+                "unknown-device", Collections.singletonMap(AndroidPluginConstants.DEVICE_NAME, "renamed")));
+        // nothing to write, hence nothing to fail.
+        Assert.assertTrue(mobileDeviceDAO.updateProperties(
+                "unknown-device", Collections.singletonMap("UNKNOWN_PROPERTY", "ignored")));
+    }
+
+    @Test
+    public void testUpdateLocationsWritesOnlyTheLocations() throws Exception {
+        Assert.assertTrue(mobileDeviceDAO.addMobileDevices(Arrays.asList(newMobileDevice("device-1", "Nexus 5"),
+                                                                         newMobileDevice("device-2", "Nexus 5"))));
+        // a device which is not enrolled does not fail the rest of the batch.
+        Assert.assertTrue(mobileDeviceDAO.updateLocations(Arrays.asList(newLocation("device-1", "7.2", "80.1"),
+                                                                        newLocation("unknown-device", "7.3", "80.2"))));
+        closeConnection();
+
+        Assert.assertEquals(getColumn("device-1", "LATITUDE"), "7.2");
+        Assert.assertEquals(getColumn("device-1", "LONGITUDE"), "80.1");
+        Assert.assertEquals(getColumn("device-1", "FCM_TOKEN"), "token-device-1");
+        Assert.assertEquals(getColumn("device-1", "DEVICE_MODEL"), "Nexus 5");
+        Assert.assertEquals(getColumn("device-2", "LATITUDE"), "6.9");
+        Assert.assertEquals(getDeviceCount(), 2);
+        Assert.assertTrue(mobileDeviceDAO.updateLocations(Collections.<MobileDevice>emptyList()));
+    }
+
+    private static MobileDevice newLocation(String mblDeviceId, String latitude, String longitude) {
+        MobileDevice location = new MobileDevice();
+        location.setMobileDeviceId(mblDeviceId);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+
+    private static List<String> getDeviceIds(List<MobileDevice> mobileDevices) {
+        List<String> ids = new ArrayList<>();
+        for (MobileDevice mobileDevice : mobileDevices) {
+            ids.add(mobileDevice.getMobileDeviceId());
+        }
+        return ids;
+    }
+}
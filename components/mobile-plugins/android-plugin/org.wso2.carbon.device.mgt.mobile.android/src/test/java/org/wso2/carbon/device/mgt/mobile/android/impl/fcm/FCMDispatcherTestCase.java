@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl.fcm;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.mobile.android.impl.util.AndroidPluginConstants;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the dispatcher against a local HTTP server standing in for FCM.
+ */
+public class FCMDispatcherTestCase {
+
+    private static final String API_KEY = "key";
+    private static final String MESSAGE = "message";
+    private static final long WAIT_MILLIS = 10000;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String endpoint;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final List<Integer> requestSizes = Collections.synchronizedList(new ArrayList<Integer>());
+    private volatile int failedRequests;
+    private volatile long responseDelayMillis;
+    private volatile CountDownLatch responseLatch;
+
+    @BeforeMethod
+    public void startServer() throws IOException {
+        requestCount.set(0);
+        requestSizes.clear();
+        failedRequests = 0;
+        responseDelayMillis = 0;
+        responseLatch = null;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/fcm/send", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleRequest(exchange);
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        endpoint = "http://localhost:" + server.getAddress().getPort() + "/fcm/send";
+    }
+
+    @AfterMethod
+    public void stopServer() {
+        CountDownLatch latch = responseLatch;
+        if (latch != null) {
+            latch.countDown();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testBatchingAndTokenUpdates() throws Exception {
+        RecordingTokenHandler tokenHandler = new RecordingTokenHandler();
+        FCMDispatcher dispatcher = newDispatcher(endpoint, 2000, 0, 1000, tokenHandler);
+        try {
+            for (int i = 0; i < 2500; i++) {
+                dispatcher.send(API_KEY, MESSAGE, Collections.singletonList(newDevice("device" + i, "token" + i)));
+            }
+            List<Device> devices = new ArrayList<>();
+            devices.add(newDevice("unregistered", "invalid"));
+            devices.add(newDevice("refreshed", "old"));
+            devices.add(newDevice("unenrolled", null));
+            dispatcher.send(API_KEY, MESSAGE, devices);
+            waitFor(dispatcher, 2501, 0);
+            // the token handler is called after the result is counted.
+            long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+            while (tokenHandler.refreshedTokens.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(dispatcher.getInvalidTokenCount(), 1);
+            Assert.assertEquals(requestSizes.size(), 3);
+            Assert.assertEquals(Collections.max(requestSizes).intValue(), FCMDispatcher.MAX_REGISTRATION_IDS);
+            Assert.assertEquals(tokenHandler.invalidTokens, Collections.singletonList("unregistered:invalid"));
+            Assert.assertEquals(tokenHandler.refreshedTokens, Collections.singletonList("refreshed:old:new"));
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testServerErrorIsRetried() throws Exception {
+        failedRequests = 2;
+        FCMDispatcher dispatcher = newDispatcher(endpoint, 10, 3, 10, null);
+        try {
+            dispatcher.send(API_KEY, MESSAGE, Collections.singletonList(newDevice("device", "token")));
+            waitFor(dispatcher, 1, 0);
+            Assert.assertEquals(dispatcher.getRetryCount(), 2);
+            Assert.assertEquals(requestCount.get(), 3);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testConnectFailureIsRetried() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        int port = socket.getLocalPort();
+        socket.close();
+        FCMDispatcher dispatcher = newDispatcher("http://localhost:" + port + "/fcm/send", 10, 2, 10, null);
+        try {
+            dispatcher.send(API_KEY, MESSAGE, Collections.singletonList(newDevice("device", "token")));
+            waitFor(dispatcher, 0, 1);
+            Assert.assertEquals(dispatcher.getRequestCount(), 3);
+            Assert.assertEquals(dispatcher.getRetryCount(), 2);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testLostResponseIsNotRetried() throws Exception {
+        responseDelayMillis = 2000;
+        FCMDispatcher dispatcher = newDispatcher(endpoint, 10, 3, 10, null);
+        try {
+            dispatcher.send(API_KEY, MESSAGE, Collections.singletonList(newDevice("device", "token")));
+            waitFor(dispatcher, 0, 1);
+            Thread.sleep(200);
+            Assert.assertEquals(dispatcher.getRetryCount(), 0);
+            Assert.assertEquals(requestCount.get(), 1);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullQueueDoesNotBlockSender() throws Exception {
+        responseLatch = new CountDownLatch(1);
+        FCMDispatcher dispatcher = new FCMDispatcher(endpoint, 1, 1, 10, 10, 50, 1000, 5000, null);
+        try {
+            dispatcher.send(API_KEY, "first", Collections.singletonList(newDevice("first", "token")));
+            waitUntilReceived(1);
+            dispatcher.send(API_KEY, "second", Collections.singletonList(newDevice("second", "token")));
+            long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+            while (dispatcher.getQueuedRequestCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(dispatcher.getQueuedRequestCount(), 1);
+
+            List<Device> devices = new ArrayList<>();
+            for (int i = 0; i < FCMDispatcher.MAX_REGISTRATION_IDS; i++) {
+                devices.add(newDevice("device" + i, "token" + i));
+            }
+            long start = System.currentTimeMillis();
+            // a full batch is submitted by the sender itself.
+            dispatcher.send(API_KEY, "third", devices);
+            Assert.assertTrue(System.currentTimeMillis() - start < 1000, "sender was blocked by the full queue");
+
+            responseLatch.countDown();
+            waitFor(dispatcher, FCMDispatcher.MAX_REGISTRATION_IDS + 2, 0);
+            Assert.assertTrue(dispatcher.getRequeueCount() > 0);
+            Assert.assertEquals(dispatcher.getRetryCount(), 0);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullQueueDoesNotUseUpRetries() throws Exception {
+        responseLatch = new CountDownLatch(1);
+        FCMDispatcher dispatcher = new FCMDispatcher(endpoint, 1, 1, 10, 1, 20, 1000, 5000, null);
+        try {
+            dispatcher.send(API_KEY, "first", Collections.singletonList(newDevice("first", "token")));
+            waitUntilReceived(1);
+            dispatcher.send(API_KEY, "second", Collections.singletonList(newDevice("second", "token")));
+            dispatcher.send(API_KEY, "third", Collections.singletonList(newDevice("third", "token")));
+
+            // the request which does not fit in the queue is submitted again for longer than its retries last.
+            long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+            while (dispatcher.getRequeueCount() < 5 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(dispatcher.getRequeueCount() >= 5);
+            Assert.assertEquals(dispatcher.getFailedRequestCount(), 0);
+
+            responseLatch.countDown();
+            waitFor(dispatcher, 3, 0);
+            Assert.assertEquals(dispatcher.getRetryCount(), 0);
+            Assert.assertEquals(requestCount.get(), 3);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        int count = requestCount.incrementAndGet();
+        JsonArray tokens = new JsonParser().parse(new InputStreamReader(exchange.getRequestBody(),
+                                                                       StandardCharsets.UTF_8))
+                .getAsJsonObject().getAsJsonArray("registration_ids");
+        try {
+            CountDownLatch latch = responseLatch;
+            if (latch != null) {
+                latch.await(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            if (responseDelayMillis > 0) {
+                Thread.sleep(responseDelayMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (count <= failedRequests) {
+            exchange.getResponseHeaders().add("Retry-After", "0");
+            respond(exchange, 503, "Unavailable");
+            return;
+        }
+        requestSizes.add(tokens.size());
+        JsonArray results = new JsonArray();
+        for (JsonElement token : tokens) {
+            JsonObject result = new JsonObject();
+            if ("invalid".equals(token.getAsString())) {
+                result.addProperty("error", "NotRegistered");
+            } else {
+                result.addProperty("message_id", "0:" + count);
+                if ("old".equals(token.getAsString())) {
+                    result.addProperty("registration_id", "new");
+                }
+            }
+            results.add(result);
+        }
+        JsonObject response = new JsonObject();
+        response.add("results", results);
+        respond(exchange, 200, response.toString());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes);
+        out.close();
+    }
+
+    private static FCMDispatcher newDispatcher(String endpoint, long lingerMillis, int maxRetries,
+                                               long initialBackoffMillis, FCMTokenHandler tokenHandler) {
+        return new FCMDispatcher(endpoint, 2, 10, lingerMillis, maxRetries, initialBackoffMillis, 1000, 500,
+                                 tokenHandler);
+    }
+
+    private static Device newDevice(String deviceId, String token) {
+        Device device = new Device();
+        device.setDeviceIdentifier(deviceId);
+        List<Device.Property> properties = new ArrayList<>();
+        if (token != null) {
+            Device.Property property = new Device.Property();
+            property.setName(AndroidPluginConstants.FCM_TOKEN);
+            property.setValue(token);
+            properties.add(property);
+        }
+        device.setProperties(properties);
+        return device;
+    }
+
+    private void waitUntilReceived(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (requestCount.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(requestCount.get(), count);
+    }
+
+    private static void waitFor(FCMDispatcher dispatcher, long deliveredCount, long failedRequestCount)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while ((dispatcher.getDeliveredCount() < deliveredCount ||
+                dispatcher.getFailedRequestCount() < failedRequestCount) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(dispatcher.getDeliveredCount(), deliveredCount);
+        Assert.assertEquals(dispatcher.getFailedRequestCount(), failedRequestCount);
+    }
+
+    private static class RecordingTokenHandler implements FCMTokenHandler {
+
+        private final List<String> invalidTokens = Collections.synchronizedList(new ArrayList<String>());
+        private final List<String> refreshedTokens = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void onInvalidToken(String deviceId, String token) {
+            invalidTokens.add(deviceId + ":" + token);
+        }
+
+        @Override
+        public void onTokenRefreshed(String deviceId, String oldToken, String newToken) {
+            refreshedTokens.add(deviceId + ":" + oldToken + ":" + newToken);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.android.impl.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.mobile.android.impl.dto.MobileDevice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class MobileDeviceCacheTestCase {
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    @Test
+    public void testRecordIsCachedInStoredForm() {
+        MobileDeviceCache cache = new MobileDeviceCache(10, TIMEOUT_MILLIS);
+        MobileDevice mobileDevice = newMobileDevice("device-1", "Nexus 5");
+        cache.put(mobileDevice);
+        mobileDevice.setModel("Pixel");
+
+        MobileDevice cachedDevice = cache.get("device-1");
+        Assert.assertEquals(cachedDevice.getModel(), "Nexus 5");
+        Assert.assertEquals(cachedDevice.getDeviceProperties().get(AndroidPluginConstants.FCM_TOKEN), "token-1");
+        // the MAC address is not read back from the database, hence it is not cached either.
+        Assert.assertFalse(cachedDevice.getDeviceProperties().containsKey(AndroidPluginConstants.MAC_ADDRESS));
+        Assert.assertNull(cache.get("device-2"));
+        Assert.assertEquals(cache.getHitCount(), 1);
+        Assert.assertEquals(cache.getMissCount(), 1);
+        Assert.assertEquals(cache.getHitRate(), 0.5);
+    }
+
+    @Test
+    public void testReadDoesNotReplaceUpdatedRecord() {
+        MobileDeviceCache cache = new MobileDeviceCache(10, TIMEOUT_MILLIS);
+        // a read of the old record that finishes after an update has cached the new one.
+        MobileDevice staleDevice = newMobileDevice("device-1", "Nexus 5");
+        cache.put(newMobileDevice("device-1", "Pixel"));
+        cache.putIfAbsent(staleDevice);
+        Assert.assertEquals(cache.get("device-1").getModel(), "Pixel");
+
+        cache.remove("device-1");
+        cache.putIfAbsent(staleDevice);
+        Assert.assertEquals(cache.get("device-1").getModel(), "Nexus 5");
+    }
+
+    @Test
+    public void testConcurrentReadsCacheASingleRecord() throws Exception {
+        final MobileDeviceCache cache = new MobileDeviceCache(10, TIMEOUT_MILLIS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final String[] models = new String[8];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final int thread = i;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    cache.putIfAbsent(newMobileDevice("device-1", "model-" + thread));
+                    models[thread] = cache.get("device-1").getModel();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // the first record cached is kept, and every thread reads that one.
+        for (String model : models) {
+            Assert.assertEquals(model, models[0]);
+        }
+        Assert.assertEquals(cache.get("device-1").getModel(), models[0]);
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedRecordIsEvicted() {
+        MobileDeviceCache cache = new MobileDeviceCache(2, TIMEOUT_MILLIS);
+        cache.put(newMobileDevice("device-1", "Nexus 5"));
+        cache.put(newMobileDevice("device-2", "Nexus 5"));
+        Assert.assertNotNull(cache.get("device-1"));
+        cache.put(newMobileDevice("device-3", "Nexus 5"));
+
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertNull(cache.get("device-2"));
+        Assert.assertNotNull(cache.get("device-1"));
+        Assert.assertNotNull(cache.get("device-3"));
+        Assert.assertEquals(cache.getEvictionCount(), 1);
+    }
+
+    @Test
+    public void testRecordExpiresAfterTheTimeout() {
+        ManualClockCache cache = new ManualClockCache(10, TIMEOUT_MILLIS);
+        cache.put(newMobileDevice("device-1", "Nexus 5"));
+        cache.time += TIMEOUT_MILLIS;
+        Assert.assertNotNull(cache.get("device-1"));
+        cache.time += 1;
+        Assert.assertNull(cache.get("device-1"));
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testReadReplacesExpiredRecord() {
+        ManualClockCache cache = new ManualClockCache(10, TIMEOUT_MILLIS);
+        cache.put(newMobileDevice("device-1", "Pixel"));
+        cache.time += TIMEOUT_MILLIS + 1;
+        cache.putIfAbsent(newMobileDevice("device-1", "Nexus 5"));
+        Assert.assertEquals(cache.get("device-1").getModel(), "Nexus 5");
+
+        // the new record is live for a whole timeout again.
+        cache.time += TIMEOUT_MILLIS;
+        Assert.assertNotNull(cache.get("device-1"));
+    }
+
+    private static MobileDevice newMobileDevice(String mblDeviceId, String model) {
+        MobileDevice mobileDevice = new MobileDevice();
+        mobileDevice.setMobileDeviceId(mblDeviceId);
+        mobileDevice.setModel(model);
+        mobileDevice.getDeviceProperties().put(AndroidPluginConstants.FCM_TOKEN, "token-1");
+        mobileDevice.getDeviceProperties().put(AndroidPluginConstants.MAC_ADDRESS, "00:11:22:33:44:55");
+        return mobileDevice;
+    }
+
+    /**
+     * Expires the records against a time set by the test.
+     */
+    private static class ManualClockCache extends MobileDeviceCache {
+        private long time = 1490000000000L;
+
+        ManualClockCache(int capacity, long timeoutMillis) {
+            super(capacity, timeoutMillis);
+        }
+
+        @Override
+        long currentTimeMillis() {
+            return time;
+        }
+    }
+}
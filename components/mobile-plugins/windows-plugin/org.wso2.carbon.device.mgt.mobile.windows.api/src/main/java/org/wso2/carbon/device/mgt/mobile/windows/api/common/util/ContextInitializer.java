@@ -19,6 +19,7 @@
 package org.wso2.carbon.device.mgt.mobile.windows.api.common.util;
 
 import org.wso2.carbon.device.mgt.mobile.windows.api.common.PluginConstants;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.SyncmlGenerator;
 
 import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
@@ -46,6 +47,7 @@ public class ContextInitializer implements ServletContextListener {
 
     @Override
     public void contextDestroyed(ServletContextEvent servletContextEvent) {
+        SyncmlGenerator.clearPools();
     }
 
 }
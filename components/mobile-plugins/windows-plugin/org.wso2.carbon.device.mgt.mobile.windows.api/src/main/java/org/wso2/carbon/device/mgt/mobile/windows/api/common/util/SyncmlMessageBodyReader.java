@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.common.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.mobile.windows.api.common.PluginConstants;
+import org.wso2.carbon.device.mgt.mobile.windows.api.common.exceptions.SyncmlMessageFormatException;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlDocument;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.SyncmlParser;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Class for parse SyncML messages, which reads the request payload straight into a {@link SyncmlDocument} so that
+ * each request is parsed once.
+ */
+@Provider
+@Consumes({PluginConstants.SYNCML_MEDIA_TYPE, MediaType.APPLICATION_XML})
+public class SyncmlMessageBodyReader implements MessageBodyReader<SyncmlDocument> {
+
+    private static final Log log = LogFactory.getLog(SyncmlMessageBodyReader.class);
+
+    public boolean isReadable(Class<?> aClass, Type type, Annotation[] annotations, MediaType mediaType) {
+        return SyncmlDocument.class.equals(aClass);
+    }
+
+    public SyncmlDocument readFrom(Class<SyncmlDocument> syncmlDocumentClass, Type type, Annotation[] annotations,
+                                   MediaType mediaType, MultivaluedMap<String, String> stringStringMultivaluedMap,
+                                   InputStream entityStream) throws IOException, WebApplicationException {
+        try {
+            return SyncmlParser.parseSyncmlPayload(entityStream);
+        } catch (SyncmlMessageFormatException e) {
+            String msg = "Error occurred while parsing syncml request.";
+            log.error(msg, e);
+            throw new WebApplicationException(e, Response.status(Response.Status.BAD_REQUEST).entity(msg).build());
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.common.util;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.wso2.carbon.device.mgt.mobile.windows.api.common.PluginConstants;
+import org.wso2.carbon.device.mgt.mobile.windows.api.common.exceptions.WAPProvisioningException;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * wap-provisioning.xml compiled into the fixed parts of its serialized form and the slots filled in for each device.
+ * The file is parsed and serialized once, with a marker in each slot, and a device's wap-provisioning document is
+ * built by joining the fixed parts with the escaped values of the slots. This gives the same document as filling in
+ * the parsed file and serializing it. A file is compiled again once its last modified time changes, so that an edited
+ * file is picked up without a restart as it was when the file was parsed for every enrollment.
+ */
+public class WapProvisioningTemplate {
+
+    /**
+     * Values of the wap-provisioning document which are filled in for each device.
+     */
+    public enum Slot {
+        CA_CERTIFICATE_FINGERPRINT,
+        CA_CERTIFICATE,
+        SIGNED_CERTIFICATE_FINGERPRINT,
+        SIGNED_CERTIFICATE,
+        DOMAIN,
+        SYNCML_PROVISIONING_ADDR,
+        APPAUTH_USERNAME,
+        APPAUTH_PASSWORD,
+        POLLING_FREQUENCY
+    }
+
+    private static final ConcurrentHashMap<String, WapProvisioningTemplate> templates = new ConcurrentHashMap<>();
+    private static volatile EncodedCertificate caCertificate;
+
+    private final long lastModified;
+    private final String[] fragments;
+    private final Slot[] slots;
+    private final int length;
+
+    private WapProvisioningTemplate(long lastModified, String[] fragments, Slot[] slots) {
+        this.lastModified = lastModified;
+        this.fragments = fragments;
+        this.slots = slots;
+        int length = 0;
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        this.length = length;
+    }
+
+    /**
+     * Returns the compiled form of a wap-provisioning file, compiling it on first use and after it is modified.
+     *
+     * @param wapProvisioningFilePath - File path of wap-provisioning file
+     * @return - compiled wap-provisioning file
+     * @throws WAPProvisioningException if the file cannot be read or does not have the expected parameters.
+     */
+    public static WapProvisioningTemplate getTemplate(String wapProvisioningFilePath)
+            throws WAPProvisioningException {
+        long lastModified = new File(wapProvisioningFilePath).lastModified();
+        WapProvisioningTemplate template = templates.get(wapProvisioningFilePath);
+        if (template == null || template.lastModified != lastModified) {
+            // concurrent compilations of the same file give the same template, so the last one is kept.
+            template = compile(wapProvisioningFilePath, lastModified);
+            templates.put(wapProvisioningFilePath, template);
+        }
+        return template;
+    }
+
+    /**
+     * Returns the encoded form of the CA certificate, which is kept until the CA certificate changes.
+     *
+     * @param certificate - CA certificate
+     * @return - encoded CA certificate
+     * @throws CertificateEncodingException
+     */
+    public static EncodedCertificate encodeCACertificate(X509Certificate certificate)
+            throws CertificateEncodingException {
+        EncodedCertificate encodedCertificate = caCertificate;
+        if (encodedCertificate == null || !encodedCertificate.certificate.equals(certificate)) {
+            encodedCertificate = new EncodedCertificate(certificate);
+            caCertificate = encodedCertificate;
+        }
+        return encodedCertificate;
+    }
+
+    /**
+     * Builds the wap-provisioning document of a device.
+     *
+     * @param values - values of the slots, where a missing value leaves the slot empty
+     * @return - wap-provisioning document
+     */
+    public String render(Map<Slot, String> values) {
+        StringBuilder builder = new StringBuilder(length + 4096);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(fragments[i]);
+            appendAttributeValue(builder, values.get(slots[i]));
+        }
+        builder.append(fragments[slots.length]);
+        return builder.toString();
+    }
+
+    private static WapProvisioningTemplate compile(String wapProvisioningFilePath, long lastModified)
+            throws WAPProvisioningException {
+        String provisioningXmlString;
+        try {
+            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+            domFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            Document document = domFactory.newDocumentBuilder().parse(wapProvisioningFilePath);
+            NodeList wapParm = document.getElementsByTagName(PluginConstants.CertificateEnrolment.PARM);
+
+            Node caCertificatePosition = wapParm.item(PluginConstants.CertificateEnrolment.CA_CERTIFICATE_POSITION);
+            setMarker(caCertificatePosition.getParentNode(), PluginConstants.CertificateEnrolment.TYPE,
+                    Slot.CA_CERTIFICATE_FINGERPRINT);
+            setMarker(caCertificatePosition, PluginConstants.CertificateEnrolment.VALUE, Slot.CA_CERTIFICATE);
+
+            Node signedCertificatePosition = wapParm.item(PluginConstants.CertificateEnrolment.
+                    SIGNED_CERTIFICATE_POSITION);
+            setMarker(signedCertificatePosition.getParentNode(), PluginConstants.CertificateEnrolment.TYPE,
+                    Slot.SIGNED_CERTIFICATE_FINGERPRINT);
+            setMarker(signedCertificatePosition, PluginConstants.CertificateEnrolment.VALUE,
+                    Slot.SIGNED_CERTIFICATE);
+
+            setMarker(wapParm.item(PluginConstants.CertificateEnrolment.DOMAIN_POSITION),
+                    PluginConstants.CertificateEnrolment.VALUE, Slot.DOMAIN);
+            setMarker(wapParm.item(PluginConstants.CertificateEnrolment.SYNCML_PROVISIONING_ADDR_POSITION),
+                    PluginConstants.CertificateEnrolment.VALUE, Slot.SYNCML_PROVISIONING_ADDR);
+            setMarker(wapParm.item(PluginConstants.CertificateEnrolment.APPAUTH_USERNAME_POSITION),
+                    PluginConstants.CertificateEnrolment.VALUE, Slot.APPAUTH_USERNAME);
+            setMarker(wapParm.item(PluginConstants.CertificateEnrolment.APPAUTH_PASSWORD_POSITION),
+                    PluginConstants.CertificateEnrolment.VALUE, Slot.APPAUTH_PASSWORD);
+            setMarker(wapParm.item(PluginConstants.CertificateEnrolment.POLLING_FREQUENCY_POSITION),
+                    PluginConstants.CertificateEnrolment.VALUE, Slot.POLLING_FREQUENCY);
+
+            StringWriter stringWriter = new StringWriter();
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.transform(new DOMSource(document), new StreamResult(stringWriter));
+            provisioningXmlString = stringWriter.toString();
+        } catch (ParserConfigurationException e) {
+            throw new WAPProvisioningException("Problem occurred while creating configuration request", e);
+        } catch (SAXException e) {
+            throw new WAPProvisioningException("Error occurred while parsing wap-provisioning.xml file.", e);
+        } catch (TransformerException e) {
+            throw new WAPProvisioningException("Error occurred while transforming wap-provisioning.xml file.", e);
+        } catch (IOException e) {
+            throw new WAPProvisioningException("Error occurred while getting wap-provisioning.xml file.", e);
+        }
+
+        TreeMap<Integer, Slot> slotPositions = new TreeMap<>();
+        for (Slot slot : Slot.values()) {
+            String marker = getMarker(slot);
+            int position = provisioningXmlString.indexOf(marker);
+            if (position < 0 || provisioningXmlString.indexOf(marker, position + 1) >= 0) {
+                throw new WAPProvisioningException("Slot " + slot + " of wap-provisioning.xml file cannot be " +
+                        "located.");
+            }
+            slotPositions.put(position, slot);
+        }
+        String[] fragments = new String[slotPositions.size() + 1];
+        Slot[] slots = new Slot[slotPositions.size()];
+        int start = 0;
+        int i = 0;
+        for (Map.Entry<Integer, Slot> slotPosition : slotPositions.entrySet()) {
+            fragments[i] = provisioningXmlString.substring(start, slotPosition.getKey());
+            slots[i] = slotPosition.getValue();
+            start = slotPosition.getKey() + getMarker(slotPosition.getValue()).length();
+            i++;
+        }
+        fragments[i] = provisioningXmlString.substring(start);
+        return new WapProvisioningTemplate(lastModified, fragments, slots);
+    }
+
+    private static void setMarker(Node node, String attributeName, Slot slot) {
+        node.getAttributes().getNamedItem(attributeName).setTextContent(getMarker(slot));
+    }
+
+    private static String getMarker(Slot slot) {
+        return "${" + slot.name() + "}";
+    }
+
+    /**
+     * Escapes an attribute value the way the XML serializer of the JDK does.
+     */
+    private static void appendAttributeValue(StringBuilder builder, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("&quot;");
+                    break;
+                case '&':
+                    builder.append("&amp;");
+                    break;
+                case '<':
+                    builder.append("&lt;");
+                    break;
+                case '>':
+                    builder.append("&gt;");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append("&#").append((int) c).append(';');
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length() &&
+                            Character.isLowSurrogate(value.charAt(i + 1))) {
+                        builder.append("&#").append(value.codePointAt(i)).append(';');
+                        i++;
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+    }
+
+    /**
+     * Base64 form and SHA1 fingerprint of a certificate, as written into the wap-provisioning document.
+     */
+    public static class EncodedCertificate {
+
+        private final X509Certificate certificate;
+        private final String encoded;
+        private final String fingerprint;
+
+        public EncodedCertificate(X509Certificate certificate) throws CertificateEncodingException {
+            byte[] encodedCertificate = certificate.getEncoded();
+            this.certificate = certificate;
+            this.encoded = new Base64().encodeAsString(encodedCertificate).replaceAll("\n", "");
+            this.fingerprint = String.valueOf(DigestUtils.sha1Hex(encodedCertificate)).toUpperCase();
+        }
+
+        /**
+         * @return - base64 encoded certificate, without line breaks
+         */
+        public String getEncoded() {
+            return encoded;
+        }
+
+        /**
+         * @return - upper case SHA1 fingerprint of the certificate
+         */
+        public String getFingerprint() {
+            return fingerprint;
+        }
+    }
+}
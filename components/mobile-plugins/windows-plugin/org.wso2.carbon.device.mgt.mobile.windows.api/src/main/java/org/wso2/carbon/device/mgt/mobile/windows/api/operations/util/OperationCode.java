@@ -18,6 +18,9 @@
 
 package org.wso2.carbon.device.mgt.mobile.windows.api.operations.util;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Maps operation codes to device specific format.
  */
@@ -57,6 +60,19 @@ public class OperationCode {
         LONGITUDE("./Vendor/MSFT/RemoteFind/Location/Longitude"),
         LATITUDE("./Vendor/MSFT/RemoteFind/Location/Latitude"),
         TEST("./Vendor/MSFT/DiagnosticLog/EtwLog/Collectors");
+
+        private static final Map<String, Info> INFO_BY_NAME = new HashMap<>();
+        private static final Map<String, Info> INFO_BY_CODE = new HashMap<>();
+
+        static {
+            for (Info info : values()) {
+                INFO_BY_NAME.put(info.name(), info);
+                if (!INFO_BY_CODE.containsKey(info.code)) {
+                    INFO_BY_CODE.put(info.code, info);
+                }
+            }
+        }
+
         private final String code;
 
         Info(String code) {
@@ -67,6 +83,22 @@ public class OperationCode {
             return this.code;
         }
 
+        /**
+         * @param name operation code.
+         * @return the entry of the operation code, or null if there is none.
+         */
+        public static Info forName(String name) {
+            return INFO_BY_NAME.get(name);
+        }
+
+        /**
+         * @param code OMA-URI reported by the device.
+         * @return the entry of the OMA-URI, or null if there is none.
+         */
+        public static Info forCode(String code) {
+            return INFO_BY_CODE.get(code);
+        }
+
     }
 
     public static enum Command {
@@ -96,6 +128,14 @@ public class OperationCode {
         TEST("./Vendor/MSFT/DiagnosticLog/EtwLog/Collectors"),
         DEVICE_REBOOT("./Vendor/MSFT/Reboot/RebootNow");
 
+        private static final Map<String, Command> COMMAND_BY_NAME = new HashMap<>();
+
+        static {
+            for (Command command : values()) {
+                COMMAND_BY_NAME.put(command.name(), command);
+            }
+        }
+
         private final String code;
 
         Command(String code) {
@@ -106,6 +146,14 @@ public class OperationCode {
             return this.code;
         }
 
+        /**
+         * @param name operation code.
+         * @return the entry of the operation code, or null if there is none.
+         */
+        public static Command forName(String name) {
+            return COMMAND_BY_NAME.get(name);
+        }
+
     }
 
     public static enum Configure {
@@ -124,6 +172,13 @@ public class OperationCode {
         MAX_PASSWORD_INACTIVE_TIME("./Vendor/MSFT/DeviceLock/Provider/TestMDMServer/MaxInactivityTimeDeviceLock"),
         MIN_PASSWORD_COMPLEX_CHARACTERS("./Vendor/MSFT/DeviceLock/Provider/TestMDMServer/MinDevicePasswordComplexCharacters");
 
+        private static final Map<String, Configure> CONFIGURE_BY_NAME = new HashMap<>();
+
+        static {
+            for (Configure configure : values()) {
+                CONFIGURE_BY_NAME.put(configure.name(), configure);
+            }
+        }
 
         private final String code;
 
@@ -135,5 +190,13 @@ public class OperationCode {
             return this.code;
         }
 
+        /**
+         * @param name operation code.
+         * @return the entry of the operation code, or null if there is none.
+         */
+        public static Configure forName(String name) {
+            return CONFIGURE_BY_NAME.get(name);
+        }
+
     }
 }
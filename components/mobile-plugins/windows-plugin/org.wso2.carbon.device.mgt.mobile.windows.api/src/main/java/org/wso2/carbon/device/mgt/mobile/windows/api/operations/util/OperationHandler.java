@@ -24,7 +24,6 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
-import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.device.details.DeviceInfo;
 import org.wso2.carbon.device.mgt.common.device.details.DeviceLocation;
 import org.wso2.carbon.device.mgt.common.notification.mgt.Notification;
@@ -43,7 +42,9 @@ import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.ComplianceFeature;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceException;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.wso2.carbon.device.mgt.mobile.windows.api.common.util.WindowsAPIUtils.convertToDeviceIdentifierObject;
 
@@ -54,21 +55,30 @@ public class OperationHandler {
     private static Log log = LogFactory.getLog(
             org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.OperationHandler.class);
 
+    private static final Map<OperationCode.Info, ComplianceStatus> COMPLIANCE_STATUSES =
+            new EnumMap<>(OperationCode.Info.class);
+
+    static {
+        COMPLIANCE_STATUSES.put(OperationCode.Info.CAMERA_STATUS, new ComplianceStatus(
+                PluginConstants.OperationCodes.CAMERA, PluginConstants.SyncML.SYNCML_DATA_ONE));
+        COMPLIANCE_STATUSES.put(OperationCode.Info.ENCRYPT_STORAGE_STATUS, new ComplianceStatus(
+                PluginConstants.OperationCodes.ENCRYPT_STORAGE, PluginConstants.SyncML.SYNCML_DATA_ONE));
+        COMPLIANCE_STATUSES.put(OperationCode.Info.DEVICE_PASSWORD_STATUS, new ComplianceStatus(
+                PluginConstants.OperationCodes.PASSCODE_POLICY, PluginConstants.SyncML.SYNCML_DATA_ZERO));
+    }
 
     /**
      * Update the operations using device status payload.
      *
      * @param status           Client side status for the specific operations.
-     * @param syncmlDocument   syncml payload for operation status which parse through  the syncml engine.
+     * @param snapshot         pending operations of the device.
      * @param deviceIdentifier specific device identifier for each device.
      * @throws OperationManagementException
      */
-    public void updateDeviceOperations(StatusTag status, SyncmlDocument syncmlDocument,
+    public void updateDeviceOperations(StatusTag status, PendingOperationSnapshot snapshot,
                                        DeviceIdentifier deviceIdentifier) throws OperationManagementException {
-        List<? extends Operation> pendingDataOperations;
+        List<Operation> pendingDataOperations = snapshot.getPendingOperations();
         try {
-            pendingDataOperations = WindowsAPIUtils.getPendingOperations(deviceIdentifier);
-
             if (Constants.SyncMLResponseCodes.ACCEPTED.equals(status.getData()) ||
                     (Constants.SyncMLResponseCodes.ACCEPTED_FOR_PROCESSING.equals(status.getData()))) {
                 for (Operation operation : pendingDataOperations) {
@@ -76,17 +86,11 @@ public class OperationHandler {
                         operation.setStatus(Operation.Status.COMPLETED);
                     }
                 }
-                if (syncmlDocument.getHeader().getSource().getLocURI() != null) {
-                    updateStatus(syncmlDocument.getHeader().getSource().getLocURI(), pendingDataOperations);
-                }
             } else if (Constants.SyncMLResponseCodes.PIN_NOTFOUND.equals(status.getData())) {
                 for (Operation operation : pendingDataOperations) {
                     if (operation.getId() == status.getCommandReference() &&
                             (PluginConstants.OperationCodes.DEVICE_LOCK.equals(operation.getCode()))) {
                         operation.setStatus(Operation.Status.ERROR);
-                        if (syncmlDocument.getHeader().getSource().getLocURI() != null) {
-                            updateStatus(syncmlDocument.getHeader().getSource().getLocURI(), pendingDataOperations);
-                        }
                         NotificationManagementService nmService = WindowsAPIUtils.getNotificationManagementService();
                         Notification lockResetNotification = new Notification();
                         lockResetNotification.setOperationId(status.getCommandReference());
@@ -98,49 +102,28 @@ public class OperationHandler {
                     }
                 }
             }
-        } catch (DeviceManagementException e) {
-            throw new OperationManagementException("Error occurred in getting pending operations.");
         } catch (NotificationManagementException e) {
             throw new OperationManagementException("Error occurred while adding notification", e);
         }
     }
 
-    /**
-     * Update operation statuses.
-     *
-     * @param deviceId   specific device Id.
-     * @param operations operation list to be update.
-     * @throws OperationManagementException
-     */
-    public static void updateStatus(String deviceId, List<? extends Operation> operations)
-            throws OperationManagementException {
-        for (Operation operation : operations) {
-            WindowsAPIUtils.updateOperation(deviceId, operation);
-            if (log.isDebugEnabled()) {
-                log.debug("Updating operation '" + operation.toString() + "'");
-            }
-        }
-    }
-
     /**
      * Update Status of the lock operation.
      *
      * @param status           Status of the operation.
-     * @param syncmlDocument   parsed syncml payload.
+     * @param snapshot         pending operations of the device.
      * @param deviceIdentifier Device Id.
      * @throws OperationManagementException
      */
-    public void updateLockOperation(StatusTag status, SyncmlDocument syncmlDocument, DeviceIdentifier deviceIdentifier)
-            throws OperationManagementException {
-        List<? extends Operation> pendingDataOperations;
+    public void updateLockOperation(StatusTag status, PendingOperationSnapshot snapshot,
+                                    DeviceIdentifier deviceIdentifier) throws OperationManagementException {
+        List<Operation> pendingDataOperations = snapshot.getPendingOperations();
         try {
-            pendingDataOperations = WindowsAPIUtils.getPendingOperations(deviceIdentifier);
             if (Constants.SyncMLResponseCodes.ACCEPTED.equals(status.getData())) {
                 for (Operation operation : pendingDataOperations) {
                     if ((OperationCode.Command.DEVICE_LOCK.getCode().equals(operation.getCode()))
                             && operation.getId() == status.getCommandReference()) {
                         operation.setStatus(Operation.Status.COMPLETED);
-                        updateStatus(syncmlDocument.getHeader().getSource().getLocURI(), pendingDataOperations);
                     }
                 }
             }
@@ -150,7 +133,6 @@ public class OperationHandler {
                     if ((OperationCode.Command.DEVICE_LOCK.getCode().equals(operation.getCode()) &&
                             operation.getId() == status.getCommandReference())) {
                         operation.setStatus(Operation.Status.ERROR);
-                        updateStatus(syncmlDocument.getHeader().getSource().getLocURI(), pendingDataOperations);
 
                         NotificationManagementService nmService = WindowsAPIUtils.getNotificationManagementService();
                         Notification lockResetNotification = new Notification();
@@ -162,8 +144,6 @@ public class OperationHandler {
                     }
                 }
             }
-        } catch (DeviceManagementException e) {
-            throw new OperationManagementException("Error occurred in getting pending operations.");
         } catch (NotificationManagementException e) {
             throw new OperationManagementException("Error occurred in adding notifications.");
         }
@@ -173,27 +153,17 @@ public class OperationHandler {
      * Update status of the ring operation.
      *
      * @param status           Ring status of the device.
-     * @param syncmlDocument   Parsed syncml payload from the syncml engine.
+     * @param snapshot         pending operations of the device.
      * @param deviceIdentifier specific device id to be update.
-     * @throws OperationManagementException
      */
-    public void ring(StatusTag status, SyncmlDocument syncmlDocument, DeviceIdentifier deviceIdentifier)
-            throws OperationManagementException {
-        List<? extends Operation> pendingDataOperations;
-        try {
-            if ((Constants.SyncMLResponseCodes.ACCEPTED.equals(status.getData()))) {
-                pendingDataOperations = WindowsAPIUtils.getPendingOperations(deviceIdentifier);
-                for (Operation operation : pendingDataOperations) {
-                    if ((OperationCode.Command.DEVICE_RING.getCode().equals(operation.getCode())) &&
-                            (operation.getId() == status.getCommandReference())) {
-                        operation.setStatus(Operation.Status.COMPLETED);
-                        updateStatus(syncmlDocument.getHeader().getSource().getLocURI(),
-                                pendingDataOperations);
-                    }
+    public void ring(StatusTag status, PendingOperationSnapshot snapshot, DeviceIdentifier deviceIdentifier) {
+        if ((Constants.SyncMLResponseCodes.ACCEPTED.equals(status.getData()))) {
+            for (Operation operation : snapshot.getPendingOperations()) {
+                if ((OperationCode.Command.DEVICE_RING.getCode().equals(operation.getCode())) &&
+                        (operation.getId() == status.getCommandReference())) {
+                    operation.setStatus(Operation.Status.COMPLETED);
                 }
             }
-        } catch (DeviceManagementException e) {
-            throw new OperationManagementException("Error occurred in getting pending operation.");
         }
     }
 
@@ -201,57 +171,32 @@ public class OperationHandler {
      * Update the status of the DataWipe operation.
      *
      * @param status           Status of the data wipe.
-     * @param syncmlDocument   Parsed syncml payload from the syncml engine.
+     * @param snapshot         pending operations of the device.
      * @param deviceIdentifier specific device id to be wiped.
-     * @throws OperationManagementException
      */
-    public void dataWipe(StatusTag status, SyncmlDocument syncmlDocument, DeviceIdentifier deviceIdentifier)
-            throws OperationManagementException {
-        List<? extends Operation> pendingDataOperations;
+    public void dataWipe(StatusTag status, PendingOperationSnapshot snapshot, DeviceIdentifier deviceIdentifier) {
         if ((Constants.SyncMLResponseCodes.ACCEPTED.equals(status.getData()))) {
-            try {
-                pendingDataOperations = WindowsAPIUtils.getPendingOperations(deviceIdentifier);
-            } catch (DeviceManagementException e) {
-                throw new OperationManagementException("Error occurred in getting pending operation.");
-            }
-            for (Operation operation : pendingDataOperations) {
+            for (Operation operation : snapshot.getPendingOperations()) {
 
                 if ((OperationCode.Command.WIPE_DATA.getCode().equals(operation.getCode())) &&
                         (operation.getId() == status.getCommandReference())) {
                     operation.setStatus(Operation.Status.COMPLETED);
-                    updateStatus(syncmlDocument.getHeader().getSource().getLocURI(),
-                            pendingDataOperations);
                 }
             }
         }
     }
 
 
-    public void updateDeviceInfoStatus(DeviceIdentifier deviceIdentifier) throws OperationManagementException {
-        List<? extends Operation> pendingDeviceInfoOperations;
-        try {
-            pendingDeviceInfoOperations = WindowsAPIUtils.getPendingOperations(deviceIdentifier);
-        } catch (DeviceManagementException e) {
-            throw new OperationManagementException("Error occurred while getting pending operations.");
-        }
-        for (Operation operation : pendingDeviceInfoOperations) {
+    public void updateDeviceInfoStatus(PendingOperationSnapshot snapshot) {
+        for (Operation operation : snapshot.getPendingOperations()) {
             if (PluginConstants.OperationCodes.DEVICE_INFO.equals(operation.getCode())) {
                 operation.setStatus(Operation.Status.COMPLETED);
-                updateStatus(deviceIdentifier.getId(), pendingDeviceInfoOperations);
             }
         }
     }
 
-    public void updateDeviceLocationStatus(SyncmlDocument syncmlDocument) throws OperationManagementException {
-        List<? extends Operation> pendingDataOperations;
-        DeviceIdentifier deviceIdentifier = convertToDeviceIdentifierObject(
-                syncmlDocument.getHeader().getSource().getLocURI());
-        try {
-            pendingDataOperations = WindowsAPIUtils.getPendingOperations(deviceIdentifier);
-        } catch (DeviceManagementException e) {
-            throw new OperationManagementException("Error occurred in getting pending operation.");
-        }
-        for (Operation operation : pendingDataOperations) {
+    public void updateDeviceLocationStatus(SyncmlDocument syncmlDocument, PendingOperationSnapshot snapshot) {
+        for (Operation operation : snapshot.getPendingOperations()) {
             if (PluginConstants.OperationCodes.DEVICE_LOCATION.equals(operation.getCode())) {
                 if (syncmlDocument.getBody().getResults() != null) {
                     List<ItemTag> items = syncmlDocument.getBody().getResults().getItem();
@@ -266,8 +211,6 @@ public class OperationHandler {
                         }
                     }
                 }
-                updateStatus(syncmlDocument.getHeader().getSource().getLocURI(),
-                        pendingDataOperations);
             }
         }
     }
@@ -285,18 +228,22 @@ public class OperationHandler {
         SyncmlBody syncmlBody = syncmlDocument.getBody();
         List<? extends Operation> pendingOperations;
         DeviceIdentifier deviceIdentifier = convertToDeviceIdentifierObject(syncmlHeader.getSource().getLocURI());
+        // the status updates of the message are applied to a single read of the pending operations, and the
+        // operations whose status changed are written once all of them are applied.
+        PendingOperationSnapshot snapshot = PendingOperationSnapshot.load(deviceIdentifier);
         if (syncmlBody.getResults() != null) {
             List<ItemTag> items = syncmlBody.getResults().getItem();
             for (ItemTag itemTag : items) {
                 if (OperationCode.Command.LATITUDE.getCode().equals(itemTag.getSource().getLocURI())) {
-                    updateLocation(syncmlDocument);
+                    updateLocation(syncmlDocument, snapshot);
                 }
                 if (OperationCode.Command.TOTAL_RAM.getCode().equals(itemTag.getSource().getLocURI())) {
-                    updateDeviceInfo(syncmlDocument);
+                    updateDeviceInfo(syncmlDocument, snapshot);
                 }
             }
         }
-        UpdateUriOperations(syncmlDocument);
+        UpdateUriOperations(syncmlDocument, snapshot);
+        snapshot.flush();
         generateComplianceFeatureStatus(syncmlDocument);
         pendingOperations = WindowsAPIUtils.getDeviceManagementService().getPendingOperations(deviceIdentifier);
         return pendingOperations;
@@ -321,40 +268,35 @@ public class OperationHandler {
      * Update the completed/Error status of the operation which have the URI of the operation code in the syncml payload.
      *
      * @param syncmlDocument SyncmlDocument object generated from the the syncml engine.
+     * @param snapshot       pending operations of the device.
      * @throws OperationManagementException
      */
-    public void UpdateUriOperations(SyncmlDocument syncmlDocument) throws OperationManagementException,
-            WindowsOperationException {
-        List<? extends Operation> pendingDataOperations;
+    public void UpdateUriOperations(SyncmlDocument syncmlDocument, PendingOperationSnapshot snapshot)
+            throws OperationManagementException, WindowsOperationException {
         DeviceIdentifier deviceIdentifier = convertToDeviceIdentifierObject(
                 syncmlDocument.getHeader().getSource().getLocURI());
 
         List<StatusTag> statuses = syncmlDocument.getBody().getStatus();
-        try {
-            pendingDataOperations = WindowsAPIUtils.getPendingOperations(deviceIdentifier);
-        } catch (DeviceManagementException e) {
-            throw new OperationManagementException("Error occurred in getting pending operation.");
-        }
         for (StatusTag status : statuses) {
 
             if ((Constants.EXECUTE.equals(status.getCommand()))) {
                 if (status.getTargetReference() == null) {
-                    updateDeviceOperations(status, syncmlDocument, deviceIdentifier);
+                    updateDeviceOperations(status, snapshot, deviceIdentifier);
                 } else {
                     if ((OperationCode.Command.DEVICE_LOCK.getCode().equals(status.getTargetReference()))) {
-                        updateLockOperation(status, syncmlDocument, deviceIdentifier);
+                        updateLockOperation(status, snapshot, deviceIdentifier);
                     }
                     if ((OperationCode.Command.DEVICE_RING.getCode().equals(status.getTargetReference()))) {
-                        ring(status, syncmlDocument, deviceIdentifier);
+                        ring(status, snapshot, deviceIdentifier);
                     }
                     if ((OperationCode.Command.WIPE_DATA.getCode().equals(status.getTargetReference()))) {
-                        dataWipe(status, syncmlDocument, deviceIdentifier);
+                        dataWipe(status, snapshot, deviceIdentifier);
                     }
                 }
             }
             if ((Constants.SEQUENCE.equals(status.getCommand()))) {
                 if ((Constants.SyncMLResponseCodes.ACCEPTED.equals(status.getData()))) {
-                    for (Operation operation : pendingDataOperations) {
+                    for (Operation operation : snapshot.getPendingOperations()) {
                         if ((PluginConstants.OperationCodes.POLICY_BUNDLE.equals(operation.getCode())) &&
                                 operation.getId() == status.getCommandReference()) {
                             operation.setStatus(Operation.Status.COMPLETED);
@@ -367,10 +309,8 @@ public class OperationHandler {
                             operation.setStatus(Operation.Status.COMPLETED);
                         }
                     }
-                    updateStatus(syncmlDocument.getHeader().getSource().getLocURI(),
-                            pendingDataOperations);
                 } else {
-                    for (Operation operation : pendingDataOperations) {
+                    for (Operation operation : snapshot.getPendingOperations()) {
 
                         if ((PluginConstants.OperationCodes.POLICY_BUNDLE.equals(operation.getCode())) &&
                                 operation.getId() == status.getCommandReference()) {
@@ -384,8 +324,6 @@ public class OperationHandler {
                             operation.setStatus(Operation.Status.COMPLETED);
                         }
                     }
-                    updateStatus(syncmlDocument.getHeader().getSource().getLocURI(),
-                            pendingDataOperations);
                 }
             }
         }
@@ -403,70 +341,30 @@ public class OperationHandler {
 
         DeviceIdentifier deviceIdentifier = convertToDeviceIdentifierObject(
                 syncmlDocument.getHeader().getSource().getLocURI());
-        String lockUri = null;
+        String lockUri = OperationCode.Info.forName(PluginConstants.OperationCodes.PIN_CODE).getCode();
         ResultsTag result = syncmlDocument.getBody().getResults();
 
         List<Profile> profiles = new ArrayList<>();
         if (result != null) {
             List<ItemTag> results = result.getItem();
-            for (OperationCode.Info info : OperationCode.Info.values()) {
-                if (PluginConstants.OperationCodes.PIN_CODE.equals(info
-                        .name())) {
-                    lockUri = info.getCode();
-                }
-            }
             for (ItemTag item : results) {
-                for (OperationCode.Info info : OperationCode.Info.values()) {
-                    if (item.getSource().getLocURI().equals(info.getCode()) &&
-                            PluginConstants.OperationCodes.CAMERA_STATUS.equals(info.name())) {
-                        Profile cameraProfile = new Profile();
-                        cameraProfile.setFeatureCode(PluginConstants.OperationCodes.CAMERA);
-                        cameraProfile.setData(item.getData());
-                        if ((PluginConstants.SyncML.SYNCML_DATA_ONE.equals(item.getData()))) {
-                            cameraProfile.setEnable(true);
-                        } else {
-                            cameraProfile.setEnable(false);
-                        }
-                        profiles.add(cameraProfile);
-                    }
-                    if (item.getSource().getLocURI().equals(info.getCode()) &&
-                            PluginConstants.OperationCodes.ENCRYPT_STORAGE_STATUS.equals(info.name())) {
-                        Profile encryptStorage = new Profile();
-                        encryptStorage.setFeatureCode(PluginConstants.OperationCodes.ENCRYPT_STORAGE);
-                        encryptStorage.setData(item.getData());
-                        if ((PluginConstants.SyncML.SYNCML_DATA_ONE.equals(item.getData()))) {
-                            encryptStorage.setEnable(true);
-                        } else {
-                            encryptStorage.setEnable(false);
-                        }
-                        profiles.add(encryptStorage);
-                    }
-                    if (item.getSource().getLocURI().equals(info.getCode()) &&
-                            PluginConstants.OperationCodes.DEVICE_PASSWORD_STATUS.equals(info.name())) {
-                        Profile encryptStorage = new Profile();
-                        encryptStorage.setFeatureCode(PluginConstants.OperationCodes.PASSCODE_POLICY);
-                        encryptStorage.setData(item.getData());
-                        if ((PluginConstants.SyncML.SYNCML_DATA_ZERO.equals(item.getData()))) {
-                            encryptStorage.setEnable(true);
-                        } else {
-                            encryptStorage.setEnable(false);
-                        }
-                        profiles.add(encryptStorage);
-                    }
-                    if (!item.getData().isEmpty() && item.getSource().getLocURI().equals(lockUri)) {
-                        String pinValue = item.getData();
-                        NotificationManagementService nmService = WindowsAPIUtils.getNotificationManagementService();
-                        Notification notification = new Notification();
-                        notification.setDescription("Auto generated DevicePin : " + pinValue);
-                        notification.setOperationId(result.getCommandReference());
-                        notification.setStatus(String.valueOf(Notification.Status.NEW));
-                        try {
-                            nmService.addNotification(deviceIdentifier, notification);
-                        } catch (NotificationManagementException e) {
-                            throw new WindowsOperationException("Failure Occurred while getting notification" +
-                                    " service.", e);
-                        }
-                        break;
+                String source = item.getSource().getLocURI();
+                ComplianceStatus complianceStatus = COMPLIANCE_STATUSES.get(OperationCode.Info.forCode(source));
+                if (complianceStatus != null) {
+                    profiles.add(complianceStatus.toProfile(item));
+                }
+                if (lockUri.equals(source) && !item.getData().isEmpty()) {
+                    String pinValue = item.getData();
+                    NotificationManagementService nmService = WindowsAPIUtils.getNotificationManagementService();
+                    Notification notification = new Notification();
+                    notification.setDescription("Auto generated DevicePin : " + pinValue);
+                    notification.setOperationId(result.getCommandReference());
+                    notification.setStatus(String.valueOf(Notification.Status.NEW));
+                    try {
+                        nmService.addNotification(deviceIdentifier, notification);
+                    } catch (NotificationManagementException e) {
+                        throw new WindowsOperationException("Failure Occurred while getting notification" +
+                                " service.", e);
                     }
                 }
             }
@@ -553,7 +451,8 @@ public class OperationHandler {
 
     }
 
-    public void updateDeviceInfo(SyncmlDocument syncmlDocument) throws WindowsOperationException {
+    public void updateDeviceInfo(SyncmlDocument syncmlDocument, PendingOperationSnapshot snapshot)
+            throws WindowsOperationException {
         String softwareVersion;
         String imsi;
         String imei;
@@ -602,15 +501,14 @@ public class OperationHandler {
         DeviceIdentifier deviceIdentifier = convertToDeviceIdentifierObject(deviceID);
         try {
             WindowsAPIUtils.updateDeviceInfo(deviceIdentifier, deviceInfo);
-            updateDeviceInfoStatus(deviceIdentifier);
+            updateDeviceInfoStatus(snapshot);
         } catch (org.wso2.carbon.device.mgt.core.device.details.mgt.DeviceDetailsMgtException e) {
             throw new WindowsOperationException("Error occurred while adding Device info.");
-        } catch (OperationManagementException e) {
-            throw new WindowsOperationException("Error occurred while updating Device info operation status.");
         }
     }
 
-    private void updateLocation(SyncmlDocument syncmlDocument) throws WindowsOperationException {
+    private void updateLocation(SyncmlDocument syncmlDocument, PendingOperationSnapshot snapshot)
+            throws WindowsOperationException {
         List<ItemTag> deviceInformations = syncmlDocument.getBody().getResults().getItem();
         DeviceIdentifier deviceIdentifier = convertToDeviceIdentifierObject(
                 syncmlDocument.getHeader().getSource().getLocURI());
@@ -630,12 +528,32 @@ public class OperationHandler {
         }
         try {
             WindowsAPIUtils.updateDeviceLocation(deviceLocation);
-            updateDeviceLocationStatus(syncmlDocument);
+            updateDeviceLocationStatus(syncmlDocument, snapshot);
         } catch (DeviceDetailsMgtException e) {
             throw new WindowsOperationException("Error occurred while updating Device Location.");
-        } catch (OperationManagementException e) {
-            throw new WindowsOperationException("Error occurred while updating Device Location operation status.");
         }
 
     }
+
+    /**
+     * Compliance of a feature, reported by the device through the status OMA-URI of the feature.
+     */
+    private static class ComplianceStatus {
+
+        private final String featureCode;
+        private final String enabledData;
+
+        private ComplianceStatus(String featureCode, String enabledData) {
+            this.featureCode = featureCode;
+            this.enabledData = enabledData;
+        }
+
+        private Profile toProfile(ItemTag item) {
+            Profile profile = new Profile();
+            profile.setFeatureCode(featureCode);
+            profile.setData(item.getData());
+            profile.setEnable(enabledData.equals(item.getData()));
+            return profile;
+        }
+    }
 }
@@ -36,7 +36,11 @@ import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
 import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.wso2.carbon.device.mgt.mobile.windows.api.common.util.WindowsAPIUtils.convertToDeviceIdentifierObject;
 import static org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.OperationCode.*;
@@ -56,9 +60,103 @@ public class OperationReply {
     private static final String REPLACE_COMMAND_TEXT = "Replace";
     private static final String GET_COMMAND_TEXT = "Get";
     private static final String EXEC_COMMAND_TEXT = "Exec";
+    private static final Map<String, CommandReplyBuilder> COMMAND_REPLY_BUILDERS;
+    private static final Map<Configure, PasscodePolicyBuilder> PASSCODE_POLICY_BUILDERS;
     private List<? extends Operation> operations;
     Gson gson = new Gson();
 
+    static {
+        Map<String, CommandReplyBuilder> commandReplyBuilders = new HashMap<>();
+        CommandReplyBuilder executeCommandBuilder = new CommandReplyBuilder() {
+            @Override
+            public void append(OperationReply reply, Operation operation, ReplyElements replyElements) {
+                replyElements.executes.add(reply.executeCommand(operation));
+            }
+        };
+        commandReplyBuilders.put(PluginConstants.OperationCodes.DEVICE_LOCK, executeCommandBuilder);
+        commandReplyBuilders.put(PluginConstants.OperationCodes.DEVICE_RING, executeCommandBuilder);
+        commandReplyBuilders.put(PluginConstants.OperationCodes.DISENROLL, executeCommandBuilder);
+        commandReplyBuilders.put(PluginConstants.OperationCodes.WIPE_DATA, executeCommandBuilder);
+        commandReplyBuilders.put(PluginConstants.OperationCodes.DEVICE_REBOOT, executeCommandBuilder);
+        commandReplyBuilders.put(PluginConstants.OperationCodes.LOCK_RESET, new CommandReplyBuilder() {
+            @Override
+            public void append(OperationReply reply, Operation operation, ReplyElements replyElements)
+                    throws JSONException, SyncmlOperationException {
+                replyElements.syncmlBody.setSequence(reply.buildSequence(operation, new SequenceTag()));
+            }
+        });
+        commandReplyBuilders.put(PluginConstants.OperationCodes.DEVICE_LOCATION, new CommandReplyBuilder() {
+            @Override
+            public void append(OperationReply reply, Operation operation, ReplyElements replyElements) {
+                reply.appendDeviceLocation(replyElements);
+            }
+        });
+        commandReplyBuilders.put(PluginConstants.OperationCodes.MONITOR, new CommandReplyBuilder() {
+            @Override
+            public void append(OperationReply reply, Operation operation, ReplyElements replyElements)
+                    throws SyncmlOperationException {
+                reply.appendMonitorSequence(operation, replyElements);
+            }
+        });
+        commandReplyBuilders.put(PluginConstants.OperationCodes.DEVICE_INFO, new CommandReplyBuilder() {
+            @Override
+            public void append(OperationReply reply, Operation operation, ReplyElements replyElements) {
+                reply.appendDeviceInfo(replyElements);
+            }
+        });
+        COMMAND_REPLY_BUILDERS = Collections.unmodifiableMap(commandReplyBuilders);
+
+        // iterated in the order of the Configure entries, which is the order of the adds in the reply.
+        Map<Configure, PasscodePolicyBuilder> passcodePolicyBuilders = new EnumMap<>(Configure.class);
+        passcodePolicyBuilders.put(Configure.PASSWORD_MAX_FAIL_ATTEMPTS, new PasscodePolicyValueBuilder() {
+            @Override
+            int getValue(PasscodePolicy passcodePolicy) {
+                return passcodePolicy.getMaxFailedAttempts();
+            }
+        });
+        PasscodePolicyBuilder passcodeFlagBuilder = new PasscodePolicyBuilder() {
+            @Override
+            public AddTag build(OperationReply reply, Operation operation, Configure configure,
+                                PasscodePolicy passcodePolicy) {
+                return reply.generatePasscodeBooleanData(operation, configure);
+            }
+        };
+        passcodePolicyBuilders.put(Configure.DEVICE_PASSWORD_ENABLE, passcodeFlagBuilder);
+        passcodePolicyBuilders.put(Configure.SIMPLE_PASSWORD, passcodeFlagBuilder);
+        passcodePolicyBuilders.put(Configure.ALPHANUMERIC_PASSWORD, passcodeFlagBuilder);
+        passcodePolicyBuilders.put(Configure.MIN_PASSWORD_LENGTH, new PasscodePolicyValueBuilder() {
+            @Override
+            int getValue(PasscodePolicy passcodePolicy) {
+                return passcodePolicy.getMinLength();
+            }
+        });
+        passcodePolicyBuilders.put(Configure.PASSWORD_EXPIRE, new PasscodePolicyValueBuilder() {
+            @Override
+            int getValue(PasscodePolicy passcodePolicy) {
+                return passcodePolicy.getMaxPINAgeInDays();
+            }
+        });
+        passcodePolicyBuilders.put(Configure.PASSWORD_HISTORY, new PasscodePolicyValueBuilder() {
+            @Override
+            int getValue(PasscodePolicy passcodePolicy) {
+                return passcodePolicy.getPinHistory();
+            }
+        });
+        passcodePolicyBuilders.put(Configure.MAX_PASSWORD_INACTIVE_TIME, new PasscodePolicyValueBuilder() {
+            @Override
+            int getValue(PasscodePolicy passcodePolicy) {
+                return passcodePolicy.getMaxInactiveTime();
+            }
+        });
+        passcodePolicyBuilders.put(Configure.MIN_PASSWORD_COMPLEX_CHARACTERS, new PasscodePolicyValueBuilder() {
+            @Override
+            int getValue(PasscodePolicy passcodePolicy) {
+                return passcodePolicy.getMinComplexChars();
+            }
+        });
+        PASSCODE_POLICY_BUILDERS = Collections.unmodifiableMap(passcodePolicyBuilders);
+    }
+
     public OperationReply(SyncmlDocument syncmlDocument, List<? extends Operation> operations) {
         this.syncmlDocument = syncmlDocument;
         replySyncmlDocument = new SyncmlDocument();
@@ -232,28 +330,21 @@ public class OperationReply {
             FeatureManagementException, JSONException, SyncmlOperationException {
 
         GetTag getElement = new GetTag();
-        List<ItemTag> getElements = new ArrayList<>();
-        List<ExecuteTag> executeElements = new ArrayList<>();
         AtomicTag atomicTagElement = new AtomicTag();
         List<AddTag> addElements = new ArrayList<>();
         ReplaceTag replaceElement = new ReplaceTag();
         List<ItemTag> replaceItems = new ArrayList<>();
-        SequenceTag monitorSequence = new SequenceTag();
-        List<Operation> deviceInfoOperations;
+        ReplyElements replyElements = new ReplyElements(syncmlBody);
+        List<ItemTag> getElements = replyElements.getItems;
         if (operations != null) {
             for (Operation operation : operations) {
                 Operation.Type type = operation.getType();
                 switch (type) {
                     case POLICY:
-                        if (this.syncmlDocument.getBody().getAlert() != null) {
-                            if ((Constants.INITIAL_ALERT_DATA.equals(this.syncmlDocument.getBody().getAlert()
-                                    .getData())) || Constants.INITIAL_WIN10_ALERT_DATA.
-                                    equals(this.syncmlDocument.getBody()
-                                            .getAlert().getData())) {
-                                SequenceTag policySequence = new SequenceTag();
-                                policySequence = buildSequence(operation, policySequence);
-                                syncmlBody.setSequence(policySequence);
-                            }
+                        if (isInitialAlert()) {
+                            SequenceTag policySequence = new SequenceTag();
+                            policySequence = buildSequence(operation, policySequence);
+                            syncmlBody.setSequence(policySequence);
                         }
                         break;
                     case CONFIG:
@@ -270,91 +361,11 @@ public class OperationReply {
                         getElements.add(itemGet);
                         break;
                     case COMMAND:
-                        ExecuteTag execElement;
-                        if ((PluginConstants.OperationCodes.DEVICE_LOCK.equals(operation.getCode()))) {
-                            execElement = executeCommand(operation);
-                            executeElements.add(execElement);
-                        }
-                        if ((PluginConstants.OperationCodes.DEVICE_RING.equals(operation.getCode()))) {
-                            execElement = executeCommand(operation);
-                            executeElements.add(execElement);
-                        }
-                        if ((PluginConstants.OperationCodes.DISENROLL.equals(operation.getCode()))) {
-                            execElement = executeCommand(operation);
-                            executeElements.add(execElement);
-                        }
-                        if ((PluginConstants.OperationCodes.WIPE_DATA.equals(operation.getCode()))) {
-                            execElement = executeCommand(operation);
-                            executeElements.add(execElement);
-                        }
-                        if ((PluginConstants.OperationCodes.LOCK_RESET.equals(operation.getCode()))) {
-                            SequenceTag sequenceElement = new SequenceTag();
-                            SequenceTag sequence = buildSequence(operation, sequenceElement);
-                            syncmlBody.setSequence(sequence);
-                        }
-                        if (PluginConstants.OperationCodes.DEVICE_LOCATION.equals(operation.getCode())) {
-                            Operation longitudeOperation = new Operation();
-                            Operation latitudeOperation = new Operation();
-                            longitudeOperation.setCode(PluginConstants.OperationCodes.LONGITUDE);
-                            latitudeOperation.setCode(PluginConstants.OperationCodes.LATITUDE);
-                            List<Operation> deviceLocationOperations = new ArrayList<>();
-                            deviceLocationOperations.add(latitudeOperation);
-                            deviceLocationOperations.add(longitudeOperation);
-                            for (Operation infoOperation : deviceLocationOperations) {
-                                ItemTag deviceInfo = appendGetInfo(infoOperation);
-                                getElements.add(deviceInfo);
-                            }
-                        }
-                        if (PluginConstants.OperationCodes.DEVICE_REBOOT.equals(operation.getCode())) {
-                            execElement = executeCommand(operation);
-                            executeElements.add(execElement);
-                        }
-                        if ((PluginConstants.OperationCodes.MONITOR.equals(operation.getCode()))) {
-                            GetTag monitorGetElement = new GetTag();
-                            List<ItemTag> monitorItems;
-                            List<ProfileFeature> profileFeatures;
-
-                            if (this.syncmlDocument.getBody().getAlert() != null) {
-                                if (Constants.INITIAL_ALERT_DATA.equals(this.syncmlDocument.getBody().
-                                        getAlert().getData()) || Constants.INITIAL_WIN10_ALERT_DATA.
-                                        equals(this.syncmlDocument.getBody()
-                                                .getAlert().getData())) {
-
-                                    monitorSequence.setCommandId(operation.getId());
-                                    DeviceIdentifier deviceIdentifier = convertToDeviceIdentifierObject(
-                                            syncmlDocument.getHeader().getSource().getLocURI());
-                                    try {
-                                        profileFeatures = WindowsAPIUtils.getPolicyManagerService().
-                                                getEffectiveFeatures(deviceIdentifier);
-                                    } catch (FeatureManagementException e) {
-                                        throw new SyncmlOperationException("Error in getting effective policy.", e);
-                                    }
-                                    monitorItems = buildMonitorOperation(profileFeatures);
-                                    if (!monitorItems.isEmpty()) {
-                                        monitorGetElement.setCommandId(operation.getId());
-                                        monitorGetElement.setItems(monitorItems);
-                                    }
-                                    monitorSequence.setGet(monitorGetElement);
-                                    syncmlBody.setSequence(monitorSequence);
-                                }
-                            }
-                        }
-                        if (PluginConstants.OperationCodes.DEVICE_INFO.equals(operation.getCode())) {
-                            if (this.syncmlDocument.getBody().getAlert() != null) {
-                                if ((Constants.INITIAL_ALERT_DATA.equals(this.syncmlDocument.getBody().getAlert()
-                                        .getData())) || Constants.INITIAL_WIN10_ALERT_DATA.
-                                        equals(this.syncmlDocument.getBody()
-                                                .getAlert().getData())) {
-                                    HeartBeatDeviceInfo heartBeatDeviceInfo = new HeartBeatDeviceInfo();
-                                    deviceInfoOperations = heartBeatDeviceInfo.getDeviceInfo();
-                                    for (Operation infoOperation : deviceInfoOperations) {
-                                        ItemTag deviceInfo = appendGetInfo(infoOperation);
-                                        getElements.add(deviceInfo);
-                                    }
-                                }
-                            }
-                            break;
+                        CommandReplyBuilder commandReplyBuilder = COMMAND_REPLY_BUILDERS.get(operation.getCode());
+                        if (commandReplyBuilder != null) {
+                            commandReplyBuilder.append(this, operation, replyElements);
                         }
+                        break;
                 }
             }
             if (!replaceItems.isEmpty()) {
@@ -370,28 +381,77 @@ public class OperationReply {
                 atomicTagElement.setAdds(addElements);
             }
             syncmlBody.setGet(getElement);
-            syncmlBody.setExec(executeElements);
+            syncmlBody.setExec(replyElements.executes);
             syncmlBody.setAtomicTag(atomicTagElement);
             syncmlBody.setReplace(replaceElement);
         }
     }
 
+    private boolean isInitialAlert() {
+        AlertTag alert = this.syncmlDocument.getBody().getAlert();
+        return alert != null && (Constants.INITIAL_ALERT_DATA.equals(alert.getData()) ||
+                Constants.INITIAL_WIN10_ALERT_DATA.equals(alert.getData()));
+    }
+
+    private void appendMonitorSequence(Operation operation, ReplyElements replyElements)
+            throws SyncmlOperationException {
+        if (!isInitialAlert()) {
+            return;
+        }
+        GetTag monitorGetElement = new GetTag();
+        List<ItemTag> monitorItems;
+        List<ProfileFeature> profileFeatures;
+        SequenceTag monitorSequence = replyElements.monitorSequence;
+        monitorSequence.setCommandId(operation.getId());
+        DeviceIdentifier deviceIdentifier = convertToDeviceIdentifierObject(
+                syncmlDocument.getHeader().getSource().getLocURI());
+        try {
+            profileFeatures = WindowsAPIUtils.getPolicyManagerService().getEffectiveFeatures(deviceIdentifier);
+        } catch (FeatureManagementException e) {
+            throw new SyncmlOperationException("Error in getting effective policy.", e);
+        }
+        monitorItems = buildMonitorOperation(profileFeatures);
+        if (!monitorItems.isEmpty()) {
+            monitorGetElement.setCommandId(operation.getId());
+            monitorGetElement.setItems(monitorItems);
+        }
+        monitorSequence.setGet(monitorGetElement);
+        replyElements.syncmlBody.setSequence(monitorSequence);
+    }
+
+    private void appendDeviceInfo(ReplyElements replyElements) {
+        if (!isInitialAlert()) {
+            return;
+        }
+        HeartBeatDeviceInfo heartBeatDeviceInfo = new HeartBeatDeviceInfo();
+        for (Operation infoOperation : heartBeatDeviceInfo.getDeviceInfo()) {
+            replyElements.getItems.add(appendGetInfo(infoOperation));
+        }
+    }
+
+    private void appendDeviceLocation(ReplyElements replyElements) {
+        Operation longitudeOperation = new Operation();
+        Operation latitudeOperation = new Operation();
+        longitudeOperation.setCode(PluginConstants.OperationCodes.LONGITUDE);
+        latitudeOperation.setCode(PluginConstants.OperationCodes.LATITUDE);
+        replyElements.getItems.add(appendGetInfo(latitudeOperation));
+        replyElements.getItems.add(appendGetInfo(longitudeOperation));
+    }
+
     private ItemTag appendExecInfo(Operation operation) {
         ItemTag item = new ItemTag();
-        String operationCode = operation.getCode();
-        for (Command command : Command.values()) {
-            if (operationCode != null && operationCode.equals(command.name())) {
-                TargetTag target = new TargetTag();
-                target.setLocURI(command.getCode());
-                if ((PluginConstants
-                        .OperationCodes.DISENROLL.equals(operation.getCode()))) {
-                    MetaTag meta = new MetaTag();
-                    meta.setFormat(Constants.META_FORMAT_CHARACTER);
-                    item.setMeta(meta);
-                    item.setData(Constants.PROVIDER_ID);
-                }
-                item.setTarget(target);
+        Command command = Command.forName(operation.getCode());
+        if (command != null) {
+            TargetTag target = new TargetTag();
+            target.setLocURI(command.getCode());
+            if ((PluginConstants
+                    .OperationCodes.DISENROLL.equals(operation.getCode()))) {
+                MetaTag meta = new MetaTag();
+                meta.setFormat(Constants.META_FORMAT_CHARACTER);
+                item.setMeta(meta);
+                item.setData(Constants.PROVIDER_ID);
             }
+            item.setTarget(target);
         }
         return item;
     }
@@ -399,22 +459,20 @@ public class OperationReply {
     private ItemTag appendGetInfo(Operation operation) {
         ItemTag item = new ItemTag();
         String operationCode = operation.getCode();
-        for (Info info : Info.values()) {
-            if (operationCode != null && operationCode.equals(info.name())) {
-                TargetTag target = new TargetTag();
-                target.setLocURI(info.getCode());
-                item.setTarget(target);
-            }
+        Info info = Info.forName(operationCode);
+        if (info != null) {
+            TargetTag target = new TargetTag();
+            target.setLocURI(info.getCode());
+            item.setTarget(target);
         }
         if ((operationCode != null) &&
                 PluginConstants.OperationCodes.LOCK_RESET.equals(operationCode)) {
             operation.setCode(PluginConstants.OperationCodes.PIN_CODE);
-            for (Info getInfo : Info.values()) {
-                if (operation.getCode().equals(getInfo.name())) {
-                    TargetTag target = new TargetTag();
-                    target.setLocURI(getInfo.getCode());
-                    item.setTarget(target);
-                }
+            Info getInfo = Info.forName(operation.getCode());
+            if (getInfo != null) {
+                TargetTag target = new TargetTag();
+                target.setLocURI(getInfo.getCode());
+                item.setTarget(target);
             }
         }
         return item;
@@ -427,43 +485,41 @@ public class OperationReply {
         TargetTag target = new TargetTag();
         String operationCode = operation.getCode();
         JSONObject payload = new JSONObject(operation.getPayLoad().toString());
-        for (Command command : Command.values()) {
+        Command command = Command.forName(operationCode);
+        if (command != null) {
+            target.setLocURI(command.getCode());
 
-            if (operationCode != null && operationCode.equals(command.name())) {
-                target.setLocURI(command.getCode());
+            if ((PluginConstants.OperationCodes.CAMERA.equals(operation.getCode()))) {
 
-                if ((PluginConstants.OperationCodes.CAMERA.equals(operation.getCode()))) {
-
-                    if (payload.getBoolean("enabled")) {
-                        MetaTag meta = new MetaTag();
-                        meta.setFormat(Constants.META_FORMAT_INT);
-                        item.setTarget(target);
-                        item.setMeta(meta);
-                        item.setData(policyAllowData);
-                    } else {
-                        MetaTag meta = new MetaTag();
-                        meta.setFormat(Constants.META_FORMAT_INT);
-                        item.setTarget(target);
-                        item.setMeta(meta);
-                        item.setData(policyDisallowData);
-                    }
+                if (payload.getBoolean("enabled")) {
+                    MetaTag meta = new MetaTag();
+                    meta.setFormat(Constants.META_FORMAT_INT);
+                    item.setTarget(target);
+                    item.setMeta(meta);
+                    item.setData(policyAllowData);
+                } else {
+                    MetaTag meta = new MetaTag();
+                    meta.setFormat(Constants.META_FORMAT_INT);
+                    item.setTarget(target);
+                    item.setMeta(meta);
+                    item.setData(policyDisallowData);
                 }
-                if ((PluginConstants.OperationCodes.ENCRYPT_STORAGE.
-                        equals(operation.getCode()))) {
-
-                    if (payload.getBoolean("encrypted")) {
-                        MetaTag meta = new MetaTag();
-                        meta.setFormat(Constants.META_FORMAT_INT);
-                        item.setTarget(target);
-                        item.setMeta(meta);
-                        item.setData(policyAllowData);
-                    } else {
-                        MetaTag meta = new MetaTag();
-                        meta.setFormat(Constants.META_FORMAT_INT);
-                        item.setTarget(target);
-                        item.setMeta(meta);
-                        item.setData(policyDisallowData);
-                    }
+            }
+            if ((PluginConstants.OperationCodes.ENCRYPT_STORAGE.
+                    equals(operation.getCode()))) {
+
+                if (payload.getBoolean("encrypted")) {
+                    MetaTag meta = new MetaTag();
+                    meta.setFormat(Constants.META_FORMAT_INT);
+                    item.setTarget(target);
+                    item.setMeta(meta);
+                    item.setData(policyAllowData);
+                } else {
+                    MetaTag meta = new MetaTag();
+                    meta.setFormat(Constants.META_FORMAT_INT);
+                    item.setTarget(target);
+                    item.setMeta(meta);
+                    item.setData(policyDisallowData);
                 }
             }
         }
@@ -479,47 +535,8 @@ public class OperationReply {
 
             PasscodePolicy passcodeObject = gson.fromJson((String) operation.getPayLoad(), PasscodePolicy.class);
 
-            for (Configure configure : Configure.values()) {
-
-                if (operation.getCode() != null && PluginConstants.OperationCodes.PASSWORD_MAX_FAIL_ATTEMPTS.
-                        equals(configure.name())) {
-                    AddTag add = generatePasscodePolicyData(configure, passcodeObject.getMaxFailedAttempts());
-                    addList.add(add);
-                }
-                if (operation.getCode() != null && (PluginConstants.OperationCodes.DEVICE_PASSWORD_ENABLE.
-                        equals(configure.name()) || PluginConstants.OperationCodes.SIMPLE_PASSWORD.
-                        equals(configure.name()) || PluginConstants.OperationCodes.ALPHANUMERIC_PASSWORD.
-                        equals(configure.name()))) {
-                    AddTag add = generatePasscodeBooleanData(operation, configure);
-                    addList.add(add);
-                }
-                if (operation.getCode() != null && PluginConstants.OperationCodes.MIN_PASSWORD_LENGTH.
-                        equals(configure.name())) {
-                    AddTag add = generatePasscodePolicyData(configure, passcodeObject.getMinLength());
-                    addList.add(add);
-                }
-                if (operation.getCode() != null && PluginConstants.OperationCodes.PASSWORD_EXPIRE.
-                        equals(configure.name())) {
-                    AddTag add = generatePasscodePolicyData(configure, passcodeObject.getMaxPINAgeInDays());
-                    addList.add(add);
-                }
-                if (operation.getCode() != null && PluginConstants.OperationCodes.PASSWORD_HISTORY.
-                        equals(configure.name())) {
-                    int pinHistory = passcodeObject.getPinHistory();
-                    AddTag add = generatePasscodePolicyData(configure, pinHistory);
-                    addList.add(add);
-                }
-                if (operation.getCode() != null && PluginConstants.OperationCodes.MAX_PASSWORD_INACTIVE_TIME.
-                        equals(configure.name())) {
-                    AddTag add = generatePasscodePolicyData(configure, passcodeObject.getMaxInactiveTime());
-                    addList.add(add);
-                }
-                if (operation.getCode() != null && PluginConstants.OperationCodes.MIN_PASSWORD_COMPLEX_CHARACTERS.
-                        equals(configure.name())) {
-                    int complexChars = passcodeObject.getMinComplexChars();
-                    AddTag add = generatePasscodePolicyData(configure, complexChars);
-                    addList.add(add);
-                }
+            for (Map.Entry<Configure, PasscodePolicyBuilder> entry : PASSCODE_POLICY_BUILDERS.entrySet()) {
+                addList.add(entry.getValue().build(this, operation, entry.getKey(), passcodeObject));
             }
         }
         return addList;
@@ -551,12 +568,11 @@ public class OperationReply {
             meta.setFormat(Constants.META_FORMAT_CHARACTER);
             List<ItemTag> items = new ArrayList<>();
 
-            for (Configure configure : Configure.values()) {
-                if (operationCode != null && operationCode.equals(configure.name())) {
-                    TargetTag target = new TargetTag();
-                    target.setLocURI(configure.getCode());
-                    items.get(0).setTarget(target);
-                }
+            Configure configure = Configure.forName(operationCode);
+            if (configure != null) {
+                TargetTag target = new TargetTag();
+                target.setLocURI(configure.getCode());
+                items.get(0).setTarget(target);
             }
             items.get(0).setMeta(meta);
             items.get(0).setData(data);
@@ -711,13 +727,11 @@ public class OperationReply {
         TargetTag target = new TargetTag();
         if ((PluginConstants.OperationCodes.PASSCODE_POLICY.equals(operation.getCode()))) {
             operation.setCode(PluginConstants.OperationCodes.DEVICE_PASSCODE_DELETE);
-            for (Command command : Command.values()) {
-                if (operation.getCode() != null && operation.getCode().equals(command.name())) {
-                    target.setLocURI(command.getCode());
-                    itemTag.setTarget(target);
-                    deleteTagItems.add(itemTag);
-                }
-
+            Command command = Command.forName(operation.getCode());
+            if (command != null) {
+                target.setLocURI(command.getCode());
+                itemTag.setTarget(target);
+                deleteTagItems.add(itemTag);
             }
         }
         return deleteTagItems;
@@ -846,4 +860,49 @@ public class OperationReply {
         return addTag;
     }
 
+    /**
+     * Elements of the reply the operations of a device are added to.
+     */
+    private static class ReplyElements {
+
+        private final SyncmlBody syncmlBody;
+        private final List<ItemTag> getItems = new ArrayList<>();
+        private final List<ExecuteTag> executes = new ArrayList<>();
+        private final SequenceTag monitorSequence = new SequenceTag();
+
+        private ReplyElements(SyncmlBody syncmlBody) {
+            this.syncmlBody = syncmlBody;
+        }
+    }
+
+    /**
+     * Adds a COMMAND operation to the reply. New commands register a builder for their operation code.
+     */
+    private interface CommandReplyBuilder {
+
+        void append(OperationReply reply, Operation operation, ReplyElements replyElements)
+                throws JSONException, SyncmlOperationException;
+    }
+
+    /**
+     * Builds the add command of a passcode policy setting.
+     */
+    private interface PasscodePolicyBuilder {
+
+        AddTag build(OperationReply reply, Operation operation, Configure configure, PasscodePolicy passcodePolicy);
+    }
+
+    /**
+     * Builds the add command of an integer passcode policy setting.
+     */
+    private abstract static class PasscodePolicyValueBuilder implements PasscodePolicyBuilder {
+
+        @Override
+        public AddTag build(OperationReply reply, Operation operation, Configure configure,
+                            PasscodePolicy passcodePolicy) {
+            return reply.generatePasscodePolicyData(configure, getValue(passcodePolicy));
+        }
+
+        abstract int getValue(PasscodePolicy passcodePolicy);
+    }
 }
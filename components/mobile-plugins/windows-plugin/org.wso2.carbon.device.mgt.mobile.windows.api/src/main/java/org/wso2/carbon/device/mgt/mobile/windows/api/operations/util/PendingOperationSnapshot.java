@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.operations.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.device.mgt.mobile.windows.api.common.util.WindowsAPIUtils;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pending operations of a device, loaded once per SyncML message. The status updates of the message are applied to
+ * the operations of the snapshot, and only the operations whose status changed are written back by {@link #flush()}.
+ */
+public class PendingOperationSnapshot {
+
+    private static Log log = LogFactory.getLog(PendingOperationSnapshot.class);
+
+    private final DeviceManagementProviderService deviceManagementService;
+    private final DeviceIdentifier deviceIdentifier;
+    private final List<? extends Operation> operations;
+    private final Map<Operation, Operation.Status> writtenStatuses = new IdentityHashMap<>();
+
+    private PendingOperationSnapshot(DeviceManagementProviderService deviceManagementService,
+                                     DeviceIdentifier deviceIdentifier, List<? extends Operation> operations) {
+        this.deviceManagementService = deviceManagementService;
+        this.deviceIdentifier = deviceIdentifier;
+        this.operations = operations;
+        for (Operation operation : operations) {
+            writtenStatuses.put(operation, operation.getStatus());
+        }
+    }
+
+    /**
+     * Loads the pending operations of a device.
+     *
+     * @param deviceIdentifier device the SyncML message is received from.
+     * @return snapshot of the pending operations of the device.
+     * @throws OperationManagementException
+     */
+    public static PendingOperationSnapshot load(DeviceIdentifier deviceIdentifier)
+            throws OperationManagementException {
+        return load(WindowsAPIUtils.getDeviceManagementService(), deviceIdentifier);
+    }
+
+    /**
+     * Loads the pending operations of a device through the given device management service.
+     */
+    static PendingOperationSnapshot load(DeviceManagementProviderService deviceManagementService,
+                                         DeviceIdentifier deviceIdentifier) throws OperationManagementException {
+        List<? extends Operation> operations;
+        try {
+            operations = deviceManagementService.getOperationsByDeviceAndStatus(deviceIdentifier,
+                                                                                Operation.Status.PENDING);
+        } catch (DeviceManagementException e) {
+            throw new OperationManagementException("Error occurred in getting pending operations.", e);
+        }
+        if (operations == null) {
+            operations = new ArrayList<>();
+        }
+        return new PendingOperationSnapshot(deviceManagementService, deviceIdentifier, operations);
+    }
+
+    /**
+     * @return the operations of the snapshot which are still pending, whose status can be updated.
+     */
+    public List<Operation> getPendingOperations() {
+        List<Operation> pendingOperations = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            if (Operation.Status.PENDING.equals(writtenStatuses.get(operation)) &&
+                    Operation.Status.PENDING.equals(operation.getStatus())) {
+                pendingOperations.add(operation);
+            }
+        }
+        return pendingOperations;
+    }
+
+    /**
+     * Writes the operations whose status has changed since they were loaded or last written.
+     *
+     * @throws OperationManagementException
+     */
+    public void flush() throws OperationManagementException {
+        for (Operation operation : operations) {
+            if (operation.getStatus() != writtenStatuses.get(operation)) {
+                deviceManagementService.updateOperation(deviceIdentifier, operation);
+                writtenStatuses.put(operation, operation.getStatus());
+                if (log.isDebugEnabled()) {
+                    log.debug("Updating operation '" + operation.toString() + "'");
+                }
+            }
+        }
+    }
+}
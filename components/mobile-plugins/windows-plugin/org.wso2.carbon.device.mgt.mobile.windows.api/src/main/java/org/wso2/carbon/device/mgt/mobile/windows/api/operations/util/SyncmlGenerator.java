@@ -32,12 +32,23 @@ import javax.xml.transform.*;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.StringWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Generates the response syncml xml file that should be sent to the Device.
+ * <p/>
+ * Document builders and transformers are costly to create and not thread safe, hence they are taken from bounded
+ * pools and returned once a payload is generated. Pools are used rather than thread locals, since the container's
+ * request threads outlive the web app, and would otherwise keep its instances after it is undeployed.
  */
 public class SyncmlGenerator {
 
+    private static final int POOL_SIZE = Math.max(16, 2 * Runtime.getRuntime().availableProcessors());
+
+    private static final BlockingQueue<DocumentBuilder> documentBuilders = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<Transformer> transformers = new ArrayBlockingQueue<>(POOL_SIZE);
+
     public static String generatePayload(SyncmlDocument syncmlDocument) throws SyncmlOperationException {
         Document doc = generateDocument();
         Element rootElement = createRootElement(doc);
@@ -49,14 +60,18 @@ public class SyncmlGenerator {
     }
 
     private static Document generateDocument() throws SyncmlOperationException {
-        DocumentBuilderFactory documentFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder docBuilder;
-        try {
-            docBuilder = documentFactory.newDocumentBuilder();
-        } catch (ParserConfigurationException e) {
-            throw new SyncmlOperationException("Error occurred while generating a new document of syncml", e);
+        DocumentBuilder docBuilder = documentBuilders.poll();
+        if (docBuilder == null) {
+            try {
+                docBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw new SyncmlOperationException("Error occurred while generating a new document of syncml", e);
+            }
         }
-        return docBuilder.newDocument();
+        Document document = docBuilder.newDocument();
+        // a full pool drops the builder.
+        documentBuilders.offer(docBuilder);
+        return document;
     }
 
     private static Element createRootElement(Document document) {
@@ -66,25 +81,41 @@ public class SyncmlGenerator {
         return rootElement;
     }
 
-    private static String transformDocument(Document document) throws SyncmlOperationException {
-        DOMSource domSource = new DOMSource(document);
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer;
-        try {
-            transformer = transformerFactory.newTransformer();
-        } catch (TransformerConfigurationException e) {
-            throw new SyncmlOperationException("Error occurred while retrieving a new transformer", e);
+    private static Transformer getTransformer() throws SyncmlOperationException {
+        Transformer transformer = transformers.poll();
+        if (transformer == null) {
+            try {
+                transformer = TransformerFactory.newInstance().newTransformer();
+            } catch (TransformerConfigurationException e) {
+                throw new SyncmlOperationException("Error occurred while retrieving a new transformer", e);
+            }
+            // the payload is read by the devices only, hence it is not indented.
+            transformer.setOutputProperty(OutputKeys.ENCODING, Constants.UTF_8);
         }
-        transformer.setOutputProperty(OutputKeys.ENCODING, Constants.UTF_8);
-        transformer.setOutputProperty(OutputKeys.INDENT, Constants.YES);
+        return transformer;
+    }
 
+    private static String transformDocument(Document document) throws SyncmlOperationException {
+        DOMSource domSource = new DOMSource(document);
+        Transformer transformer = getTransformer();
         StringWriter stringWriter = new StringWriter();
         StreamResult streamResult = new StreamResult(stringWriter);
         try {
             transformer.transform(domSource, streamResult);
         } catch (TransformerException e) {
+            // a failed transformer is not reused.
             throw new SyncmlOperationException("Error occurred while transforming document to a string", e);
         }
+        // a full pool drops the transformer.
+        transformers.offer(transformer);
         return stringWriter.toString();
     }
+
+    /**
+     * Drops the pooled document builders and transformers, to be called when the web app is undeployed.
+     */
+    public static void clearPools() {
+        documentBuilders.clear();
+        transformers.clear();
+    }
 }
@@ -18,13 +18,13 @@
 
 package org.wso2.carbon.device.mgt.mobile.windows.api.services;
 
-import org.w3c.dom.Document;
 import org.wso2.carbon.apimgt.annotations.api.Scope;
 import org.wso2.carbon.apimgt.annotations.api.Scopes;
 import org.wso2.carbon.device.mgt.common.notification.mgt.NotificationManagementException;
 import org.wso2.carbon.device.mgt.mobile.windows.api.common.PluginConstants;
 import org.wso2.carbon.device.mgt.mobile.windows.api.common.exceptions.WindowsConfigurationException;
 import org.wso2.carbon.device.mgt.mobile.windows.api.common.exceptions.WindowsDeviceEnrolmentException;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlDocument;
 import org.wso2.carbon.device.mgt.mobile.windows.api.operations.WindowsOperationException;
 
 import javax.ws.rs.Consumes;
@@ -54,7 +54,7 @@ public interface DeviceManagementService {
     @POST
     @Consumes({PluginConstants.SYNCML_MEDIA_TYPE, MediaType.APPLICATION_XML})
     @Produces(PluginConstants.SYNCML_MEDIA_TYPE)
-    Response getResponse(Document request) throws WindowsDeviceEnrolmentException, WindowsOperationException,
+    Response getResponse(SyncmlDocument request) throws WindowsDeviceEnrolmentException, WindowsOperationException,
             NotificationManagementException, WindowsConfigurationException;
 
 }
@@ -20,7 +20,6 @@ package org.wso2.carbon.device.mgt.mobile.windows.api.services.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.w3c.dom.Document;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
@@ -46,7 +45,6 @@ import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.Constants;
 import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.OperationCode;
 import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.OperationHandler;
 import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.OperationReply;
-import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.SyncmlParser;
 import org.wso2.carbon.device.mgt.mobile.windows.api.services.DeviceManagementService;
 import org.wso2.carbon.device.mgt.mobile.windows.impl.dto.MobileCacheEntry;
 
@@ -62,7 +60,7 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
             org.wso2.carbon.device.mgt.mobile.windows.api.services.syncml.impl.SyncmlServiceImpl.class);
 
     @Override
-    public Response getResponse(Document request) throws WindowsDeviceEnrolmentException, WindowsOperationException,
+    public Response getResponse(SyncmlDocument syncmlDocument) throws WindowsDeviceEnrolmentException, WindowsOperationException,
             NotificationManagementException, WindowsConfigurationException {
 
         int msgId;
@@ -70,14 +68,12 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
         String user;
         String token;
         String response;
-        SyncmlDocument syncmlDocument;
         List<? extends Operation> pendingOperations;
         OperationHandler operationHandler = new OperationHandler();
         OperationReply operationReply = new OperationReply();
 
         try {
-            if (SyncmlParser.parseSyncmlPayload(request) != null) {
-                syncmlDocument = SyncmlParser.parseSyncmlPayload(request);
+            if (syncmlDocument != null) {
                 SyncmlHeader syncmlHeader = syncmlDocument.getHeader();
                 sessionId = syncmlHeader.getSessionId();
                 user = syncmlHeader.getSource().getLocName();
@@ -95,7 +91,7 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
 
                     if ((cacheToken.getUsername() != null) && (cacheToken.getUsername().equals(user))) {
 
-                        if (modifyEnrollWithMoreDetail(request, cacheToken.getTenantDomain(), cacheToken.getTenanatID())) {
+                        if (modifyEnrollWithMoreDetail(syncmlDocument, cacheToken.getTenantDomain(), cacheToken.getTenanatID())) {
                             pendingOperations = operationHandler.getPendingOperations(syncmlDocument);
                             response = operationReply.generateReply(syncmlDocument, pendingOperations);
                             return Response.status(Response.Status.OK).entity(response).build();
@@ -158,22 +154,20 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
     /**
      * Enroll phone device
      *
-     * @param request Device syncml request for the server side.
+     * @param syncmlDocument Device syncml request for the server side.
      * @return enroll state
      * @throws WindowsDeviceEnrolmentException
      * @throws WindowsOperationException
      */
-    private boolean modifyEnrollWithMoreDetail(Document request, String tenantDomain, int tenantId) throws WindowsDeviceEnrolmentException,
+    private boolean modifyEnrollWithMoreDetail(SyncmlDocument syncmlDocument, String tenantDomain, int tenantId) throws WindowsDeviceEnrolmentException,
             WindowsOperationException {
 
         String devMan = null;
         String devMod = null;
         boolean status = false;
         String user;
-        SyncmlDocument syncmlDocument;
 
         try {
-            syncmlDocument = SyncmlParser.parseSyncmlPayload(request);
             ReplaceTag replace = syncmlDocument.getBody().getReplace();
             List<ItemTag> itemList = replace.getItems();
             for (ItemTag itemTag : itemList) {
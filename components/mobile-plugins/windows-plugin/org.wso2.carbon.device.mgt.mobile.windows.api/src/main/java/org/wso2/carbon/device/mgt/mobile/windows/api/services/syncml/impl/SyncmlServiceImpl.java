@@ -20,7 +20,6 @@ package org.wso2.carbon.device.mgt.mobile.windows.api.services.syncml.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.w3c.dom.Document;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
@@ -48,7 +47,6 @@ import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.DeviceInfo;
 import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.OperationHandler;
 import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.OperationReply;
 import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.SyncmlGenerator;
-import org.wso2.carbon.device.mgt.mobile.windows.api.operations.util.SyncmlParser;
 import org.wso2.carbon.device.mgt.mobile.windows.api.services.syncml.SyncmlService;
 import org.wso2.carbon.device.mgt.mobile.windows.api.services.syncml.beans.WindowsDevice;
 import org.wso2.carbon.device.mgt.mobile.windows.impl.dto.MobileCacheEntry;
@@ -124,13 +122,13 @@ public class SyncmlServiceImpl implements SyncmlService {
      * Method for calling SyncML engine for producing the Syncml response. For the first SyncML message comes from
      * the device, this method produces a response to retrieve device information for enrolling the device.
      *
-     * @param request - SyncML request
+     * @param syncmlDocument - SyncML request
      * @return - SyncML response
      * @throws WindowsOperationException
      * @throws WindowsDeviceEnrolmentException
      */
     @Override
-    public Response getResponse(Document request)
+    public Response getResponse(SyncmlDocument syncmlDocument)
             throws WindowsDeviceEnrolmentException, WindowsOperationException, NotificationManagementException,
                    WindowsConfigurationException {
         int msgId;
@@ -138,15 +136,13 @@ public class SyncmlServiceImpl implements SyncmlService {
         String user;
         String token;
         String response;
-        SyncmlDocument syncmlDocument;
         List<Operation> deviceInfoOperations;
         List<? extends Operation> pendingOperations;
         OperationHandler operationHandler = new OperationHandler();
         DeviceInfo deviceInfo = new DeviceInfo();
 
         try {
-            if (SyncmlParser.parseSyncmlPayload(request) != null) {
-                syncmlDocument = SyncmlParser.parseSyncmlPayload(request);
+            if (syncmlDocument != null) {
                 SyncmlHeader syncmlHeader = syncmlDocument.getHeader();
                 sessionId = syncmlHeader.getSessionId();
                 user = syncmlHeader.getSource().getLocName();
@@ -160,7 +156,7 @@ public class SyncmlServiceImpl implements SyncmlService {
 
                     if ((cacheToken.getUsername() != null) && (cacheToken.getUsername().equals(user))) {
 
-                        if (enrollDevice(request, cacheToken.getTenantDomain(), cacheToken.getTenanatID())) {
+                        if (enrollDevice(syncmlDocument, cacheToken.getTenantDomain(), cacheToken.getTenanatID())) {
                             deviceInfoOperations = deviceInfo.getDeviceInfo();
                             response = generateReply(syncmlDocument, deviceInfoOperations);
                             return Response.status(Response.Status.OK).entity(response).build();
@@ -177,7 +173,7 @@ public class SyncmlServiceImpl implements SyncmlService {
                 } else if (PluginConstants.SyncML.SYNCML_SECOND_MESSAGE_ID == msgId &&
                            PluginConstants.SyncML.SYNCML_FIRST_SESSION_ID == sessionId) {
                     PrivilegedCarbonContext carbonCtx = PrivilegedCarbonContext.getThreadLocalCarbonContext();
-                    if (enrollDevice(request, carbonCtx.getTenantDomain(), carbonCtx.getTenantId())) {
+                    if (enrollDevice(syncmlDocument, carbonCtx.getTenantDomain(), carbonCtx.getTenantId())) {
                         return Response.ok().entity(generateReply(syncmlDocument, null)).build();
                     } else {
                         String msg = "Error occurred in modify enrollment.";
@@ -232,12 +228,12 @@ public class SyncmlServiceImpl implements SyncmlService {
     /**
      * Enroll phone device
      *
-     * @param request Device syncml request for the server side.
+     * @param syncmlDocument Device syncml request for the server side.
      * @return enroll state
      * @throws WindowsDeviceEnrolmentException
      * @throws WindowsOperationException
      */
-    private boolean enrollDevice(Document request, String tenantDomain, int tenantId) throws WindowsDeviceEnrolmentException,
+    private boolean enrollDevice(SyncmlDocument syncmlDocument, String tenantDomain, int tenantId) throws WindowsDeviceEnrolmentException,
                                                           WindowsOperationException {
 
         String osVersion;
@@ -254,10 +250,8 @@ public class SyncmlServiceImpl implements SyncmlService {
         String user;
         String deviceName;
         int msgID;
-        SyncmlDocument syncmlDocument;
 
         try {
-            syncmlDocument = SyncmlParser.parseSyncmlPayload(request);
             msgID = syncmlDocument.getHeader().getMsgID();
             if (msgID == PluginConstants.SyncML.SYNCML_FIRST_MESSAGE_ID) {
                 ReplaceTag replace = syncmlDocument.getBody().getReplace();
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.common.util;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the wap-provisioning documents of an enrollment storm against filling in the parsed file and
+ * serializing it for every device. The costs are logged for comparison, and are not asserted since they depend on the
+ * build machine.
+ */
+public class WapProvisioningTemplateBenchmarkTestCase {
+
+    private static final Log log = LogFactory.getLog(WapProvisioningTemplateBenchmarkTestCase.class);
+
+    private static final int WARM_UP_DEVICES = 200;
+    private static final int STORM_DEVICES = 10000;
+    // filling in the parsed file takes an order of magnitude longer, hence fewer devices are measured.
+    private static final int DOM_DEVICES = 500;
+
+    @Test
+    public void testEnrollmentStorm() throws Exception {
+        final String wapProvisioningFilePath = WapProvisioningTemplateTestCase.getResourcePath("/wap-provisioning.xml");
+        final X509Certificate caCertificate = WapProvisioningTemplateTestCase.loadCertificate("ca.pem");
+        final X509Certificate deviceCertificate = WapProvisioningTemplateTestCase.loadCertificate("device.pem");
+        Renderer templateRenderer = new Renderer() {
+            @Override
+            public String render(Map<WapProvisioningTemplate.Slot, String> values) throws Exception {
+                return WapProvisioningTemplate.getTemplate(wapProvisioningFilePath).render(values);
+            }
+        };
+        Renderer domRenderer = new Renderer() {
+            @Override
+            public String render(Map<WapProvisioningTemplate.Slot, String> values) throws Exception {
+                return WapProvisioningTemplateTestCase.renderWithDom(wapProvisioningFilePath, values);
+            }
+        };
+        run(templateRenderer, caCertificate, deviceCertificate, WARM_UP_DEVICES);
+        run(domRenderer, caCertificate, deviceCertificate, WARM_UP_DEVICES);
+        double templateCost = run(templateRenderer, caCertificate, deviceCertificate, STORM_DEVICES);
+        double domCost = run(domRenderer, caCertificate, deviceCertificate, DOM_DEVICES);
+        log.info(String.format("wap-provisioning document of %d enrolling devices : %.1f microseconds each, " +
+                               "parsed file : %.1f microseconds each", STORM_DEVICES, templateCost, domCost));
+    }
+
+    /**
+     * @return the time taken for the document of a device, in microseconds, including the encoding of the signed
+     * certificate and of the document.
+     */
+    private static double run(Renderer renderer, X509Certificate caCertificate, X509Certificate deviceCertificate,
+                              int deviceCount) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < deviceCount; i++) {
+            Map<WapProvisioningTemplate.Slot, String> values = WapProvisioningTemplateTestCase.newValues(
+                    caCertificate, deviceCertificate, "wso2.com", "https://enterpriseenrollment.wso2.com/syncml",
+                    "user" + i + "@carbon.super", "token-" + i, "1");
+            String document = renderer.render(values);
+            Assert.assertNotNull(new Base64().encodeAsString(document.getBytes(StandardCharsets.UTF_8)));
+        }
+        return (double) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / deviceCount;
+    }
+
+    private interface Renderer {
+
+        String render(Map<WapProvisioningTemplate.Slot, String> values) throws Exception;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.common.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.wso2.carbon.device.mgt.mobile.windows.api.common.PluginConstants;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the documents built from the compiled wap-provisioning files byte for byte with the documents built by
+ * filling in the parsed files and serializing them, as every enrollment did before the files were compiled.
+ */
+public class WapProvisioningTemplateTestCase {
+
+    private static final int RANDOM_VALUE_SETS = 200;
+    private static final String VALUE_CHARACTERS = "abcXYZ019.-_@/:?=&<>\"' \t\n\r\u0001\u001f\u007f\u0085" +
+            "\u00e9\u4e2d\ud83d\ude00%$#{}";
+
+    @DataProvider(name = "wapProvisioningFiles")
+    public Object[][] wapProvisioningFiles() throws Exception {
+        return new Object[][]{
+                {getResourcePath("/wap-provisioning.xml")},
+                {getResourcePath("/win10-wap-provisioning.xml")}
+        };
+    }
+
+    @Test(dataProvider = "wapProvisioningFiles")
+    public void testEnrollmentValues(String wapProvisioningFilePath) throws Exception {
+        Map<WapProvisioningTemplate.Slot, String> values = newValues(loadCertificate("ca.pem"),
+                loadCertificate("device.pem"), "wso2.com",
+                "https://enterpriseenrollment.wso2.com/api/device-mgt/windows/v1.0/syncml/devicemanagement/request",
+                "admin@carbon.super", "3f4b6c9e-0a1d-4e2f-8b7c-5d6e7f8a9b0c", "1");
+        assertSameDocument(wapProvisioningFilePath, values);
+    }
+
+    @Test(dataProvider = "wapProvisioningFiles")
+    public void testSpecialAndMissingValues(String wapProvisioningFilePath) throws Exception {
+        Random random = new Random(7);
+        X509Certificate caCertificate = loadCertificate("ca.pem");
+        X509Certificate deviceCertificate = loadCertificate("device.pem");
+        for (int i = 0; i < RANDOM_VALUE_SETS; i++) {
+            assertSameDocument(wapProvisioningFilePath, newValues(caCertificate, deviceCertificate,
+                    randomValue(random), randomValue(random), randomValue(random), randomValue(random),
+                    randomValue(random)));
+        }
+    }
+
+    @Test
+    public void testModifiedFileIsCompiledAgain() throws Exception {
+        File wapProvisioningFile = File.createTempFile("wap-provisioning", ".xml");
+        try {
+            String content = new String(Files.readAllBytes(new File(getResourcePath("/wap-provisioning.xml"))
+                    .toPath()), StandardCharsets.UTF_8);
+            Files.write(wapProvisioningFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            String path = wapProvisioningFile.getPath();
+            WapProvisioningTemplate template = WapProvisioningTemplate.getTemplate(path);
+            Assert.assertSame(WapProvisioningTemplate.getTemplate(path), template);
+
+            Files.write(wapProvisioningFile.toPath(), content.replace("version=\"1.1\"", "version=\"1.2\"")
+                    .getBytes(StandardCharsets.UTF_8));
+            Assert.assertTrue(wapProvisioningFile.setLastModified(wapProvisioningFile.lastModified() + 10000));
+            WapProvisioningTemplate modifiedTemplate = WapProvisioningTemplate.getTemplate(path);
+            Assert.assertNotSame(modifiedTemplate, template);
+            Map<WapProvisioningTemplate.Slot, String> values = newValues(loadCertificate("ca.pem"),
+                    loadCertificate("device.pem"), "wso2.com", "https://wso2.com", "admin", "token", "1");
+            Assert.assertTrue(modifiedTemplate.render(values).contains("version=\"1.2\""));
+            assertSameDocument(path, values);
+        } finally {
+            Assert.assertTrue(wapProvisioningFile.delete());
+        }
+    }
+
+    @Test
+    public void testCACertificateIsEncodedOnce() throws Exception {
+        X509Certificate caCertificate = loadCertificate("ca.pem");
+        WapProvisioningTemplate.EncodedCertificate encodedCertificate =
+                WapProvisioningTemplate.encodeCACertificate(caCertificate);
+        Assert.assertSame(WapProvisioningTemplate.encodeCACertificate(loadCertificate("ca.pem")), encodedCertificate);
+        Assert.assertEquals(encodedCertificate.getFingerprint(),
+                            DigestUtils.sha1Hex(caCertificate.getEncoded()).toUpperCase());
+
+        X509Certificate renewedCertificate = loadCertificate("device.pem");
+        WapProvisioningTemplate.EncodedCertificate renewedEncodedCertificate =
+                WapProvisioningTemplate.encodeCACertificate(renewedCertificate);
+        Assert.assertNotSame(renewedEncodedCertificate, encodedCertificate);
+        Assert.assertEquals(renewedEncodedCertificate.getFingerprint(),
+                            DigestUtils.sha1Hex(renewedCertificate.getEncoded()).toUpperCase());
+    }
+
+    static String getResourcePath(String name) throws Exception {
+        return new File(WapProvisioningTemplateTestCase.class.getResource(name).toURI()).getPath();
+    }
+
+    static X509Certificate loadCertificate(String name) throws Exception {
+        InputStream stream = WapProvisioningTemplateTestCase.class.getResourceAsStream("/certificates/" + name);
+        try {
+            return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(stream);
+        } finally {
+            stream.close();
+        }
+    }
+
+    static Map<WapProvisioningTemplate.Slot, String> newValues(X509Certificate caCertificate,
+                                                               X509Certificate signedCertificate, String domain,
+                                                               String provisioningAddress, String userName,
+                                                               String password, String pollingFrequency)
+            throws Exception {
+        WapProvisioningTemplate.EncodedCertificate encodedCACertificate =
+                WapProvisioningTemplate.encodeCACertificate(caCertificate);
+        WapProvisioningTemplate.EncodedCertificate encodedSignedCertificate =
+                new WapProvisioningTemplate.EncodedCertificate(signedCertificate);
+        Map<WapProvisioningTemplate.Slot, String> values = new EnumMap<>(WapProvisioningTemplate.Slot.class);
+        values.put(WapProvisioningTemplate.Slot.CA_CERTIFICATE_FINGERPRINT, encodedCACertificate.getFingerprint());
+        values.put(WapProvisioningTemplate.Slot.CA_CERTIFICATE, encodedCACertificate.getEncoded());
+        values.put(WapProvisioningTemplate.Slot.SIGNED_CERTIFICATE_FINGERPRINT,
+                   encodedSignedCertificate.getFingerprint());
+        values.put(WapProvisioningTemplate.Slot.SIGNED_CERTIFICATE, encodedSignedCertificate.getEncoded());
+        values.put(WapProvisioningTemplate.Slot.DOMAIN, domain);
+        values.put(WapProvisioningTemplate.Slot.SYNCML_PROVISIONING_ADDR, provisioningAddress);
+        values.put(WapProvisioningTemplate.Slot.APPAUTH_USERNAME, userName);
+        values.put(WapProvisioningTemplate.Slot.APPAUTH_PASSWORD, password);
+        values.put(WapProvisioningTemplate.Slot.POLLING_FREQUENCY, pollingFrequency);
+        return values;
+    }
+
+    /**
+     * Fills in the parsed wap-provisioning file and serializes it, as the enrollment services did for every device.
+     */
+    static String renderWithDom(String wapProvisioningFilePath, Map<WapProvisioningTemplate.Slot, String> values)
+            throws Exception {
+        DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+        domFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        Document document = domFactory.newDocumentBuilder().parse(wapProvisioningFilePath);
+        NodeList wapParm = document.getElementsByTagName(PluginConstants.CertificateEnrolment.PARM);
+
+        Node caCertificatePosition = wapParm.item(PluginConstants.CertificateEnrolment.CA_CERTIFICATE_POSITION);
+        setAttribute(caCertificatePosition.getParentNode(), PluginConstants.CertificateEnrolment.TYPE,
+                     values.get(WapProvisioningTemplate.Slot.CA_CERTIFICATE_FINGERPRINT));
+        setAttribute(caCertificatePosition, PluginConstants.CertificateEnrolment.VALUE,
+                     values.get(WapProvisioningTemplate.Slot.CA_CERTIFICATE));
+        Node signedCertificatePosition = wapParm.item(PluginConstants.CertificateEnrolment.
+                SIGNED_CERTIFICATE_POSITION);
+        setAttribute(signedCertificatePosition.getParentNode(), PluginConstants.CertificateEnrolment.TYPE,
+                     values.get(WapProvisioningTemplate.Slot.SIGNED_CERTIFICATE_FINGERPRINT));
+        setAttribute(signedCertificatePosition, PluginConstants.CertificateEnrolment.VALUE,
+                     values.get(WapProvisioningTemplate.Slot.SIGNED_CERTIFICATE));
+        setAttribute(wapParm.item(PluginConstants.CertificateEnrolment.DOMAIN_POSITION),
+                     PluginConstants.CertificateEnrolment.VALUE, values.get(WapProvisioningTemplate.Slot.DOMAIN));
+        setAttribute(wapParm.item(PluginConstants.CertificateEnrolment.SYNCML_PROVISIONING_ADDR_POSITION),
+                     PluginConstants.CertificateEnrolment.VALUE,
+                     values.get(WapProvisioningTemplate.Slot.SYNCML_PROVISIONING_ADDR));
+        setAttribute(wapParm.item(PluginConstants.CertificateEnrolment.APPAUTH_USERNAME_POSITION),
+                     PluginConstants.CertificateEnrolment.VALUE,
+                     values.get(WapProvisioningTemplate.Slot.APPAUTH_USERNAME));
+        setAttribute(wapParm.item(PluginConstants.CertificateEnrolment.APPAUTH_PASSWORD_POSITION),
+                     PluginConstants.CertificateEnrolment.VALUE,
+                     values.get(WapProvisioningTemplate.Slot.APPAUTH_PASSWORD));
+        setAttribute(wapParm.item(PluginConstants.CertificateEnrolment.POLLING_FREQUENCY_POSITION),
+                     PluginConstants.CertificateEnrolment.VALUE,
+                     values.get(WapProvisioningTemplate.Slot.POLLING_FREQUENCY));
+
+        StringWriter stringWriter = new StringWriter();
+        TransformerFactory.newInstance().newTransformer().transform(new DOMSource(document),
+                                                                    new StreamResult(stringWriter));
+        return stringWriter.toString();
+    }
+
+    private static void setAttribute(Node node, String attributeName, String value) {
+        node.getAttributes().getNamedItem(attributeName).setTextContent(value);
+    }
+
+    private static void assertSameDocument(String wapProvisioningFilePath,
+                                           Map<WapProvisioningTemplate.Slot, String> values) throws Exception {
+        byte[] expected = renderWithDom(wapProvisioningFilePath, values).getBytes(StandardCharsets.UTF_8);
+        byte[] actual = WapProvisioningTemplate.getTemplate(wapProvisioningFilePath).render(values)
+                .getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(actual, expected, values.toString());
+    }
+
+    /**
+     * @return a value of up to 11 characters taken from markup, control, non-ASCII and supplementary characters, or
+     * null for a missing value.
+     */
+    private static String randomValue(Random random) {
+        if (random.nextInt(20) == 0) {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            int index = random.nextInt(VALUE_CHARACTERS.length());
+            char c = VALUE_CHARACTERS.charAt(index);
+            if (Character.isHighSurrogate(c)) {
+                value.append(c).append(VALUE_CHARACTERS.charAt(index + 1));
+            } else if (!Character.isLowSurrogate(c)) {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+}
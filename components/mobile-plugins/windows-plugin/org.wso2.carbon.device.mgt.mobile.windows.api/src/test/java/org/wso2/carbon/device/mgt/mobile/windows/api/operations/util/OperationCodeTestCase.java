@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.operations.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Checks the lookup tables of the operation codes against every entry of the enums.
+ */
+public class OperationCodeTestCase {
+
+    @Test
+    public void testInfoLookups() {
+        for (OperationCode.Info info : OperationCode.Info.values()) {
+            Assert.assertSame(OperationCode.Info.forName(info.name()), info);
+            Assert.assertSame(OperationCode.Info.forCode(info.getCode()), info);
+        }
+        Assert.assertNull(OperationCode.Info.forName("UNKNOWN"));
+        Assert.assertNull(OperationCode.Info.forName(null));
+        Assert.assertNull(OperationCode.Info.forCode("./Vendor/MSFT/Unknown"));
+        Assert.assertNull(OperationCode.Info.forCode(null));
+    }
+
+    @Test
+    public void testCommandLookups() {
+        for (OperationCode.Command command : OperationCode.Command.values()) {
+            Assert.assertSame(OperationCode.Command.forName(command.name()), command);
+        }
+        Assert.assertNull(OperationCode.Command.forName("UNKNOWN"));
+        Assert.assertNull(OperationCode.Command.forName(null));
+    }
+
+    @Test
+    public void testConfigureLookups() {
+        for (OperationCode.Configure configure : OperationCode.Configure.values()) {
+            Assert.assertSame(OperationCode.Configure.forName(configure.name()), configure);
+        }
+        Assert.assertNull(OperationCode.Configure.forName("UNKNOWN"));
+        Assert.assertNull(OperationCode.Configure.forName(null));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.operations.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.mobile.windows.api.common.PluginConstants;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlDocument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of replying to a message of a device with many pending operations. The cost per message is
+ * logged, and is not asserted since it depends on the build machine.
+ */
+public class OperationReplyBenchmarkTestCase {
+
+    private static final Log log = LogFactory.getLog(OperationReplyBenchmarkTestCase.class);
+
+    private static final int WARM_UP_ITERATIONS = 1000;
+    private static final int ITERATIONS = 2000;
+    private static final String[] OPERATION_CODES = {PluginConstants.OperationCodes.DEVICE_LOCK,
+            PluginConstants.OperationCodes.DEVICE_RING, PluginConstants.OperationCodes.WIPE_DATA,
+            PluginConstants.OperationCodes.DEVICE_REBOOT, PluginConstants.OperationCodes.DEVICE_LOCATION,
+            PluginConstants.OperationCodes.DEVICE_INFO};
+
+    @Test
+    public void testReplyCost() throws Exception {
+        for (int operationCount : new int[]{1, 60}) {
+            List<Operation> operations = new ArrayList<>();
+            for (int i = 0; i < operationCount; i++) {
+                if (i % 2 == 0) {
+                    operations.add(OperationReplyTestCase.newOperation(
+                            i, Operation.Type.COMMAND, OPERATION_CODES[(i / 2) % OPERATION_CODES.length], null));
+                } else {
+                    OperationCode.Info info = OperationCode.Info.values()[i % OperationCode.Info.values().length];
+                    operations.add(OperationReplyTestCase.newOperation(i, Operation.Type.INFO, info.name(), null));
+                }
+            }
+            SyncmlDocument request = OperationReplyTestCase.newRequest(true);
+            run(request, operations, WARM_UP_ITERATIONS);
+            long elapsed = run(request, operations, ITERATIONS);
+            log.info(String.format("Reply to a message with %d operations : %.1f microseconds", operationCount,
+                                   (double) TimeUnit.NANOSECONDS.toMicros(elapsed) / ITERATIONS));
+        }
+    }
+
+    /**
+     * @return the time taken to generate the replies, in nanoseconds.
+     */
+    private static long run(SyncmlDocument request, List<Operation> operations, int iterations) throws Exception {
+        OperationReply operationReply = new OperationReply();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Assert.assertNotNull(operationReply.generateReply(request, operations));
+        }
+        return System.nanoTime() - start;
+    }
+}
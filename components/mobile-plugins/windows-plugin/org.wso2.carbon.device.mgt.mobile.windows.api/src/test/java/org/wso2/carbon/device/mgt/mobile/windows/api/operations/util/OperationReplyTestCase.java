@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.operations.util;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.mobile.windows.api.common.PluginConstants;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.AddTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.AlertTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.ExecuteTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.ItemTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SequenceTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SourceTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.StatusTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlBody;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlDocument;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlHeader;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.TargetTag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks the reply elements built for the operations of each registered operation code.
+ */
+public class OperationReplyTestCase {
+
+    private static final String PASSCODE_POLICY_PAYLOAD = "{\"maxFailedAttempts\":5,\"minLength\":6,\"pinHistory\":3," +
+            "\"minComplexChars\":2,\"maxPINAgeInDays\":30,\"maxInactiveTime\":15,\"enablePassword\":true," +
+            "\"requireAlphanumeric\":false,\"allowSimple\":true}";
+
+    @DataProvider(name = "executeCommands")
+    public Object[][] executeCommands() {
+        return new Object[][]{
+                {PluginConstants.OperationCodes.DEVICE_LOCK},
+                {PluginConstants.OperationCodes.DEVICE_RING},
+                {PluginConstants.OperationCodes.DISENROLL},
+                {PluginConstants.OperationCodes.WIPE_DATA},
+                {PluginConstants.OperationCodes.DEVICE_REBOOT}
+        };
+    }
+
+    @Test(dataProvider = "executeCommands")
+    public void testExecuteCommand(String operationCode) throws Exception {
+        SyncmlBody body = reply(false, newOperation(7, Operation.Type.COMMAND, operationCode, null));
+        Assert.assertEquals(body.getExec().size(), 1);
+        ExecuteTag exec = body.getExec().get(0);
+        Assert.assertEquals(exec.getCommandId(), 7);
+        ItemTag item = exec.getItems().get(0);
+        Assert.assertEquals(item.getTarget().getLocURI(), OperationCode.Command.forName(operationCode).getCode());
+        if (PluginConstants.OperationCodes.DISENROLL.equals(operationCode)) {
+            Assert.assertEquals(item.getData(), Constants.PROVIDER_ID);
+        } else {
+            Assert.assertNull(item.getData());
+        }
+    }
+
+    @Test
+    public void testLockReset() throws Exception {
+        SyncmlBody body = reply(false, newOperation(7, Operation.Type.COMMAND,
+                                                    PluginConstants.OperationCodes.LOCK_RESET, null));
+        SequenceTag sequence = body.getSequence();
+        Assert.assertEquals(sequence.getCommandId(), 7);
+        Assert.assertEquals(sequence.getExec().getItems().get(0).getTarget().getLocURI(),
+                            OperationCode.Command.LOCK_RESET.getCode());
+        Assert.assertEquals(sequence.getGet().getItems().get(0).getTarget().getLocURI(),
+                            OperationCode.Info.LOCK_PIN.getCode());
+        Assert.assertTrue(body.getExec().isEmpty());
+    }
+
+    @Test
+    public void testDeviceLocation() throws Exception {
+        SyncmlBody body = reply(false, newOperation(7, Operation.Type.COMMAND,
+                                                    PluginConstants.OperationCodes.DEVICE_LOCATION, null));
+        Assert.assertEquals(locUris(body.getGet().getItems()), Arrays.asList(
+                OperationCode.Info.LATITUDE.getCode(), OperationCode.Info.LONGITUDE.getCode()));
+    }
+
+    @Test
+    public void testDeviceInfo() throws Exception {
+        Operation deviceInfo = newOperation(7, Operation.Type.COMMAND, PluginConstants.OperationCodes.DEVICE_INFO,
+                                            null);
+        List<String> expectedLocUris = new ArrayList<>();
+        for (Operation infoOperation : new HeartBeatDeviceInfo().getDeviceInfo()) {
+            expectedLocUris.add(OperationCode.Info.forName(infoOperation.getCode()).getCode());
+        }
+        Assert.assertEquals(locUris(reply(true, deviceInfo).getGet().getItems()), expectedLocUris);
+        // the device info is only requested along with the initial alert of a session.
+        Assert.assertNull(reply(false, deviceInfo).getGet().getItems());
+    }
+
+    @Test
+    public void testInfoOperations() throws Exception {
+        SyncmlBody body = reply(false,
+                                newOperation(7, Operation.Type.INFO, OperationCode.Info.SOFTWARE_VERSION.name(), null),
+                                newOperation(8, Operation.Type.INFO, PluginConstants.OperationCodes.LOCK_RESET, null));
+        Assert.assertEquals(locUris(body.getGet().getItems()), Arrays.asList(
+                OperationCode.Info.SOFTWARE_VERSION.getCode(), OperationCode.Info.LOCK_PIN.getCode()));
+    }
+
+    @Test
+    public void testUnknownCommand() throws Exception {
+        SyncmlBody body = reply(true, newOperation(7, Operation.Type.COMMAND, "UNKNOWN", null));
+        Assert.assertTrue(body.getExec().isEmpty());
+        Assert.assertNull(body.getSequence());
+        Assert.assertNull(body.getGet().getItems());
+    }
+
+    @Test
+    public void testPasscodePolicy() throws Exception {
+        Operation passcodePolicy = newOperation(0, Operation.Type.POLICY,
+                                                PluginConstants.OperationCodes.PASSCODE_POLICY,
+                                                PASSCODE_POLICY_PAYLOAD);
+        SyncmlBody body = reply(true, newOperation(7, Operation.Type.POLICY,
+                                                   PluginConstants.OperationCodes.POLICY_BUNDLE,
+                                                   Collections.singletonList(passcodePolicy)));
+        SequenceTag sequence = body.getSequence();
+        List<String> locUris = new ArrayList<>();
+        List<String> data = new ArrayList<>();
+        for (AddTag add : sequence.getAtomicTag().getAdds()) {
+            locUris.add(add.getItems().get(0).getTarget().getLocURI());
+            data.add(add.getItems().get(0).getData());
+        }
+        Assert.assertEquals(locUris, Arrays.asList(
+                OperationCode.Configure.PASSWORD_MAX_FAIL_ATTEMPTS.getCode(),
+                OperationCode.Configure.DEVICE_PASSWORD_ENABLE.getCode(),
+                OperationCode.Configure.SIMPLE_PASSWORD.getCode(),
+                OperationCode.Configure.MIN_PASSWORD_LENGTH.getCode(),
+                OperationCode.Configure.ALPHANUMERIC_PASSWORD.getCode(),
+                OperationCode.Configure.PASSWORD_EXPIRE.getCode(),
+                OperationCode.Configure.PASSWORD_HISTORY.getCode(),
+                OperationCode.Configure.MAX_PASSWORD_INACTIVE_TIME.getCode(),
+                OperationCode.Configure.MIN_PASSWORD_COMPLEX_CHARACTERS.getCode()));
+        // an enabled password is reported by the device as a negative DevicePasswordEnabled value.
+        Assert.assertEquals(data, Arrays.asList("5", Constants.SyncMLResponseCodes.NEGATIVE_CSP_DATA,
+                                                Constants.SyncMLResponseCodes.POSITIVE_CSP_DATA, "6",
+                                                Constants.SyncMLResponseCodes.NEGATIVE_CSP_DATA, "30", "3", "15", "2"));
+        Assert.assertEquals(sequence.getDeleteTag().getItems().get(0).getTarget().getLocURI(),
+                            OperationCode.Command.DEVICE_PASSCODE_DELETE.getCode());
+    }
+
+    static SyncmlDocument newRequest(boolean initialAlert) {
+        SyncmlHeader header = new SyncmlHeader();
+        header.setMsgID(3);
+        header.setSessionId(42);
+        SourceTag source = new SourceTag();
+        source.setLocURI("1A2B3C4D");
+        header.setSource(source);
+        TargetTag target = new TargetTag();
+        target.setLocURI("https://emm/api/device-mgt/windows/v1.0/management/devicemgt/pending-operations");
+        header.setTarget(target);
+        StatusTag headerStatus = new StatusTag();
+        headerStatus.setCommand("SyncHdr");
+        SyncmlBody body = new SyncmlBody();
+        body.setStatus(new ArrayList<>(Arrays.asList(headerStatus)));
+        if (initialAlert) {
+            AlertTag alert = new AlertTag();
+            alert.setCommandId(2);
+            alert.setData(Constants.INITIAL_ALERT_DATA);
+            body.setAlert(alert);
+        }
+        SyncmlDocument document = new SyncmlDocument();
+        document.setHeader(header);
+        document.setBody(body);
+        return document;
+    }
+
+    static Operation newOperation(int id, Operation.Type type, String code, Object payload) {
+        Operation operation = new Operation();
+        operation.setId(id);
+        operation.setType(type);
+        operation.setCode(code);
+        operation.setPayLoad(payload);
+        return operation;
+    }
+
+    private static SyncmlBody reply(boolean initialAlert, Operation... operations) throws Exception {
+        return new OperationReply(newRequest(initialAlert), Arrays.asList(operations)).generateReply().getBody();
+    }
+
+    private static List<String> locUris(List<ItemTag> items) {
+        List<String> locUris = new ArrayList<>();
+        for (ItemTag item : items) {
+            locUris.add(item.getTarget().getLocURI());
+        }
+        return locUris;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.operations.util;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.device.mgt.mobile.windows.api.common.util.WindowsAPIUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the reads and writes of the pending operations of a device with a long operation queue.
+ */
+public class PendingOperationSnapshotTestCase {
+
+    private static final int QUEUED_OPERATION_COUNT = 200;
+
+    private final DeviceIdentifier deviceIdentifier = WindowsAPIUtils.convertToDeviceIdentifierObject("1A2B3C4D");
+    private List<Operation> queuedOperations;
+    private List<Operation> writtenOperations;
+    private int readCount;
+    private DeviceManagementProviderService deviceManagementService;
+
+    @BeforeMethod
+    public void setUp() {
+        queuedOperations = new ArrayList<>();
+        for (int i = 1; i <= QUEUED_OPERATION_COUNT; i++) {
+            Operation operation = new Operation();
+            operation.setId(i);
+            operation.setCode("CODE_" + i);
+            operation.setStatus(Operation.Status.PENDING);
+            queuedOperations.add(operation);
+        }
+        writtenOperations = new ArrayList<>();
+        readCount = 0;
+        deviceManagementService = (DeviceManagementProviderService) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class[]{DeviceManagementProviderService.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "getOperationsByDeviceAndStatus":
+                                Assert.assertEquals(args[1], Operation.Status.PENDING);
+                                readCount++;
+                                return queuedOperations;
+                            case "updateOperation":
+                                Assert.assertEquals(args[0], deviceIdentifier);
+                                writtenOperations.add((Operation) args[1]);
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    @Test
+    public void testOnlyChangedOperationsAreWritten() throws Exception {
+        PendingOperationSnapshot snapshot = PendingOperationSnapshot.load(deviceManagementService, deviceIdentifier);
+        // one status per command the device answered, each matched against the operations still pending.
+        for (int commandReference : new int[]{3, 50, 200}) {
+            for (Operation operation : snapshot.getPendingOperations()) {
+                if (operation.getId() == commandReference) {
+                    operation.setStatus(Operation.Status.COMPLETED);
+                }
+            }
+        }
+        snapshot.getPendingOperations().get(0).setStatus(Operation.Status.ERROR);
+        snapshot.flush();
+
+        Assert.assertEquals(readCount, 1);
+        Assert.assertEquals(writtenOperations.size(), 4);
+        Assert.assertEquals(writtenOperations.get(0).getId(), 1);
+        Assert.assertEquals(writtenOperations.get(0).getStatus(), Operation.Status.ERROR);
+        Assert.assertEquals(writtenOperations.get(1).getId(), 3);
+        Assert.assertEquals(writtenOperations.get(2).getId(), 50);
+        Assert.assertEquals(writtenOperations.get(3).getId(), 200);
+    }
+
+    @Test
+    public void testFlushWithoutChangesWritesNothing() throws Exception {
+        PendingOperationSnapshot snapshot = PendingOperationSnapshot.load(deviceManagementService, deviceIdentifier);
+        Assert.assertEquals(snapshot.getPendingOperations().size(), QUEUED_OPERATION_COUNT);
+        snapshot.flush();
+        Assert.assertEquals(writtenOperations.size(), 0);
+    }
+
+    @Test
+    public void testWrittenOperationsAreNotWrittenAgain() throws Exception {
+        PendingOperationSnapshot snapshot = PendingOperationSnapshot.load(deviceManagementService, deviceIdentifier);
+        queuedOperations.get(0).setStatus(Operation.Status.COMPLETED);
+        Assert.assertEquals(snapshot.getPendingOperations().size(), QUEUED_OPERATION_COUNT - 1);
+        snapshot.flush();
+        snapshot.flush();
+        Assert.assertEquals(writtenOperations.size(), 1);
+        Assert.assertEquals(snapshot.getPendingOperations().size(), QUEUED_OPERATION_COUNT - 1);
+    }
+
+    @Test
+    public void testDeviceWithoutPendingOperations() throws Exception {
+        queuedOperations = null;
+        PendingOperationSnapshot snapshot = PendingOperationSnapshot.load(deviceManagementService, deviceIdentifier);
+        Assert.assertTrue(snapshot.getPendingOperations().isEmpty());
+        snapshot.flush();
+        Assert.assertEquals(writtenOperations.size(), 0);
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.operations.util;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.AddTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.AlertTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.AtomicTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.DeleteTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.ExecuteTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.GetTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.ItemTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.MetaTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.ReplaceTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.ResultsTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SequenceTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SourceTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.StatusTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlBody;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlDocument;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlHeader;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.TargetTag;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the generated payloads with the golden files under src/test/resources/syncml, which hold the replies as
+ * sent to the devices. Besides the status and mixed operation replies, there is a reply for each type of
+ * {@link OperationCode}, holding every code of the type, and a device message with the alert and results elements.
+ */
+public class SyncmlGeneratorTestCase {
+
+    private static final int THREAD_COUNT = 16;
+    private static final int PAYLOADS_PER_THREAD = 200;
+
+    @DataProvider(name = "goldenPayloads")
+    public Object[][] goldenPayloads() {
+        return new Object[][]{
+                {"status-reply.xml", newStatusReply()},
+                {"operations-reply.xml", newOperationsReply()},
+                {"info-reply.xml", newInfoReply()},
+                {"command-reply.xml", newCommandReply()},
+                {"configure-reply.xml", newConfigureReply()},
+                {"alert-results.xml", newAlertResults()}
+        };
+    }
+
+    @Test(dataProvider = "goldenPayloads")
+    public void testGoldenPayload(String goldenFile, SyncmlDocument document) throws Exception {
+        Assert.assertEquals(SyncmlGenerator.generatePayload(document), readGoldenFile(goldenFile));
+    }
+
+    @Test
+    public void testConcurrentGeneration() throws Exception {
+        final Object[][] goldenPayloads = goldenPayloads();
+        final String[] expectedPayloads = new String[goldenPayloads.length];
+        for (int i = 0; i < goldenPayloads.length; i++) {
+            expectedPayloads[i] = readGoldenFile((String) goldenPayloads[i][0]);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREAD_COUNT; thread++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int i = 0; i < PAYLOADS_PER_THREAD; i++) {
+                            int index = i % expectedPayloads.length;
+                            SyncmlDocument document = (SyncmlDocument) goldenPayloads()[index][1];
+                            Assert.assertEquals(SyncmlGenerator.generatePayload(document), expectedPayloads[index]);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGenerationAfterClearingPools() throws Exception {
+        SyncmlGenerator.generatePayload(newStatusReply());
+        SyncmlGenerator.clearPools();
+        Assert.assertEquals(SyncmlGenerator.generatePayload(newStatusReply()), readGoldenFile("status-reply.xml"));
+    }
+
+    private static SyncmlDocument newStatusReply() {
+        SyncmlBody body = new SyncmlBody();
+        body.setStatus(new ArrayList<>(Arrays.asList(newStatus(1, 1, 0, "SyncHdr", "200"),
+                                                     newStatus(2, 1, 2, "Alert", "200"))));
+        return newDocument(newHeader(1), body);
+    }
+
+    private static SyncmlDocument newOperationsReply() {
+        SyncmlBody body = new SyncmlBody();
+        body.setStatus(new ArrayList<>(Arrays.asList(newStatus(1, 2, 0, "SyncHdr", "200"))));
+
+        GetTag get = new GetTag();
+        get.setCommandId(2);
+        get.setItems(Arrays.asList(newItem("./DevInfo/Man", null), newItem("./DevDetail/SwV", null)));
+        body.setGet(get);
+
+        ExecuteTag execute = new ExecuteTag();
+        execute.setCommandId(3);
+        execute.setItems(Arrays.asList(newItem("./Vendor/MSFT/RemoteLock/Lock", null)));
+        body.setExec(new ArrayList<>(Arrays.asList(execute)));
+
+        ReplaceTag replace = new ReplaceTag();
+        replace.setCommandId(5);
+        replace.setItems(Arrays.asList(newItem("./Vendor/MSFT/Policy/Config/Camera/AllowCamera", "0 & <1>")));
+        DeleteTag delete = new DeleteTag();
+        delete.setCommandId(8);
+        delete.setItems(Arrays.asList(newItem("./Vendor/MSFT/Policy/Config/Browser/AllowCookies", null)));
+        SequenceTag sequence = new SequenceTag();
+        sequence.setCommandId(4);
+        sequence.setReplaces(Arrays.asList(replace));
+        sequence.setDeleteTag(delete);
+        body.setSequence(sequence);
+
+        AddTag add = new AddTag();
+        add.setCommandId(7);
+        add.setItems(Arrays.asList(newItem("./Vendor/MSFT/EnterpriseModernAppManagement/AppInstallation",
+                                           "<Application PackageUri=\"https://store/app.appx\"/>")));
+        AtomicTag atomic = new AtomicTag();
+        atomic.setCommandId(6);
+        atomic.setAdds(Arrays.asList(add));
+        atomic.setReplaces(Arrays.asList(replace));
+        body.setAtomicTag(atomic);
+        return newDocument(newHeader(2), body);
+    }
+
+    /**
+     * Gets every device detail, as the operations of type {@link OperationCode.Info} are sent.
+     */
+    private static SyncmlDocument newInfoReply() {
+        SyncmlBody body = new SyncmlBody();
+        body.setStatus(new ArrayList<>(Arrays.asList(newStatus(1, 3, 0, "SyncHdr", "200"))));
+        List<ItemTag> items = new ArrayList<>();
+        for (OperationCode.Info info : OperationCode.Info.values()) {
+            items.add(newItem(info.getCode(), null));
+        }
+        GetTag get = new GetTag();
+        get.setCommandId(2);
+        get.setItems(items);
+        body.setGet(get);
+        return newDocument(newHeader(3), body);
+    }
+
+    /**
+     * Executes every command, as the operations of type {@link OperationCode.Command} are sent, with the policy
+     * commands replaced instead.
+     */
+    private static SyncmlDocument newCommandReply() {
+        SyncmlBody body = new SyncmlBody();
+        body.setStatus(new ArrayList<>(Arrays.asList(newStatus(1, 4, 0, "SyncHdr", "200"))));
+        List<ExecuteTag> executes = new ArrayList<>();
+        int commandId = 2;
+        for (OperationCode.Command command : OperationCode.Command.values()) {
+            ItemTag item = OperationCode.Command.DISENROLL == command ?
+                    newItem(command.getCode(), Constants.PROVIDER_ID) : newItem(command.getCode(), null);
+            ExecuteTag execute = new ExecuteTag();
+            execute.setCommandId(commandId++);
+            execute.setItems(Arrays.asList(item));
+            executes.add(execute);
+        }
+        body.setExec(executes);
+
+        ReplaceTag replace = new ReplaceTag();
+        replace.setCommandId(commandId);
+        replace.setItems(Arrays.asList(newItem(OperationCode.Command.CAMERA.getCode(), "0", Constants.META_FORMAT_INT),
+                                       newItem(OperationCode.Command.ENCRYPT_STORAGE.getCode(), "1",
+                                               Constants.META_FORMAT_INT)));
+        body.setReplace(replace);
+        return newDocument(newHeader(4), body);
+    }
+
+    /**
+     * Adds every configuration in a single atomic command, as the operations of type {@link OperationCode.Configure}
+     * are sent.
+     */
+    private static SyncmlDocument newConfigureReply() {
+        SyncmlBody body = new SyncmlBody();
+        body.setStatus(new ArrayList<>(Arrays.asList(newStatus(1, 5, 0, "SyncHdr", "200"))));
+        List<AddTag> adds = new ArrayList<>();
+        int commandId = 3;
+        for (OperationCode.Configure configure : OperationCode.Configure.values()) {
+            ItemTag item;
+            if (OperationCode.Configure.WIFI == configure) {
+                item = newItem(configure.getCode(), "<?xml version=\"1.0\"?><WLANProfile><name>caf\u00e9 & guests" +
+                        "</name></WLANProfile>");
+            } else {
+                item = newItem(configure.getCode(), String.valueOf(commandId), Constants.META_FORMAT_INT);
+            }
+            AddTag add = new AddTag();
+            add.setCommandId(commandId++);
+            add.setItems(Arrays.asList(item));
+            adds.add(add);
+        }
+        AtomicTag atomic = new AtomicTag();
+        atomic.setCommandId(2);
+        atomic.setAdds(adds);
+        body.setAtomicTag(atomic);
+        return newDocument(newHeader(5), body);
+    }
+
+    /**
+     * Alerts the server and returns the results of a get, as the devices do.
+     */
+    private static SyncmlDocument newAlertResults() {
+        SyncmlBody body = new SyncmlBody();
+        body.setStatus(new ArrayList<>(Arrays.asList(newStatus(1, 6, 0, "SyncHdr", "200"))));
+        AlertTag alert = new AlertTag();
+        alert.setCommandId(2);
+        alert.setData(Constants.INITIAL_ALERT_DATA);
+        body.setAlert(alert);
+
+        ItemTag item = new ItemTag();
+        SourceTag source = new SourceTag();
+        source.setLocURI(OperationCode.Info.DEVICE_NAME.getCode());
+        item.setSource(source);
+        item.setData("Lumia <950> & co");
+        ResultsTag results = new ResultsTag();
+        results.setCommandId(3);
+        results.setMessageReference(5);
+        results.setCommandReference(2);
+        results.setItem(Arrays.asList(item));
+        body.setResults(results);
+        return newDocument(newHeader(6), body);
+    }
+
+    private static SyncmlHeader newHeader(int msgId) {
+        SyncmlHeader header = new SyncmlHeader();
+        header.setMsgID(msgId);
+        header.setSessionId(26);
+        header.setHexadecimalSessionId(Integer.toHexString(26));
+        TargetTag target = new TargetTag();
+        target.setLocURI("1A2B3C4D");
+        header.setTarget(target);
+        SourceTag source = new SourceTag();
+        source.setLocURI("https://emm/api/device-mgt/windows/v1.0/management/devicemgt/pending-operations");
+        header.setSource(source);
+        return header;
+    }
+
+    private static StatusTag newStatus(int commandId, int msgRef, int commandRef, String command, String data) {
+        StatusTag status = new StatusTag();
+        status.setCommandId(commandId);
+        status.setMessageReference(msgRef);
+        status.setCommandReference(commandRef);
+        status.setCommand(command);
+        status.setData(data);
+        return status;
+    }
+
+    private static ItemTag newItem(String locUri, String data) {
+        return newItem(locUri, data, Constants.META_FORMAT_CHARACTER);
+    }
+
+    private static ItemTag newItem(String locUri, String data, String format) {
+        ItemTag item = new ItemTag();
+        TargetTag target = new TargetTag();
+        target.setLocURI(locUri);
+        item.setTarget(target);
+        if (data != null) {
+            MetaTag meta = new MetaTag();
+            meta.setFormat(format);
+            item.setMeta(meta);
+            item.setData(data);
+        }
+        return item;
+    }
+
+    private static SyncmlDocument newDocument(SyncmlHeader header, SyncmlBody body) {
+        SyncmlDocument document = new SyncmlDocument();
+        document.setHeader(header);
+        document.setBody(body);
+        return document;
+    }
+
+    private static String readGoldenFile(String name) throws IOException {
+        InputStream stream = SyncmlGeneratorTestCase.class.getResourceAsStream("/syncml/" + name);
+        Assert.assertNotNull(stream, "Missing golden file " + name);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            stream.close();
+        }
+    }
+}
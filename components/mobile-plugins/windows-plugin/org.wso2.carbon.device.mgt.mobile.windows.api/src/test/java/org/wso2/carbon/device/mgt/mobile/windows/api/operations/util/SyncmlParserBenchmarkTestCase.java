@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.operations.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the SyncML parser against building a DOM of the same requests, which is the least the DOM based parser it
+ * replaced had to do for every request. The rates are logged for comparison, and are not asserted since they depend
+ * on the build machine.
+ */
+public class SyncmlParserBenchmarkTestCase {
+
+    private static final Log log = LogFactory.getLog(SyncmlParserBenchmarkTestCase.class);
+
+    private static final int PAYLOAD_COUNT = 100;
+    private static final int WARM_UP_ITERATIONS = 1000;
+    private static final int ITERATIONS = 2000;
+    private static final int THREAD_COUNT = 4;
+
+    @Test
+    public void testParseThroughput() throws Exception {
+        final byte[][] payloads = new byte[PAYLOAD_COUNT][];
+        for (int i = 0; i < PAYLOAD_COUNT; i++) {
+            payloads[i] = SyncmlParserTestCase.payload(i, 2 + i % 5, 10 + i % 17).getBytes(StandardCharsets.UTF_8);
+        }
+        Parser syncmlParser = new Parser() {
+            @Override
+            public Object parse(byte[] payload) throws Exception {
+                return SyncmlParser.parseSyncmlPayload(new ByteArrayInputStream(payload));
+            }
+        };
+        Parser domParser = new Parser() {
+            @Override
+            public Object parse(byte[] payload) throws Exception {
+                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                factory.setNamespaceAware(true);
+                DocumentBuilder builder = factory.newDocumentBuilder();
+                Document document = builder.parse(new ByteArrayInputStream(payload));
+                return document.getDocumentElement();
+            }
+        };
+        run(syncmlParser, payloads, WARM_UP_ITERATIONS, 1);
+        run(domParser, payloads, WARM_UP_ITERATIONS, 1);
+        for (int threadCount : new int[]{1, THREAD_COUNT}) {
+            double syncmlRate = run(syncmlParser, payloads, ITERATIONS, threadCount);
+            double domRate = run(domParser, payloads, ITERATIONS, threadCount);
+            log.info(String.format("SyncML requests parsed per second with %d threads : %.0f, DOM : %.0f",
+                                   threadCount, syncmlRate, domRate));
+        }
+    }
+
+    /**
+     * @return the number of payloads parsed per second.
+     */
+    private static double run(final Parser parser, final byte[][] payloads, final int iterations, int threadCount)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < threadCount; thread++) {
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int i = 0; i < iterations; i++) {
+                            Assert.assertNotNull(parser.parse(payloads[i % payloads.length]));
+                        }
+                        return null;
+                    }
+                });
+            }
+            long start = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            return (double) iterations * threadCount * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Parser {
+
+        Object parse(byte[] payload) throws Exception;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.api.operations.util;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.mobile.windows.api.common.exceptions.SyncmlMessageFormatException;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.ItemTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.ResultsTag;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlBody;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlDocument;
+import org.wso2.carbon.device.mgt.mobile.windows.api.operations.SyncmlHeader;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SyncmlParserTestCase {
+
+    private static final int THREAD_COUNT = 16;
+    private static final int MESSAGES_PER_THREAD = 1000;
+
+    @Test
+    public void testParse() throws Exception {
+        assertDocument(parse(payload(7, 3, 12)), 7, 3, 12);
+    }
+
+    @Test
+    public void testConcurrentReplay() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREAD_COUNT; thread++) {
+                final int firstDevice = thread * MESSAGES_PER_THREAD;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+                            int device = firstDevice + i;
+                            int msgId = 2 + i % 5;
+                            int commandId = 10 + i % 17;
+                            assertDocument(parse(payload(device, msgId, commandId)), device, msgId, commandId);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @DataProvider(name = "malformedPayloads")
+    public Object[][] malformedPayloads() {
+        return new Object[][]{
+                {"<SyncML><SyncHdr><MsgID>1</MsgID></SyncHdr></SyncML>"},
+                {"<SyncML><SyncHdr><MsgID>x</MsgID><SessionID>1</SessionID></SyncHdr><SyncBody/></SyncML>"},
+                {"<SyncML><SyncHdr><MsgID>1</MsgID><SessionID>1</SessionID></SyncHdr></SyncML>"},
+                {"<!DOCTYPE x [<!ENTITY e SYSTEM \"file:///etc/passwd\">]><SyncML>&e;</SyncML>"},
+                {"not xml"}
+        };
+    }
+
+    @Test(dataProvider = "malformedPayloads", expectedExceptions = SyncmlMessageFormatException.class)
+    public void testMalformedPayload(String payload) throws Exception {
+        parse(payload);
+    }
+
+    static SyncmlDocument parse(String payload) throws SyncmlMessageFormatException {
+        return SyncmlParser.parseSyncmlPayload(new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Builds a request of the given device as sent by Windows agents, answering the previous message of the session.
+     */
+    static String payload(int device, int msgId, int commandId) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<SyncML xmlns=\"SYNCML:SYNCML1.2\">\n"
+                + "  <SyncHdr>\n"
+                + "    <VerDTD>1.2</VerDTD>\n"
+                + "    <VerProto>DM/1.2</VerProto>\n"
+                + "    <SessionID>" + Integer.toHexString(device + 2) + "</SessionID>\n"
+                + "    <MsgID>" + msgId + "</MsgID>\n"
+                + "    <Target><LocURI>https://emm/api/device-mgt/windows/v1.0/management/devicemgt/pending-operations"
+                + "</LocURI></Target>\n"
+                + "    <Source><LocURI>DEV" + device + "</LocURI><LocName>user" + device + "</LocName></Source>\n"
+                + "    <Cred><Meta><Format xmlns=\"syncml:metinf\">b64</Format>"
+                + "<Type xmlns=\"syncml:metinf\">syncml:auth-md5</Type></Meta><Data>token" + device + "</Data></Cred>\n"
+                + "  </SyncHdr>\n"
+                + "  <SyncBody>\n"
+                + "    <Status><CmdID>1</CmdID><MsgRef>" + (msgId - 1) + "</MsgRef><CmdRef>0</CmdRef>"
+                + "<Cmd>SyncHdr</Cmd><Data>200</Data></Status>\n"
+                + "    <Results><CmdID>" + commandId + "</CmdID><MsgRef>" + (msgId - 1) + "</MsgRef>"
+                + "<CmdRef>" + (commandId + 7) + "</CmdRef>\n"
+                + "      <Item><Source><LocURI>./DevInfo/Man</LocURI></Source>"
+                + "<Meta><Format xmlns=\"syncml:metinf\">chr</Format></Meta><Data>Vendor " + device + "</Data></Item>\n"
+                + "      <Item><Source><LocURI>./DevInfo/Mod</LocURI></Source>"
+                + "<Data><![CDATA[Model <" + device + ">]]></Data></Item>\n"
+                + "    </Results>\n"
+                + "    <Alert><CmdID>3</CmdID><Data>1201</Data></Alert>\n"
+                + "    <Replace><CmdID>4</CmdID><Item><Source><LocURI>./DevInfo/DevId</LocURI></Source>"
+                + "<Data>id" + device + "</Data></Item></Replace>\n"
+                + "    <Final/>\n"
+                + "  </SyncBody>\n"
+                + "</SyncML>";
+    }
+
+    private static void assertDocument(SyncmlDocument document, int device, int msgId, int commandId) {
+        SyncmlHeader header = document.getHeader();
+        Assert.assertEquals(header.getSessionId(), device + 2);
+        Assert.assertEquals(header.getMsgID(), msgId);
+        Assert.assertEquals(header.getSource().getLocURI(), "DEV" + device);
+        Assert.assertEquals(header.getSource().getLocName(), "user" + device);
+        Assert.assertEquals(header.getCredential().getData(), "token" + device);
+        Assert.assertEquals(header.getCredential().getMeta().getFormat(), "b64");
+
+        SyncmlBody body = document.getBody();
+        Assert.assertEquals(body.getStatus().size(), 1);
+        Assert.assertEquals(body.getStatus().get(0).getMessageReference(), msgId - 1);
+        Assert.assertEquals(body.getStatus().get(0).getCommand(), "SyncHdr");
+
+        ResultsTag results = body.getResults();
+        Assert.assertEquals(results.getCommandId(), commandId);
+        Assert.assertEquals(results.getCommandReference(), commandId + 7);
+        Assert.assertEquals(results.getMessageReference(), msgId - 1);
+        List<ItemTag> items = results.getItem();
+        Assert.assertEquals(items.size(), 2);
+        Assert.assertEquals(items.get(0).getData(), "Vendor " + device);
+        Assert.assertEquals(items.get(1).getSource().getLocURI(), "./DevInfo/Mod");
+        Assert.assertEquals(items.get(1).getData(), "Model <" + device + ">");
+
+        Assert.assertEquals(body.getAlert().getCommandId(), 3);
+        Assert.assertEquals(body.getAlert().getData(), "1201");
+        Assert.assertEquals(body.getReplace().getCommandId(), 4);
+        Assert.assertEquals(body.getReplace().getItems().get(0).getData(), "id" + device);
+    }
+}
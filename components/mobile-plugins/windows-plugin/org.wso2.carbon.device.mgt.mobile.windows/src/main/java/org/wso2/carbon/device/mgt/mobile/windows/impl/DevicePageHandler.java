@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.impl;
+
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+
+import java.util.List;
+
+/**
+ * Processes the Windows devices one page at a time, so that the whole fleet is never held in memory.
+ */
+public interface DevicePageHandler {
+
+    /**
+     * @param devices devices of the page, ordered by device id.
+     * @return true to fetch the next page, false to stop.
+     * @throws DeviceManagementException if the devices cannot be processed, which stops the iteration.
+     */
+    boolean handle(List<Device> devices) throws DeviceManagementException;
+
+}
@@ -53,6 +53,7 @@ public class WindowsDeviceManager implements DeviceManager {
     private LicenseManager licenseManager;
     private FeatureManager featureManager = new WindowsFeatureManager();
     private static final Log log = LogFactory.getLog(WindowsDeviceManagementService.class);
+    private static final int DEFAULT_PAGE_SIZE = 1000;
 
     public WindowsDeviceManager() {
         this.daoFactory = new WindowsDAOFactory();
@@ -73,6 +74,13 @@ public class WindowsDeviceManager implements DeviceManager {
         }
     }
 
+    /**
+     * Reads the devices through the given DAO factory, without setting up the default license and features.
+     */
+    WindowsDeviceManager(AbstractMobileDeviceManagementDAOFactory daoFactory) {
+        this.daoFactory = daoFactory;
+    }
+
     @Override
     public FeatureManager getFeatureManager() {
         return featureManager;
@@ -200,27 +208,60 @@ public class WindowsDeviceManager implements DeviceManager {
     }
 
     public List<Device> getAllDevices() throws DeviceManagementException {
-        List<Device> devices = null;
-        try {
-            if (log.isDebugEnabled()) {
-                log.debug("Fetching the details of all Windows devices");
-            }
-            WindowsDAOFactory.openConnection();
-            List<MobileDevice> mobileDevices = daoFactory.getMobileDeviceDAO().getAllMobileDevices();
-            if (mobileDevices != null) {
-                devices = new ArrayList<>(mobileDevices.size());
-                for (MobileDevice mobileDevice : mobileDevices) {
-                    devices.add(MobileDeviceManagementUtil.convertToDevice(mobileDevice));
-                }
-            }
-        } catch (MobileDeviceManagementDAOException e) {
-            throw new DeviceManagementException("Error occurred while fetching all Windows devices", e);
-        } finally {
-            WindowsDAOFactory.closeConnection();
+        if (log.isDebugEnabled()) {
+            log.debug("Fetching the details of all Windows devices");
         }
+        final List<Device> devices = new ArrayList<>();
+        this.processAllDevices(DEFAULT_PAGE_SIZE, true, new DevicePageHandler() {
+            @Override
+            public boolean handle(List<Device> page) {
+                devices.addAll(page);
+                return true;
+            }
+        });
         return devices;
     }
 
+    /**
+     * Passes all Windows devices to the handler, one page at a time. Each page is read with its own query
+     * continuing after the last device of the previous page, so no database cursor is held in between.
+     *
+     * @param pageSize    maximum number of devices in a page.
+     * @param withDetails whether to read the device info of the devices, which is the largest property.
+     * @param handler     handler of the pages.
+     * @throws DeviceManagementException if the devices cannot be read, or the handler fails.
+     */
+    public void processAllDevices(int pageSize, boolean withDetails, DevicePageHandler handler)
+            throws DeviceManagementException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive : " + pageSize);
+        }
+        String lastDeviceId = null;
+        List<MobileDevice> mobileDevices;
+        do {
+            try {
+                WindowsDAOFactory.openConnection();
+                mobileDevices = daoFactory.getMobileDeviceDAO().getMobileDevices(lastDeviceId, pageSize, withDetails);
+            } catch (MobileDeviceManagementDAOException e) {
+                throw new DeviceManagementException("Error occurred while fetching the Windows devices after '" +
+                        lastDeviceId + "'", e);
+            } finally {
+                WindowsDAOFactory.closeConnection();
+            }
+            if (mobileDevices.isEmpty()) {
+                return;
+            }
+            List<Device> devices = new ArrayList<>(mobileDevices.size());
+            for (MobileDevice mobileDevice : mobileDevices) {
+                devices.add(MobileDeviceManagementUtil.convertToDevice(mobileDevice));
+            }
+            lastDeviceId = mobileDevices.get(mobileDevices.size() - 1).getMobileDeviceId();
+            if (!handler.handle(devices)) {
+                return;
+            }
+        } while (mobileDevices.size() == pageSize);
+    }
+
     @Override
     public Device getDevice(DeviceIdentifier deviceId) throws DeviceManagementException {
         Device device = null;
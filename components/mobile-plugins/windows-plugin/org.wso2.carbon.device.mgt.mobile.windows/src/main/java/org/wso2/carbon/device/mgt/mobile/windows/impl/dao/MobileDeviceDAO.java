@@ -71,4 +71,18 @@ public interface MobileDeviceDAO {
 	 */
 	List<MobileDevice> getAllMobileDevices() throws MobileDeviceManagementDAOException;
 
+	/**
+	 * Fetches a page of MobileDevices from MDM database, ordered by device id. The next page
+	 * starts after the last device id of the previous one, so that no rows are skipped or
+	 * repeated if devices are added or removed in between.
+	 *
+	 * @param lastMblDeviceId Id of the last Mobile-Device of the previous page, or null for the first page.
+	 * @param pageSize        Maximum number of MobileDevices to fetch.
+	 * @param withDetails     Whether to fetch the device info, which is the largest column.
+	 * @return List of MobileDevices, which is shorter than the page size only for the last page.
+	 * @throws MobileDeviceManagementDAOException
+	 */
+	List<MobileDevice> getMobileDevices(String lastMblDeviceId, int pageSize, boolean withDetails)
+			throws MobileDeviceManagementDAOException;
+
 }
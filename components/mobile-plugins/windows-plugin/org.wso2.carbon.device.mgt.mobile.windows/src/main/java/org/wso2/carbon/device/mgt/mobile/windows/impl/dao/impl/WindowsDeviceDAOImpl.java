@@ -42,6 +42,17 @@ public class WindowsDeviceDAOImpl implements MobileDeviceDAO {
 
     private static final Log log = LogFactory.getLog(WindowsDeviceDAOImpl.class);
 
+    private static final String SELECT_DEVICE_QUERY =
+            "SELECT DEVICE_ID, CHANNEL_URI, DEVICE_INFO, IMEI, IMSI, OS_VERSION, DEVICE_MODEL, VENDOR, " +
+                    "LATITUDE, LONGITUDE, SERIAL, MAC_ADDRESS, DEVICE_NAME FROM WIN_DEVICE";
+
+    /**
+     * Selects all but the device info, for callers which do not need it.
+     */
+    private static final String SELECT_DEVICE_SUMMARY_QUERY =
+            "SELECT DEVICE_ID, CHANNEL_URI, IMEI, IMSI, OS_VERSION, DEVICE_MODEL, VENDOR, " +
+                    "LATITUDE, LONGITUDE, SERIAL, MAC_ADDRESS, DEVICE_NAME FROM WIN_DEVICE";
+
     @Override
     public MobileDevice getMobileDevice(String mblDeviceId) throws MobileDeviceManagementDAOException {
         Connection conn;
@@ -252,4 +263,60 @@ public class WindowsDeviceDAOImpl implements MobileDeviceDAO {
         }
     }
 
+    @Override
+    public List<MobileDevice> getMobileDevices(String lastMblDeviceId, int pageSize, boolean withDetails)
+            throws MobileDeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<MobileDevice> mobileDevices = new ArrayList<>(pageSize);
+        try {
+            conn = WindowsDAOFactory.getConnection();
+            String selectDBQuery = withDetails ? SELECT_DEVICE_QUERY : SELECT_DEVICE_SUMMARY_QUERY;
+            if (lastMblDeviceId != null) {
+                selectDBQuery += " WHERE DEVICE_ID > ?";
+            }
+            // the page is bounded through JDBC, as each supported database limits rows differently.
+            stmt = conn.prepareStatement(selectDBQuery + " ORDER BY DEVICE_ID");
+            stmt.setMaxRows(pageSize);
+            stmt.setFetchSize(pageSize);
+            if (lastMblDeviceId != null) {
+                stmt.setString(1, lastMblDeviceId);
+            }
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                MobileDevice mobileDevice = new MobileDevice();
+                mobileDevice.setMobileDeviceId(rs.getString(WindowsPluginConstants.DEVICE_ID));
+                mobileDevice.setImei(rs.getString(WindowsPluginConstants.IMEI));
+                mobileDevice.setImsi(rs.getString(WindowsPluginConstants.IMSI));
+                mobileDevice.setModel(rs.getString(WindowsPluginConstants.DEVICE_MODEL));
+                mobileDevice.setVendor(rs.getString(WindowsPluginConstants.VENDOR));
+                mobileDevice.setLatitude(rs.getString(WindowsPluginConstants.LATITUDE));
+                mobileDevice.setLongitude(rs.getString(WindowsPluginConstants.LONGITUDE));
+                mobileDevice.setSerial(rs.getString(WindowsPluginConstants.SERIAL));
+                mobileDevice.setOsVersion(rs.getString(WindowsPluginConstants.OS_VERSION));
+
+                Map<String, String> propertyMap = new HashMap<>();
+                propertyMap.put(WindowsPluginConstants.CHANNEL_URI, rs.getString(WindowsPluginConstants.CHANNEL_URI));
+                if (withDetails) {
+                    propertyMap.put(WindowsPluginConstants.DEVICE_INFO, rs.getString(WindowsPluginConstants.DEVICE_INFO));
+                }
+                propertyMap.put(WindowsPluginConstants.MAC_ADDRESS, rs.getString(WindowsPluginConstants.MAC_ADDRESS));
+                propertyMap.put(WindowsPluginConstants.DEVICE_NAME, rs.getString(WindowsPluginConstants.DEVICE_NAME));
+                mobileDevice.setDeviceProperties(propertyMap);
+                mobileDevices.add(mobileDevice);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(mobileDevices.size() + " Windows devices after '" + lastMblDeviceId + "' have been " +
+                        "fetched from Windows database.");
+            }
+            return mobileDevices;
+        } catch (SQLException e) {
+            throw new MobileDeviceManagementDAOException("Error occurred while fetching the Windows devices after '" +
+                    lastMblDeviceId + "'", e);
+        } finally {
+            MobileDeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+    }
+
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.mobile.windows.impl.dao.BaseWindowsDAOTest;
+import org.wso2.carbon.device.mgt.mobile.windows.impl.dao.MobileDeviceDAO;
+import org.wso2.carbon.device.mgt.mobile.windows.impl.dao.WindowsDAOFactory;
+import org.wso2.carbon.device.mgt.mobile.windows.impl.util.WindowsPluginConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class WindowsDeviceManagerTestCase extends BaseWindowsDAOTest {
+
+    @Test
+    public void testDevicesAreProcessedInPages() throws Exception {
+        addDevices(25);
+        RecordingPageHandler handler = new RecordingPageHandler(true);
+        newDeviceManager().processAllDevices(10, true, handler);
+        Assert.assertEquals(handler.pageSizes, Arrays.asList(10, 10, 5));
+        Assert.assertEquals(handler.deviceIds.size(), 25);
+        for (int i = 0; i < 25; i++) {
+            Assert.assertEquals(handler.deviceIds.get(i), getDeviceId(i));
+        }
+    }
+
+    @Test
+    public void testLastFullPageEndsTheIteration() throws Exception {
+        addDevices(20);
+        RecordingPageHandler handler = new RecordingPageHandler(true);
+        newDeviceManager().processAllDevices(10, true, handler);
+        // the empty page read after the last full one is not handed to the handler.
+        Assert.assertEquals(handler.pageSizes, Arrays.asList(10, 10));
+    }
+
+    @Test
+    public void testHandlerStopsTheIteration() throws Exception {
+        addDevices(25);
+        RecordingPageHandler handler = new RecordingPageHandler(false);
+        newDeviceManager().processAllDevices(10, true, handler);
+        Assert.assertEquals(handler.pageSizes, Arrays.asList(10));
+    }
+
+    @Test
+    public void testSummaryPagesSkipDeviceInfo() throws Exception {
+        addDevices(3);
+        RecordingPageHandler summaryHandler = new RecordingPageHandler(true);
+        newDeviceManager().processAllDevices(10, false, summaryHandler);
+        Assert.assertEquals(summaryHandler.devices.size(), 3);
+        for (Device device : summaryHandler.devices) {
+            Assert.assertEquals(getProperty(device, WindowsPluginConstants.CHANNEL_URI),
+                                "channel-" + device.getDeviceIdentifier());
+            Assert.assertNull(getProperty(device, WindowsPluginConstants.DEVICE_INFO));
+        }
+
+        RecordingPageHandler detailsHandler = new RecordingPageHandler(true);
+        newDeviceManager().processAllDevices(10, true, detailsHandler);
+        for (Device device : detailsHandler.devices) {
+            Assert.assertEquals(getProperty(device, WindowsPluginConstants.DEVICE_INFO), "{\"battery\":\"80\"}");
+        }
+    }
+
+    @Test
+    public void testGetAllDevices() throws Exception {
+        addDevices(25);
+        List<Device> devices = newDeviceManager().getAllDevices();
+        Assert.assertEquals(devices.size(), 25);
+        Assert.assertEquals(getProperty(devices.get(0), WindowsPluginConstants.DEVICE_INFO), "{\"battery\":\"80\"}");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonPositivePageSize() throws Exception {
+        newDeviceManager().processAllDevices(0, true, new RecordingPageHandler(true));
+    }
+
+    private static WindowsDeviceManager newDeviceManager() {
+        return new WindowsDeviceManager(new WindowsDAOFactory());
+    }
+
+    private static void addDevices(int count) throws Exception {
+        MobileDeviceDAO mobileDeviceDAO = new WindowsDAOFactory().getMobileDeviceDAO();
+        for (int i = count - 1; i >= 0; i--) {
+            Assert.assertTrue(mobileDeviceDAO.addMobileDevice(newMobileDevice(getDeviceId(i), "Lumia 950")));
+        }
+    }
+
+    /**
+     * Zero padded, so that the device ids sort in the order they are numbered.
+     */
+    private static String getDeviceId(int i) {
+        return String.format("device-%03d", i);
+    }
+
+    private static String getProperty(Device device, String name) {
+        for (Device.Property property : device.getProperties()) {
+            if (name.equals(property.getName())) {
+                return property.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static class RecordingPageHandler implements DevicePageHandler {
+        private final boolean fetchNextPage;
+        private final List<Integer> pageSizes = new ArrayList<>();
+        private final List<Device> devices = new ArrayList<>();
+        private final List<String> deviceIds = new ArrayList<>();
+
+        RecordingPageHandler(boolean fetchNextPage) {
+            this.fetchNextPage = fetchNextPage;
+        }
+
+        @Override
+        public boolean handle(List<Device> page) throws DeviceManagementException {
+            pageSizes.add(page.size());
+            devices.addAll(page);
+            for (Device device : page) {
+                deviceIds.add(device.getDeviceIdentifier());
+            }
+            return fetchNextPage;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.impl.dao;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.wso2.carbon.device.mgt.mobile.windows.impl.dto.MobileDevice;
+import org.wso2.carbon.device.mgt.mobile.windows.impl.util.WindowsPluginConstants;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Points the Windows DAO factory to an in-memory H2 database created from the plugin's H2 script, and empties
+ * WIN_DEVICE before each test.
+ */
+public abstract class BaseWindowsDAOTest {
+
+    private static final String DATASOURCE_URL = "jdbc:h2:mem:WIN_DB_TEST;DB_CLOSE_DELAY=-1";
+    private static final String SCRIPT_PATH = "./src/test/resources/sql/h2.sql";
+
+    private static JdbcDataSource dataSource;
+
+    @BeforeClass
+    public void initDataSource() throws SQLException {
+        if (dataSource == null) {
+            JdbcDataSource h2DataSource = new JdbcDataSource();
+            h2DataSource.setURL(DATASOURCE_URL);
+            h2DataSource.setUser("sa");
+            h2DataSource.setPassword("sa");
+            dataSource = h2DataSource;
+            execute("RUNSCRIPT FROM '" + SCRIPT_PATH + "'");
+        }
+        // a new WindowsDAOFactory keeps this data source, since its JNDI lookup fails outside of the server.
+        WindowsDAOFactory.dataSource = dataSource;
+    }
+
+    @BeforeMethod
+    public void clearDevices() throws SQLException {
+        execute("DELETE FROM WIN_DEVICE");
+    }
+
+    @AfterMethod
+    public void closeConnection() throws MobileDeviceManagementDAOException {
+        // closeConnection() fails without a connection, which the test may or may not have left open.
+        WindowsDAOFactory.getConnection();
+        WindowsDAOFactory.closeConnection();
+    }
+
+    protected static void execute(String sql) throws SQLException {
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement stmt = conn.createStatement();
+            stmt.execute(sql);
+            stmt.close();
+        } finally {
+            conn.close();
+        }
+    }
+
+    protected static MobileDevice newMobileDevice(String mblDeviceId, String model) {
+        MobileDevice mobileDevice = new MobileDevice();
+        mobileDevice.setMobileDeviceId(mblDeviceId);
+        mobileDevice.setModel(model);
+        mobileDevice.setVendor("vendor");
+        mobileDevice.setSerial("serial-" + mblDeviceId);
+        mobileDevice.setOsVersion("10.0");
+        mobileDevice.setImei("imei-" + mblDeviceId);
+        mobileDevice.setImsi("imsi-" + mblDeviceId);
+        mobileDevice.setLatitude("6.9");
+        mobileDevice.setLongitude("79.8");
+        mobileDevice.getDeviceProperties().put(WindowsPluginConstants.CHANNEL_URI, "channel-" + mblDeviceId);
+        mobileDevice.getDeviceProperties().put(WindowsPluginConstants.DEVICE_INFO, "{\"battery\":\"80\"}");
+        mobileDevice.getDeviceProperties().put(WindowsPluginConstants.DEVICE_NAME, "name-" + mblDeviceId);
+        return mobileDevice;
+    }
+}
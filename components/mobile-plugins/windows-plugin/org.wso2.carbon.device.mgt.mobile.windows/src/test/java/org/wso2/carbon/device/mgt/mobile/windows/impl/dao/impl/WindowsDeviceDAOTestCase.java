@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.mobile.windows.impl.dao.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.mobile.windows.impl.dao.BaseWindowsDAOTest;
+import org.wso2.carbon.device.mgt.mobile.windows.impl.dao.MobileDeviceDAO;
+import org.wso2.carbon.device.mgt.mobile.windows.impl.dto.MobileDevice;
+import org.wso2.carbon.device.mgt.mobile.windows.impl.util.WindowsPluginConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class WindowsDeviceDAOTestCase extends BaseWindowsDAOTest {
+
+    private final MobileDeviceDAO mobileDeviceDAO = new WindowsDeviceDAOImpl();
+
+    @Test
+    public void testDevicesArePagedByDeviceId() throws Exception {
+        for (int i = 4; i >= 0; i--) {
+            Assert.assertTrue(mobileDeviceDAO.addMobileDevice(newMobileDevice("device-" + i, "Lumia 950")));
+        }
+
+        List<MobileDevice> firstPage = mobileDeviceDAO.getMobileDevices(null, 2, true);
+        Assert.assertEquals(getDeviceIds(firstPage), Arrays.asList("device-0", "device-1"));
+        List<MobileDevice> secondPage = mobileDeviceDAO.getMobileDevices("device-1", 2, true);
+        Assert.assertEquals(getDeviceIds(secondPage), Arrays.asList("device-2", "device-3"));
+        List<MobileDevice> lastPage = mobileDeviceDAO.getMobileDevices("device-3", 2, true);
+        Assert.assertEquals(getDeviceIds(lastPage), Collections.singletonList("device-4"));
+        Assert.assertTrue(mobileDeviceDAO.getMobileDevices("device-4", 2, true).isEmpty());
+    }
+
+    @Test
+    public void testSummaryPageSkipsDeviceInfo() throws Exception {
+        Assert.assertTrue(mobileDeviceDAO.addMobileDevice(newMobileDevice("device-1", "Lumia 950")));
+
+        MobileDevice summary = mobileDeviceDAO.getMobileDevices(null, 10, false).get(0);
+        Assert.assertEquals(summary.getModel(), "Lumia 950");
+        Assert.assertEquals(summary.getImei(), "imei-device-1");
+        Assert.assertEquals(summary.getDeviceProperties().get(WindowsPluginConstants.CHANNEL_URI),
+                            "channel-device-1");
+        Assert.assertEquals(summary.getDeviceProperties().get(WindowsPluginConstants.DEVICE_NAME), "name-device-1");
+        Assert.assertFalse(summary.getDeviceProperties().containsKey(WindowsPluginConstants.DEVICE_INFO));
+
+        MobileDevice details = mobileDeviceDAO.getMobileDevices(null, 10, true).get(0);
+        Assert.assertEquals(details.getDeviceProperties().get(WindowsPluginConstants.DEVICE_INFO),
+                            "{\"battery\":\"80\"}");
+    }
+
+    private static List<String> getDeviceIds(List<MobileDevice> mobileDevices) {
+        List<String> ids = new ArrayList<>();
+        for (MobileDevice mobileDevice : mobileDevices) {
+            ids.add(mobileDevice.getMobileDeviceId());
+        }
+        return ids;
+    }
+}